@@ -0,0 +1,103 @@
+package com.music.application.be.config.cache;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.modules.song.dto.SongDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON cache serializer with {@link CompactCacheSerializer} on a cached page of
+ * twenty songs: time per write / read. The stored sizes are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompactCacheSerializerBenchmark {
+
+    private RedisSerializer<Object> json;
+    private RedisSerializer<Object> compact;
+    private PagedResponse<SongDTO> page;
+    private byte[] jsonBytes;
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        // Cùng cấu hình với RedisConfig.jsonCacheSerializer
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder().allowIfSubType(Object.class).build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+        json = new GenericJackson2JsonRedisSerializer(objectMapper);
+        compact = new CompactCacheSerializer(1024, List.of(PagedResponse.class, SongDTO.class));
+
+        List<SongDTO> songs = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            SongDTO song = new SongDTO();
+            song.setId(i);
+            song.setTitle("Song title " + i);
+            song.setDuration(200 + (int) i);
+            song.setAudioUrl("https://res.cloudinary.com/demo/video/upload/songs/audio_" + i + ".mp3");
+            song.setThumbnail("https://res.cloudinary.com/demo/image/upload/songs/thumb_" + i + ".jpg");
+            song.setThumbnailVariants(Map.of(
+                    "small", "https://res.cloudinary.com/demo/image/upload/songs/thumb_" + i + "_small.webp",
+                    "medium", "https://res.cloudinary.com/demo/image/upload/songs/thumb_" + i + "_medium.webp"));
+            song.setReleaseDate(LocalDate.of(2024, 1, 1).plusDays(i));
+            song.setViewCount((int) (i * 37));
+            song.setArtistId(3L);
+            song.setArtistName("Artist name");
+            song.setAlbumId(7L);
+            song.setAlbumName("Album name");
+            song.setGenreIds(new ArrayList<>(List.of(1L, 2L)));
+            songs.add(song);
+        }
+        page = new PagedResponse<>(songs, 0, 20, 400, 20, false);
+        jsonBytes = json.serialize(page);
+        compactBytes = compact.serialize(page);
+        System.out.println("Stored size: json " + jsonBytes.length + " B, compact " + compactBytes.length + " B");
+    }
+
+    @Benchmark
+    public byte[] writeJson() {
+        return json.serialize(page);
+    }
+
+    @Benchmark
+    public byte[] writeCompact() {
+        return compact.serialize(page);
+    }
+
+    @Benchmark
+    public Object readJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object readCompact() {
+        return compact.deserialize(compactBytes);
+    }
+}
@@ -0,0 +1,134 @@
+package com.music.application.be.modules.search;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type latency: {@link SuggestionIndex} against the database path it replaced, the
+ * four {@link FullTextSearchRepository} queries of a global search, on an embedded PostgreSQL with
+ * 50k songs. The queries are the prefixes a user types on the way to a catalog name. The target
+ * for {@code suggestFromIndex} is p99 &lt; 5 ms; sample mode reports the percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuggestionBenchmark {
+
+    private static final int SONGS = 50_000;
+    private static final int ARTISTS = 5_000;
+    private static final int ALBUMS = 10_000;
+    private static final int PLAYLISTS = 5_000;
+    private static final int LIMIT = 10;
+
+    private static final String[] WORDS = {
+            "anh", "em", "yêu", "nhớ", "mưa", "nắng", "hà", "nội", "sài", "gòn", "đêm", "ngày", "mùa", "thu",
+            "xuân", "hạ", "đông", "biển", "sông", "núi", "trăng", "sao", "gió", "mây", "tình", "buồn", "vui",
+            "love", "night", "summer", "rain", "heart", "dream", "light", "fire", "ocean", "city", "home",
+            "road", "sky", "blue", "red", "gold", "silver", "wild", "young", "forever", "again", "alone"
+    };
+
+    private EmbeddedPostgres postgres;
+    private SuggestionIndex suggestionIndex;
+    private FullTextSearchRepository fullTextSearchRepository;
+    private final List<String> queries = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        // Chỉ các cột mà search dùng; bảng thật do Hibernate tạo
+        jdbcTemplate.execute("CREATE TABLE songs (id bigint PRIMARY KEY, title varchar(255) NOT NULL, lyrics text)");
+        jdbcTemplate.execute("CREATE TABLE artists (id bigint PRIMARY KEY, name varchar(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE albums (id bigint PRIMARY KEY, name varchar(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE playlists (id bigint PRIMARY KEY, name varchar(255) NOT NULL, "
+                + "is_public boolean NOT NULL, created_by bigint NOT NULL)");
+
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        insert(jdbcTemplate, "INSERT INTO songs (id, title) VALUES (?, ?)", SONGS, random, names);
+        insert(jdbcTemplate, "INSERT INTO artists (id, name) VALUES (?, ?)", ARTISTS, random, names);
+        insert(jdbcTemplate, "INSERT INTO albums (id, name) VALUES (?, ?)", ALBUMS, random, names);
+        insert(jdbcTemplate, "INSERT INTO playlists (id, name, is_public, created_by) VALUES (?, ?, true, 1)", PLAYLISTS, random, names);
+
+        SearchIndexInitializer searchIndexInitializer = new SearchIndexInitializer(jdbcTemplate, null);
+        searchIndexInitializer.afterPropertiesSet();
+        if (!searchIndexInitializer.isAvailable()) {
+            throw new IllegalStateException("Full-text search objects could not be created");
+        }
+        jdbcTemplate.execute("ANALYZE");
+        fullTextSearchRepository = new FullTextSearchRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+        suggestionIndex = new SuggestionIndex(jdbcTemplate);
+        suggestionIndex.rebuild();
+
+        // Mọi prefix từ 1 ký tự tới hết tên, như khi gõ từng phím
+        for (int i = 0; i < 200; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            for (int length = 1; length <= name.length(); length++) {
+                if (name.charAt(length - 1) != ' ') {
+                    queries.add(name.substring(0, length));
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Benchmark
+    public Object suggestFromIndex() {
+        return suggestionIndex.suggest(nextQuery(), LIMIT);
+    }
+
+    @Benchmark
+    public Object searchDatabase() {
+        String query = nextQuery();
+        List<Long> ids = new ArrayList<>(fullTextSearchRepository.searchSongIds(query, LIMIT));
+        ids.addAll(fullTextSearchRepository.searchArtistIds(query, LIMIT));
+        ids.addAll(fullTextSearchRepository.searchAlbumIds(query, LIMIT));
+        ids.addAll(fullTextSearchRepository.searchPlaylistIds(query, LIMIT, null, false));
+        return ids;
+    }
+
+    // Benchmark chạy một thread, không cần đồng bộ
+    private String nextQuery() {
+        String query = queries.get(next);
+        next = (next + 1) % queries.size();
+        return query;
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String sql, int count, Random random, List<String> names) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            StringBuilder name = new StringBuilder();
+            int words = 1 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    name.append(' ');
+                }
+                String word = WORDS[random.nextInt(WORDS.length)];
+                name.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            }
+            names.add(name.toString());
+            rows.add(new Object[]{(long) id, name.toString()});
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+}
@@ -0,0 +1,82 @@
+package com.music.application.be.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Page size limit and totals for the cursor mode of list endpoints.
+ * <p>
+ * Cursor pages are read with a keyset condition and no {@code COUNT(*)}, so their cost does not
+ * grow with depth. Endpoints that still show a total use either {@link #cachedTotal}, an exact
+ * count shared by all nodes for a short TTL, or {@link #approximateTotal}, the row estimate the
+ * planner keeps for a whole table.
+ */
+@Component
+public class CursorPagination {
+
+    private static final String TOTAL_PREFIX = "page-totals:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxSize;
+    private final Duration totalTtl;
+
+    public CursorPagination(StringRedisTemplate redisTemplate,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${app.pagination.cursor.max-size:100}") int maxSize,
+                            @Value("${app.pagination.cursor.total-ttl:1m}") Duration totalTtl) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSize = maxSize;
+        this.totalTtl = totalTtl;
+    }
+
+    public void checkSize(int size) {
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxSize);
+        }
+    }
+
+    // Đếm chính xác một lần mỗi TTL, các trang sau của cùng danh sách dùng lại kết quả
+    public long cachedTotal(String key, LongSupplier count) {
+        try {
+            String cached = redisTemplate.opsForValue().get(TOTAL_PREFIX + key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Page total cache unavailable: " + e.getMessage());
+            return count.getAsLong();
+        }
+        long total = count.getAsLong();
+        try {
+            redisTemplate.opsForValue().set(TOTAL_PREFIX + key, Long.toString(total), totalTtl);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to cache page total: " + e.getMessage());
+        }
+        return total;
+    }
+
+    // Danh sách vừa thay đổi (thêm / xóa): lần đọc sau đếm lại thay vì chờ hết TTL
+    public void evictTotal(String key) {
+        try {
+            redisTemplate.delete(TOTAL_PREFIX + key);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to evict page total: " + e.getMessage());
+        }
+    }
+
+    // Ước lượng từ pg_class.reltuples (cập nhật bởi ANALYZE / autovacuum), không quét bảng
+    public long approximateTotal(String table) {
+        List<Long> rows = jdbcTemplate.queryForList(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?::text)", Long.class, table);
+        // reltuples = -1 khi bảng chưa từng được ANALYZE
+        return !rows.isEmpty() && rows.get(0) != null && rows.get(0) >= 0 ? rows.get(0) : PagedResponse.UNKNOWN;
+    }
+}
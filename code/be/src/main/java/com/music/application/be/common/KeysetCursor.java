@@ -0,0 +1,61 @@
+package com.music.application.be.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque cursors for keyset pagination.
+ * <p>
+ * A cursor holds the sort key of the last item of a page, e.g. {@code addedAt} and {@code id},
+ * so the next page is read with {@code WHERE (key) < (cursor) ORDER BY key LIMIT n} from an
+ * index instead of skipping {@code OFFSET} rows. The key is base64url encoded so clients treat it
+ * as a token rather than something to build themselves.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated.");
+    }
+
+    public static String encode(Object... keys) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                value.append(SEPARATOR);
+            }
+            value.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Splits a cursor back into its keys.
+     *
+     * @throws IllegalArgumentException if the cursor is not valid or has a different number of keys
+     */
+    public static String[] decode(String cursor, int keyCount) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] keys = value.split("\\" + SEPARATOR, -1);
+        if (keys.length != keyCount) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+
+    // Khóa giải mã được nhưng sai kiểu (vd. id không phải số) cũng là cursor không hợp lệ
+    public static <T> T parse(String key, Function<String, T> parser) {
+        try {
+            return parser.apply(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
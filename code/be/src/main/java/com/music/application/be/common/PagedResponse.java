@@ -6,14 +6,30 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * One page of a list endpoint.
+ * <p>
+ * In page mode ({@code ?page=}) every field is filled from a Spring {@code Page}. In cursor mode
+ * ({@code ?cursor=}, empty for the first page) the next page is requested with {@code nextCursor},
+ * {@code page} is {@link #UNKNOWN} and the totals are either a cached / approximate value or
+ * {@link #UNKNOWN}, because no {@code COUNT(*)} is run.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PagedResponse<T> {
+
+    public static final int UNKNOWN = -1;
+
     private List<T> content;
     private int page;
     private int size;
     private long totalElements;
     private int totalPages;
     private boolean last;
+    private String nextCursor; // chỉ có ở cursor mode, null nếu là trang cuối
+
+    public PagedResponse(List<T> content, int page, int size, long totalElements, int totalPages, boolean last) {
+        this(content, page, size, totalElements, totalPages, last, null);
+    }
 }
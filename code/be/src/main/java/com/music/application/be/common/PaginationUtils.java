@@ -1,9 +1,11 @@
 package com.music.application.be.common;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Utility class for building paginated responses.
@@ -43,5 +45,55 @@ public class PaginationUtils {
                 page.isLast()            // whether this is the last page
         );
     }
-}
 
+    /**
+     * Builds a cursor-mode {@link PagedResponse} from a {@link Slice}, which Spring Data reads with
+     * {@code LIMIT size + 1} and no count query.
+     *
+     * @param content  the items of the slice (typically DTOs)
+     * @param slice    the rows read after the previous cursor
+     * @param cursorOf builds the cursor of a row from its sort key
+     * @param total    a cached or approximate total, or {@link PagedResponse#UNKNOWN}
+     * @param <E>      the type of the rows in the slice
+     * @param <T>      the type of content in the page
+     * @return a PagedResponse whose nextCursor is null on the last page
+     * @throws IllegalArgumentException if the slice is null
+     */
+    public static <E, T> PagedResponse<T> buildCursorResponse(List<T> content, Slice<E> slice,
+                                                              Function<E, String> cursorOf, long total) {
+        if (slice == null) {
+            throw new IllegalArgumentException("Slice must not be null.");
+        }
+        String nextCursor = slice.hasNext() && slice.hasContent()
+                ? cursorOf.apply(slice.getContent().get(slice.getNumberOfElements() - 1))
+                : null;
+        return buildCursorResponse(content, slice.getSize(), nextCursor, total);
+    }
+
+    /**
+     * Builds a cursor-mode {@link PagedResponse} for pages that are not read through Spring Data.
+     *
+     * @param content    the items of the current page
+     * @param size       the requested page size
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     * @param total      a cached or approximate total, or {@link PagedResponse#UNKNOWN}
+     * @param <T>        the type of content in the page
+     * @return a PagedResponse in cursor mode
+     */
+    public static <T> PagedResponse<T> buildCursorResponse(List<T> content, int size, String nextCursor, long total) {
+        List<T> safeContent = (content == null) ? Collections.emptyList() : content;
+        int totalPages = total >= 0 && size > 0
+                ? (int) Math.ceil((double) total / size)
+                : PagedResponse.UNKNOWN;
+
+        return new PagedResponse<>(
+                safeContent,
+                PagedResponse.UNKNOWN, // cursor mode không có số trang
+                size,
+                total,
+                totalPages,
+                nextCursor == null,
+                nextCursor
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.music.application.be.common;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for accent-insensitive text matching.
+ */
+public class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TextNormalizer() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated.");
+    }
+
+    /**
+     * Lower-cases the text and strips diacritics, so "Hà Nội" and "ha noi" fold to the same value.
+     * The Vietnamese "đ" is not a combining mark and is mapped to "d" explicitly.
+     *
+     * @param text the text to fold, may be null
+     * @return the folded text, or an empty string for null input
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('\u0111', 'd');
+    }
+
+    /**
+     * Folds the text and splits it into words on anything that is not a letter or a digit.
+     *
+     * @param text the text to tokenize, may be null
+     * @return the folded words in their original order
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
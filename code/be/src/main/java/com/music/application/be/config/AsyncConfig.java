@@ -0,0 +1,79 @@
+package com.music.application.be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Chạy song song 4 truy vấn của global search (songs, playlists, artists, albums)
+    @Bean(name = "searchExecutor")
+    public ThreadPoolTaskExecutor searchExecutor(@Value("${app.search.pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 16);
+        executor.setThreadNamePrefix("search-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Mỗi thread xử lý một job ingest; hàng đợi có giới hạn, đầy thì từ chối (503) thay vì dồn file tạm
+    @Bean(name = "ingestJobExecutor")
+    public ThreadPoolTaskExecutor ingestJobExecutor(@Value("${app.ingest.workers:2}") int workers,
+                                                    @Value("${app.ingest.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ingest-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Các bước song song trong một job (đọc duration, upload audio, upload thumbnail)
+    @Bean(name = "ingestTaskExecutor")
+    public ThreadPoolTaskExecutor ingestTaskExecutor(@Value("${app.ingest.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers * 3);
+        executor.setMaxPoolSize(workers * 3);
+        executor.setQueueCapacity(workers * 3);
+        // Thread của job tự chạy bước đó nếu pool đầy, job không bị hỏng vì bị từ chối
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ingest-task-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Sinh ảnh thu nhỏ: mỗi thread giữ tối đa vài chục MB ảnh đã decode nên pool nhỏ và cố định,
+    // đầy thì từ chối và bỏ qua variant (ảnh gốc vẫn được lưu)
+    @Bean(name = "imageExecutor")
+    public ThreadPoolTaskExecutor imageExecutor(@Value("${app.media.images.workers:2}") int workers,
+                                                @Value("${app.media.images.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("image-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Import catalog: mỗi job đã tự chạy song song trên ForkJoinPool riêng nên chỉ một job một lúc
+    @Bean(name = "catalogImportExecutor")
+    public ThreadPoolTaskExecutor catalogImportExecutor(@Value("${app.catalog-import.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("catalog-import-");
+        executor.initialize();
+        return executor;
+    }
+}
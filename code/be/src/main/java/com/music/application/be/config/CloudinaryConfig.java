@@ -4,8 +4,10 @@ import com.cloudinary.Cloudinary;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
+@Profile("!local-storage")
 public class CloudinaryConfig {
 
     @Value("${CLOUDINARY_URL}")
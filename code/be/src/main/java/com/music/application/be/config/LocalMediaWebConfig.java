@@ -0,0 +1,30 @@
+package com.music.application.be.config;
+
+import com.music.application.be.modules.media.LocalMediaStorage;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// Phục vụ file của LocalMediaStorage tại /media/**, như URL công khai của Cloudinary
+@Configuration
+@Profile("local-storage")
+public class LocalMediaWebConfig implements WebMvcConfigurer {
+
+    private final LocalMediaStorage localMediaStorage;
+
+    public LocalMediaWebConfig(LocalMediaStorage localMediaStorage) {
+        this.localMediaStorage = localMediaStorage;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Đường dẫn theo hash nội dung nên file không bao giờ đổi, cache lâu được
+        registry.addResourceHandler("/media/**")
+                .addResourceLocations(localMediaStorage.getRoot().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+    }
+}
@@ -7,23 +7,72 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.config.cache.BudgetedRedisCacheWriter;
+import com.music.application.be.config.cache.CacheInvalidationPublisher;
+import com.music.application.be.config.cache.CachePolicyProperties;
+import com.music.application.be.config.cache.CachePolicyRegistry;
+import com.music.application.be.config.cache.CacheSerializer;
+import com.music.application.be.config.cache.CompactCacheSerializer;
+import com.music.application.be.config.cache.TwoTierCacheManager;
+import com.music.application.be.config.cache.TwoTierCacheProperties;
+import com.music.application.be.modules.playlist.PlaylistRule;
+import com.music.application.be.modules.playlist.dto.PlaylistDTO;
+import com.music.application.be.modules.song.dto.SongDTO;
+import com.music.application.be.modules.song.dto.SongResponseDTO;
+import com.music.application.be.modules.song_playlist.dto.SongPlaylistDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
 
-import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({TwoTierCacheProperties.class, CachePolicyProperties.class})
 public class RedisConfig {
 
+    // L2: cache dùng chung giữa các node, TTL / prefix / serializer theo policy của từng cache
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               CachePolicyRegistry cachePolicyRegistry) {
+        RedisCacheWriter cacheWriter = new BudgetedRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                connectionFactory,
+                cachePolicyRegistry::maxEntries
+        );
+
+        return RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(cachePolicyRegistry.defaultConfiguration())
+                .withInitialCacheConfigurations(cachePolicyRegistry.cacheConfigurations())
+                .build();
+    }
+
+    @Bean
+    public CachePolicyRegistry cachePolicyRegistry(CachePolicyProperties properties) {
+        Map<CacheSerializer, RedisSerializer<Object>> serializers = new EnumMap<>(CacheSerializer.class);
+        serializers.put(CacheSerializer.JSON, jsonCacheSerializer());
+        serializers.put(CacheSerializer.COMPACT, new CompactCacheSerializer(properties.getCompressionThreshold(), List.of(
+                // Giá trị của các cache dùng serializer=compact, ghi bằng tên ngắn thay vì tên class đầy đủ
+                PagedResponse.class, SongDTO.class, SongResponseDTO.class,
+                PlaylistDTO.class, PlaylistRule.class, SongPlaylistDTO.class
+        )));
+        return new CachePolicyRegistry(properties, serializers);
+    }
+
+    private GenericJackson2JsonRedisSerializer jsonCacheSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -35,18 +84,32 @@ public class RedisConfig {
                 JsonTypeInfo.As.PROPERTY
         );
 
-        GenericJackson2JsonRedisSerializer serializer =
-                new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(serializer)
-                );
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .build();
+    // Cache manager mặc định cho @Cacheable: Caffeine (L1, mỗi node) trước Redis (L2)
+    @Bean
+    @Primary
+    public TwoTierCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                            TwoTierCacheProperties properties,
+                                            CacheInvalidationPublisher cacheInvalidationPublisher,
+                                            MeterRegistry meterRegistry) {
+        return new TwoTierCacheManager(redisCacheManager, properties, cacheInvalidationPublisher, meterRegistry);
     }
 
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate redisTemplate,
+                                                                 TwoTierCacheProperties properties) {
+        return new CacheInvalidationPublisher(redisTemplate, properties.getChannel());
+    }
 
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoTierCacheManager cacheManager,
+                                                                            CacheInvalidationPublisher cacheInvalidationPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheInvalidationPublisher.getChannel()));
+        return container;
+    }
 }
@@ -55,7 +55,8 @@ public class SecurityConfig {
                                         "/swagger-ui.html",
                                         "/swagger-resources/**",
                                         "/configuration/**",
-                                        "/webjars/**")
+                                        "/webjars/**",
+                                        "/media/**")
                                 .permitAll()
                                 .requestMatchers("/admin/**").hasAuthority("ADMIN")
                                 .anyRequest()
@@ -0,0 +1,90 @@
+package com.music.application.be.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves id columns that were created as IDENTITY over to the entity sequences.
+ * <p>
+ * Entities take their ids from {@code <table>_seq} with the pooled-lo optimizer: one
+ * {@code nextval} returning {@code v} reserves {@code v .. v + allocationSize - 1} for that
+ * node, so Hibernate can batch inserts instead of reading each id back. At startup, before the
+ * web server accepts requests, every sequence is moved past the ids already in its table and the
+ * id column default is switched from the identity to {@code nextval} of the same sequence, so
+ * plain SQL inserts (catalog import, set-based inserts) never collide with Hibernate's blocks.
+ * A SQL insert consumes a whole block for its single row, which only leaves gaps.
+ */
+@Component
+public class SequenceIdMigration {
+
+    private static final long LOCK_KEY = 0x5EC1D;
+
+    private record SequenceId(String table, String column, String sequence, int incrementSize) {
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SequenceIdMigration(EntityManagerFactory entityManagerFactory,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        List<SequenceId> ids = new ArrayList<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                    && persister instanceof AbstractEntityPersister entityPersister) {
+                ids.add(new SequenceId(entityPersister.getTableName(), entityPersister.getIdentifierColumnNames()[0],
+                        generator.getDatabaseStructure().getPhysicalName().render(),
+                        generator.getDatabaseStructure().getIncrementSize()));
+            }
+        });
+
+        // Nhiều node khởi động cùng lúc: chỉ một node chạy migration tại một thời điểm
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            ids.forEach(this::migrate);
+        });
+    }
+
+    private void migrate(SequenceId id) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + id.sequence() +
+                " START WITH 1 INCREMENT BY " + id.incrementSize());
+
+        List<Map<String, Object>> columns = jdbcTemplate.queryForList(
+                "SELECT is_identity, column_default FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                id.table(), id.column());
+        if (columns.isEmpty()) {
+            return;
+        }
+        String expectedDefault = "nextval('" + id.sequence() + "'::regclass)";
+        if ("YES".equals(columns.get(0).get("is_identity")) || !expectedDefault.equals(columns.get(0).get("column_default"))) {
+            jdbcTemplate.execute("ALTER TABLE " + id.table() + " ALTER COLUMN " + id.column() + " DROP IDENTITY IF EXISTS");
+            jdbcTemplate.execute("ALTER TABLE " + id.table() + " ALTER COLUMN " + id.column() +
+                    " SET DEFAULT nextval('" + id.sequence() + "')");
+            System.out.println("Switched " + id.table() + "." + id.column() + " to sequence " + id.sequence());
+        }
+
+        // Giá trị tiếp theo còn trống: last_value nếu chưa dùng, không thì hết block của last_value
+        jdbcTemplate.queryForList("SELECT setval('" + id.sequence() + "', t.max_id + 1, false) " +
+                "FROM (SELECT COALESCE(MAX(" + id.column() + "), 0) AS max_id FROM " + id.table() + ") t, " + id.sequence() + " s " +
+                "WHERE t.max_id + 1 > s.last_value + CASE WHEN s.is_called THEN " + id.incrementSize() + " ELSE 0 END");
+    }
+}
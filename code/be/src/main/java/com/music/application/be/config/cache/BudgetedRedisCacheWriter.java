@@ -0,0 +1,151 @@
+package com.music.application.be.config.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.zset.Tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link RedisCacheWriter} decorator that keeps caches with a {@code maxEntries} budget under
+ * that many keys.
+ * <p>
+ * Every key written to a budgeted cache is added to a sorted set scored by its expiry time.
+ * After a write, members that have already expired are dropped from the set, and if the cache
+ * is still over budget the entries closest to expiry are deleted. The budget is best effort:
+ * nodes writing concurrently can overshoot it briefly.
+ */
+public class BudgetedRedisCacheWriter implements RedisCacheWriter {
+
+    private static final String INDEX_PREFIX = "cache-budget:";
+
+    private final RedisCacheWriter delegate;
+    private final RedisConnectionFactory connectionFactory;
+    // Tên cache -> số entry tối đa, null nếu cache không giới hạn
+    private final Function<String, Long> budgets;
+
+    public BudgetedRedisCacheWriter(RedisCacheWriter delegate,
+                                    RedisConnectionFactory connectionFactory,
+                                    Function<String, Long> budgets) {
+        this.delegate = delegate;
+        this.connectionFactory = connectionFactory;
+        this.budgets = budgets;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+        track(name, key, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl).thenRun(() -> track(name, key, ttl));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        if (existing == null) {
+            track(name, key, ttl);
+        }
+        return existing;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+        if (budgets.apply(name) != null) {
+            execute(connection -> connection.zSetCommands().zRem(indexKey(name), key));
+        }
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+        if (budgets.apply(name) != null) {
+            execute(connection -> connection.keyCommands().del(indexKey(name)));
+        }
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new BudgetedRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector),
+                connectionFactory, budgets);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    private void track(String name, byte[] key, Duration ttl) {
+        Long budget = budgets.apply(name);
+        if (budget == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        double expiresAt = ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Double.MAX_VALUE
+                : now + ttl.toMillis();
+        byte[] index = indexKey(name);
+
+        execute(connection -> {
+            connection.zSetCommands().zAdd(index, expiresAt, key);
+            connection.zSetCommands().zRemRangeByScore(index, 0, now);
+            Long size = connection.zSetCommands().zCard(index);
+            if (size != null && size > budget) {
+                Set<Tuple> overflow = connection.zSetCommands().zPopMin(index, size - budget);
+                if (overflow != null && !overflow.isEmpty()) {
+                    connection.keyCommands().del(overflow.stream().map(Tuple::getValue).toArray(byte[][]::new));
+                }
+            }
+            return null;
+        });
+    }
+
+    private void execute(Function<RedisConnection, Object> callback) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            callback.apply(connection);
+        } catch (RuntimeException e) {
+            // Chỉ ảnh hưởng tới việc giới hạn số entry, không làm hỏng thao tác cache
+            System.err.println("Failed to enforce cache budget: " + e.getMessage());
+        }
+    }
+
+    private static byte[] indexKey(String name) {
+        return (INDEX_PREFIX + name).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,24 @@
+package com.music.application.be.config.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Describes the tags of the entries of some caches, so {@link CacheTagIndex} can tag an entry
+ * right after it is stored instead of the cached method tagging its own result.
+ */
+public interface CacheEntryTagger {
+
+    /**
+     * @param tags  the entities the entry contains or lists, e.g. {@code song:12}
+     * @param query the free text the entry depends on, or null
+     */
+    record EntryTags(Collection<String> tags, String query) {
+        public static final EntryTags NONE = new EntryTags(List.of(), null);
+    }
+
+    Set<String> cacheNames();
+
+    EntryTags tagsFor(String cacheName, Object key, Object value);
+}
@@ -0,0 +1,51 @@
+package com.music.application.be.config.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations to the other nodes over Redis pub/sub.
+ * <p>
+ * Message format: {@code nodeId \n E|C \n cacheName [\n key]}, where {@code E} evicts one key
+ * and {@code C} clears the whole cache. Each node ignores its own messages.
+ */
+public class CacheInvalidationPublisher {
+
+    static final String EVICT = "E";
+    static final String CLEAR = "C";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void evict(String cacheName, String key) {
+        send(EVICT + "\n" + cacheName + "\n" + key);
+    }
+
+    public void clear(String cacheName) {
+        send(CLEAR + "\n" + cacheName);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    boolean isOwnMessage(String sender) {
+        return nodeId.equals(sender);
+    }
+
+    private void send(String body) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "\n" + body);
+        } catch (RuntimeException e) {
+            // L1 của node khác vẫn hết hạn theo TTL nên không làm hỏng thao tác ghi
+            System.err.println("Failed to publish cache invalidation: " + e.getMessage());
+        }
+    }
+}
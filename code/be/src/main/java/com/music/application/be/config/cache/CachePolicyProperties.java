@@ -0,0 +1,60 @@
+package com.music.application.be.config.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache policies of the Redis tier.
+ * <p>
+ * Example: {@code app.cache.redis.caches.genres.ttl=6h}. Fields left unset fall back to
+ * {@code app.cache.redis.defaults.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache.redis")
+public class CachePolicyProperties {
+
+    private Policy defaults = new Policy(Duration.ofMinutes(10), 0.1, "", true, CacheSerializer.JSON, null);
+
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+
+    // Với serializer COMPACT: giá trị từ bao nhiêu byte trở lên thì nén LZ4
+    private int compressionThreshold = 1024;
+
+    public Policy policyFor(String cacheName) {
+        Policy policy = caches.get(cacheName);
+        return policy != null ? policy.withDefaults(defaults) : defaults;
+    }
+
+    // Trường null nghĩa là lấy theo defaults
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private Duration ttl;
+        // Tỉ lệ TTL cộng thêm ngẫu nhiên, 0.1 = TTL thực tế nằm trong [ttl, ttl * 1.1]
+        private Double ttlJitter;
+        // Tiền tố thêm trước "<cacheName>::" của key trong Redis
+        private String keyPrefix;
+        private Boolean cacheNulls;
+        private CacheSerializer serializer;
+        // Số entry tối đa của cache trong Redis, null = không giới hạn
+        private Long maxEntries;
+
+        Policy withDefaults(Policy defaults) {
+            return new Policy(
+                    ttl != null ? ttl : defaults.getTtl(),
+                    ttlJitter != null ? ttlJitter : defaults.getTtlJitter(),
+                    keyPrefix != null ? keyPrefix : defaults.getKeyPrefix(),
+                    cacheNulls != null ? cacheNulls : defaults.getCacheNulls(),
+                    serializer != null ? serializer : defaults.getSerializer(),
+                    maxEntries != null ? maxEntries : defaults.getMaxEntries()
+            );
+        }
+    }
+}
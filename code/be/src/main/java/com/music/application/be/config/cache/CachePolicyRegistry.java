@@ -0,0 +1,83 @@
+package com.music.application.be.config.cache;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns the declarative {@link CachePolicyProperties} into {@link RedisCacheConfiguration}s for
+ * the Redis cache manager and prints the effective policy of every cache at startup.
+ */
+public class CachePolicyRegistry {
+
+    private final CachePolicyProperties properties;
+    private final Map<CacheSerializer, RedisSerializer<Object>> serializers;
+
+    public CachePolicyRegistry(CachePolicyProperties properties,
+                               Map<CacheSerializer, RedisSerializer<Object>> serializers) {
+        this.properties = properties;
+        this.serializers = serializers;
+    }
+
+    public RedisCacheConfiguration defaultConfiguration() {
+        return toConfiguration(properties.getDefaults());
+    }
+
+    // Cấu hình riêng cho từng cache đã khai báo, cache khác dùng defaultConfiguration()
+    public Map<String, RedisCacheConfiguration> cacheConfigurations() {
+        Map<String, RedisCacheConfiguration> configurations = new LinkedHashMap<>();
+        for (String cacheName : properties.getCaches().keySet()) {
+            configurations.put(cacheName, toConfiguration(properties.policyFor(cacheName)));
+        }
+        return configurations;
+    }
+
+    public Long maxEntries(String cacheName) {
+        return properties.policyFor(cacheName).getMaxEntries();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        StringBuilder report = new StringBuilder("Redis cache policies:\n");
+        report.append(String.format("  %-28s %-10s %-7s %-10s %-6s %-12s %s%n",
+                "cache", "ttl", "jitter", "prefix", "nulls", "serializer", "maxEntries"));
+        appendRow(report, "(default)", properties.getDefaults());
+        for (String cacheName : properties.getCaches().keySet()) {
+            appendRow(report, cacheName, properties.policyFor(cacheName));
+        }
+        System.out.print(report);
+    }
+
+    private RedisCacheConfiguration toConfiguration(CachePolicyProperties.Policy policy) {
+        RedisSerializer<Object> serializer = serializers.get(policy.getSerializer());
+        if (serializer == null) {
+            throw new IllegalStateException("No cache serializer registered for " + policy.getSerializer());
+        }
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(new JitteredTtlFunction(policy.getTtl(), policy.getTtlJitter()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+        if (!policy.getKeyPrefix().isEmpty()) {
+            configuration = configuration.prefixCacheNameWith(policy.getKeyPrefix());
+        }
+        if (!policy.getCacheNulls()) {
+            configuration = configuration.disableCachingNullValues();
+        }
+        return configuration;
+    }
+
+    private void appendRow(StringBuilder report, String cacheName, CachePolicyProperties.Policy policy) {
+        report.append(String.format("  %-28s %-10s %-7s %-10s %-6s %-12s %s%n",
+                cacheName,
+                policy.getTtl(),
+                policy.getTtlJitter(),
+                policy.getKeyPrefix().isEmpty() ? "-" : policy.getKeyPrefix(),
+                policy.getCacheNulls(),
+                policy.getSerializer(),
+                policy.getMaxEntries() != null ? policy.getMaxEntries() : "unbounded"));
+    }
+}
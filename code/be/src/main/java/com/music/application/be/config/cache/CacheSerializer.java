@@ -0,0 +1,11 @@
+package com.music.application.be.config.cache;
+
+/**
+ * Value serializers that a cache policy can choose from.
+ */
+public enum CacheSerializer {
+    // GenericJackson2JsonRedisSerializer với default typing (định dạng hiện tại)
+    JSON,
+    // Smile nhị phân + LZ4 cho giá trị lớn, xem CompactCacheSerializer
+    COMPACT
+}
@@ -0,0 +1,247 @@
+package com.music.application.be.config.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Dependency index for cached entries, kept in Redis sets so every node sees the same tags.
+ * <p>
+ * When a page is cached it is tagged with the entities it contains or lists, e.g.
+ * {@code song:12}, {@code artist:3}. A write then evicts only the entries carrying the tags of
+ * the changed entities instead of clearing whole caches with {@code allEntries = true}.
+ * Evictions go through the {@link CacheManager}, so near-cache copies on other nodes are
+ * dropped as well.
+ * <p>
+ * Entries are tagged after they are stored, by the {@link TaggedCache} that
+ * {@link #register(CacheEntryTagger)} installs. Reading and deleting a tag set is one script, so a
+ * member added meanwhile lands in the next set rather than being lost. Each eviction also bumps a
+ * generation and leaves it on the evicted tags for a while: an entry whose load started before
+ * that generation is evicted again as soon as it is tagged, since it may hold data from before
+ * the write.
+ * <p>
+ * Entries whose content depends on free text (search pages) register their query instead, and
+ * are evicted with {@link #evictQueries(String, Predicate)}. The queries of a cache are capped at
+ * {@code app.cache.tags.max-queries}; the oldest are evicted from the cache when it is exceeded.
+ */
+@Component
+public class CacheTagIndex {
+
+    private static final String TAG_PREFIX = "cache-tags:";
+    private static final String EVICTED_PREFIX = "cache-tags-evicted:";
+    private static final String GENERATION_KEY = "cache-tags-generation";
+    private static final String QUERY_PREFIX = "cache-queries:";
+    private static final String QUERY_AGE_PREFIX = "cache-queries-at:";
+    // Tag giả của các trang search: evictQueries đánh dấu nó để các lần nạp đang chạy tự kiểm tra
+    private static final String QUERIES_TAG_PREFIX = "queries:";
+    private static final String SEPARATOR = "::";
+    // Lâu hơn TTL dài nhất của các cache được tag, tránh set mồ côi tồn tại mãi
+    private static final Duration INDEX_TTL = Duration.ofDays(1);
+    // Lâu hơn thời gian nạp một trang, từ lúc cache miss tới lúc put
+    private static final Duration EVICTED_TTL = Duration.ofMinutes(5);
+
+    // ARGV: member, ttl, generation lúc miss (-1 nếu không biết), số tag; KEYS: các tag set rồi các key evicted
+    private static final RedisScript<Long> TAG = new DefaultRedisScript<>("""
+            local count = tonumber(ARGV[4])
+            for i = 1, count do
+                redis.call('SADD', KEYS[i], ARGV[1])
+                redis.call('EXPIRE', KEYS[i], ARGV[2])
+            end
+            local generation = tonumber(ARGV[3])
+            if generation < 0 then
+                return 0
+            end
+            for i = count + 1, #KEYS do
+                local evicted = redis.call('GET', KEYS[i])
+                if evicted and tonumber(evicted) > generation then
+                    return 1
+                end
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS: generation, rồi từng cặp (tag set, key evicted); trả về member của mọi tag
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EVICT = new DefaultRedisScript<>("""
+            local generation = redis.call('INCR', KEYS[1])
+            local members = {}
+            for i = 2, #KEYS, 2 do
+                redis.call('SET', KEYS[i + 1], generation, 'EX', ARGV[1])
+                for _, member in ipairs(redis.call('SMEMBERS', KEYS[i])) do
+                    table.insert(members, member)
+                end
+                redis.call('DEL', KEYS[i])
+            end
+            return members
+            """, List.class);
+
+    // KEYS: hash key -> query, zset key -> thời điểm đăng ký; ARGV: key, query, now, cutoff, cap, ttl.
+    // Trả về các key bị bỏ khỏi index vì vượt cap
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REGISTER_QUERY = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1])
+            for _, key in ipairs(redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[4])) do
+                redis.call('HDEL', KEYS[1], key)
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[4])
+            local overflow = {}
+            local excess = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[5])
+            if excess > 0 then
+                overflow = redis.call('ZRANGE', KEYS[2], 0, excess - 1)
+                for _, key in ipairs(overflow) do
+                    redis.call('HDEL', KEYS[1], key)
+                end
+                redis.call('ZREMRANGEBYRANK', KEYS[2], 0, excess - 1)
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[6])
+            redis.call('EXPIRE', KEYS[2], ARGV[6])
+            return overflow
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final int maxQueries;
+
+    public CacheTagIndex(StringRedisTemplate redisTemplate, CacheManager cacheManager,
+                         @Value("${app.cache.tags.max-queries:5000}") int maxQueries) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.maxQueries = maxQueries;
+    }
+
+    // Gọi khi khởi tạo, trước khi cache của tagger được đọc
+    public void register(CacheEntryTagger tagger) {
+        if (cacheManager instanceof TwoTierCacheManager manager) {
+            manager.decorate(tagger.cacheNames(), cache -> new TaggedCache(cache, this, tagger));
+        }
+    }
+
+    /**
+     * @return the current generation, or null if Redis is unavailable
+     */
+    Long generation() {
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return generation != null ? Long.parseLong(generation) : 0L;
+        } catch (RuntimeException e) {
+            System.err.println("Cache tag generation unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tags an entry that was just stored.
+     *
+     * @param generation the generation when the entry's load started, null if unknown
+     * @return true if a tag of the entry was evicted after that, so the entry must be evicted
+     */
+    boolean tagStored(String cacheName, String key, CacheEntryTagger.EntryTags entryTags, Long generation) {
+        if (entryTags.tags().isEmpty() && entryTags.query() == null) {
+            return false;
+        }
+        String member = cacheName + SEPARATOR + key;
+        List<String> keys = new ArrayList<>();
+        entryTags.tags().forEach(tag -> keys.add(TAG_PREFIX + tag));
+        entryTags.tags().forEach(tag -> keys.add(EVICTED_PREFIX + tag));
+        if (entryTags.query() != null) {
+            keys.add(EVICTED_PREFIX + QUERIES_TAG_PREFIX + cacheName);
+        }
+        try {
+            if (entryTags.query() != null) {
+                registerQuery(cacheName, key, entryTags.query());
+            }
+            Long stale = redisTemplate.execute(TAG, keys, member, Long.toString(INDEX_TTL.getSeconds()),
+                    Long.toString(generation != null ? generation : -1), Integer.toString(entryTags.tags().size()));
+            return stale != null && stale == 1;
+        } catch (RuntimeException e) {
+            // Entry không có tag sẽ hết hạn theo TTL của cache
+            System.err.println("Cache tag index operation failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void evictTags(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(GENERATION_KEY);
+        for (String tag : tags) {
+            keys.add(TAG_PREFIX + tag);
+            keys.add(EVICTED_PREFIX + tag);
+        }
+        execute(() -> {
+            List<?> members = redisTemplate.execute(EVICT, keys, Long.toString(EVICTED_TTL.getSeconds()));
+            if (members == null) {
+                return;
+            }
+            for (Object member : new LinkedHashSet<>(members)) {
+                String value = (String) member;
+                int separator = value.indexOf(SEPARATOR);
+                if (separator > 0) {
+                    evict(value.substring(0, separator), value.substring(separator + SEPARATOR.length()));
+                }
+            }
+        });
+    }
+
+    // Xóa các entry có query thỏa điều kiện, vd. query là chuỗi con của tên bài hát mới
+    public void evictQueries(String cacheName, Predicate<String> affected) {
+        execute(() -> {
+            // Đánh dấu trước khi đọc index: trang search đang nạp sẽ tự xóa khi được tag
+            redisTemplate.execute(EVICT, List.of(GENERATION_KEY, TAG_PREFIX + QUERIES_TAG_PREFIX + cacheName,
+                    EVICTED_PREFIX + QUERIES_TAG_PREFIX + cacheName), Long.toString(EVICTED_TTL.getSeconds()));
+            // Index bị giới hạn ở maxQueries entry. Không xóa query khỏi index: trang có thể vừa được
+            // cache lại với cùng key, entry cũ tự bị bỏ theo tuổi hoặc cap
+            Map<Object, Object> queries = redisTemplate.opsForHash().entries(QUERY_PREFIX + cacheName);
+            queries.forEach((key, query) -> {
+                if (affected.test((String) query)) {
+                    evict(cacheName, (String) key);
+                }
+            });
+        });
+    }
+
+    private void registerQuery(String cacheName, String key, String query) {
+        long now = Instant.now().getEpochSecond();
+        List<?> overflow = redisTemplate.execute(REGISTER_QUERY,
+                List.of(QUERY_PREFIX + cacheName, QUERY_AGE_PREFIX + cacheName),
+                key, query, Long.toString(now), Long.toString(now - INDEX_TTL.getSeconds()),
+                Integer.toString(maxQueries), Long.toString(INDEX_TTL.getSeconds()));
+        // Trang không còn trong index thì không được xóa khi có bài hát mới khớp: bỏ luôn khỏi cache
+        if (overflow != null) {
+            overflow.forEach(evictedKey -> evict(cacheName, (String) evictedKey));
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void execute(Runnable operation) {
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            // Entry không bị xóa sẽ hết hạn theo TTL của cache
+            System.err.println("Cache tag index operation failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.music.application.be.config.cache;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Binary cache serializer: Jackson Smile with shared property names and string values, and
+ * LZ4 compression for payloads above a size threshold.
+ * <p>
+ * Values keep type information, since a cache holds {@code Object}s, but the cached DTO types are
+ * registered up front and written as their simple name ({@code "@type":"SongDTO"}) instead of the
+ * fully qualified class name; other classes fall back to the class name. Smile then writes each
+ * repeated type id, property name and short string only once per document, so a page of twenty
+ * songs no longer repeats the type and every field name twenty times.
+ * <p>
+ * The first byte of every value is a format header. Values with an unknown header, such as
+ * entries written by the JSON serializer before a cache was switched over, or by an earlier
+ * version of this serializer, deserialize to {@code null} and are treated as a cache miss.
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    private static final byte NULL_VALUE = 0;
+    // 1 và 2 là định dạng cũ ghi tên class đầy đủ, giờ đọc thành miss
+    private static final byte SMILE = 3;
+    private static final byte SMILE_LZ4 = 4;
+
+    // Kiểu chung của mọi cache, ngoài các DTO do RedisConfig đăng ký
+    private static final List<Class<?>> COMMON_TYPES = List.of(
+            ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class,
+            HashSet.class, LinkedHashSet.class, TreeSet.class
+    );
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final ObjectMapper objectMapper;
+    private final int compressionThreshold;
+
+    /**
+     * @param cachedTypes the value types of the caches using this serializer, written with a short
+     *                    type id; their simple names must be unique
+     */
+    public CompactCacheSerializer(int compressionThreshold, Collection<Class<?>> cachedTypes) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+
+        ObjectMapper mapper = new ObjectMapper(smileFactory);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        PolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder().allowIfSubType(Object.class).build();
+        List<Class<?>> registeredTypes = new ArrayList<>(COMMON_TYPES);
+        registeredTypes.addAll(cachedTypes);
+        mapper.setDefaultTyping(ObjectMapper.DefaultTypeResolverBuilder
+                .construct(ObjectMapper.DefaultTyping.NON_FINAL, validator)
+                .init(JsonTypeInfo.Id.CUSTOM, new RegisteredTypeIdResolver(registeredTypes, validator))
+                .inclusion(JsonTypeInfo.As.PROPERTY)
+                .typeProperty("@type"));
+        this.objectMapper = mapper;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        // NullValue phải đọc lại đúng instance singleton thì RedisCache mới nhận ra giá trị null
+        if (value == null || value instanceof NullValue) {
+            return new byte[]{NULL_VALUE};
+        }
+        byte[] smile;
+        try {
+            smile = objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value: " + e.getMessage(), e);
+        }
+
+        if (smile.length < compressionThreshold) {
+            byte[] result = new byte[smile.length + 1];
+            result[0] = SMILE;
+            System.arraycopy(smile, 0, result, 1, smile.length);
+            return result;
+        }
+
+        // Header | độ dài gốc (4 byte) | dữ liệu LZ4
+        byte[] compressed = new byte[1 + Integer.BYTES + COMPRESSOR.maxCompressedLength(smile.length)];
+        compressed[0] = SMILE_LZ4;
+        ByteBuffer.wrap(compressed, 1, Integer.BYTES).putInt(smile.length);
+        int length = COMPRESSOR.compress(smile, 0, smile.length, compressed, 1 + Integer.BYTES);
+        return Arrays.copyOf(compressed, 1 + Integer.BYTES + length);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            switch (bytes[0]) {
+                case NULL_VALUE:
+                    return NullValue.INSTANCE;
+                case SMILE:
+                    return objectMapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+                case SMILE_LZ4:
+                    int originalLength = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+                    byte[] smile = new byte[originalLength];
+                    DECOMPRESSOR.decompress(bytes, 1 + Integer.BYTES, smile, 0, originalLength);
+                    return objectMapper.readValue(smile, Object.class);
+                default:
+                    return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Dữ liệu hỏng hoặc class đã đổi: coi như miss để nạp lại từ DB
+            System.err.println("Discarding unreadable cache value: " + e.getMessage());
+            return null;
+        }
+    }
+}
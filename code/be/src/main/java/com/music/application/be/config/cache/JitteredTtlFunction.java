@@ -0,0 +1,30 @@
+package com.music.application.be.config.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a random extra of up to {@code jitter * ttl} to every entry, so pages that were filled
+ * together (e.g. right after a deploy or a cache clear) do not all expire in the same second
+ * and send one burst of misses to the database.
+ */
+public class JitteredTtlFunction implements RedisCacheWriter.TtlFunction {
+
+    private final Duration ttl;
+    private final long maxJitterMillis;
+
+    public JitteredTtlFunction(Duration ttl, double jitter) {
+        this.ttl = ttl;
+        this.maxJitterMillis = (long) (ttl.toMillis() * Math.max(0, jitter));
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (ttl.isZero() || ttl.isNegative() || maxJitterMillis == 0) {
+            return ttl;
+        }
+        return ttl.plusMillis(ThreadLocalRandom.current().nextLong(maxJitterMillis + 1));
+    }
+}
@@ -0,0 +1,58 @@
+package com.music.application.be.config.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Type ids for cache values: registered classes are written as their simple name, any other
+ * class falls back to its fully qualified name, so an unregistered type still round-trips.
+ */
+class RegisteredTypeIdResolver extends ClassNameIdResolver {
+
+    private final Map<Class<?>, String> ids = new HashMap<>();
+    private final Map<String, Class<?>> types = new HashMap<>();
+
+    RegisteredTypeIdResolver(Collection<Class<?>> registeredTypes, PolymorphicTypeValidator validator) {
+        super(TypeFactory.defaultInstance().constructType(Object.class), TypeFactory.defaultInstance(), validator);
+        for (Class<?> type : registeredTypes) {
+            // Tên đơn giản không chứa '.', không thể trùng với tên class đầy đủ của phần fallback
+            Class<?> previous = types.put(type.getSimpleName(), type);
+            if (previous != null && previous != type) {
+                throw new IllegalArgumentException("Duplicate cache type id " + type.getSimpleName()
+                        + ": " + previous.getName() + ", " + type.getName());
+            }
+            ids.put(type, type.getSimpleName());
+        }
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return idFromValueAndType(value, value.getClass());
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> type) {
+        String id = ids.get(type);
+        return id != null ? id : super.idFromValueAndType(value, type);
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        Class<?> type = types.get(id);
+        return type != null ? context.constructType(type) : super.typeFromId(context, id);
+    }
+
+    @Override
+    public JsonTypeInfo.Id getMechanism() {
+        return JsonTypeInfo.Id.CUSTOM;
+    }
+}
@@ -0,0 +1,116 @@
+package com.music.application.be.config.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator that tags every entry in {@link CacheTagIndex} after it is stored.
+ * <p>
+ * A miss records the index generation on the calling thread; {@code @Cacheable} then loads the
+ * value and calls {@link #put} on the same thread. If one of the entry's tags was evicted after
+ * that miss, the value may have been read before the write it missed, so it is evicted again
+ * right after being tagged.
+ */
+class TaggedCache implements Cache {
+
+    // Một thread có thể lồng nhiều @Cacheable; quá số này thì các miss không có put tương ứng bị bỏ
+    private static final int MAX_PENDING_LOADS = 64;
+
+    private final Cache delegate;
+    private final CacheTagIndex index;
+    private final CacheEntryTagger tagger;
+    private final ThreadLocal<Map<Object, Long>> pendingLoads = ThreadLocal.withInitial(HashMap::new);
+
+    TaggedCache(Cache delegate, CacheTagIndex index, CacheEntryTagger tagger) {
+        this.delegate = delegate;
+        this.index = index;
+        this.tagger = tagger;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            Map<Object, Long> loads = pendingLoads.get();
+            if (loads.size() >= MAX_PENDING_LOADS) {
+                loads.clear();
+            }
+            loads.put(key, index.generation());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Long generation = index.generation();
+        T value = delegate.get(key, valueLoader);
+        tag(key, value, generation);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        tag(key, value, pendingLoads.get().remove(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            tag(key, value, pendingLoads.get().remove(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private void tag(Object key, Object value, Long generation) {
+        CacheEntryTagger.EntryTags tags = tagger.tagsFor(getName(), key, value);
+        if (index.tagStored(getName(), String.valueOf(key), tags, generation)) {
+            delegate.evict(key);
+        }
+    }
+}
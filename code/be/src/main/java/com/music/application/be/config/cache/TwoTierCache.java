@@ -0,0 +1,181 @@
+package com.music.application.be.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A Redis cache with a bounded Caffeine near-cache in front of it.
+ * <p>
+ * Reads try L1 first and fall back to Redis, and a Redis hit is copied into L1. Every write goes
+ * to Redis first, then updates the local L1, then asks the other nodes to drop their L1 copy.
+ * L1 is keyed by {@code String.valueOf(key)}, the same string form Redis uses for its keys, so
+ * an invalidation message can name the entry without serializing the key object.
+ */
+public class TwoTierCache implements Cache {
+
+    // Caffeine không nhận value null, dùng sentinel cho các giá trị null đã cache
+    private static final Object NULL = new Object();
+
+    private final Cache redis;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final CacheInvalidationPublisher publisher;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    public TwoTierCache(Cache redis,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                        CacheInvalidationPublisher publisher,
+                        MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.local = local;
+        this.publisher = publisher;
+        this.l1Hits = counter(meterRegistry, "l1", "hit");
+        this.l1Misses = counter(meterRegistry, "l1", "miss");
+        this.l2Hits = counter(meterRegistry, "l2", "hit");
+        this.l2Misses = counter(meterRegistry, "l2", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return redis.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redis.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(fromLocal(cached));
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = redis.get(key);
+        if (wrapper == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        local.put(localKey, toLocal(wrapper.get()));
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        // RedisCache tự khóa khi nạp, L1 chỉ lưu lại kết quả
+        T value = redis.get(key, valueLoader);
+        local.put(localKey(key), toLocal(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redis.put(key, value);
+        String localKey = localKey(key);
+        local.put(localKey, toLocal(value));
+        publisher.evict(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redis.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        publisher.evict(getName(), localKey);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redis.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        publisher.evict(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = redis.evictIfPresent(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        publisher.evict(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        redis.clear();
+        local.invalidateAll();
+        publisher.clear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = redis.invalidate();
+        local.invalidateAll();
+        publisher.clear(getName());
+        return invalidated;
+    }
+
+    // Gọi khi nhận message từ node khác, chỉ xóa L1
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private static Object toLocal(Object value) {
+        return value != null ? value : NULL;
+    }
+
+    private static Object fromLocal(Object value) {
+        return value == NULL ? null : value;
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .description("Cache lookups per tier of the two-tier cache")
+                .tag("cache", getName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
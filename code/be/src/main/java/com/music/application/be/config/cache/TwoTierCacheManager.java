@@ -0,0 +1,111 @@
+package com.music.application.be.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CacheManager} that puts a per-node Caffeine tier in front of every cache of the
+ * Redis cache manager, and drops L1 entries when another node publishes an invalidation.
+ * Caches whose near tier is disabled in {@link TwoTierCacheProperties} are returned as plain
+ * Redis caches. Other components can wrap named caches with {@link #decorate}, e.g. to tag
+ * entries after they are stored.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager redisCacheManager;
+    private final TwoTierCacheProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, UnaryOperator<Cache>> decorators = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Cache> decorated = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager redisCacheManager,
+                               TwoTierCacheProperties properties,
+                               CacheInvalidationPublisher publisher,
+                               MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = twoTierCache(name);
+        UnaryOperator<Cache> decorator = decorators.get(name);
+        if (cache == null || decorator == null) {
+            return cache;
+        }
+        return decorated.computeIfAbsent(name, n -> decorator.apply(cache));
+    }
+
+    // Bọc các cache có tên cho trước; các lần getCache sau trả về cache đã bọc
+    public void decorate(Collection<String> names, UnaryOperator<Cache> decorator) {
+        for (String name : names) {
+            decorators.put(name, decorator);
+            decorated.remove(name);
+        }
+    }
+
+    private Cache twoTierCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> decorate(redisCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 4);
+        if (parts.length < 3 || publisher.isOwnMessage(parts[0])) {
+            return;
+        }
+        if (!(caches.get(parts[2]) instanceof TwoTierCache cache)) {
+            return;
+        }
+        if (CacheInvalidationPublisher.CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else if (CacheInvalidationPublisher.EVICT.equals(parts[1]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    private Cache decorate(Cache redisCache) {
+        TwoTierCacheProperties.Spec spec = properties.specFor(redisCache.getName());
+        if (!properties.isEnabled() || !Boolean.TRUE.equals(spec.getEnabled())) {
+            return redisCache;
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTimeToLive())
+                .build();
+        TwoTierCache cache = new TwoTierCache(redisCache, local, publisher, meterRegistry);
+        Gauge.builder("cache.tier.l1.size", cache, TwoTierCache::localSize)
+                .description("Estimated number of entries in the L1 tier")
+                .tag("cache", redisCache.getName())
+                .register(meterRegistry);
+        return cache;
+    }
+}
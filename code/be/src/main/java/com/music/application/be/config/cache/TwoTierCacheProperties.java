@@ -0,0 +1,53 @@
+package com.music.application.be.config.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the per-node Caffeine tier placed in front of Redis.
+ * <p>
+ * Example: {@code app.cache.near.caches.genres.maximum-size=50}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache.near")
+public class TwoTierCacheProperties {
+
+    private boolean enabled = true;
+
+    // Kênh pub/sub dùng để báo các node khác xóa L1
+    private String channel = "cache:invalidations";
+
+    // Áp dụng cho các cache không khai báo riêng
+    private Spec defaults = new Spec(true, 1000L, Duration.ofSeconds(60));
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public Spec specFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        if (spec == null) {
+            return defaults;
+        }
+        Spec merged = new Spec();
+        merged.setEnabled(spec.getEnabled() != null ? spec.getEnabled() : defaults.getEnabled());
+        merged.setMaximumSize(spec.getMaximumSize() != null ? spec.getMaximumSize() : defaults.getMaximumSize());
+        merged.setTimeToLive(spec.getTimeToLive() != null ? spec.getTimeToLive() : defaults.getTimeToLive());
+        return merged;
+    }
+
+    // Trường null nghĩa là lấy theo defaults
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+        private Boolean enabled;
+        private Long maximumSize;
+        // TTL ngắn giới hạn thời gian dữ liệu cũ nếu mất message invalidation
+        private Duration timeToLive;
+    }
+}
@@ -26,6 +26,39 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(UploadCapacityExceededException.class)
+    public ResponseEntity<ApiError> handleUploadCapacityExceededException(UploadCapacityExceededException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                LocalDateTime.now(),
+                "Upload Capacity Exceeded",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(apiError, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(StreamCapacityExceededException.class)
+    public ResponseEntity<ApiError> handleStreamCapacityExceededException(StreamCapacityExceededException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                LocalDateTime.now(),
+                "Stream Capacity Exceeded",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(apiError, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(SearchCapacityExceededException.class)
+    public ResponseEntity<ApiError> handleSearchCapacityExceededException(SearchCapacityExceededException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                LocalDateTime.now(),
+                "Search Capacity Exceeded",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(apiError, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiError> handleRuntimeException(RuntimeException ex) {
         ApiError apiError = new ApiError(
@@ -0,0 +1,9 @@
+package com.music.application.be.exceptions;
+
+// Hàng đợi của searchExecutor đã đầy, client nên thử lại sau
+public class SearchCapacityExceededException extends RuntimeException {
+
+    public SearchCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.music.application.be.exceptions;
+
+// Đã mở tối đa số file audio cho phép để stream, client nên thử lại sau
+public class StreamCapacityExceededException extends RuntimeException {
+
+    public StreamCapacityExceededException(String message) {
+        super(message);
+    }
+}
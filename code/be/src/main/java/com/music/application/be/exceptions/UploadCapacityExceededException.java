@@ -0,0 +1,9 @@
+package com.music.application.be.exceptions;
+
+// Server đang xử lý quá nhiều dữ liệu upload, client nên thử lại sau
+public class UploadCapacityExceededException extends RuntimeException {
+
+    public UploadCapacityExceededException(String message) {
+        super(message);
+    }
+}
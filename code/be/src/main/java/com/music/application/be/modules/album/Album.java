@@ -6,10 +6,13 @@ import com.music.application.be.modules.song.Song;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Table(name = "albums")
@@ -17,7 +20,8 @@ import java.util.List;
 @Setter
 public class Album {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "albums_seq")
+    @SequenceGenerator(name = "albums_seq", sequenceName = "albums_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +33,11 @@ public class Album {
     @Column(name = "cover_image", columnDefinition = "TEXT", nullable = false)
     private String coverImage;
 
+    // Các bản thu nhỏ theo ImageVariant, vd. {"small": "...", "medium": "...", "large": "..."}
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "cover_image_variants", columnDefinition = "jsonb")
+    private Map<String, String> coverImageVariants;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
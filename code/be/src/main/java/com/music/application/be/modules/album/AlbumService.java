@@ -6,18 +6,22 @@ import com.music.application.be.modules.album.dto.CreateAlbumDTO;
 import com.music.application.be.modules.album.dto.UpdateAlbumDTO;
 import com.music.application.be.modules.artist.Artist;
 import com.music.application.be.modules.artist.ArtistRepository;
-import com.music.application.be.modules.cloudinary.CloudinaryService;
+import com.music.application.be.modules.media.MediaLibrary;
+import com.music.application.be.modules.search.CatalogChangedEvent;
+import com.music.application.be.modules.search.SuggestionType;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Map;
 
 @Service
 public class AlbumService {
@@ -29,7 +33,10 @@ public class AlbumService {
     private ArtistRepository artistRepository;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private MediaLibrary mediaLibrary;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @CacheEvict(value = "allAlbums", allEntries = true)
     public AlbumResponseDTO createAlbum(CreateAlbumDTO createAlbumDTO, MultipartFile coverImageFile) throws IOException {
@@ -48,10 +55,12 @@ public class AlbumService {
         album.setDescription(createAlbumDTO.getDescription());
         album.setArtist(artist);
 
-        String coverImageUrl = cloudinaryService.uploadFile(coverImageFile, "image");
-        album.setCoverImage(coverImageUrl);
+        MediaLibrary.StoredImage coverImage = mediaLibrary.storeImage(coverImageFile);
+        album.setCoverImage(coverImage.url());
+        album.setCoverImageVariants(coverImage.variants());
 
         Album savedAlbum = albumRepository.save(album);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.ALBUM, savedAlbum.getId(), savedAlbum.getName()));
         return mapToResponseDTO(savedAlbum);
     }
 
@@ -74,12 +83,20 @@ public class AlbumService {
                     .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Artist not found with id: " + updateAlbumDTO.getArtistId()));
             album.setArtist(artist);
         }
-        if (coverImageFile != null && !coverImageFile.isEmpty()) {
-            String coverImageUrl = cloudinaryService.uploadFile(coverImageFile, "image");
-            album.setCoverImage(coverImageUrl);
+        String previousCoverImage = album.getCoverImage();
+        Map<String, String> previousCoverImageVariants = album.getCoverImageVariants();
+        boolean coverReplaced = coverImageFile != null && !coverImageFile.isEmpty();
+        if (coverReplaced) {
+            MediaLibrary.StoredImage coverImage = mediaLibrary.storeImage(coverImageFile);
+            album.setCoverImage(coverImage.url());
+            album.setCoverImageVariants(coverImage.variants());
         }
 
         Album updatedAlbum = albumRepository.save(album);
+        if (coverReplaced) {
+            mediaLibrary.release(previousCoverImage, previousCoverImageVariants);
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.ALBUM, id, updatedAlbum.getName()));
         return mapToResponseDTO(updatedAlbum);
     }
 
@@ -88,12 +105,19 @@ public class AlbumService {
         Album album = albumRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Album not found with id: " + id));
 
-        if (coverImageFile != null && !coverImageFile.isEmpty()) {
-            String coverImageUrl = cloudinaryService.uploadFile(coverImageFile, "image");
-            album.setCoverImage(coverImageUrl);
+        String previousCoverImage = album.getCoverImage();
+        Map<String, String> previousCoverImageVariants = album.getCoverImageVariants();
+        boolean coverReplaced = coverImageFile != null && !coverImageFile.isEmpty();
+        if (coverReplaced) {
+            MediaLibrary.StoredImage coverImage = mediaLibrary.storeImage(coverImageFile);
+            album.setCoverImage(coverImage.url());
+            album.setCoverImageVariants(coverImage.variants());
         }
 
         Album updatedAlbum = albumRepository.save(album);
+        if (coverReplaced) {
+            mediaLibrary.release(previousCoverImage, previousCoverImageVariants);
+        }
         return mapToResponseDTO(updatedAlbum);
     }
 
@@ -128,6 +152,8 @@ public class AlbumService {
         Album album = albumRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Album not found"));
         albumRepository.delete(album);
+        mediaLibrary.release(album.getCoverImage(), album.getCoverImageVariants());
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(SuggestionType.ALBUM, id));
     }
     public Page<AlbumResponseDTO> searchAlbums(String query, Pageable pageable) {
         return albumRepository.findByNameContainingIgnoreCase(query, pageable).map(this::mapToResponseDTO);
@@ -147,6 +173,7 @@ public class AlbumService {
         dto.setName(album.getName());
         dto.setReleaseDate(album.getReleaseDate());
         dto.setCoverImage(album.getCoverImage());
+        dto.setCoverImageVariants(album.getCoverImageVariants());
         dto.setDescription(album.getDescription());
         dto.setArtistId(album.getArtist().getId());
         return dto;
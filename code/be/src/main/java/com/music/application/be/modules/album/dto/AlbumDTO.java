@@ -3,6 +3,7 @@ package com.music.application.be.modules.album.dto;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @Data
 public class AlbumDTO {
@@ -10,6 +11,7 @@ public class AlbumDTO {
     private String name;
     private LocalDate releaseDate;
     private String coverImage;
+    private Map<String, String> coverImageVariants;
     private String description;
     private Long artistId;
     private String artistName;
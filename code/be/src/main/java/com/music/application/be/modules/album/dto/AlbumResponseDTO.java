@@ -3,6 +3,7 @@ package com.music.application.be.modules.album.dto;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @Data
 public class AlbumResponseDTO {
@@ -10,6 +11,7 @@ public class AlbumResponseDTO {
     private String name;
     private LocalDate releaseDate;
     private String coverImage;
+    private Map<String, String> coverImageVariants;
     private String description;
     private Long artistId;
 }
\ No newline at end of file
@@ -5,17 +5,24 @@ import com.music.application.be.modules.album.AlbumRepository;
 import com.music.application.be.modules.artist.dto.ArtistResponseDTO;
 import com.music.application.be.modules.artist.dto.CreateArtistDTO;
 import com.music.application.be.modules.artist.dto.UpdateArtistDTO;
-import com.music.application.be.modules.cloudinary.CloudinaryService;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaLibrary;
+import com.music.application.be.modules.search.CatalogChangedEvent;
+import com.music.application.be.modules.search.SuggestionType;
+import com.music.application.be.modules.song.Song;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class ArtistService {
@@ -27,7 +34,10 @@ public class ArtistService {
     private AlbumRepository albumRepository;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private MediaLibrary mediaLibrary;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public ArtistResponseDTO createArtist(CreateArtistDTO createArtistDTO, MultipartFile avatarFile) throws IOException {
         Artist artist = new Artist();
@@ -35,13 +45,14 @@ public class ArtistService {
         artist.setDescription(createArtistDTO.getDescription());
         artist.setFollowerCount(0);
 
-        // Upload avatar to Cloudinary if file is provided
+        // Upload avatar to media storage if file is provided
         if (avatarFile != null && !avatarFile.isEmpty()) {
-            String avatarUrl = cloudinaryService.uploadFile(avatarFile, "image");
+            String avatarUrl = mediaLibrary.store(avatarFile, MediaKind.IMAGE);
             artist.setAvatar(avatarUrl);
         }
 
         Artist savedArtist = artistRepository.save(artist);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.ARTIST, savedArtist.getId(), savedArtist.getName()));
         return mapToResponseDTO(savedArtist);
     }
 
@@ -82,13 +93,19 @@ public class ArtistService {
             artist.setDescription(updateArtistDTO.getDescription());
         }
 
-        // Upload new avatar to Cloudinary if file is provided
-        if (avatarFile != null && !avatarFile.isEmpty()) {
-            String avatarUrl = cloudinaryService.uploadFile(avatarFile, "image");
+        // Upload new avatar to media storage if file is provided
+        String previousAvatar = artist.getAvatar();
+        boolean avatarReplaced = avatarFile != null && !avatarFile.isEmpty();
+        if (avatarReplaced) {
+            String avatarUrl = mediaLibrary.store(avatarFile, MediaKind.IMAGE);
             artist.setAvatar(avatarUrl);
         }
 
         Artist updatedArtist = artistRepository.save(artist);
+        if (avatarReplaced) {
+            mediaLibrary.release(previousAvatar);
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.ARTIST, id, updatedArtist.getName()));
         return mapToResponseDTO(updatedArtist);
     }
 
@@ -96,7 +113,18 @@ public class ArtistService {
     public void deleteArtist(Long id) {
         Artist artist = artistRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Artist not found"));
+        // Song của artist bị xóa theo cascade
+        List<Long> songIds = artist.getSongs().stream().map(Song::getId).toList();
+        List<String> mediaUrls = new ArrayList<>();
+        mediaUrls.add(artist.getAvatar());
+        artist.getSongs().forEach(song -> {
+            mediaUrls.add(song.getAudioUrl());
+            mediaUrls.add(song.getThumbnail());
+        });
         artistRepository.delete(artist);
+        mediaUrls.forEach(mediaLibrary::release);
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(SuggestionType.ARTIST, id));
+        songIds.forEach(songId -> eventPublisher.publishEvent(CatalogChangedEvent.removed(SuggestionType.SONG, songId)));
     }
 
     public Page<ArtistResponseDTO> searchArtists(String query, Pageable pageable) {
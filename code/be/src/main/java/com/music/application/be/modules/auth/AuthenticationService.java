@@ -2,7 +2,6 @@ package com.music.application.be.modules.auth;
 
 import com.music.application.be.modules.auth.dto.LoginRequest;
 import com.music.application.be.modules.auth.dto.RegisterRequest;
-import com.music.application.be.modules.cloudinary.CloudinaryService;
 import com.music.application.be.modules.token.JwtService;
 import com.music.application.be.modules.token.Token;
 import com.music.application.be.modules.token.TokenRepository;
@@ -12,6 +11,7 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,10 +31,8 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final TokenRepository tokenRepository;
     private final AuthenticationManager authenticationManager;
-    private final CloudinaryService cloudinaryService;
-
-    // Ảnh mặc định từ Cloudinary
-    private static final String DEFAULT_AVATAR_URL = "https://res.cloudinary.com/djuollv0e/image/upload/v1748102026/default-avatar-icon-of-social-media-user-vector_mydopw.jpg";
+    // Ảnh mặc định, cấu hình được để chạy không cần Cloudinary (profile local-storage)
+    private final String defaultAvatarUrl;
 
     @Autowired
     public AuthenticationService(UserRepository repository,
@@ -42,13 +40,13 @@ public class AuthenticationService {
                                  JwtService jwtService,
                                  TokenRepository tokenRepository,
                                  AuthenticationManager authenticationManager,
-                                 CloudinaryService cloudinaryService) {
+                                 @Value("${app.media.default-avatar-url}") String defaultAvatarUrl) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.tokenRepository = tokenRepository;
         this.authenticationManager = authenticationManager;
-        this.cloudinaryService = cloudinaryService;
+        this.defaultAvatarUrl = defaultAvatarUrl;
     }
 
     public AuthenticationResponse register(RegisterRequest request) throws IOException {
@@ -67,7 +65,7 @@ public class AuthenticationService {
         user.setEmail(request.getEmail());
         user.setPhone(request.getPhone());
         user.setRole(request.getRole());
-        user.setAvatar(DEFAULT_AVATAR_URL);
+        user.setAvatar(defaultAvatarUrl);
 
         repository.save(user);
 
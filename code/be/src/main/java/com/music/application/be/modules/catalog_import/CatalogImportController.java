@@ -0,0 +1,92 @@
+package com.music.application.be.modules.catalog_import;
+
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.modules.catalog_import.dto.CatalogImportItemDTO;
+import com.music.application.be.modules.catalog_import.dto.CatalogImportJobDTO;
+import com.music.application.be.modules.catalog_import.dto.CatalogImportRequestDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/catalog-imports")
+public class CatalogImportController {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Operation(
+            summary = "Start a bulk catalog import",
+            description = "Imports the audio files of a server-side directory, or the files listed in a CSV / NDJSON manifest, " +
+                    "relative to app.catalog-import.root. Artists, albums and genres are matched by name and created when missing. " +
+                    "Returns immediately; poll /api/catalog-imports/{id} for progress.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Import accepted",
+                            content = @Content(schema = @Schema(implementation = CatalogImportJobDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid source"),
+                    @ApiResponse(responseCode = "503", description = "Import queue is full")
+            }
+    )
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping
+    public ResponseEntity<CatalogImportJobDTO> submit(@RequestBody CatalogImportRequestDTO request) throws Exception {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogImportService.submit(request));
+    }
+
+    @Operation(
+            summary = "Get catalog import progress",
+            description = "Returns the status and the number of files imported, skipped (already in the catalog) and failed.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved job",
+                            content = @Content(schema = @Schema(implementation = CatalogImportJobDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Job not found")
+            }
+    )
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/{id}")
+    public ResponseEntity<CatalogImportJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(catalogImportService.getJob(id));
+    }
+
+    @Operation(
+            summary = "List files that failed to import",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved failures"),
+                    @ApiResponse(responseCode = "404", description = "Job not found")
+            }
+    )
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/{id}/failures")
+    public ResponseEntity<PagedResponse<CatalogImportItemDTO>> getFailures(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(catalogImportService.getFailures(id, PageRequest.of(page, size, Sort.by("id"))));
+    }
+
+    @Operation(
+            summary = "Resume a catalog import",
+            description = "Continues an interrupted or failed job with the files that were not processed yet. " +
+                    "With retryFailed=true, files that failed are imported again as well.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Import resumed",
+                            content = @Content(schema = @Schema(implementation = CatalogImportJobDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Job is still running"),
+                    @ApiResponse(responseCode = "404", description = "Job not found")
+            }
+    )
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<CatalogImportJobDTO> resume(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "false") boolean retryFailed) {
+        return ResponseEntity.ok(catalogImportService.resume(id, retryFailed));
+    }
+}
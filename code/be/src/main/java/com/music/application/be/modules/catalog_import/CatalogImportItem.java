@@ -0,0 +1,38 @@
+package com.music.application.be.modules.catalog_import;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "catalog_import_items",
+        uniqueConstraints = @UniqueConstraint(name = "uk_catalog_import_items_job_path", columnNames = {"job_id", "path"}),
+        indexes = @Index(name = "idx_catalog_import_items_job_status", columnList = "job_id, status"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catalog_import_items_seq")
+    @SequenceGenerator(name = "catalog_import_items_seq", sequenceName = "catalog_import_items_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    // Đường dẫn tuyệt đối đã chuẩn hóa của file audio
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String path;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CatalogImportItemStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "song_id")
+    private Long songId;
+}
@@ -0,0 +1,30 @@
+package com.music.application.be.modules.catalog_import;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CatalogImportItemRepository extends JpaRepository<CatalogImportItem, Long> {
+
+    Page<CatalogImportItem> findByJobIdAndStatus(Long jobId, CatalogImportItemStatus status, Pageable pageable);
+
+    @Query("SELECT i.path FROM CatalogImportItem i WHERE i.jobId = :jobId AND i.status IN :statuses")
+    List<String> findPaths(Long jobId, Collection<CatalogImportItemStatus> statuses);
+
+    long countByJobId(Long jobId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CatalogImportItem i SET i.status = com.music.application.be.modules.catalog_import.CatalogImportItemStatus.PENDING, " +
+            "i.error = null WHERE i.jobId = :jobId " +
+            "AND i.status = com.music.application.be.modules.catalog_import.CatalogImportItemStatus.FAILED")
+    int resetFailed(Long jobId);
+}
@@ -0,0 +1,9 @@
+package com.music.application.be.modules.catalog_import;
+
+public enum CatalogImportItemStatus {
+    PENDING,
+    IMPORTED,
+    // Nội dung audio đã có trong catalog
+    SKIPPED,
+    FAILED
+}
@@ -0,0 +1,61 @@
+package com.music.application.be.modules.catalog_import;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "catalog_import_jobs", indexes = @Index(name = "idx_catalog_import_jobs_status", columnList = "status"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catalog_import_jobs_seq")
+    @SequenceGenerator(name = "catalog_import_jobs_seq", sequenceName = "catalog_import_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CatalogImportStatus status;
+
+    // Thư mục hoặc file manifest trên server, đọc lại khi resume
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String source;
+
+    @Column(nullable = false)
+    private boolean manifest;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(nullable = false)
+    private int imported;
+
+    @Column(nullable = false)
+    private int skipped;
+
+    @Column(nullable = false)
+    private int failed;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "submitted_by")
+    private String submittedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
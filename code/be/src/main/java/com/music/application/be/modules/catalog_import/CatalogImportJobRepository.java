@@ -0,0 +1,51 @@
+package com.music.application.be.modules.catalog_import;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CatalogImportJobRepository extends JpaRepository<CatalogImportJob, Long> {
+
+    // Chỉ job không chạy mới được bắt đầu, tránh hai worker cùng xử lý một job
+    @Transactional
+    @Modifying
+    @Query("UPDATE CatalogImportJob j SET j.status = com.music.application.be.modules.catalog_import.CatalogImportStatus.RUNNING, " +
+            "j.error = null, j.updatedAt = :now, j.completedAt = null " +
+            "WHERE j.id = :id AND j.status <> com.music.application.be.modules.catalog_import.CatalogImportStatus.RUNNING")
+    int markRunning(Long id, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CatalogImportJob j SET j.total = :total, j.updatedAt = :now WHERE j.id = :id")
+    int updateTotal(Long id, int total, LocalDateTime now);
+
+    // Chạy trong transaction ghi lô bài hát, tiến độ và dữ liệu cùng commit hoặc cùng rollback
+    @Modifying
+    @Query("UPDATE CatalogImportJob j SET j.imported = j.imported + :imported, j.skipped = j.skipped + :skipped, " +
+            "j.failed = j.failed + :failed, j.updatedAt = :now WHERE j.id = :id")
+    int addCounts(Long id, int imported, int skipped, int failed, LocalDateTime now);
+
+    // Resume lại file lỗi: bỏ chúng khỏi số đếm
+    @Transactional
+    @Modifying
+    @Query("UPDATE CatalogImportJob j SET j.failed = 0, j.updatedAt = :now WHERE j.id = :id")
+    int resetFailed(Long id, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CatalogImportJob j SET j.status = :status, j.error = :error, j.updatedAt = :now, j.completedAt = :now " +
+            "WHERE j.id = :id")
+    int markFinished(Long id, CatalogImportStatus status, String error, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CatalogImportJob j SET j.status = com.music.application.be.modules.catalog_import.CatalogImportStatus.FAILED, " +
+            "j.error = :error, j.updatedAt = :now, j.completedAt = :now " +
+            "WHERE j.status = com.music.application.be.modules.catalog_import.CatalogImportStatus.RUNNING AND j.updatedAt < :before")
+    int failStale(LocalDateTime before, String error, LocalDateTime now);
+}
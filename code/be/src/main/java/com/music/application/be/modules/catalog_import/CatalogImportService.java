@@ -0,0 +1,569 @@
+package com.music.application.be.modules.catalog_import;
+
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.common.PaginationUtils;
+import com.music.application.be.exceptions.UploadCapacityExceededException;
+import com.music.application.be.modules.catalog_import.dto.CatalogImportItemDTO;
+import com.music.application.be.modules.catalog_import.dto.CatalogImportJobDTO;
+import com.music.application.be.modules.catalog_import.dto.CatalogImportRequestDTO;
+import com.music.application.be.modules.media.AudioMetadataReader;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaLibrary;
+import com.music.application.be.modules.media.SpooledUpload;
+import com.music.application.be.modules.media.UploadSpooler;
+import com.music.application.be.modules.search.CatalogChangedEvent;
+import com.music.application.be.modules.search.SuggestionType;
+import com.music.application.be.modules.song.SongCacheInvalidator;
+import com.music.application.be.modules.song.SongsChangedEvent;
+import com.music.application.be.modules.song.SongLeaderboard;
+import jakarta.persistence.EntityNotFoundException;
+import org.jaudiotagger.audio.AudioFile;
+import org.jaudiotagger.audio.AudioFileIO;
+import org.jaudiotagger.tag.FieldKey;
+import org.jaudiotagger.tag.Tag;
+import org.jaudiotagger.tag.images.Artwork;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admin bulk import of audio files that are already on the server, from a directory or a
+ * CSV / NDJSON manifest.
+ * <p>
+ * Every file of the source is recorded as a {@link CatalogImportItem} before processing, and
+ * files are then handled in chunks of {@code batch-size}: tags, duration and embedded artwork
+ * are read with jaudiotagger and the media stored through {@link MediaLibrary} in parallel on a
+ * per-job {@link ForkJoinPool}, and the chunk is written by {@link CatalogImportWriter} in one
+ * transaction. Album artwork shared by many files is stored once per job. A job that was
+ * interrupted, or that has failed files, can be resumed: finished files are not read again.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final String UNKNOWN_ARTIST = "Unknown Artist";
+    private static final Pattern YEAR = Pattern.compile("(\\d{4})(?:-(\\d{2})-(\\d{2}))?");
+    private static final int ITEM_INSERT_BATCH = 1000;
+
+    @Autowired
+    private CatalogImportJobRepository catalogImportJobRepository;
+
+    @Autowired
+    private CatalogImportItemRepository catalogImportItemRepository;
+
+    @Autowired
+    private CatalogSourceReader catalogSourceReader;
+
+    @Autowired
+    private CatalogImportWriter catalogImportWriter;
+
+    @Autowired
+    private MediaLibrary mediaLibrary;
+
+    @Autowired
+    private UploadSpooler uploadSpooler;
+
+    @Autowired
+    private AudioMetadataReader audioMetadataReader;
+
+    @Autowired
+    private SongLeaderboard songLeaderboard;
+
+    @Autowired
+    private SongCacheInvalidator songCacheInvalidator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("catalogImportExecutor")
+    private ThreadPoolTaskExecutor catalogImportExecutor;
+
+    // Để trống thì tắt import: chỉ file nằm trong thư mục này mới được đọc
+    @Value("${app.catalog-import.root:}")
+    private String root;
+
+    @Value("${app.catalog-import.batch-size:500}")
+    private int batchSize;
+
+    // 0: số CPU
+    @Value("${app.catalog-import.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.catalog-import.default-thumbnail-url}")
+    private String defaultThumbnailUrl;
+
+    @Value("${app.catalog-import.stale-after:30m}")
+    private Duration staleAfter;
+
+    public CatalogImportJobDTO submit(CatalogImportRequestDTO request) throws IOException {
+        boolean hasDirectory = request.getDirectory() != null && !request.getDirectory().isBlank();
+        boolean hasManifest = request.getManifest() != null && !request.getManifest().isBlank();
+        if (hasDirectory == hasManifest) {
+            throw new IllegalArgumentException("Provide either a directory or a manifest");
+        }
+        Path source = resolveUnderRoot(hasDirectory ? request.getDirectory() : request.getManifest());
+        if (hasDirectory ? !Files.isDirectory(source) : !Files.isRegularFile(source)) {
+            throw new IllegalArgumentException("Import source not found: " + source);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CatalogImportJob job = catalogImportJobRepository.save(CatalogImportJob.builder()
+                .status(CatalogImportStatus.PENDING)
+                .source(source.toString())
+                .manifest(hasManifest)
+                .submittedBy(currentUsername())
+                .updatedAt(now)
+                .build());
+        start(job.getId());
+        return mapToDTO(job);
+    }
+
+    /**
+     * Continues a job from the files that are not finished yet. With {@code retryFailed}, files
+     * that failed are processed again as well.
+     */
+    public CatalogImportJobDTO resume(Long id, boolean retryFailed) {
+        CatalogImportJob job = catalogImportJobRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Catalog import job not found with id: " + id));
+        if (job.getStatus() == CatalogImportStatus.RUNNING) {
+            throw new IllegalArgumentException("Catalog import job " + id + " is already running");
+        }
+        if (retryFailed) {
+            catalogImportItemRepository.resetFailed(id);
+            catalogImportJobRepository.resetFailed(id, LocalDateTime.now());
+        }
+        start(id);
+        return getJob(id);
+    }
+
+    public CatalogImportJobDTO getJob(Long id) {
+        CatalogImportJob job = catalogImportJobRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Catalog import job not found with id: " + id));
+        return mapToDTO(job);
+    }
+
+    public PagedResponse<CatalogImportItemDTO> getFailures(Long id, Pageable pageable) {
+        if (!catalogImportJobRepository.existsById(id)) {
+            throw new EntityNotFoundException("Catalog import job not found with id: " + id);
+        }
+        Page<CatalogImportItem> page = catalogImportItemRepository.findByJobIdAndStatus(id, CatalogImportItemStatus.FAILED, pageable);
+        return PaginationUtils.buildPagedResponse(page.getContent().stream().map(this::mapToDTO).toList(), page);
+    }
+
+    // Server khởi động lại giữa chừng: job RUNNING không còn ai chạy, đánh dấu để admin resume
+    @Scheduled(fixedDelayString = "${app.catalog-import.stale-check-interval-ms:300000}")
+    public void failStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int failed = catalogImportJobRepository.failStale(now.minus(staleAfter),
+                "Import was interrupted, resume the job to continue", now);
+        if (failed > 0) {
+            System.out.println("Marked " + failed + " stale catalog import jobs as failed");
+        }
+    }
+
+    private void start(Long jobId) {
+        try {
+            catalogImportExecutor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            catalogImportJobRepository.markFinished(jobId, CatalogImportStatus.FAILED, "Import queue is full", LocalDateTime.now());
+            throw new UploadCapacityExceededException("Too many catalog imports waiting, please try again later");
+        }
+    }
+
+    private void run(Long jobId) {
+        if (catalogImportJobRepository.markRunning(jobId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        Map<String, CompletableFuture<MediaLibrary.StoredImage>> artwork = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            CatalogImportJob job = catalogImportJobRepository.findById(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Catalog import job not found with id: " + jobId));
+            Path source = resolveUnderRoot(job.getSource());
+            List<ManifestEntry> entries = dedupe(job.isManifest()
+                    ? catalogSourceReader.readManifest(source)
+                    : catalogSourceReader.scanDirectory(source));
+
+            recordItems(jobId, entries);
+            Set<String> finished = new HashSet<>(catalogImportItemRepository.findPaths(jobId,
+                    List.of(CatalogImportItemStatus.IMPORTED, CatalogImportItemStatus.SKIPPED, CatalogImportItemStatus.FAILED)));
+            List<ManifestEntry> pending = entries.stream().filter(entry -> !finished.contains(entry.getPath())).toList();
+
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<ManifestEntry> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                // parallelStream chạy trên pool của job thay vì common pool
+                List<ExtractedTrack> tracks = pool.submit(() -> chunk.parallelStream()
+                        .map(entry -> extract(entry, artwork))
+                        .toList()).get();
+                writeChunk(jobId, tracks);
+            }
+            catalogImportJobRepository.markFinished(jobId, CatalogImportStatus.COMPLETED, null, LocalDateTime.now());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(jobId, e);
+        } catch (ExecutionException e) {
+            fail(jobId, e.getCause() != null ? e.getCause() : e);
+        } catch (IOException | RuntimeException e) {
+            fail(jobId, e);
+        } finally {
+            pool.shutdown();
+            // Reference của cache ảnh; mỗi bài hát / album đã giữ reference riêng
+            artwork.values().forEach(image -> image.handle((value, error) -> value).thenAccept(stored -> {
+                if (stored != null) {
+                    mediaLibrary.release(stored.url(), stored.variants());
+                }
+            }));
+        }
+    }
+
+    // Ghi trước mọi file với trạng thái PENDING để biết tổng số và resume được
+    private void recordItems(Long jobId, List<ManifestEntry> entries) {
+        List<Object[]> rows = new ArrayList<>(Math.min(entries.size(), ITEM_INSERT_BATCH));
+        for (ManifestEntry entry : entries) {
+            rows.add(new Object[]{jobId, entry.getPath()});
+            if (rows.size() == ITEM_INSERT_BATCH) {
+                insertItems(rows);
+                rows.clear();
+            }
+        }
+        insertItems(rows);
+        catalogImportJobRepository.updateTotal(jobId, (int) catalogImportItemRepository.countByJobId(jobId), LocalDateTime.now());
+    }
+
+    private void insertItems(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO catalog_import_items (job_id, path, status) VALUES (?, ?, 'PENDING') " +
+                    "ON CONFLICT (job_id, path) DO NOTHING", rows);
+        }
+    }
+
+    private void writeChunk(Long jobId, List<ExtractedTrack> tracks) {
+        CatalogImportWriter.Result result;
+        try {
+            result = catalogImportWriter.write(jobId, tracks);
+        } catch (RuntimeException e) {
+            System.err.println("Catalog import job " + jobId + " failed to write a chunk: " + e.getMessage());
+            tracks.stream().filter(track -> !track.isFailed()).forEach(track -> mediaLibrary.release(track.audioUrl()));
+            catalogImportWriter.markFailed(jobId, tracks, "Failed to save: " + e.getMessage());
+            return;
+        }
+
+        // Audio của file bị bỏ qua đã có bài hát khác giữ
+        result.skipped().forEach(track -> mediaLibrary.release(track.audioUrl()));
+        retainThumbnails(result);
+
+        Map<Long, Long> viewCounts = new LinkedHashMap<>();
+        List<SongCacheInvalidator.Snapshot> snapshots = new ArrayList<>();
+        List<SongsChangedEvent.State> states = new ArrayList<>();
+        for (CatalogImportWriter.WrittenSong song : result.songs()) {
+            viewCounts.put(song.id(), 0L);
+            snapshots.add(new SongCacheInvalidator.Snapshot(song.id(), song.track().title(), song.artistId(), song.albumId(), song.genreIds()));
+            states.add(new SongsChangedEvent.State(song.artistId(), song.genreIds(), song.track().releaseDate(), song.track().duration(), 0));
+            eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.SONG, song.id(), song.track().title()));
+        }
+        result.newArtists().forEach(artist -> eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.ARTIST, artist.id(), artist.name())));
+        result.newAlbums().forEach(album -> eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.ALBUM, album.id(), album.name())));
+
+        try {
+            songLeaderboard.putAll(viewCounts);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to update song leaderboard: " + e.getMessage());
+        }
+        songCacheInvalidator.songsCreated(snapshots);
+        // Cả lô trong một event: mỗi smart playlist bị ảnh hưởng chỉ được tính lại một lần
+        eventPublisher.publishEvent(SongsChangedEvent.created(states));
+        if (!result.newArtists().isEmpty()) {
+            clearCache("allArtists");
+        }
+        if (!result.newAlbums().isEmpty()) {
+            clearCache("allAlbums");
+        }
+        if (result.newGenres()) {
+            clearCache("genres");
+        }
+    }
+
+    // Mỗi bài hát và album mới giữ một reference tới ảnh, gộp theo URL để mỗi ảnh chỉ một câu UPDATE
+    private void retainThumbnails(CatalogImportWriter.Result result) {
+        Map<String, MediaLibrary.StoredImage> images = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        List<MediaLibrary.StoredImage> used = new ArrayList<>(result.newAlbumCovers());
+        result.songs().forEach(song -> used.add(song.track().thumbnail()));
+        for (MediaLibrary.StoredImage image : used) {
+            images.putIfAbsent(image.url(), image);
+            counts.merge(image.url(), 1, Integer::sum);
+        }
+        counts.forEach((url, count) -> mediaLibrary.retain(url, images.get(url).variants(), count));
+    }
+
+    private ExtractedTrack extract(ManifestEntry entry, Map<String, CompletableFuture<MediaLibrary.StoredImage>> artwork) {
+        String path = entry.getPath();
+        try {
+            Path file = resolveUnderRoot(path);
+            if (!Files.isRegularFile(file)) {
+                return ExtractedTrack.failed(path, "File not found");
+            }
+
+            AudioFile audioFile = null;
+            Tag tag = null;
+            try {
+                audioFile = AudioFileIO.read(file.toFile());
+                tag = audioFile.getTag();
+            } catch (Exception e) {
+                // Không đọc được tag: vẫn import với metadata từ manifest / tên file
+            }
+            int duration = audioFile != null && audioFile.getAudioHeader() != null
+                    ? audioFile.getAudioHeader().getTrackLength()
+                    : audioMetadataReader.readDurationSeconds(file.toFile());
+
+            String title = firstNonBlank(entry.getTitle(), tagValue(tag, FieldKey.TITLE), baseName(file));
+            String artist = firstNonBlank(entry.getArtist(), tagValue(tag, FieldKey.ARTIST), tagValue(tag, FieldKey.ALBUM_ARTIST), UNKNOWN_ARTIST);
+            String album = firstNonBlank(entry.getAlbum(), tagValue(tag, FieldKey.ALBUM));
+            List<String> genres = genres(entry.getGenres() != null ? entry.getGenres() : splitGenres(tagValue(tag, FieldKey.GENRE)));
+            LocalDate releaseDate = parseDate(firstNonBlank(entry.getReleaseDate(), tagValue(tag, FieldKey.YEAR)));
+            String lyrics = firstNonBlank(entry.getLyrics(), tagValue(tag, FieldKey.LYRICS));
+
+            MediaLibrary.StoredImage thumbnail = thumbnail(entry, tag, artwork);
+            // Upload audio sau cùng: các bước trên lỗi thì không có reference nào bị giữ
+            String audioUrl = mediaLibrary.store(file, MediaKind.AUDIO);
+            return new ExtractedTrack(path, truncate(title), truncate(artist), album != null ? truncate(album) : null,
+                    genres, releaseDate, lyrics, duration, audioUrl, thumbnail, null);
+        } catch (IOException | RuntimeException e) {
+            return ExtractedTrack.failed(path, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private MediaLibrary.StoredImage thumbnail(ManifestEntry entry, Tag tag,
+                                               Map<String, CompletableFuture<MediaLibrary.StoredImage>> artwork) throws IOException {
+        if (entry.getThumbnail() != null && !entry.getThumbnail().isBlank()) {
+            Path image = resolveUnderRoot(entry.getThumbnail());
+            return cachedImage(artwork, "file:" + image, () -> mediaLibrary.storeImage(image));
+        }
+        Artwork embedded = tag != null ? tag.getFirstArtwork() : null;
+        byte[] data = embedded != null ? embedded.getBinaryData() : null;
+        if (data != null && data.length > 0) {
+            String extension = embedded.getMimeType() != null && embedded.getMimeType().endsWith("png") ? "png" : "jpg";
+            return cachedImage(artwork, "sha256:" + sha256(data), () -> {
+                try (SpooledUpload upload = uploadSpooler.spool(data, extension)) {
+                    return mediaLibrary.storeImage(upload);
+                }
+            });
+        }
+        return new MediaLibrary.StoredImage(defaultThumbnailUrl, Map.of());
+    }
+
+    private interface ImageStep {
+        MediaLibrary.StoredImage store() throws IOException;
+    }
+
+    // Các bài hát cùng album thường có cùng ảnh: chỉ luồng đầu tiên lưu, các luồng khác đợi kết quả
+    private static MediaLibrary.StoredImage cachedImage(Map<String, CompletableFuture<MediaLibrary.StoredImage>> artwork,
+                                                        String key, ImageStep step) throws IOException {
+        CompletableFuture<MediaLibrary.StoredImage> created = new CompletableFuture<>();
+        CompletableFuture<MediaLibrary.StoredImage> existing = artwork.putIfAbsent(key, created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw new IOException("Failed to store artwork: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        try {
+            MediaLibrary.StoredImage image = step.store();
+            created.complete(image);
+            return image;
+        } catch (IOException | RuntimeException e) {
+            // Bỏ khỏi cache để file sau thử lại
+            artwork.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Path resolveUnderRoot(String location) {
+        if (root == null || root.isBlank()) {
+            throw new IllegalArgumentException("Catalog import is disabled, set app.catalog-import.root");
+        }
+        Path rootPath = Path.of(root).toAbsolutePath().normalize();
+        Path path = rootPath.resolve(location).normalize();
+        if (!path.startsWith(rootPath)) {
+            throw new IllegalArgumentException("Path is outside the import root: " + location);
+        }
+        return path;
+    }
+
+    private static List<ManifestEntry> dedupe(List<ManifestEntry> entries) {
+        Map<String, ManifestEntry> byPath = new LinkedHashMap<>();
+        entries.forEach(entry -> byPath.putIfAbsent(entry.getPath(), entry));
+        return new ArrayList<>(byPath.values());
+    }
+
+    private static String tagValue(Tag tag, FieldKey key) {
+        if (tag == null) {
+            return null;
+        }
+        try {
+            String value = tag.getFirst(key);
+            return value == null || value.isBlank() ? null : value.trim();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
+    private static List<String> splitGenres(String value) {
+        return value == null ? List.of() : Arrays.asList(value.split("[;/,\\u0000]"));
+    }
+
+    private static List<String> genres(List<String> values) {
+        Map<String, String> genres = new LinkedHashMap<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String genre : value.split(";")) {
+                if (!genre.isBlank()) {
+                    genres.putIfAbsent(CatalogImportWriter.key(genre), truncate(genre.trim()));
+                }
+            }
+        }
+        return new ArrayList<>(genres.values());
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = YEAR.matcher(value);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            int year = Integer.parseInt(matcher.group(1));
+            return matcher.group(2) != null
+                    ? LocalDate.of(year, Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)))
+                    : LocalDate.of(year, 1, 1);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // Cột name / title là varchar(255)
+    private static String truncate(String value) {
+        return value.length() > 255 ? value.substring(0, 255) : value;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void clearCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void fail(Long jobId, Throwable cause) {
+        System.err.println("Catalog import job " + jobId + " failed: " + cause.getMessage());
+        try {
+            catalogImportJobRepository.markFinished(jobId, CatalogImportStatus.FAILED, String.valueOf(cause.getMessage()), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Job sẽ bị failStaleJobs đánh dấu sau
+            System.err.println("Failed to record catalog import failure: " + e.getMessage());
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private CatalogImportJobDTO mapToDTO(CatalogImportJob job) {
+        return CatalogImportJobDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .source(job.getSource())
+                .total(job.getTotal())
+                .processed(job.getImported() + job.getSkipped() + job.getFailed())
+                .imported(job.getImported())
+                .skipped(job.getSkipped())
+                .failed(job.getFailed())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private CatalogImportItemDTO mapToDTO(CatalogImportItem item) {
+        return CatalogImportItemDTO.builder()
+                .id(item.getId())
+                .path(item.getPath())
+                .status(item.getStatus())
+                .error(item.getError())
+                .songId(item.getSongId())
+                .build();
+    }
+}
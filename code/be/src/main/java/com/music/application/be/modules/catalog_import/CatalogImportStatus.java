@@ -0,0 +1,9 @@
+package com.music.application.be.modules.catalog_import;
+
+public enum CatalogImportStatus {
+    PENDING,
+    RUNNING,
+    // Đã xử lý hết file, có thể còn file lỗi (xem failed)
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,299 @@
+package com.music.application.be.modules.catalog_import;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.application.be.modules.media.MediaLibrary;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes one chunk of extracted tracks in a single transaction with plain JDBC.
+ * <p>
+ * Artists, albums and genres are matched by case-insensitive name (albums within their artist)
+ * and inserted when missing; songs, {@code song_genre} rows and the item statuses are sent as JDBC
+ * batches.
+ * Tracks whose audio content is already in the catalog are skipped. The job counters are updated
+ * in the same transaction, so after a crash the counters and the item statuses agree with the
+ * songs that were committed.
+ */
+@Component
+class CatalogImportWriter {
+
+    record WrittenSong(Long id, ExtractedTrack track, Long artistId, Long albumId, Set<Long> genreIds) {
+    }
+
+    record NamedRow(Long id, String name) {
+    }
+
+    record Result(List<WrittenSong> songs,
+                  List<ExtractedTrack> skipped,
+                  List<NamedRow> newArtists,
+                  List<NamedRow> newAlbums,
+                  // Ảnh bìa của album mới, mỗi phần tử là một reference cần giữ
+                  List<MediaLibrary.StoredImage> newAlbumCovers,
+                  boolean newGenres) {
+    }
+
+    private static final String INSERT_SONG = "INSERT INTO songs (title, duration, audio_url, thumbnail, thumbnail_variants, " +
+            "lyrics, release_date, view_count, album_id, artist_id) VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogImportJobRepository catalogImportJobRepository;
+    private final ObjectMapper objectMapper;
+
+    CatalogImportWriter(JdbcTemplate jdbcTemplate,
+                        NamedParameterJdbcTemplate namedJdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        CatalogImportJobRepository catalogImportJobRepository,
+                        ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogImportJobRepository = catalogImportJobRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    Result write(Long jobId, List<ExtractedTrack> tracks) {
+        return transactionTemplate.execute(status -> doWrite(jobId, tracks));
+    }
+
+    // Lô bị rollback: ghi lỗi cho cả lô để resume với retryFailed xử lý lại
+    void markFailed(Long jobId, List<ExtractedTrack> tracks, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            updateItems(jobId, tracks.stream()
+                    .map(track -> new Object[]{CatalogImportItemStatus.FAILED.name(), error, null, jobId, track.path()})
+                    .toList());
+            catalogImportJobRepository.addCounts(jobId, 0, 0, tracks.size(), LocalDateTime.now());
+        });
+    }
+
+    private Result doWrite(Long jobId, List<ExtractedTrack> tracks) {
+        List<ExtractedTrack> candidates = new ArrayList<>();
+        List<ExtractedTrack> skipped = new ArrayList<>();
+        List<ExtractedTrack> failed = new ArrayList<>();
+        Set<String> existingAudio = existingAudioUrls(tracks);
+        Set<String> seenAudio = new HashSet<>();
+        for (ExtractedTrack track : tracks) {
+            if (track.isFailed()) {
+                failed.add(track);
+            } else if (existingAudio.contains(track.audioUrl()) || !seenAudio.add(track.audioUrl())) {
+                skipped.add(track);
+            } else {
+                candidates.add(track);
+            }
+        }
+
+        Map<String, Long> genreIds = new HashMap<>();
+        boolean newGenres = upsertByName("genres", "INSERT INTO genres (name) VALUES (:name)",
+                candidates.stream().flatMap(track -> track.genres().stream()).toList(), genreIds, new ArrayList<>());
+
+        Map<String, Long> artistIds = new HashMap<>();
+        List<NamedRow> newArtists = new ArrayList<>();
+        upsertByName("artists", "INSERT INTO artists (name, follower_count) VALUES (:name, 0)",
+                candidates.stream().map(ExtractedTrack::artist).toList(), artistIds, newArtists);
+
+        Map<String, Long> albumIds = new HashMap<>();
+        List<NamedRow> newAlbums = new ArrayList<>();
+        List<MediaLibrary.StoredImage> newAlbumCovers = new ArrayList<>();
+        upsertAlbums(candidates, artistIds, albumIds, newAlbums, newAlbumCovers);
+
+        List<WrittenSong> songs = insertSongs(candidates, artistIds, albumIds, genreIds);
+        insertGenreLinks(songs);
+
+        List<Object[]> items = new ArrayList<>();
+        songs.forEach(song -> items.add(new Object[]{CatalogImportItemStatus.IMPORTED.name(), null, song.id(), jobId, song.track().path()}));
+        skipped.forEach(track -> items.add(new Object[]{CatalogImportItemStatus.SKIPPED.name(), null, null, jobId, track.path()}));
+        failed.forEach(track -> items.add(new Object[]{CatalogImportItemStatus.FAILED.name(), track.error(), null, jobId, track.path()}));
+        updateItems(jobId, items);
+        catalogImportJobRepository.addCounts(jobId, songs.size(), skipped.size(), failed.size(), LocalDateTime.now());
+
+        return new Result(songs, skipped, newArtists, newAlbums, newAlbumCovers, newGenres);
+    }
+
+    private Set<String> existingAudioUrls(List<ExtractedTrack> tracks) {
+        List<String> urls = tracks.stream().filter(track -> !track.isFailed()).map(ExtractedTrack::audioUrl).distinct().toList();
+        if (urls.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT audio_url FROM songs WHERE audio_url IN (:urls)", new MapSqlParameterSource("urls", urls), String.class));
+    }
+
+    // Trả về true nếu có dòng mới được thêm; ids: tên viết thường -> id
+    private boolean upsertByName(String table, String insertSql, List<String> names, Map<String, Long> ids, List<NamedRow> created) {
+        Map<String, String> wanted = new LinkedHashMap<>();
+        names.forEach(name -> wanted.putIfAbsent(key(name), name));
+        if (wanted.isEmpty()) {
+            return false;
+        }
+        namedJdbcTemplate.query("SELECT id, name FROM " + table + " WHERE lower(name) IN (:names) ORDER BY id",
+                new MapSqlParameterSource("names", wanted.keySet()),
+                rs -> {
+                    ids.putIfAbsent(key(rs.getString("name")), rs.getLong("id"));
+                });
+        wanted.forEach((key, name) -> {
+            if (!ids.containsKey(key)) {
+                Long id = insert(insertSql, new MapSqlParameterSource("name", name));
+                ids.put(key, id);
+                created.add(new NamedRow(id, name));
+            }
+        });
+        return !created.isEmpty();
+    }
+
+    private void upsertAlbums(List<ExtractedTrack> tracks, Map<String, Long> artistIds, Map<String, Long> albumIds,
+                              List<NamedRow> created, List<MediaLibrary.StoredImage> covers) {
+        Map<String, ExtractedTrack> wanted = new LinkedHashMap<>();
+        for (ExtractedTrack track : tracks) {
+            if (track.album() != null) {
+                wanted.putIfAbsent(albumKey(artistIds.get(key(track.artist())), track.album()), track);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("artistIds", new HashSet<>(artistIds.values()))
+                .addValue("names", wanted.values().stream().map(track -> key(track.album())).distinct().toList());
+        namedJdbcTemplate.query("SELECT id, artist_id, name FROM albums WHERE artist_id IN (:artistIds) " +
+                        "AND lower(name) IN (:names) ORDER BY id", params,
+                rs -> {
+                    albumIds.putIfAbsent(albumKey(rs.getLong("artist_id"), rs.getString("name")), rs.getLong("id"));
+                });
+        wanted.forEach((key, track) -> {
+            if (albumIds.containsKey(key)) {
+                return;
+            }
+            // Album mới lấy ảnh của bài hát đầu tiên làm ảnh bìa
+            MediaLibrary.StoredImage cover = track.thumbnail();
+            Long id = insert("INSERT INTO albums (name, release_date, cover_image, cover_image_variants, artist_id) " +
+                            "VALUES (:name, :releaseDate, :coverImage, CAST(:coverImageVariants AS jsonb), :artistId)",
+                    new MapSqlParameterSource()
+                            .addValue("name", track.album())
+                            .addValue("releaseDate", track.releaseDate())
+                            .addValue("coverImage", cover.url())
+                            .addValue("coverImageVariants", json(cover.variants()), Types.VARCHAR)
+                            .addValue("artistId", artistIds.get(key(track.artist()))));
+            albumIds.put(key, id);
+            created.add(new NamedRow(id, track.album()));
+            covers.add(cover);
+        });
+    }
+
+    private List<WrittenSong> insertSongs(List<ExtractedTrack> tracks, Map<String, Long> artistIds,
+                                          Map<String, Long> albumIds, Map<String, Long> genreIds) {
+        if (tracks.isEmpty()) {
+            return List.of();
+        }
+        List<WrittenSong> pending = new ArrayList<>(tracks.size());
+        for (ExtractedTrack track : tracks) {
+            Long artistId = artistIds.get(key(track.artist()));
+            Long albumId = track.album() != null ? albumIds.get(albumKey(artistId, track.album())) : null;
+            Set<Long> songGenreIds = new LinkedHashSet<>();
+            track.genres().forEach(genre -> songGenreIds.add(genreIds.get(key(genre))));
+            pending.add(new WrittenSong(null, track, artistId, albumId, songGenreIds));
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SONG, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        WrittenSong song = pending.get(i);
+                        ExtractedTrack track = song.track();
+                        ps.setString(1, track.title());
+                        ps.setInt(2, track.duration());
+                        ps.setString(3, track.audioUrl());
+                        ps.setString(4, track.thumbnail().url());
+                        ps.setString(5, json(track.thumbnail().variants()));
+                        ps.setString(6, track.lyrics());
+                        ps.setObject(7, track.releaseDate());
+                        if (song.albumId() != null) {
+                            ps.setLong(8, song.albumId());
+                        } else {
+                            ps.setNull(8, Types.BIGINT);
+                        }
+                        ps.setLong(9, song.artistId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return pending.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<WrittenSong> songs = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            WrittenSong song = pending.get(i);
+            Long id = ((Number) generated.get(i).get("id")).longValue();
+            songs.add(new WrittenSong(id, song.track(), song.artistId(), song.albumId(), song.genreIds()));
+        }
+        return songs;
+    }
+
+    private void insertGenreLinks(List<WrittenSong> songs) {
+        List<Object[]> links = new ArrayList<>();
+        songs.forEach(song -> song.genreIds().forEach(genreId -> links.add(new Object[]{song.id(), genreId})));
+        if (links.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO song_genre (song_id, genre_id) VALUES (?, ?)", links);
+    }
+
+    private void updateItems(Long jobId, List<Object[]> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE catalog_import_items SET status = ?, error = ?, song_id = ? " +
+                        "WHERE job_id = ? AND path = ?", items,
+                new int[]{Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR});
+    }
+
+    private Long insert(String sql, MapSqlParameterSource params) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        namedJdbcTemplate.update(sql, params, keys, new String[]{"id"});
+        return keys.getKey().longValue();
+    }
+
+    private String json(Map<String, String> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(variants);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String albumKey(Long artistId, String name) {
+        return artistId + "/" + key(name);
+    }
+}
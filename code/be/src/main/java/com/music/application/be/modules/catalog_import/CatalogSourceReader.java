@@ -0,0 +1,177 @@
+package com.music.application.be.modules.catalog_import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Lists the tracks of an import source: every audio file under a directory, or the rows of a
+ * CSV / NDJSON manifest. Both are read again on resume, so the job only stores the source path.
+ * <p>
+ * CSV manifests need a header row naming the columns ({@code path, title, artist, album, genres,
+ * releaseDate, lyrics, thumbnail}, only {@code path} is required); NDJSON manifests have one
+ * {@link ManifestEntry} object per line.
+ */
+@Component
+public class CatalogSourceReader {
+
+    private static final Set<String> AUDIO_EXTENSIONS = Set.of("mp3", "flac", "m4a", "mp4", "aac", "wav", "ogg", "oga");
+
+    private final ObjectMapper objectMapper;
+
+    public CatalogSourceReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<ManifestEntry> scanDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> AUDIO_EXTENSIONS.contains(extension(file)))
+                    .sorted()
+                    .map(file -> {
+                        ManifestEntry entry = new ManifestEntry();
+                        entry.setPath(file.toString());
+                        return entry;
+                    })
+                    .toList();
+        }
+    }
+
+    public List<ManifestEntry> readManifest(Path manifest) throws IOException {
+        String extension = extension(manifest);
+        List<ManifestEntry> entries = switch (extension) {
+            case "csv" -> readCsv(manifest);
+            case "ndjson", "jsonl" -> readNdjson(manifest);
+            default -> throw new IllegalArgumentException("Manifest must be a .csv, .ndjson or .jsonl file");
+        };
+        Path base = manifest.toAbsolutePath().getParent();
+        for (ManifestEntry entry : entries) {
+            if (entry.getPath() == null || entry.getPath().isBlank()) {
+                throw new IllegalArgumentException("Manifest entry without a path");
+            }
+            entry.setPath(base.resolve(entry.getPath().trim()).normalize().toString());
+            if (entry.getThumbnail() != null && !entry.getThumbnail().isBlank()) {
+                entry.setThumbnail(base.resolve(entry.getThumbnail().trim()).normalize().toString());
+            }
+        }
+        return entries;
+    }
+
+    private List<ManifestEntry> readNdjson(Path manifest) throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, ManifestEntry.class));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Invalid manifest line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<ManifestEntry> readCsv(Path manifest) throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null) {
+                return entries;
+            }
+            // Excel lưu CSV UTF-8 kèm BOM ở đầu cột đầu tiên
+            header = header.stream().map(column -> column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT)).toList();
+            if (!header.contains("path")) {
+                throw new IllegalArgumentException("CSV manifest needs a 'path' column");
+            }
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                ManifestEntry entry = new ManifestEntry();
+                for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                    String value = record.get(i).isBlank() ? null : record.get(i).trim();
+                    switch (header.get(i)) {
+                        case "path" -> entry.setPath(value);
+                        case "title" -> entry.setTitle(value);
+                        case "artist" -> entry.setArtist(value);
+                        case "album" -> entry.setAlbum(value);
+                        case "genres", "genre" -> entry.setGenres(value == null ? null : Arrays.asList(value.split(";")));
+                        case "releasedate", "release_date", "year" -> entry.setReleaseDate(value);
+                        case "lyrics" -> entry.setLyrics(value);
+                        case "thumbnail" -> entry.setThumbnail(value);
+                        default -> {
+                            // Cột không biết thì bỏ qua
+                        }
+                    }
+                }
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    // RFC 4180: trường có thể nằm trong dấu ngoặc kép, chứa dấu phẩy, xuống dòng và "" để escape
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot == -1 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
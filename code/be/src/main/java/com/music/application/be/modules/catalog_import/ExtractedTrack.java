@@ -0,0 +1,31 @@
+package com.music.application.be.modules.catalog_import;
+
+import com.music.application.be.modules.media.MediaLibrary;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of reading one file: the metadata to insert and the stored media, or the error.
+ * The audio URL carries one reference owned by the import until the song row is committed.
+ */
+record ExtractedTrack(String path,
+                      String title,
+                      String artist,
+                      String album,
+                      List<String> genres,
+                      LocalDate releaseDate,
+                      String lyrics,
+                      int duration,
+                      String audioUrl,
+                      MediaLibrary.StoredImage thumbnail,
+                      String error) {
+
+    static ExtractedTrack failed(String path, String error) {
+        return new ExtractedTrack(path, null, null, null, List.of(), null, null, 0, null, null, error);
+    }
+
+    boolean isFailed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.music.application.be.modules.catalog_import;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One track of an import: the audio file and, from a manifest, values that override the tags
+ * read from the file. Relative paths are resolved against the manifest's directory.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ManifestEntry {
+    private String path;
+    private String title;
+    private String artist;
+    private String album;
+    // NDJSON: mảng hoặc chuỗi; CSV: các genre cách nhau bởi ';'
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+    private List<String> genres;
+    // yyyy-MM-dd hoặc chỉ năm
+    private String releaseDate;
+    private String lyrics;
+    private String thumbnail;
+}
@@ -0,0 +1,19 @@
+package com.music.application.be.modules.catalog_import.dto;
+
+import com.music.application.be.modules.catalog_import.CatalogImportItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportItemDTO {
+    private Long id;
+    private String path;
+    private CatalogImportItemStatus status;
+    private String error;
+    private Long songId;
+}
@@ -0,0 +1,28 @@
+package com.music.application.be.modules.catalog_import.dto;
+
+import com.music.application.be.modules.catalog_import.CatalogImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportJobDTO {
+    private Long id;
+    private CatalogImportStatus status;
+    private String source;
+    private int total;
+    private int processed;
+    private int imported;
+    private int skipped;
+    private int failed;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
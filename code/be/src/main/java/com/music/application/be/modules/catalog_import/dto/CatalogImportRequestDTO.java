@@ -0,0 +1,10 @@
+package com.music.application.be.modules.catalog_import.dto;
+
+import lombok.Data;
+
+@Data
+public class CatalogImportRequestDTO {
+    // Một trong hai, là đường dẫn trên server nằm trong app.catalog-import.root
+    private String directory;
+    private String manifest;
+}
@@ -2,87 +2,87 @@ package com.music.application.be.modules.cloudinary;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaStorage;
+import com.music.application.be.modules.media.SpooledUpload;
+import com.music.application.be.modules.media.UploadSpooler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Map;
-import java.util.UUID;
 
+// MediaStorage mặc định; profile local-storage dùng LocalMediaStorage thay thế
 @Service
-public class CloudinaryService {
+@Profile("!local-storage")
+public class CloudinaryService implements MediaStorage {
 
     @Autowired
     private Cloudinary cloudinary;
 
+    @Autowired
+    private UploadSpooler uploadSpooler;
+
     // Phương thức upload từ MultipartFile
-    public String uploadFile(MultipartFile file, String resourceType) throws IOException {
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("File is empty");
+    @Override
+    public String store(MultipartFile file, MediaKind kind) throws IOException {
+        // File được ghi ra đĩa một lần, upload xong thì xóa
+        try (SpooledUpload upload = uploadSpooler.spool(file, "tmp")) {
+            return store(upload.getFile(), kind);
         }
-
-        File convFile = convertMultiPartToFile(file);
-        return uploadFile(convFile, resourceType);
     }
 
     // Phương thức upload từ File (dùng lại file tạm)
-    public String uploadFile(File file, String resourceType) throws IOException {
+    @Override
+    public String store(File file, MediaKind kind) throws IOException {
         if (file == null || !file.exists()) {
             throw new IllegalArgumentException("File does not exist: " + (file != null ? file.getAbsolutePath() : "null"));
         }
 
         try {
             Map uploadResult = cloudinary.uploader().upload(file,
-                    ObjectUtils.asMap("resource_type", resourceType));
+                    ObjectUtils.asMap("resource_type", resourceType(kind)));
             return (String) uploadResult.get("secure_url");
         } catch (IOException e) {
             throw new IOException("Failed to upload file to Cloudinary: " + e.getMessage(), e);
         }
     }
 
-    private File convertMultiPartToFile(MultipartFile file) throws IOException {
-        // Sử dụng UUID để tạo tên file duy nhất
-        String tempFileName = "upload_" + UUID.randomUUID().toString() + "." +
-                getFileExtension(file.getOriginalFilename());
-        File convFile = new File(System.getProperty("java.io.tmpdir"), tempFileName);
-
-        // Kiểm tra và tạo thư mục nếu không tồn tại
-        File parentDir = convFile.getParentFile();
-        if (!parentDir.exists() && !parentDir.mkdirs()) {
-            throw new IOException("Failed to create temporary directory: " + parentDir.getAbsolutePath());
-        }
-
-        // Tạo file trước khi ghi
-        if (!convFile.createNewFile() && !convFile.exists()) {
-            throw new IOException("Failed to create temporary file: " + convFile.getAbsolutePath());
+    @Override
+    public void delete(String url, MediaKind kind) throws IOException {
+        String publicId = publicId(url);
+        if (publicId == null) {
+            throw new IllegalArgumentException("Not a Cloudinary upload URL: " + url);
         }
-
-        // Ghi dữ liệu vào file
-        try (FileOutputStream fos = new FileOutputStream(convFile)) {
-            byte[] bytes = file.getBytes();
-            fos.write(bytes);
-            fos.flush();
+        try {
+            cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("resource_type", resourceType(kind)));
+        } catch (IOException e) {
+            throw new IOException("Failed to delete file from Cloudinary: " + e.getMessage(), e);
         }
+    }
 
-        // Kiểm tra file sau khi ghi
-        if (!convFile.exists()) {
-            throw new IOException("Temporary file does not exist after writing: " + convFile.getAbsolutePath());
+    // .../<resource_type>/upload/v<version>/<public_id>.<format> -> <public_id>
+    private static String publicId(String url) {
+        int upload = url.indexOf("/upload/");
+        if (upload == -1) {
+            return null;
         }
-        if (!convFile.canRead()) {
-            throw new IOException("Cannot read temporary file: " + convFile.getAbsolutePath());
+        String path = url.substring(upload + "/upload/".length());
+        if (path.matches("v\\d+/.*")) {
+            path = path.substring(path.indexOf('/') + 1);
         }
-
-        System.out.println("Temporary file created at: " + convFile.getAbsolutePath());
-        return convFile;
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
     }
 
-    private String getFileExtension(String fileName) {
-        if (fileName == null || fileName.lastIndexOf(".") == -1) {
-            return "tmp";
-        }
-        return fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+    // Cloudinary xếp audio vào resource_type "video"
+    private static String resourceType(MediaKind kind) {
+        return switch (kind) {
+            case AUDIO -> "video";
+            case IMAGE -> "image";
+        };
     }
-}
\ No newline at end of file
+}
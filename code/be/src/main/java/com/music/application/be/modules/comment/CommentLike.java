@@ -12,7 +12,8 @@ import lombok.Setter;
 public class CommentLike {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_like_seq")
+    @SequenceGenerator(name = "comment_like_seq", sequenceName = "comment_like_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
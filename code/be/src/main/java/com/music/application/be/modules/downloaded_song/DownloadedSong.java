@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class DownloadedSong {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "downloaded_songs_seq")
+    @SequenceGenerator(name = "downloaded_songs_seq", sequenceName = "downloaded_songs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
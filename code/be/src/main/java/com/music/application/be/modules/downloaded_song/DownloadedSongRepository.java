@@ -2,18 +2,29 @@ package com.music.application.be.modules.downloaded_song;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface DownloadedSongRepository extends JpaRepository<DownloadedSong, Long> {
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
     Page<DownloadedSong> findByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
     Page<DownloadedSong> findByUserIdAndSongTitleContainingIgnoreCase(Long userId, String title, Pageable pageable);
     
     // Thêm method để tìm downloaded song theo userId và songId
     Optional<DownloadedSong> findByUserIdAndSongId(Long userId, Long songId);
     boolean existsByUser_IdAndSong_Id(Long userId, Long songId);
+
+    // Lấy một lần các songId trong trang hiện tại mà user đã có, thay cho existsBy... từng bài
+    @Query("SELECT d.song.id FROM DownloadedSong d WHERE d.user.id = :userId AND d.song.id IN :songIds")
+    Set<Long> findSongIdsByUserIdAndSongIdIn(Long userId, Collection<Long> songIds);
 }
\ No newline at end of file
@@ -97,6 +97,7 @@ public class DownloadedSongService {
                     dto.setDuration(song.getDuration());
                     dto.setAudioUrl(song.getAudioUrl());
                     dto.setThumbnail(song.getThumbnail());
+                    dto.setThumbnailVariants(song.getThumbnailVariants());
                     dto.setLyrics(song.getLyrics());
                     dto.setReleaseDate(song.getReleaseDate());
                     dto.setViewCount(song.getViewCount());
@@ -200,6 +201,7 @@ public class DownloadedSongService {
         dto.setDuration(song.getDuration());
         dto.setAudioUrl(song.getAudioUrl());
         dto.setThumbnail(song.getThumbnail());
+        dto.setThumbnailVariants(song.getThumbnailVariants());
         dto.setLyrics(song.getLyrics());
         dto.setReleaseDate(song.getReleaseDate());
         dto.setViewCount(song.getViewCount());
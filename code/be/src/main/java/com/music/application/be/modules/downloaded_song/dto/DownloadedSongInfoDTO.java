@@ -3,6 +3,7 @@ package com.music.application.be.modules.downloaded_song.dto;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @Data
 public class  DownloadedSongInfoDTO {
@@ -10,6 +11,7 @@ public class  DownloadedSongInfoDTO {
     private String title;
     private Integer duration;
     private String thumbnail;
+    private Map<String, String> thumbnailVariants;
     private LocalDate releaseDate;
     private String artistName;
     private String albumName;
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class FavoriteAlbum {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorite_albums_seq")
+    @SequenceGenerator(name = "favorite_albums_seq", sequenceName = "favorite_albums_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -107,6 +107,7 @@ public class FavoriteAlbumService {
         albumDTO.setName(album.getName());
         albumDTO.setReleaseDate(album.getReleaseDate());
         albumDTO.setCoverImage(album.getCoverImage());
+        albumDTO.setCoverImageVariants(album.getCoverImageVariants());
         albumDTO.setDescription(album.getDescription());
         albumDTO.setArtistId(album.getArtist() != null ? album.getArtist().getId() : null);
         albumDTO.setArtistName(album.getArtist() != null ? album.getArtist().getName() : null);
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class FavoritePlaylist {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorite_playlists_seq")
+    @SequenceGenerator(name = "favorite_playlists_seq", sequenceName = "favorite_playlists_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -107,8 +107,12 @@ public class FavoritePlaylistService {
         playlistDTO.setName(playlist.getName());
         playlistDTO.setDescription(playlist.getDescription());
         playlistDTO.setThumbnail(playlist.getThumbnail());
+        playlistDTO.setThumbnailVariants(playlist.getThumbnailVariants());
         playlistDTO.setCreatedAt(playlist.getCreatedAt());
         playlistDTO.setGenreIds(playlist.getGenres().stream().map(genre -> genre.getId()).collect(Collectors.toList()));
+        playlistDTO.setSongCount(playlist.getSongCount());
+        playlistDTO.setTotalDuration(playlist.getTotalDuration());
+        playlistDTO.setCoverSongId(playlist.getCoverSongId());
         return playlistDTO;
     }
 }
\ No newline at end of file
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class FavoriteSong {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorite_songs_seq")
+    @SequenceGenerator(name = "favorite_songs_seq", sequenceName = "favorite_songs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
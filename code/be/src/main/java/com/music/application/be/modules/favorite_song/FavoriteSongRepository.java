@@ -2,18 +2,29 @@ package com.music.application.be.modules.favorite_song;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface FavoriteSongRepository extends JpaRepository<FavoriteSong, Long> {
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
     Page<FavoriteSong> findByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
     Page<FavoriteSong> findByUserIdAndSongTitleContainingIgnoreCase(Long userId, String title, Pageable pageable);
     Optional<FavoriteSong> findByUserIdAndSongId(Long userId, Long songId);
     boolean existsByUser_IdAndSong_Id(Long userId, Long songId);
 
+    // Lấy một lần các songId trong trang hiện tại mà user đã có, thay cho existsBy... từng bài
+    @Query("SELECT f.song.id FROM FavoriteSong f WHERE f.user.id = :userId AND f.song.id IN :songIds")
+    Set<Long> findSongIdsByUserIdAndSongIdIn(Long userId, Collection<Long> songIds);
+
     int countByUserId(Long userId);
 }
\ No newline at end of file
@@ -107,6 +107,7 @@ public class FavoriteSongService {
         songDTO.setDuration(song.getDuration());
         songDTO.setAudioUrl(song.getAudioUrl());
         songDTO.setThumbnail(song.getThumbnail());
+        songDTO.setThumbnailVariants(song.getThumbnailVariants());
         songDTO.setLyrics(song.getLyrics());
         songDTO.setReleaseDate(song.getReleaseDate());
         songDTO.setViewCount(song.getViewCount());
@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @Setter
 public class FollowArtist {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "follow_artist_seq")
+    @SequenceGenerator(name = "follow_artist_seq", sequenceName = "follow_artist_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
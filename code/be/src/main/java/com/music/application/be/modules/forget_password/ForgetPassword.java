@@ -15,7 +15,8 @@ import java.util.Date;
 public class ForgetPassword {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forget_password_seq")
+    @SequenceGenerator(name = "forget_password_seq", sequenceName = "forget_password_seq", allocationSize = 50)
     private Integer fid;
 
     @Column(nullable = false)
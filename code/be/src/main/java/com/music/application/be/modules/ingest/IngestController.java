@@ -0,0 +1,66 @@
+package com.music.application.be.modules.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.application.be.modules.ingest.dto.IngestJobDTO;
+import com.music.application.be.modules.song.dto.CreateSongDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/api/ingest")
+public class IngestController {
+
+    @Autowired
+    private IngestService ingestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Operation(
+            summary = "Queue a new song for ingestion",
+            description = "Accepts the same multipart parts as POST /api/songs ('song' JSON, 'audio', 'thumbnail') and returns immediately. " +
+                    "Duration extraction and the audio and thumbnail uploads run in the background; poll /api/ingest/jobs/{id} for progress.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Song accepted for ingestion",
+                            content = @Content(schema = @Schema(implementation = IngestJobDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid input data"),
+                    @ApiResponse(responseCode = "503", description = "Ingest queue or upload budget is full")
+            }
+    )
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping(value = "/songs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<IngestJobDTO> ingestSong(
+            @Parameter(description = "Thông tin bài hát", schema = @Schema(implementation = CreateSongDTO.class))
+            @RequestPart("song") String songJson,
+            @RequestPart("audio") MultipartFile audioFile,
+            @RequestPart("thumbnail") MultipartFile thumbnailFile) throws Exception {
+        CreateSongDTO createSongDTO = objectMapper.readValue(songJson, CreateSongDTO.class);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ingestService.submitSong(createSongDTO, audioFile, thumbnailFile));
+    }
+
+    @Operation(
+            summary = "Get ingest job status",
+            description = "Returns the status, current stage, progress (0-100) and, once finished, the created song id or the error.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved job",
+                            content = @Content(schema = @Schema(implementation = IngestJobDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Job not found")
+            }
+    )
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<IngestJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(ingestService.getJob(id));
+    }
+}
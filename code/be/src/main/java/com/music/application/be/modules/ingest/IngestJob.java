@@ -0,0 +1,60 @@
+package com.music.application.be.modules.ingest;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ingest_jobs", indexes = @Index(name = "idx_ingest_jobs_status", columnList = "status"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingest_jobs_seq")
+    @SequenceGenerator(name = "ingest_jobs_seq", sequenceName = "ingest_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IngestJobStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IngestStage stage;
+
+    // 0 - 100
+    @Column(nullable = false)
+    private int progress;
+
+    // Số lần thử lại upload đã thực hiện
+    @Column(nullable = false)
+    private int retries;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "song_id")
+    private Long songId;
+
+    @Column(name = "submitted_by")
+    private String submittedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
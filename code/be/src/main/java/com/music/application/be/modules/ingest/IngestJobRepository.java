@@ -0,0 +1,52 @@
+package com.music.application.be.modules.ingest;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface IngestJobRepository extends JpaRepository<IngestJob, Long> {
+
+    // Các cập nhật tiến độ chạy từ worker, ghi thẳng bằng UPDATE để không đè lên nhau
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngestJob j SET j.status = :status, j.stage = :stage, j.progress = :progress, j.updatedAt = :now " +
+            "WHERE j.id = :id")
+    int updateProgress(Long id, IngestJobStatus status, IngestStage stage, int progress, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngestJob j SET j.progress = j.progress + :delta, j.updatedAt = :now WHERE j.id = :id")
+    int addProgress(Long id, int delta, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngestJob j SET j.retries = j.retries + 1, j.updatedAt = :now WHERE j.id = :id")
+    int incrementRetries(Long id, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngestJob j SET j.status = com.music.application.be.modules.ingest.IngestJobStatus.SUCCEEDED, " +
+            "j.stage = com.music.application.be.modules.ingest.IngestStage.DONE, j.progress = 100, " +
+            "j.songId = :songId, j.updatedAt = :now, j.completedAt = :now WHERE j.id = :id")
+    int markSucceeded(Long id, Long songId, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngestJob j SET j.status = com.music.application.be.modules.ingest.IngestJobStatus.FAILED, " +
+            "j.error = :error, j.updatedAt = :now, j.completedAt = :now " +
+            "WHERE j.id = :id")
+    int markFailed(Long id, String error, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngestJob j SET j.status = com.music.application.be.modules.ingest.IngestJobStatus.FAILED, " +
+            "j.error = :error, j.updatedAt = :now, j.completedAt = :now " +
+            "WHERE j.status IN :statuses AND j.updatedAt < :before")
+    int failStale(Collection<IngestJobStatus> statuses, LocalDateTime before, String error, LocalDateTime now);
+}
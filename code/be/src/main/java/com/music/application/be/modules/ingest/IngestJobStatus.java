@@ -0,0 +1,8 @@
+package com.music.application.be.modules.ingest;
+
+public enum IngestJobStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
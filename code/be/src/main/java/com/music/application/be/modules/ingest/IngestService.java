@@ -0,0 +1,277 @@
+package com.music.application.be.modules.ingest;
+
+import com.music.application.be.exceptions.UploadCapacityExceededException;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaLibrary;
+import com.music.application.be.modules.ingest.dto.IngestJobDTO;
+import com.music.application.be.modules.media.AudioMetadataReader;
+import com.music.application.be.modules.media.SpooledUpload;
+import com.music.application.be.modules.media.UploadLimiter;
+import com.music.application.be.modules.media.UploadSpooler;
+import com.music.application.be.modules.song.SongService;
+import com.music.application.be.modules.song.dto.CreateSongDTO;
+import com.music.application.be.modules.song.dto.SongDTO;
+import com.music.application.be.modules.waveform.SongWaveformService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Accepts song uploads and processes them in the background.
+ * <p>
+ * The request thread only spools the two files to disk and records a {@link IngestJob}; a worker
+ * from {@code ingestJobExecutor} then reads the duration and uploads the audio and thumbnail in
+ * parallel on {@code ingestTaskExecutor}, retrying uploads with backoff, and saves the song
+ * through {@link SongService#saveNewSong}. Waveform peaks are computed from the spooled audio
+ * alongside those steps and saved once the song exists; a failure there does not fail the job.
+ * Once the song is saved it owns the uploaded files: later failures are logged, the uploads are
+ * not released and the job is not marked failed, so a retry cannot create a duplicate song.
+ * Uploads go through {@code MediaLibrary}, so files
+ * that are already stored are not uploaded again. Spooled files keep their {@code UploadLimiter}
+ * permits until the job ends, so queued jobs also count against the in-flight byte budget.
+ */
+@Service
+public class IngestService {
+
+    // 3 bước song song, mỗi bước xong cộng thêm phần tiến độ này
+    private static final int STAGE_PROGRESS = 28;
+
+    @Autowired
+    private IngestJobRepository ingestJobRepository;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private MediaLibrary mediaLibrary;
+
+    @Autowired
+    private UploadSpooler uploadSpooler;
+
+    @Autowired
+    private AudioMetadataReader audioMetadataReader;
+
+    @Autowired
+    private SongWaveformService songWaveformService;
+
+    @Autowired
+    @Qualifier("ingestJobExecutor")
+    private ThreadPoolTaskExecutor ingestJobExecutor;
+
+    @Autowired
+    @Qualifier("ingestTaskExecutor")
+    private ThreadPoolTaskExecutor ingestTaskExecutor;
+
+    @Value("${app.ingest.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${app.ingest.retry.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${app.ingest.retry.max-backoff:30s}")
+    private Duration maxBackoff;
+
+    @Value("${app.ingest.stale-after:30m}")
+    private Duration staleAfter;
+
+    public IngestJobDTO submitSong(CreateSongDTO createSongDTO, MultipartFile audioFile, MultipartFile thumbnailFile) throws IOException {
+        if (audioFile == null || audioFile.isEmpty()) {
+            throw new IllegalArgumentException("Audio file is required");
+        }
+        if (thumbnailFile == null || thumbnailFile.isEmpty()) {
+            throw new IllegalArgumentException("Thumbnail file is required");
+        }
+        songService.validateNewSong(createSongDTO);
+
+        // Giữ permit cho cả hai file bằng một lần acquire, không chờ permit thumbnail khi đang giữ permit audio
+        SpooledUpload audio;
+        SpooledUpload thumbnail;
+        try (UploadLimiter.Permit permit = uploadSpooler.reserve(audioFile, thumbnailFile)) {
+            audio = uploadSpooler.spool(audioFile, "mp3", permit);
+            try {
+                thumbnail = uploadSpooler.spool(thumbnailFile, "jpg", permit);
+            } catch (IOException | RuntimeException e) {
+                audio.close();
+                throw e;
+            }
+        }
+
+        IngestJob job;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            job = ingestJobRepository.save(IngestJob.builder()
+                    .status(IngestJobStatus.PENDING)
+                    .stage(IngestStage.QUEUED)
+                    .title(createSongDTO.getTitle())
+                    .submittedBy(currentUsername())
+                    .updatedAt(now)
+                    .build());
+        } catch (RuntimeException e) {
+            audio.close();
+            thumbnail.close();
+            throw e;
+        }
+
+        Long jobId = job.getId();
+        try {
+            ingestJobExecutor.execute(() -> process(jobId, createSongDTO, audio, thumbnail));
+        } catch (TaskRejectedException e) {
+            audio.close();
+            thumbnail.close();
+            ingestJobRepository.markFailed(jobId, "Ingest queue is full", LocalDateTime.now());
+            throw new UploadCapacityExceededException("Too many songs waiting for ingestion, please try again later");
+        }
+        return mapToDTO(job);
+    }
+
+    public IngestJobDTO getJob(Long id) {
+        IngestJob job = ingestJobRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Ingest job not found with id: " + id));
+        return mapToDTO(job);
+    }
+
+    // Job không cập nhật tiến độ quá lâu: worker đã chết hoặc server khởi động lại giữa chừng
+    @Scheduled(fixedDelayString = "${app.ingest.stale-check-interval-ms:300000}")
+    public void failStaleJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int failed = ingestJobRepository.failStale(
+                List.of(IngestJobStatus.PENDING, IngestJobStatus.RUNNING),
+                now.minus(staleAfter),
+                "Job was interrupted, please upload the song again",
+                now);
+        if (failed > 0) {
+            System.out.println("Marked " + failed + " stale ingest jobs as failed");
+        }
+    }
+
+    private void process(Long jobId, CreateSongDTO createSongDTO, SpooledUpload audio, SpooledUpload thumbnail) {
+        CompletableFuture<String> audioUrl = null;
+        CompletableFuture<MediaLibrary.StoredImage> thumbnailImage = null;
+        SongDTO song;
+        CompletableFuture<Optional<byte[]>> peaks;
+        try (audio; thumbnail) {
+            ingestJobRepository.updateProgress(jobId, IngestJobStatus.RUNNING, IngestStage.PROCESSING_MEDIA, 5, LocalDateTime.now());
+            RetryBackoff backoff = new RetryBackoff(maxAttempts, initialBackoff, maxBackoff);
+
+            CompletableFuture<Integer> duration = runStage(jobId,
+                    () -> audioMetadataReader.readDurationSeconds(audio.getFile()));
+            audioUrl = runStage(jobId,
+                    () -> backoff.call(() -> mediaLibrary.store(audio, MediaKind.AUDIO), () -> countRetry(jobId)));
+            thumbnailImage = runStage(jobId,
+                    () -> backoff.call(() -> mediaLibrary.storeImage(thumbnail), () -> countRetry(jobId)));
+            // Waveform không bắt buộc: không tính vào tiến độ, lỗi thì trả về empty
+            peaks = CompletableFuture.supplyAsync(() -> songWaveformService.compute(audio.getPath()), ingestTaskExecutor)
+                    .exceptionally(e -> {
+                        System.err.println("Failed to compute waveform for ingest job " + jobId + ": " + e.getMessage());
+                        return Optional.empty();
+                    });
+            CompletableFuture.allOf(duration, audioUrl, thumbnailImage).join();
+
+            ingestJobRepository.updateProgress(jobId, IngestJobStatus.RUNNING, IngestStage.SAVING, 90, LocalDateTime.now());
+            song = songService.saveNewSong(createSongDTO, duration.join(), audioUrl.join(), thumbnailImage.join());
+            // peaks đọc file tạm: đợi xong trước khi try-with-resources xóa file, không bao giờ lỗi
+            peaks.join();
+        } catch (CompletionException e) {
+            releaseUploaded(audioUrl, thumbnailImage);
+            fail(jobId, e.getCause() != null ? e.getCause() : e);
+            return;
+        } catch (RuntimeException e) {
+            releaseUploaded(audioUrl, thumbnailImage);
+            fail(jobId, e);
+            return;
+        }
+
+        // Bài hát đã lưu và sở hữu file đã upload: từ đây không trả reference, không đánh dấu job lỗi
+        try {
+            peaks.join().ifPresent(data -> songWaveformService.save(song.getId(), song.getAudioUrl(), data));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to save waveform of song " + song.getId() + ": " + e.getMessage());
+        }
+        try {
+            ingestJobRepository.markSucceeded(jobId, song.getId(), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            System.err.println("Ingest job " + jobId + " saved song " + song.getId() + " but could not be marked succeeded: "
+                    + e.getMessage());
+        }
+    }
+
+    // Job lỗi thì file đã upload không thuộc bài hát nào, trả reference để sweeper dọn
+    private void releaseUploaded(CompletableFuture<String> audioUrl, CompletableFuture<MediaLibrary.StoredImage> thumbnailImage) {
+        // allOf đã đợi mọi bước xong, join ở đây không phải chờ
+        if (audioUrl != null) {
+            audioUrl.handle((value, error) -> value).thenAccept(mediaLibrary::release).join();
+        }
+        if (thumbnailImage != null) {
+            thumbnailImage.handle((value, error) -> value)
+                    .thenAccept(image -> {
+                        if (image != null) {
+                            mediaLibrary.release(image.url(), image.variants());
+                        }
+                    })
+                    .join();
+        }
+    }
+
+    private <T> CompletableFuture<T> runStage(Long jobId, RetryBackoff.IOStep<T> step) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                T result = step.call();
+                ingestJobRepository.addProgress(jobId, STAGE_PROGRESS, LocalDateTime.now());
+                return result;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, ingestTaskExecutor);
+    }
+
+    private void countRetry(Long jobId) {
+        ingestJobRepository.incrementRetries(jobId, LocalDateTime.now());
+    }
+
+    private void fail(Long jobId, Throwable cause) {
+        System.err.println("Ingest job " + jobId + " failed: " + cause.getMessage());
+        try {
+            ingestJobRepository.markFailed(jobId, String.valueOf(cause.getMessage()), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Job sẽ bị failStaleJobs đánh dấu sau
+            System.err.println("Failed to record ingest job failure: " + e.getMessage());
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private IngestJobDTO mapToDTO(IngestJob job) {
+        return IngestJobDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .stage(job.getStage())
+                .progress(job.getProgress())
+                .retries(job.getRetries())
+                .title(job.getTitle())
+                .error(job.getError())
+                .songId(job.getSongId())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+}
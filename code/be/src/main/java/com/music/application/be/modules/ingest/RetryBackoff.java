@@ -0,0 +1,58 @@
+package com.music.application.be.modules.ingest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries an I/O step with exponential backoff and full jitter: attempt {@code n} waits a
+ * random time between zero and {@code min(maxDelay, initialDelay * 2^n)}, so workers that
+ * failed together against the same storage do not retry in lockstep.
+ */
+class RetryBackoff {
+
+    @FunctionalInterface
+    interface IOStep<T> {
+        T call() throws IOException;
+    }
+
+    private final int maxAttempts;
+    private final Duration initialDelay;
+    private final Duration maxDelay;
+
+    RetryBackoff(int maxAttempts, Duration initialDelay, Duration maxDelay) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    <T> T call(IOStep<T> step, Runnable onRetry) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return step.call();
+            } catch (IOException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                System.err.println("Ingest step failed (attempt " + attempt + "/" + maxAttempts + "): " + e.getMessage());
+                onRetry.run();
+                sleep(delay(attempt));
+            }
+        }
+    }
+
+    private long delay(int attempt) {
+        long ceiling = initialDelay.toMillis() << Math.min(attempt - 1, 20);
+        ceiling = Math.min(Math.max(ceiling, 1), maxDelay.toMillis());
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.music.application.be.modules.ingest.dto;
+
+import com.music.application.be.modules.ingest.IngestJobStatus;
+import com.music.application.be.modules.ingest.IngestStage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestJobDTO {
+    private Long id;
+    private IngestJobStatus status;
+    private IngestStage stage;
+    private int progress;
+    private int retries;
+    private String title;
+    private String error;
+    private Long songId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class ListeningHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listening_history_seq")
+    @SequenceGenerator(name = "listening_history_seq", sequenceName = "listening_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
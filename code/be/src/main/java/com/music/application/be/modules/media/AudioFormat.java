@@ -0,0 +1,21 @@
+package com.music.application.be.modules.media;
+
+public enum AudioFormat {
+    MP3("mp3"),
+    FLAC("flac"),
+    M4A("m4a"),
+    WAV("wav"),
+    OGG("ogg"),
+    UNKNOWN(null);
+
+    // Phần mở rộng jaudiotagger dùng để chọn reader
+    private final String extension;
+
+    AudioFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
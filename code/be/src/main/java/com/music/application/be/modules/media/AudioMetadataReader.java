@@ -0,0 +1,47 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads metadata from spooled audio files. Shared by the synchronous upload path and the
+ * ingest pipeline.
+ * <p>
+ * The duration comes from {@link AudioProbe}, which only reads headers. jaudiotagger, which
+ * parses every tag frame and may scan the whole file, is used only when the probe does not
+ * recognise the file, and is told the sniffed format instead of trusting the extension.
+ */
+@Component
+public class AudioMetadataReader {
+
+    private final AudioProbe audioProbe;
+
+    public AudioMetadataReader(AudioProbe audioProbe) {
+        this.audioProbe = audioProbe;
+    }
+
+    public int readDurationSeconds(File file) throws IOException {
+        AudioProbe.Result probe = audioProbe.probe(file.toPath());
+        if (probe.hasDuration()) {
+            return (int) Math.round(probe.durationSeconds());
+        }
+        return readWithJaudiotagger(file, probe.format());
+    }
+
+    private int readWithJaudiotagger(File file, AudioFormat format) throws IOException {
+        try {
+            org.jaudiotagger.audio.AudioFile audio = format.getExtension() != null
+                    ? org.jaudiotagger.audio.AudioFileIO.readAs(file, format.getExtension())
+                    : org.jaudiotagger.audio.AudioFileIO.read(file);
+            int durationInSeconds = audio.getAudioHeader().getTrackLength();
+            System.out.println("Extracted duration: " + durationInSeconds + " seconds");
+            return durationInSeconds;
+        } catch (org.jaudiotagger.audio.exceptions.CannotReadException e) {
+            throw new IOException("Cannot read audio file: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new IOException("Error extracting duration from audio file: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the format and duration of an audio file from its headers only.
+ * <p>
+ * The format is sniffed from magic bytes rather than the file name, since uploads without an
+ * extension are spooled as {@code .mp3}. Durations come from:
+ * <ul>
+ *     <li>MP3: the Xing/Info frame count (minus the LAME encoder delay and padding) or the VBRI
+ *     header, and for CBR files without either, the audio size divided by the bitrate;</li>
+ *     <li>FLAC: total samples in STREAMINFO;</li>
+ *     <li>M4A: {@code moov/mvhd}, found by skipping from atom header to atom header;</li>
+ *     <li>WAV: the {@code data} chunk size over the byte rate in {@code fmt };</li>
+ *     <li>Ogg Vorbis/Opus: the granule position of the last page in the file tail.</li>
+ * </ul>
+ * A probe reads a few KB at the start and end of the file plus a handful of atom or chunk
+ * headers. It returns {@code -1} as duration when the headers are not recognised, so the caller
+ * can fall back to a full parse.
+ */
+@Component
+public class AudioProbe {
+
+    private static final int HEAD_SIZE = 64 * 1024;
+    private static final int TAIL_SIZE = 64 * 1024;
+    private static final int MAX_BOXES = 1024;
+
+    public record Result(AudioFormat format, double durationSeconds) {
+        public boolean hasDuration() {
+            return durationSeconds >= 0;
+        }
+    }
+
+    public Result probe(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = read(channel, 0, (int) Math.min(HEAD_SIZE, size));
+
+            // ID3v2 có thể đứng trước cả MP3 lẫn FLAC
+            long audioStart = id3v2Size(head);
+            ByteBuffer start = audioStart == 0 ? head : read(channel, audioStart, (int) Math.min(HEAD_SIZE, Math.max(0, size - audioStart)));
+
+            if (startsWith(start, 0, "fLaC")) {
+                return new Result(AudioFormat.FLAC, flacDuration(start));
+            }
+            if (startsWith(start, 4, "ftyp")) {
+                return new Result(AudioFormat.M4A, mp4Duration(channel, size));
+            }
+            if (startsWith(start, 0, "RIFF") && startsWith(start, 8, "WAVE")) {
+                return new Result(AudioFormat.WAV, wavDuration(channel, size));
+            }
+            if (startsWith(start, 0, "OggS")) {
+                return new Result(AudioFormat.OGG, oggDuration(channel, start, size));
+            }
+            int frame = findMp3Frame(start);
+            if (frame >= 0) {
+                return new Result(AudioFormat.MP3, mp3Duration(channel, start, frame, audioStart, size));
+            }
+            return new Result(AudioFormat.UNKNOWN, -1);
+        }
+    }
+
+    // ---------------------------------------------------------------- MP3
+
+    private static final int[][] BITRATES_KBPS = {
+            // MPEG-1 layer I, II, III
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+            // MPEG-2/2.5 layer I, II & III
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+    };
+    private static final int[] SAMPLE_RATES = {44100, 48000, 32000};
+
+    private record FrameHeader(int version, int layer, int bitrate, int sampleRate, boolean mono, int length) {
+        // version: 1 = MPEG-1, 2 = MPEG-2, 25 = MPEG-2.5; layer: 1..3
+        int samplesPerFrame() {
+            if (layer == 1) {
+                return 384;
+            }
+            return layer == 3 && version != 1 ? 576 : 1152;
+        }
+    }
+
+    private static FrameHeader frameHeader(ByteBuffer buffer, int offset) {
+        if (offset + 4 > buffer.limit()) {
+            return null;
+        }
+        int header = buffer.getInt(offset);
+        if ((header & 0xFFE00000) != 0xFFE00000) {
+            return null;
+        }
+        int versionBits = (header >>> 19) & 0x3;
+        int layerBits = (header >>> 17) & 0x3;
+        int bitrateIndex = (header >>> 12) & 0xF;
+        int sampleRateIndex = (header >>> 10) & 0x3;
+        if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return null;
+        }
+        int version = versionBits == 3 ? 1 : versionBits == 2 ? 2 : 25;
+        int layer = 4 - layerBits;
+        int table = version == 1 ? layer - 1 : layer == 1 ? 3 : 4;
+        int bitrate = BITRATES_KBPS[table][bitrateIndex] * 1000;
+        int sampleRate = SAMPLE_RATES[sampleRateIndex] / (version == 1 ? 1 : version == 2 ? 2 : 4);
+        int padding = (header >>> 9) & 0x1;
+        boolean mono = ((header >>> 6) & 0x3) == 3;
+
+        int length;
+        if (layer == 1) {
+            length = (12 * bitrate / sampleRate + padding) * 4;
+        } else {
+            int factor = layer == 3 && version != 1 ? 72 : 144;
+            length = factor * bitrate / sampleRate + padding;
+        }
+        return new FrameHeader(version, layer, bitrate, sampleRate, mono, length);
+    }
+
+    // Frame hợp lệ khi frame kế tiếp cũng có header hợp lệ, tránh nhận nhầm byte 0xFF trong dữ liệu rác
+    private static int findMp3Frame(ByteBuffer buffer) {
+        for (int offset = 0; offset + 4 <= buffer.limit(); offset++) {
+            if ((buffer.get(offset) & 0xFF) != 0xFF) {
+                continue;
+            }
+            FrameHeader frame = frameHeader(buffer, offset);
+            if (frame == null || frame.length() < 4) {
+                continue;
+            }
+            int next = offset + frame.length();
+            if (next + 4 > buffer.limit() || frameHeader(buffer, next) != null) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private double mp3Duration(FileChannel channel, ByteBuffer buffer, int frameOffset,
+                               long audioStart, long size) throws IOException {
+        FrameHeader frame = frameHeader(buffer, frameOffset);
+
+        int sideInfo = frame.version() == 1 ? (frame.mono() ? 17 : 32) : (frame.mono() ? 9 : 17);
+        int xing = frameOffset + 4 + sideInfo;
+        if (frame.layer() == 3 && (startsWith(buffer, xing, "Xing") || startsWith(buffer, xing, "Info"))
+                && xing + 8 <= buffer.limit()) {
+            int flags = buffer.getInt(xing + 4);
+            if ((flags & 0x1) != 0 && xing + 12 <= buffer.limit()) {
+                long frames = buffer.getInt(xing + 8) & 0xFFFFFFFFL;
+                long samples = frames * frame.samplesPerFrame() - lameDelayAndPadding(buffer, xing, flags);
+                return (double) Math.max(0, samples) / frame.sampleRate();
+            }
+        }
+
+        int vbri = frameOffset + 4 + 32;
+        if (startsWith(buffer, vbri, "VBRI") && vbri + 18 <= buffer.limit()) {
+            long frames = buffer.getInt(vbri + 14) & 0xFFFFFFFFL;
+            return (double) frames * frame.samplesPerFrame() / frame.sampleRate();
+        }
+
+        // CBR: kích thước phần audio chia cho bitrate, trừ tag ở cuối file
+        long audioBytes = size - audioStart - frameOffset - trailingTagSize(channel, size);
+        return audioBytes * 8.0 / frame.bitrate();
+    }
+
+    private static long lameDelayAndPadding(ByteBuffer buffer, int xing, int flags) {
+        int lame = xing + 8;
+        if ((flags & 0x1) != 0) lame += 4;
+        if ((flags & 0x2) != 0) lame += 4;
+        if ((flags & 0x4) != 0) lame += 100;
+        if ((flags & 0x8) != 0) lame += 4;
+        if (!startsWith(buffer, lame, "LAME") || lame + 24 > buffer.limit()) {
+            return 0;
+        }
+        // 12 bit encoder delay, 12 bit padding
+        int packed = ((buffer.get(lame + 21) & 0xFF) << 16) | ((buffer.get(lame + 22) & 0xFF) << 8) | (buffer.get(lame + 23) & 0xFF);
+        return (packed >>> 12) + (packed & 0xFFF);
+    }
+
+    private long trailingTagSize(FileChannel channel, long size) throws IOException {
+        long tags = 0;
+        if (size >= 128 && startsWith(read(channel, size - 128, 3), 0, "TAG")) {
+            tags += 128;
+        }
+        long apeFooter = size - tags - 32;
+        if (apeFooter >= 0) {
+            ByteBuffer footer = read(channel, apeFooter, 32);
+            if (startsWith(footer, 0, "APETAGEX")) {
+                footer.order(ByteOrder.LITTLE_ENDIAN);
+                long tagSize = footer.getInt(12) & 0xFFFFFFFFL;
+                boolean hasHeader = (footer.getInt(20) & 0x80000000) != 0;
+                tags += tagSize + (hasHeader ? 32 : 0);
+            }
+        }
+        return tags;
+    }
+
+    private static long id3v2Size(ByteBuffer buffer) {
+        if (!startsWith(buffer, 0, "ID3") || buffer.limit() < 10) {
+            return 0;
+        }
+        // Kích thước dạng syncsafe: 4 byte, mỗi byte 7 bit
+        long size = ((buffer.get(6) & 0x7F) << 21) | ((buffer.get(7) & 0x7F) << 14)
+                | ((buffer.get(8) & 0x7F) << 7) | (buffer.get(9) & 0x7F);
+        boolean footer = (buffer.get(5) & 0x10) != 0;
+        return 10 + size + (footer ? 10 : 0);
+    }
+
+    // ---------------------------------------------------------------- FLAC
+
+    private static double flacDuration(ByteBuffer buffer) {
+        // "fLaC" + header block 4 byte, STREAMINFO luôn là block đầu tiên
+        if (buffer.limit() < 4 + 4 + 18 || (buffer.get(4) & 0x7F) != 0) {
+            return -1;
+        }
+        int info = 8;
+        long packed = buffer.getLong(info + 10);
+        int sampleRate = (int) (packed >>> 44);
+        long totalSamples = packed & 0xFFFFFFFFFL;
+        if (sampleRate == 0 || totalSamples == 0) {
+            return -1;
+        }
+        return (double) totalSamples / sampleRate;
+    }
+
+    // ---------------------------------------------------------------- M4A
+
+    private double mp4Duration(FileChannel channel, long size) throws IOException {
+        long[] moov = findBox(channel, 0, size, "moov");
+        if (moov == null) {
+            return -1;
+        }
+        long[] mvhd = findBox(channel, moov[0], moov[1], "mvhd");
+        if (mvhd == null) {
+            return -1;
+        }
+        ByteBuffer box = read(channel, mvhd[0], (int) Math.min(32, mvhd[1] - mvhd[0]));
+        int version = box.get(0) & 0xFF;
+        long timescale;
+        long duration;
+        if (version == 1 && box.limit() >= 32) {
+            timescale = box.getInt(20) & 0xFFFFFFFFL;
+            duration = box.getLong(24);
+        } else if (box.limit() >= 20) {
+            timescale = box.getInt(12) & 0xFFFFFFFFL;
+            duration = box.getInt(16) & 0xFFFFFFFFL;
+        } else {
+            return -1;
+        }
+        return timescale == 0 ? -1 : (double) duration / timescale;
+    }
+
+    // Trả về [vị trí bắt đầu dữ liệu, vị trí kết thúc] của box con có type cho trước
+    private long[] findBox(FileChannel channel, long from, long to, String type) throws IOException {
+        long position = from;
+        for (int i = 0; i < MAX_BOXES && position + 8 <= to; i++) {
+            ByteBuffer header = read(channel, position, 16);
+            if (header.limit() < 8) {
+                return null;
+            }
+            long boxSize = header.getInt(0) & 0xFFFFFFFFL;
+            int headerSize = 8;
+            if (boxSize == 1 && header.limit() >= 16) {
+                boxSize = header.getLong(8);
+                headerSize = 16;
+            } else if (boxSize == 0) {
+                boxSize = to - position;
+            }
+            if (boxSize < headerSize) {
+                return null;
+            }
+            if (startsWith(header, 4, type)) {
+                return new long[]{position + headerSize, Math.min(to, position + boxSize)};
+            }
+            position += boxSize;
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------- WAV
+
+    private double wavDuration(FileChannel channel, long size) throws IOException {
+        long position = 12;
+        long byteRate = 0;
+        for (int i = 0; i < MAX_BOXES && position + 8 <= size; i++) {
+            ByteBuffer header = read(channel, position, 20).order(ByteOrder.LITTLE_ENDIAN);
+            long chunkSize = header.getInt(4) & 0xFFFFFFFFL;
+            if (startsWith(header, 0, "fmt ") && header.limit() >= 20) {
+                byteRate = header.getInt(16) & 0xFFFFFFFFL;
+            } else if (startsWith(header, 0, "data")) {
+                long dataSize = Math.min(chunkSize, size - position - 8);
+                return byteRate == 0 ? -1 : (double) dataSize / byteRate;
+            }
+            // Chunk có kích thước lẻ được đệm thêm 1 byte
+            position += 8 + chunkSize + (chunkSize & 1);
+        }
+        return -1;
+    }
+
+    // ---------------------------------------------------------------- Ogg
+
+    private double oggDuration(FileChannel channel, ByteBuffer head, long size) throws IOException {
+        // Trang đầu: 27 byte header + bảng segment, rồi tới gói nhận dạng của codec
+        if (head.limit() < 27) {
+            return -1;
+        }
+        int packet = 27 + (head.get(26) & 0xFF);
+        long sampleRate;
+        long preSkip = 0;
+        if (startsWith(head, packet + 1, "vorbis") && packet + 16 <= head.limit()) {
+            sampleRate = head.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(packet + 12) & 0xFFFFFFFFL;
+        } else if (startsWith(head, packet, "OpusHead") && packet + 12 <= head.limit()) {
+            // Opus luôn đếm granule theo 48 kHz
+            sampleRate = 48000;
+            preSkip = head.duplicate().order(ByteOrder.LITTLE_ENDIAN).getShort(packet + 10) & 0xFFFF;
+        } else {
+            return -1;
+        }
+
+        long tailStart = Math.max(0, size - TAIL_SIZE);
+        ByteBuffer tail = read(channel, tailStart, (int) (size - tailStart)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset = tail.limit() - 27; offset >= 0; offset--) {
+            if (startsWith(tail, offset, "OggS")) {
+                long granule = tail.getLong(offset + 6);
+                return sampleRate == 0 || granule < 0 ? -1 : (double) Math.max(0, granule - preSkip) / sampleRate;
+            }
+        }
+        return -1;
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(0, length));
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, String magic) {
+        if (offset < 0 || offset + magic.length() > buffer.limit()) {
+            return false;
+        }
+        byte[] expected = magic.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+package com.music.application.be.modules.media;
+
+import com.music.application.be.exceptions.StreamCapacityExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of read-only {@link FileChannel}s for streaming.
+ * <p>
+ * Positional reads and {@code transferTo} do not touch the channel position, so every reader of
+ * the same file shares one channel. At most {@code max-open-files} channels are open; when the
+ * limit is reached the least recently used idle channel is closed, and if none is idle the
+ * caller waits up to {@code acquire-timeout} and then gets a 503.
+ */
+@Component
+public class FileChannelPool {
+
+    private final int maxOpen;
+    private final Duration acquireTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    // access-order: duyệt từ đầu là channel ít được dùng gần đây nhất
+    private final Map<Path, Entry> channels = new LinkedHashMap<>(16, 0.75f, true);
+
+    public FileChannelPool(@Value("${app.media.stream.max-open-files:256}") int maxOpen,
+                           @Value("${app.media.stream.acquire-timeout:5s}") Duration acquireTimeout,
+                           MeterRegistry meterRegistry) {
+        this.maxOpen = Math.max(1, maxOpen);
+        this.acquireTimeout = acquireTimeout;
+        Gauge.builder("media.stream.open.files", this, FileChannelPool::openCount)
+                .description("File channels currently held open for streaming")
+                .register(meterRegistry);
+    }
+
+    public Lease acquire(Path path) throws IOException {
+        long remaining = acquireTimeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                Entry entry = channels.get(path);
+                if (entry != null && entry.channel.isOpen()) {
+                    entry.leases++;
+                    return new Lease(entry);
+                }
+                if (entry != null) {
+                    channels.remove(path);
+                }
+                if (channels.size() < maxOpen || closeIdle()) {
+                    entry = new Entry(FileChannel.open(path, StandardOpenOption.READ));
+                    entry.leases = 1;
+                    channels.put(path, entry);
+                    return new Lease(entry);
+                }
+                if (remaining <= 0) {
+                    throw new StreamCapacityExceededException("Too many files are being streamed, please try again later");
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamCapacityExceededException("Interrupted while waiting for a file channel");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int openCount() {
+        lock.lock();
+        try {
+            return channels.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean closeIdle() {
+        Iterator<Entry> iterator = channels.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.leases == 0) {
+                iterator.remove();
+                closeQuietly(entry.channel);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(Entry entry) {
+        lock.lock();
+        try {
+            entry.leases--;
+            if (entry.leases == 0) {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close file channel: " + e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        private final FileChannel channel;
+        private int leases;
+
+        private Entry(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public FileChannel channel() {
+            return entry.channel;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+}
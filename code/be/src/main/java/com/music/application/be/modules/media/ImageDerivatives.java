@@ -0,0 +1,191 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Renders the {@link ImageVariant} sizes of an uploaded image with ImageIO and Java2D only.
+ * <p>
+ * Memory per render is bounded: the source is decoded with integer subsampling down to at most
+ * about twice the largest variant (so a 6000x6000 photo is decoded as 1500x1500, not 36 MP),
+ * sources above {@code max-source-pixels} are refused from their header alone, and renders run on
+ * the fixed-size {@code imageExecutor}. Each variant is downscaled from the previous one by
+ * repeated halving with bilinear filtering, which is close to area averaging in quality at a
+ * fraction of the cost of {@code SCALE_AREA_AVERAGING}.
+ * <p>
+ * Variants are an optimisation for list views: if the image cannot be decoded, the pool is full
+ * or rendering times out, an empty map is returned and clients keep using the original.
+ */
+@Component
+public class ImageDerivatives {
+
+    public record EncodedImage(byte[] data, String extension) {
+    }
+
+    private final ThreadPoolTaskExecutor imageExecutor;
+    private final long maxSourcePixels;
+    private final Duration timeout;
+    private final float jpegQuality;
+
+    public ImageDerivatives(@Qualifier("imageExecutor") ThreadPoolTaskExecutor imageExecutor,
+                            @Value("${app.media.images.max-source-pixels:100000000}") long maxSourcePixels,
+                            @Value("${app.media.images.timeout:20s}") Duration timeout,
+                            @Value("${app.media.images.jpeg-quality:0.82}") float jpegQuality) {
+        this.imageExecutor = imageExecutor;
+        this.maxSourcePixels = maxSourcePixels;
+        this.timeout = timeout;
+        this.jpegQuality = jpegQuality;
+    }
+
+    public Map<ImageVariant, EncodedImage> render(Path source) {
+        Future<Map<ImageVariant, EncodedImage>> future;
+        try {
+            future = imageExecutor.submit(() -> renderNow(source));
+        } catch (TaskRejectedException e) {
+            System.err.println("Image derivative queue is full, skipping variants for " + source.getFileName());
+            return Collections.emptyMap();
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Collections.emptyMap();
+        } catch (ExecutionException | TimeoutException e) {
+            future.cancel(true);
+            System.err.println("Failed to render image variants: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            return Collections.emptyMap();
+        }
+    }
+
+    Map<ImageVariant, EncodedImage> renderNow(Path source) throws IOException {
+        BufferedImage image = decode(source);
+        if (image == null) {
+            return Collections.emptyMap();
+        }
+        boolean alpha = image.getColorModel().hasAlpha();
+        Map<ImageVariant, EncodedImage> variants = new EnumMap<>(ImageVariant.class);
+        BufferedImage current = image;
+        // LARGE -> MEDIUM -> SMALL: mỗi bản thu nhỏ từ bản trước, không phải từ ảnh gốc
+        for (ImageVariant variant : ImageVariant.values()) {
+            current = fit(current, variant.getSize(), alpha);
+            variants.put(variant, alpha
+                    ? new EncodedImage(encodePng(current), "png")
+                    : new EncodedImage(encodeJpeg(current), "jpg"));
+        }
+        return variants;
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    System.err.println("Image " + width + "x" + height + " is too large for variants, skipping");
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (ImageVariant.LARGE.getSize() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage fit(BufferedImage image, int maxSide, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = (double) maxSide / Math.max(width, height);
+        if (scale >= 1 && !(image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)) {
+            // Ảnh nhỏ hơn kích thước đích: không phóng to, chỉ chuẩn hóa kiểu ảnh để encode
+            return resize(image, width, height, alpha);
+        }
+        if (scale >= 1) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2, alpha);
+        }
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            current = resize(current, targetWidth, targetHeight, alpha);
+        }
+        return current;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage resized = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+}
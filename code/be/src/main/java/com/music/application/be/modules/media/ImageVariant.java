@@ -0,0 +1,22 @@
+package com.music.application.be.modules.media;
+
+// Kích thước cạnh dài nhất (px) của các bản thu nhỏ, key trong map là tên viết thường
+public enum ImageVariant {
+    LARGE(640),
+    MEDIUM(320),
+    SMALL(96);
+
+    private final int size;
+
+    ImageVariant(int size) {
+        this.size = size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,162 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Stores media on the local file system under content-addressed paths:
+ * {@code <root>/<kind>/<aa>/<bb>/<sha256>.<ext>}.
+ * <p>
+ * A file is first copied to {@code <root>/.staging}, on the same file system as its final
+ * location, while its hash is computed, then moved into place with an atomic rename, so readers
+ * never see a partly written file. Identical uploads map to the same path and are stored once.
+ * With {@code app.media.local.fsync=true} the file and its directory are flushed to disk before
+ * the URL is returned.
+ */
+@Service
+@Profile("local-storage")
+public class LocalMediaStorage implements MediaStorage {
+
+    private final UploadSpooler uploadSpooler;
+    private final Path root;
+    private final Path staging;
+    private final String baseUrl;
+    private final boolean fsync;
+
+    public LocalMediaStorage(UploadSpooler uploadSpooler,
+                             @Value("${app.media.local.root:./media-store}") String root,
+                             @Value("${app.media.local.base-url:/media}") String baseUrl,
+                             @Value("${app.media.local.fsync:true}") boolean fsync) throws IOException {
+        this.uploadSpooler = uploadSpooler;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.staging = this.root.resolve(".staging");
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.fsync = fsync;
+        Files.createDirectories(staging);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public String store(MultipartFile file, MediaKind kind) throws IOException {
+        try (SpooledUpload upload = uploadSpooler.spool(file, "bin")) {
+            return store(upload.getFile(), kind);
+        }
+    }
+
+    @Override
+    public String store(File file, MediaKind kind) throws IOException {
+        if (file == null || !file.exists()) {
+            throw new IllegalArgumentException("File does not exist: " + (file != null ? file.getAbsolutePath() : "null"));
+        }
+
+        Path staged = Files.createTempFile(staging, "media_", ".part");
+        try {
+            String hash = copyAndHash(file.toPath(), staged);
+            String relative = kind.getDirectory() + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4)
+                    + "/" + hash + "." + extensionOf(file.getName());
+            Path target = root.resolve(relative);
+
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(staged, target);
+            }
+            return baseUrl + "/" + relative;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public void delete(String url, MediaKind kind) throws IOException {
+        Optional<Path> path = localPath(url);
+        if (path.isPresent()) {
+            Files.deleteIfExists(path.get());
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String url) {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(url.substring(baseUrl.length() + 1)).normalize();
+        // URL lưu trong DB, nhưng vẫn không cho trỏ ra ngoài thư mục gốc hoặc vào .staging
+        if (!path.startsWith(root) || path.startsWith(staging) || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(path);
+    }
+
+    private String copyAndHash(Path source, Path staged) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest);
+             FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Hash được tính trong lúc copy, không phải đọc file hai lần
+            in.transferTo(Channels.newOutputStream(out));
+            if (fsync) {
+                out.force(true);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void moveIntoPlace(Path staged, Path target) throws IOException {
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Upload cùng nội dung đã ghi xong trước, giữ bản đó
+            return;
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IOException("Media root must be on a file system that supports atomic rename: " + root, e);
+        }
+        if (fsync) {
+            syncDirectory(target.getParent());
+        }
+    }
+
+    // Rename chỉ bền vững sau khi thư mục chứa nó được flush (không hỗ trợ trên Windows)
+    private void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            System.err.println("Failed to fsync media directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot == -1 ? "" : fileName.substring(dot + 1).toLowerCase();
+        return extension.matches("[a-z0-9]{1,10}") ? extension : "bin";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
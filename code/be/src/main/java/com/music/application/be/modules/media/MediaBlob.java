@@ -0,0 +1,52 @@
+package com.music.application.be.modules.media;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "media_blobs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_media_blobs_sha256_kind", columnNames = {"sha256", "kind"}),
+        indexes = {
+                @Index(name = "idx_media_blobs_url", columnList = "url"),
+                @Index(name = "idx_media_blobs_released_at", columnList = "released_at")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "media_blobs_seq")
+    @SequenceGenerator(name = "media_blobs_seq", sequenceName = "media_blobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaKind kind;
+
+    @Column(nullable = false, length = 1024)
+    private String url;
+
+    @Column(nullable = false)
+    private long size;
+
+    // Số entity (song, album, artist, user) đang dùng URL này
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // Thời điểm refCount về 0, sweeper xóa blob sau một khoảng grace
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, Long> {
+
+    Optional<MediaBlob> findBySha256AndKind(String sha256, MediaKind kind);
+
+    // Trả về 0 nếu sweeper vừa xóa blob, khi đó phải upload lại
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount + 1, b.releasedAt = null WHERE b.id = :id")
+    int acquire(Long id);
+
+    // Thêm một tham chiếu tới URL đang được entity khác giữ, vd. playlist dùng lại thumbnail của bài hát
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount + :count, b.releasedAt = null WHERE b.url = :url")
+    int retain(String url, int count);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount - 1, " +
+            "b.releasedAt = CASE WHEN b.refCount = 1 THEN :now ELSE b.releasedAt END " +
+            "WHERE b.url = :url AND b.refCount > 0")
+    int release(String url, LocalDateTime now);
+
+    @Query("SELECT b FROM MediaBlob b WHERE b.refCount = 0 AND b.releasedAt < :before ORDER BY b.releasedAt")
+    List<MediaBlob> findReleasedBefore(LocalDateTime before, Pageable pageable);
+
+    // Chỉ xóa nếu chưa có ai dùng lại blob kể từ lúc sweeper đọc
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MediaBlob b WHERE b.id = :id AND b.refCount = 0")
+    int deleteIfUnreferenced(Long id);
+}
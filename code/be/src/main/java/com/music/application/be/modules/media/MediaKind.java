@@ -0,0 +1,17 @@
+package com.music.application.be.modules.media;
+
+public enum MediaKind {
+    AUDIO("audio"),
+    IMAGE("images");
+
+    // Thư mục con khi lưu trên đĩa
+    private final String directory;
+
+    MediaKind(String directory) {
+        this.directory = directory;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+}
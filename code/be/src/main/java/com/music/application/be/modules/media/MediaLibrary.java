@@ -0,0 +1,271 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deduplicating, reference-counted front of {@link MediaStorage}.
+ * <p>
+ * Every stored file is recorded in {@code media_blobs} under the SHA-256 computed while it was
+ * spooled. Storing content that is already there returns the existing URL and bumps its
+ * reference count, with no transfer to the storage backend. Services call {@link #release}
+ * with the URL an entity no longer uses (replaced or deleted); blobs that stay unreferenced for
+ * {@code app.media.gc.grace} are deleted from storage by {@link #sweep}.
+ * <p>
+ * URLs that were stored before this table existed have no row, so releasing them is a no-op and
+ * they are never deleted.
+ * <p>
+ * Images stored with {@link #storeImage} also get the {@link ImageVariant} sizes, each stored and
+ * reference-counted as its own blob, so list views can load a 96 px thumbnail instead of the
+ * original upload.
+ */
+@Service
+public class MediaLibrary {
+
+    public record StoredImage(String url, Map<String, String> variants) {
+    }
+
+    private final MediaStorage mediaStorage;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final UploadSpooler uploadSpooler;
+    private final ImageDerivatives imageDerivatives;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+    private final int sweepBatchSize;
+
+    public MediaLibrary(MediaStorage mediaStorage,
+                        MediaBlobRepository mediaBlobRepository,
+                        UploadSpooler uploadSpooler,
+                        ImageDerivatives imageDerivatives,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${app.media.gc.grace:1h}") Duration grace,
+                        @Value("${app.media.gc.batch-size:100}") int sweepBatchSize) {
+        this.mediaStorage = mediaStorage;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.uploadSpooler = uploadSpooler;
+        this.imageDerivatives = imageDerivatives;
+        this.transactionTemplate = transactionTemplate;
+        this.grace = grace;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    public String store(MultipartFile file, MediaKind kind) throws IOException {
+        try (SpooledUpload upload = uploadSpooler.spool(file, kind == MediaKind.AUDIO ? "mp3" : "jpg")) {
+            return store(upload, kind);
+        }
+    }
+
+    /**
+     * Stores a spooled file, or reuses the stored copy of identical content. The caller owns
+     * one reference to the returned URL and must {@link #release} it when it stops using it.
+     */
+    public String store(SpooledUpload upload, MediaKind kind) throws IOException {
+        return store(upload.getFile(), upload.getSha256(), upload.getSize(), kind);
+    }
+
+    // File đã nằm sẵn trên server (import hàng loạt), không đi qua UploadSpooler
+    public String store(Path file, MediaKind kind) throws IOException {
+        return store(file.toFile(), sha256(file), Files.size(file), kind);
+    }
+
+    private String store(File file, String sha256, long size, MediaKind kind) throws IOException {
+        Optional<String> existing = reuse(sha256, kind);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        String url = mediaStorage.store(file, kind);
+        try {
+            mediaBlobRepository.saveAndFlush(MediaBlob.builder()
+                    .sha256(sha256)
+                    .kind(kind)
+                    .url(url)
+                    .size(size)
+                    .refCount(1)
+                    .build());
+            return url;
+        } catch (DataIntegrityViolationException e) {
+            // Upload cùng nội dung chạy song song đã ghi blob trước: dùng bản đó, bỏ bản vừa upload
+            Optional<String> winner = reuse(sha256, kind);
+            if (winner.isEmpty()) {
+                throw e;
+            }
+            if (!winner.get().equals(url)) {
+                deleteQuietly(url, kind);
+            }
+            return winner.get();
+        }
+    }
+
+    public StoredImage storeImage(MultipartFile file) throws IOException {
+        try (SpooledUpload upload = uploadSpooler.spool(file, "jpg")) {
+            return storeImage(upload);
+        }
+    }
+
+    /**
+     * Stores an image and its {@link ImageVariant} sizes. Variants are best effort: if they
+     * cannot be rendered or stored the map is empty and only the original is kept. The caller
+     * owns one reference to the URL and to every variant URL.
+     */
+    public StoredImage storeImage(SpooledUpload upload) throws IOException {
+        return storeImage(upload.getPath(), upload.getSha256(), upload.getSize(), upload.getPermit());
+    }
+
+    public StoredImage storeImage(Path file) throws IOException {
+        return storeImage(file, sha256(file), Files.size(file), null);
+    }
+
+    // Ảnh đã spool thì các size được spool dưới permit của nó, không xin thêm permit khi đang giữ
+    private StoredImage storeImage(Path file, String sha256, long size, UploadLimiter.Permit permit) throws IOException {
+        String url = store(file.toFile(), sha256, size, MediaKind.IMAGE);
+        Map<String, String> variants = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<ImageVariant, ImageDerivatives.EncodedImage> entry : imageDerivatives.render(file).entrySet()) {
+                ImageDerivatives.EncodedImage image = entry.getValue();
+                try (SpooledUpload variant = permit != null
+                        ? uploadSpooler.spool(image.data(), image.extension(), permit)
+                        : uploadSpooler.spool(image.data(), image.extension())) {
+                    variants.put(entry.getKey().key(), store(variant, MediaKind.IMAGE));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Thiếu một vài size thì client phải tự chọn size gần nhất, nên bỏ hết cho nhất quán
+            System.err.println("Failed to store image variants: " + e.getMessage());
+            variants.values().forEach(this::release);
+            variants.clear();
+        }
+        return new StoredImage(url, variants);
+    }
+
+    // Entity thứ hai dùng chung ảnh (và các variant) với entity khác
+    public void retain(String url, Map<String, String> variants) {
+        retain(url, variants, 1);
+    }
+
+    // count entity cùng dùng một ảnh, vd. các bài hát của một album khi import
+    public void retain(String url, Map<String, String> variants, int count) {
+        for (String shared : urls(url, variants)) {
+            try {
+                mediaBlobRepository.retain(shared, count);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to retain media " + shared + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void release(String url, Map<String, String> variants) {
+        urls(url, variants).forEach(this::release);
+    }
+
+    // Gọi sau khi entity đã được lưu với URL mới hoặc đã bị xóa
+    public void release(String url) {
+        if (url == null) {
+            return;
+        }
+        try {
+            mediaBlobRepository.release(url, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Blob chỉ bị giữ lại lâu hơn, không ảnh hưởng dữ liệu
+            System.err.println("Failed to release media " + url + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.media.gc.interval-ms:600000}")
+    public void sweep() {
+        List<MediaBlob> candidates = mediaBlobRepository.findReleasedBefore(
+                LocalDateTime.now().minus(grace), PageRequest.of(0, sweepBatchSize));
+        int deleted = 0;
+        for (MediaBlob blob : candidates) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteBlob(blob, status)))) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("Deleted " + deleted + " unreferenced media blobs");
+        }
+    }
+
+    /*
+     * Row và file được xóa trong cùng một transaction. Lệnh DELETE giữ lock trên row đến khi commit,
+     * nên upload trùng nội dung (acquire / retain) phải chờ tới lúc file đã bị xóa rồi mới thấy
+     * row biến mất và upload lại. Nếu xóa row rồi mới xóa file ngoài transaction, LocalMediaStorage
+     * (đường dẫn theo hash) có thể trả lại đúng đường dẫn đó cho upload mới, rồi file bị xóa mất.
+     */
+    private boolean deleteBlob(MediaBlob blob, TransactionStatus status) {
+        if (mediaBlobRepository.deleteIfUnreferenced(blob.getId()) != 1) {
+            return false;
+        }
+        try {
+            mediaStorage.delete(blob.getUrl(), blob.getKind());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Giữ lại row để lần sweep sau thử lại
+            System.err.println("Failed to delete media " + blob.getUrl() + ": " + e.getMessage());
+            status.setRollbackOnly();
+            return false;
+        }
+    }
+
+    private Optional<String> reuse(String sha256, MediaKind kind) {
+        return mediaBlobRepository.findBySha256AndKind(sha256, kind)
+                .filter(blob -> mediaBlobRepository.acquire(blob.getId()) == 1)
+                .map(MediaBlob::getUrl);
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static List<String> urls(String url, Map<String, String> variants) {
+        List<String> urls = new ArrayList<>();
+        if (url != null) {
+            urls.add(url);
+        }
+        if (variants != null) {
+            urls.addAll(variants.values());
+        }
+        return urls;
+    }
+
+    private void deleteQuietly(String url, MediaKind kind) {
+        try {
+            mediaStorage.delete(url, kind);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to delete media " + url + ": " + e.getMessage());
+        }
+    }
+}
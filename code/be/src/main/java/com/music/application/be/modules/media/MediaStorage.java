@@ -0,0 +1,44 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where uploaded audio and images are kept. Services store files through {@link MediaLibrary},
+ * which skips content that is already stored, and save the returned public URL on the entity.
+ * <p>
+ * {@code CloudinaryService} is the default implementation; {@link LocalMediaStorage} replaces
+ * it when the {@code local-storage} profile is active, so the backend can run without
+ * Cloudinary.
+ */
+public interface MediaStorage {
+
+    /**
+     * Stores a multipart upload, spooling it to disk first.
+     */
+    String store(MultipartFile file, MediaKind kind) throws IOException;
+
+    /**
+     * Stores a file that is already on disk, e.g. a {@link SpooledUpload}. The file is left in
+     * place; the caller still owns and deletes it.
+     */
+    String store(File file, MediaKind kind) throws IOException;
+
+    /**
+     * Deletes a stored file. Only {@link MediaLibrary} calls this, once no entity references
+     * the URL any more.
+     */
+    void delete(String url, MediaKind kind) throws IOException;
+
+    /**
+     * The file behind a URL returned by {@link #store}, if this storage keeps files on local
+     * disk. Used to stream audio with range support instead of redirecting to the URL.
+     */
+    default Optional<Path> localPath(String url) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,293 @@
+package com.music.application.be.modules.media;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves a file with HTTP range support: single and multiple byte ranges (206), suffix ranges,
+ * {@code If-Range} and {@code If-None-Match} against a strong ETag, and 416 for unsatisfiable
+ * ranges.
+ * <p>
+ * When the connector supports sendfile (Tomcat NIO does by default) a full or single-range
+ * response is handed to Tomcat through the {@code org.apache.tomcat.sendfile.*} request
+ * attributes and the kernel copies the bytes straight from the page cache to the socket.
+ * Otherwise, and for multipart responses, bytes go through {@link FileChannel#transferTo} from a
+ * pooled channel.
+ */
+@Component
+public class RangeStreamer {
+
+    // Nhiều hơn số này thì bỏ qua Range và trả cả file, tránh request chia file thành hàng nghìn mảnh
+    private static final int MAX_RANGES = 16;
+    private static final long TRANSFER_CHUNK = 1L << 20;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileChannelPool channelPool;
+    private final Counter bytesServed;
+
+    public RangeStreamer(FileChannelPool channelPool, MeterRegistry meterRegistry) {
+        this.channelPool = channelPool;
+        this.bytesServed = Counter.builder("media.stream.bytes")
+                .description("Bytes of media served by the streaming endpoint")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A byte range with an inclusive end, as in the {@code Content-Range} header.
+     */
+    record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+
+        String contentRange(long total) {
+            return "bytes " + start + "-" + end + "/" + total;
+        }
+    }
+
+    public void stream(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = etag(file, length, lastModified);
+        String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<ByteRange> ranges = List.of();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeHolds(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+            if (ranges == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!head) {
+                send(file, request, response, 0, length);
+            }
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(length));
+            response.setContentLengthLong(range.length());
+            if (!head) {
+                send(file, request, response, range.start(), range.length());
+            }
+        } else {
+            sendMultipart(file, response, ranges, length, contentType, head);
+        }
+    }
+
+    /**
+     * Parses a {@code Range} header. Returns an empty list when the header should be ignored
+     * (not a byte range, malformed, too many ranges) and {@code null} when no range overlaps
+     * the file.
+     */
+    static List<ByteRange> parseRanges(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return List.of();
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return List.of();
+        }
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String raw : specs) {
+            String spec = raw.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return List.of();
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // bytes=-500: 500 byte cuối
+                    long suffix = Long.parseLong(last);
+                    if (suffix > 0 && length > 0) {
+                        ranges.add(new ByteRange(Math.max(0, length - suffix), length - 1));
+                    }
+                    continue;
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return List.of();
+                }
+                if (start < length) {
+                    ranges.add(new ByteRange(start, Math.min(end, length - 1)));
+                }
+            } catch (NumberFormatException e) {
+                return List.of();
+            }
+        }
+        return ranges.isEmpty() ? null : coalesce(ranges);
+    }
+
+    // Gộp các range chồng lên nhau hoặc liền kề, không gửi cùng một byte hai lần
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() == 1) {
+            return ranges;
+        }
+        List<ByteRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ByteRange::start));
+        List<ByteRange> merged = new ArrayList<>();
+        ByteRange current = sorted.get(0);
+        for (int i = 1; i < sorted.size(); i++) {
+            ByteRange next = sorted.get(i);
+            if (next.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private void send(Path file, HttpServletRequest request, HttpServletResponse response,
+                      long start, long count) throws IOException {
+        bytesServed.increment(count);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat gửi file bằng sendfile sau khi controller trả về, không qua JVM heap
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannelPool.Lease lease = channelPool.acquire(file)) {
+            transfer(lease.channel(), start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void sendMultipart(Path file, HttpServletResponse response, List<ByteRange> ranges,
+                               long length, String contentType, boolean head) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + range.contentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannelPool.Lease lease = channelPool.acquire(file)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                ByteRange range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                transfer(lease.channel(), range.start(), range.length(), target);
+                bytesServed.increment(range.length());
+            }
+        }
+        out.write(closing);
+    }
+
+    private static void transfer(FileChannel channel, long start, long count, WritableByteChannel target) throws IOException {
+        long position = start;
+        long end = start + count;
+        while (position < end) {
+            long sent = channel.transferTo(position, Math.min(TRANSFER_CHUNK, end - position), target);
+            if (sent <= 0) {
+                throw new IOException("File ended before the requested range was sent");
+            }
+            position += sent;
+        }
+    }
+
+    // If-Range chỉ dùng so sánh strong: ETag khớp hoặc Last-Modified khớp tới từng giây
+    private static boolean ifRangeHolds(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date >= 0 && date / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // File của LocalMediaStorage được đặt tên theo SHA-256 nên tên file đã là một strong ETag
+    private static String etag(Path file, long length, long lastModified) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        String base = dot == -1 ? name : name.substring(0, dot);
+        if (base.matches("[0-9a-f]{64}")) {
+            return "\"" + base + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+}
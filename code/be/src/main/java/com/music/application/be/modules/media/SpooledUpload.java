@@ -0,0 +1,70 @@
+package com.music.application.be.modules.media;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An uploaded part written once to a temp file. The same file is used for metadata extraction
+ * and for the upload to storage; closing it deletes the file and gives its share of the request's
+ * {@link UploadLimiter} permit back.
+ */
+public class SpooledUpload implements AutoCloseable {
+
+    private final Path path;
+    private final long size;
+    private final String extension;
+    private final String sha256;
+    private final UploadLimiter.Permit permit;
+    private boolean closed;
+
+    SpooledUpload(Path path, long size, String extension, String sha256, UploadLimiter.Permit permit) {
+        this.path = path;
+        this.size = size;
+        this.extension = extension;
+        this.sha256 = sha256;
+        this.permit = permit;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public File getFile() {
+        return path.toFile();
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Hex, chữ thường
+    public String getSha256() {
+        return sha256;
+    }
+
+    // Permit của request, ảnh thu nhỏ sinh ra từ file này được spool dưới cùng permit
+    UploadLimiter.Permit getPermit() {
+        return permit;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete temporary file: " + path + " - " + e.getMessage());
+        } finally {
+            permit.close();
+        }
+    }
+}
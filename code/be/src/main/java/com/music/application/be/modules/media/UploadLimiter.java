@@ -0,0 +1,89 @@
+package com.music.application.be.modules.media;
+
+import com.music.application.be.exceptions.UploadCapacityExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the total size of uploads being spooled or pushed to storage at the same time.
+ * <p>
+ * Permits are counted in KiB, so a 50 MB song takes 51,200 permits out of the configured budget.
+ * A request that cannot get its share within the timeout fails with 503 instead of queueing
+ * without limit.
+ * <p>
+ * A request reserves the combined size of all its parts with one {@link #acquire} and spools
+ * every part under that {@link Permit}; it never asks for more permits while it holds some.
+ * Taking one permit per part would let two large requests each hold their first part while
+ * waiting on the fair semaphore for the second, until both time out.
+ */
+@Component
+public class UploadLimiter {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final Duration acquireTimeout;
+
+    public UploadLimiter(@Value("${app.upload.max-in-flight-bytes:268435456}") long maxInFlightBytes,
+                         @Value("${app.upload.acquire-timeout:30s}") Duration acquireTimeout,
+                         MeterRegistry meterRegistry) {
+        this.maxPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxInFlightBytes / 1024));
+        this.permits = new Semaphore(maxPermits, true);
+        this.acquireTimeout = acquireTimeout;
+        Gauge.builder("uploads.in.flight.bytes", this, limiter -> (double) limiter.inFlightBytes())
+                .description("Bytes of uploads currently spooled or being stored")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves room for an upload of the given size. Close the returned permit, and every
+     * {@link Permit#share() share} of it, when the spooled files have been stored and deleted.
+     */
+    public Permit acquire(long bytes) {
+        // File lớn hơn cả ngân sách vẫn được xử lý, nhưng một mình
+        int needed = (int) Math.min(maxPermits, Math.max(1, (bytes + 1023) / 1024));
+        try {
+            if (!permits.tryAcquire(needed, acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new UploadCapacityExceededException("Too many uploads in progress, please try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadCapacityExceededException("Interrupted while waiting for upload capacity");
+        }
+        return new Permit(needed);
+    }
+
+    public long inFlightBytes() {
+        return (long) (maxPermits - permits.availablePermits()) * 1024;
+    }
+
+    // Các file của cùng một request dùng chung permit, trả lại khi người giữ cuối cùng close
+    public final class Permit implements AutoCloseable {
+        private final int count;
+        private int holders = 1;
+
+        private Permit(int count) {
+            this.count = count;
+        }
+
+        public synchronized Permit share() {
+            if (holders == 0) {
+                throw new IllegalStateException("Upload permit was already released");
+            }
+            holders++;
+            return this;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (holders > 0 && --holders == 0) {
+                permits.release(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.music.application.be.modules.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Writes multipart uploads to a single temp file without reading them onto the heap.
+ * <p>
+ * The part is moved into the spool directory with {@link MultipartFile#transferTo(File)}: the
+ * servlet container already buffered it to disk ({@code spring.servlet.multipart.file-size-threshold}
+ * is 0), so the file is renamed rather than written a second time. Its SHA-256 is then computed
+ * by reading the file once, so identical content can be recognised by {@link MediaLibrary}.
+ * <p>
+ * A request with several parts {@link #reserve reserves} their combined size once and spools
+ * each part under that permit, see {@link UploadLimiter}.
+ */
+@Component
+public class UploadSpooler {
+
+    private final UploadLimiter uploadLimiter;
+    private final Path spoolDirectory;
+
+    public UploadSpooler(UploadLimiter uploadLimiter,
+                         @Value("${app.upload.spool-dir:${java.io.tmpdir}}") String spoolDirectory) {
+        this.uploadLimiter = uploadLimiter;
+        this.spoolDirectory = Paths.get(spoolDirectory);
+    }
+
+    // Một lần acquire cho tổng dung lượng mọi file của request
+    public UploadLimiter.Permit reserve(MultipartFile... files) {
+        long bytes = 0;
+        for (MultipartFile file : files) {
+            if (file != null) {
+                bytes += file.getSize();
+            }
+        }
+        return uploadLimiter.acquire(bytes);
+    }
+
+    /**
+     * @param defaultExtension extension used when the client did not send one; jaudiotagger
+     *                         picks the audio reader from the file extension
+     */
+    public SpooledUpload spool(MultipartFile file, String defaultExtension) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        try (UploadLimiter.Permit permit = uploadLimiter.acquire(file.getSize())) {
+            return spool(file, defaultExtension, permit);
+        }
+    }
+
+    /**
+     * Spools one part of a request under the permit from {@link #reserve}. The returned upload
+     * holds a share of the permit; the caller still closes its own.
+     */
+    public SpooledUpload spool(MultipartFile file, String defaultExtension, UploadLimiter.Permit reservation) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        UploadLimiter.Permit permit = reservation.share();
+        Path path = null;
+        try {
+            Files.createDirectories(spoolDirectory);
+            String extension = getFileExtension(file.getOriginalFilename(), defaultExtension);
+            path = Files.createTempFile(spoolDirectory, "upload_", "." + extension);
+            // Part của container đã nằm trên đĩa: transferTo đổi tên file thay vì chép lại nội dung
+            file.transferTo(path.toFile());
+            // SHA-256 đọc lại file một lần, MediaLibrary dùng để bỏ qua upload trùng nội dung
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return new SpooledUpload(path, Files.size(path), extension, HexFormat.of().formatHex(digest.digest()), permit);
+        } catch (IOException | RuntimeException e) {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+            permit.close();
+            throw e;
+        }
+    }
+
+    // Ảnh thu nhỏ sinh ra trên server, đi qua cùng giới hạn dung lượng với upload của client
+    public SpooledUpload spool(byte[] data, String extension) throws IOException {
+        try (UploadLimiter.Permit permit = uploadLimiter.acquire(data.length)) {
+            return spool(data, extension, permit);
+        }
+    }
+
+    // Dữ liệu sinh ra từ một file đang giữ permit (vd. các size ảnh), không acquire thêm
+    public SpooledUpload spool(byte[] data, String extension, UploadLimiter.Permit reservation) throws IOException {
+        UploadLimiter.Permit permit = reservation.share();
+        Path path = null;
+        try {
+            Files.createDirectories(spoolDirectory);
+            path = Files.createTempFile(spoolDirectory, "derived_", "." + extension);
+            Files.write(path, data);
+            MessageDigest digest = sha256();
+            return new SpooledUpload(path, data.length, extension, HexFormat.of().formatHex(digest.digest(data)), permit);
+        } catch (IOException | RuntimeException e) {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+            permit.close();
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String getFileExtension(String fileName, String defaultExtension) {
+        if (fileName == null || fileName.lastIndexOf(".") == -1) {
+            return defaultExtension;
+        }
+        String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+        // Tên file do client gửi, không để ký tự lạ lọt vào đường dẫn file tạm
+        return extension.matches("[a-z0-9]{1,10}") ? extension : defaultExtension;
+    }
+}
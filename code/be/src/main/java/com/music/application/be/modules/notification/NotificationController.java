@@ -62,7 +62,12 @@ public class NotificationController {
     @GetMapping("/{userId}/paginated")
     public ResponseEntity<?> getUserNotificationsPaginated(
             @PathVariable Long userId,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(required = false) String cursor) {
+        // Có cursor (rỗng cho trang đầu) thì dùng keyset với size của pageable, bỏ qua page
+        if (cursor != null) {
+            return ResponseEntity.ok(notificationService.getUserNotifications(userId, cursor, pageable.getPageSize()));
+        }
         try {
             Page<Notification> notifications = notificationService.getUserNotificationsPaginated(userId, pageable);
             return ResponseEntity.ok(notifications);
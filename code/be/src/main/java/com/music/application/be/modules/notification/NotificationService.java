@@ -1,5 +1,9 @@
 package com.music.application.be.modules.notification;
 
+import com.music.application.be.common.CursorPagination;
+import com.music.application.be.common.KeysetCursor;
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.common.PaginationUtils;
 import com.music.application.be.modules.notification.dto.CreateNotificationRequest;
 import com.music.application.be.modules.notification.dto.NotificationDto;
 import com.music.application.be.modules.notification.dto.NotificationResponse;
@@ -10,13 +14,16 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -27,10 +34,13 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final CursorPagination cursorPagination;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository,
+                               CursorPagination cursorPagination) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.cursorPagination = cursorPagination;
     }
 
     @CachePut(value = "notifications", key = "#result.id")
@@ -47,6 +57,7 @@ public class NotificationService {
                 .build();
 
         Notification savedNotification = notificationRepository.save(notification);
+        cursorPagination.evictTotal(totalKey(user.getId()));
         return NotificationResponse.fromEntity(savedNotification);
     }
 
@@ -84,6 +95,26 @@ public class NotificationService {
         }
     }
 
+    // Cursor mode: keyset trên (createdAt, id) mới nhất trước, tổng được đếm lại tối đa một lần mỗi TTL
+    public PagedResponse<NotificationDto> getUserNotifications(Long userId, String cursor, int size) {
+        cursorPagination.checkSize(size);
+        PageRequest rows = PageRequest.of(0, size);
+        Slice<Notification> slice;
+        if (cursor.isEmpty()) {
+            slice = notificationRepository.findSliceByUserIdOrderByCreatedAtDescIdDesc(userId, rows);
+        } else {
+            String[] keys = KeysetCursor.decode(cursor, 2);
+            slice = notificationRepository.findSliceAfter(userId,
+                    KeysetCursor.parse(keys[0], LocalDateTime::parse),
+                    KeysetCursor.parse(keys[1], Long::valueOf),
+                    rows);
+        }
+        long total = cursorPagination.cachedTotal(totalKey(userId),
+                () -> notificationRepository.countByUserId(userId));
+        return PaginationUtils.buildCursorResponse(slice.map(this::mapToDto).getContent(), slice,
+                notification -> KeysetCursor.encode(notification.getCreatedAt(), notification.getId()), total);
+    }
+
     @Cacheable(value = "unreadNotifications", key = "#userId")
     public List<Notification> getUnreadNotifications(Long userId) {
         try {
@@ -122,7 +153,9 @@ public class NotificationService {
     @CacheEvict(value = {"userNotifications", "userNotificationsPaginated", "unreadNotifications", "unreadNotificationsCount"}, key = "#userId")
     public int deleteAllByUserId(Long userId) {
         try {
-            return notificationRepository.deleteAllByUserId(userId);
+            int deleted = notificationRepository.deleteAllByUserId(userId);
+            cursorPagination.evictTotal(totalKey(userId));
+            return deleted;
         } catch (Exception e) {
             // Log the error
             System.err.println("Error deleting user notifications: " + e.getMessage());
@@ -141,6 +174,10 @@ public class NotificationService {
         }
     }
 
+    private static String totalKey(Long userId) {
+        return "notifications:" + userId;
+    }
+
     public NotificationDto mapToDto(Notification notification) {
         if (notification == null) return null;
 
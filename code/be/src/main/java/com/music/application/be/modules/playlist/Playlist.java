@@ -7,11 +7,15 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Table(name = "playlists")
@@ -20,7 +24,8 @@ import java.util.List;
 @NoArgsConstructor
 public class Playlist {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlists_seq")
+    @SequenceGenerator(name = "playlists_seq", sequenceName = "playlists_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,6 +35,11 @@ public class Playlist {
 
     private String thumbnail;
 
+    // Các bản thu nhỏ theo ImageVariant, vd. {"small": "...", "medium": "...", "large": "..."}
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "thumbnail_variants", columnDefinition = "jsonb")
+    private Map<String, String> thumbnailVariants;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -46,6 +56,24 @@ public class Playlist {
     )
     private List<Genre> genres = new ArrayList<>();
 
+    // Smart playlist: bài hát được chọn theo rule lúc đọc, không lưu dòng song_playlist nào
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "smart_rule", columnDefinition = "jsonb")
+    private PlaylistRule rule;
+
+    // Thống kê lưu sẵn để danh sách playlist không phải đọc song_playlist, chỉ PlaylistStats ghi bằng SQL;
+    // updatable = false để save() entity (đổi tên, thumbnail...) không ghi đè giá trị cũ lên
+    @ColumnDefault("0")
+    @Column(name = "song_count", nullable = false, updatable = false)
+    private int songCount = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "total_duration", nullable = false, updatable = false)
+    private long totalDuration = 0; // in seconds
+
+    @Column(name = "cover_song_id", updatable = false)
+    private Long coverSongId; // bài hát đầu tiên, thumbnail của playlist lấy từ bài này
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy; // Thêm mối quan hệ với User
@@ -0,0 +1,72 @@
+package com.music.application.be.modules.playlist;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts the cached views of playlists whose stored song count, duration, cover or thumbnail
+ * changed: the entries of those playlists by id, and the list caches, whose keys are pages and
+ * cannot be matched to a playlist.
+ * <p>
+ * Inside a transaction the eviction runs after commit, so a concurrent read cannot cache the old
+ * row again between the eviction and the commit.
+ */
+@Component
+public class PlaylistCacheEvictor {
+
+    private static final List<String> BY_ID = List.of("playlists", "playlistWithSongs");
+    private static final List<String> LISTS = List.of("allPlaylists", "searchedPlaylists");
+
+    private final CacheManager cacheManager;
+
+    public PlaylistCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void evictAfterCommit(Long playlistId) {
+        evictAfterCommit(Set.of(playlistId));
+    }
+
+    public void evictAfterCommit(Collection<Long> playlistIds) {
+        if (playlistIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(playlistIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(playlistIds);
+            }
+        });
+    }
+
+    private void evict(Collection<Long> playlistIds) {
+        try {
+            for (String name : BY_ID) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    playlistIds.forEach(cache::evict);
+                }
+            }
+            for (String name : LISTS) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Entry cũ hết hạn theo TTL của cache
+            System.err.println("Failed to evict playlist caches: " + e.getMessage());
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.music.application.be.modules.playlist;
 import com.music.application.be.common.PagedResponse;
 import com.music.application.be.modules.playlist.dto.PlaylistDTO;
 import com.music.application.be.modules.playlist.dto.PlaylistRequestDTO;
+import com.music.application.be.modules.song_playlist.dto.SongPlaylistDTO;
 import com.music.application.be.modules.user.User;
+import io.swagger.v3.oas.annotations.Operation;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,11 +50,29 @@ public class PlaylistController {
     }
 
     // Get playlist with songs by ID
+    @Operation(
+            summary = "Get playlist with its songs",
+            description = "Returns the playlist and its songs in one response. For smart playlists (rule != null) " +
+                    "songPlaylists holds at most the first app.playlists.smart.max-songs songs of the rule " +
+                    "(200 by default, most played first), while songCount is the number of all matching songs. " +
+                    "Use GET /api/playlists/{playlistId}/songs to page through every song."
+    )
     @GetMapping("/{playlistId}/with-songs")
     public ResponseEntity<PlaylistDTO> getPlaylistWithSongs(@PathVariable Long playlistId) {
         return ResponseEntity.ok(playlistService.getPlaylistWithSongs(playlistId));
     }
 
+    // Get one page of songs (keyset), metadata lấy từ GET /{playlistId}
+    @GetMapping("/{playlistId}/songs")
+    public ResponseEntity<PagedResponse<SongPlaylistDTO>> getPlaylistSongs(
+            @PathVariable Long playlistId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        // Cursor rỗng cũng là trang đầu, giống các endpoint danh sách khác
+        return ResponseEntity.ok(playlistService.getPlaylistSongs(playlistId,
+                cursor == null || cursor.isEmpty() ? null : cursor, limit));
+    }
+
     // Get all playlists
     @GetMapping
     public ResponseEntity<PagedResponse<PlaylistDTO>> getAllPlaylists(
@@ -37,4 +37,9 @@ public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
     Page<Playlist> findByGenresId(Long genreId, Pageable pageable);
 
     int countByCreatedBy_Id(Long userId);
+
+    List<Playlist> findByRuleIsNotNull();
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Playlist p")
+    long findMaxId();
 }
\ No newline at end of file
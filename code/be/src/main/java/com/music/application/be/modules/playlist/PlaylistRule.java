@@ -0,0 +1,30 @@
+package com.music.application.be.modules.playlist;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rule of a smart playlist, stored as jsonb on {@link Playlist}. The playlist holds every song
+ * matching all the criteria that are set; criteria left null are ignored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaylistRule {
+
+    // Bài hát có ít nhất một trong các genre
+    private List<Long> genreIds;
+
+    private Long artistId;
+
+    private Integer releaseYearFrom;
+
+    private Integer releaseYearTo;
+
+    private Integer minViewCount;
+}
@@ -1,12 +1,16 @@
 package com.music.application.be.modules.playlist;
 
+import com.music.application.be.common.KeysetCursor;
 import com.music.application.be.common.PagedResponse;
 import com.music.application.be.common.PaginationUtils;
 import com.music.application.be.modules.genre.Genre;
 import com.music.application.be.modules.genre.GenreRepository;
+import com.music.application.be.modules.media.MediaLibrary;
 import com.music.application.be.modules.playlist.dto.PlaylistDTO;
 import com.music.application.be.modules.playlist.dto.PlaylistRequestDTO;
 import com.music.application.be.modules.role.Role;
+import com.music.application.be.modules.search.CatalogChangedEvent;
+import com.music.application.be.modules.search.SuggestionType;
 import com.music.application.be.modules.song.Song;
 import com.music.application.be.modules.song.SongRepository;
 import com.music.application.be.modules.song.dto.SongDTO;
@@ -17,9 +21,12 @@ import com.music.application.be.modules.user.User;
 import com.music.application.be.modules.user.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,11 +34,16 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class PlaylistService {
 
+    private static final String ADDED_CURSOR = "a";
+    private static final String SMART_CURSOR = "v";
+
     private static final String DEFAULT_THUMBNAIL = "https://res.cloudinary.com/djuollv0e/image/upload/v1751565561/song_cover_vjjmta.png";
 
     @Autowired
@@ -46,9 +58,24 @@ public class PlaylistService {
     @Autowired
     private SongPlaylistRepository songPlaylistRepository;
 
+    @Autowired
+    private SmartPlaylistResolver smartPlaylistResolver;
+
+    @Autowired
+    private PlaylistStats playlistStats;
+
+    @Value("${app.playlists.songs.max-limit:200}")
+    private int maxSongsPageSize;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MediaLibrary mediaLibrary;
+
     // Create playlist for user (no genre)
     @CacheEvict(value = "myPlaylists", allEntries = true)
     public PlaylistDTO createPlaylist(PlaylistRequestDTO playlistRequestDTO) {
@@ -68,6 +95,7 @@ public class PlaylistService {
         playlist.setThumbnail(DEFAULT_THUMBNAIL); // Set default thumbnail
 
         Playlist savedPlaylist = playlistRepository.save(playlist);
+        publishPlaylistChange(savedPlaylist);
 
         // Update thumbnail from first song (if any songs are added later)
         updateThumbnail(savedPlaylist.getId());
@@ -103,24 +131,16 @@ public class PlaylistService {
             }
             
             playlist.setGenres(genres);
+            playlist.setRule(buildRule(playlistRequestDTO));
         } else {
             throw new IllegalArgumentException("Genre IDs are required for admin-created playlists");
         }
 
         Playlist savedPlaylist = playlistRepository.save(playlist);
-
-        if (!playlist.getGenres().isEmpty()) {
-            List<Song> matchingSongs = songRepository.findByGenresIn(playlist.getGenres());
-            for (Song song : matchingSongs) {
-                SongPlaylist songPlaylist = new SongPlaylist();
-                songPlaylist.setSong(song);
-                songPlaylist.setPlaylist(savedPlaylist);
-                songPlaylist.setAddedAt(LocalDateTime.now());
-                songPlaylistRepository.save(songPlaylist);
-            }
-            // Cập nhật thumbnail từ bài hát đầu tiên
-            updateThumbnail(savedPlaylist.getId());
-        }
+        playlistStats.refresh(savedPlaylist);
+        publishPlaylistChange(savedPlaylist);
+        // Cập nhật thumbnail từ bài hát đầu tiên khớp rule
+        updateThumbnail(savedPlaylist.getId());
 
         return mapToDTO(savedPlaylist);
     }    // Read by ID
@@ -154,9 +174,30 @@ public class PlaylistService {
 
         checkAccessPermission(playlist); //
 
+        if (playlist.getRule() != null) {
+            return getSmartPlaylistWithSongs(playlist);
+        }
         return getCachedPlaylistWithSongs(id); //
     }
 
+    // Smart playlist: chỉ danh sách id được cache (TTL ngắn), bài hát nạp mới theo id
+    private PlaylistDTO getSmartPlaylistWithSongs(Playlist playlist) {
+        SmartPlaylistSongIds songIds = smartPlaylistResolver.songIds(playlist.getId(), playlist.getRule());
+        List<SongPlaylistDTO> songPlaylistDTOs = smartPlaylistResolver.songs(songIds).stream()
+                .map(song -> {
+                    SongPlaylistDTO dto = new SongPlaylistDTO();
+                    dto.setSongId(song.getId());
+                    dto.setPlaylistId(playlist.getId());
+                    dto.setSong(mapSongToDTO(song));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+
+        PlaylistDTO dto = mapToDTO(playlist);
+        dto.setSongPlaylists(songPlaylistDTOs);
+        return dto;
+    }
+
     @Cacheable(value = "playlistWithSongs", key = "#id")
     public PlaylistDTO getCachedPlaylistWithSongs(Long id) {
         Playlist playlist = playlistRepository.findById(id).orElseThrow();
@@ -171,6 +212,82 @@ public class PlaylistService {
         return dto;
     }
 
+    /**
+     * One page of the songs of a playlist with keyset pagination: {@code cursor} is the
+     * {@code nextCursor} of the previous page, or null for the first page. Manual playlists are
+     * ordered by {@code (addedAt, id)} descending, smart playlists by {@code (viewCount, id)}
+     * descending; neither runs a COUNT, so every page costs the same. Playlist metadata is
+     * served by {@link #getPlaylistById}.
+     */
+    public PagedResponse<SongPlaylistDTO> getPlaylistSongs(Long id, String cursor, int limit) {
+        if (limit < 1 || limit > maxSongsPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSongsPageSize);
+        }
+        Playlist playlist = playlistRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + id));
+        checkAccessPermission(playlist);
+
+        // Đọc thêm một phần tử để biết còn trang sau hay không
+        List<SongPlaylistDTO> content;
+        if (playlist.getRule() != null) {
+            String[] keys = cursor != null ? decodeCursor(cursor, SMART_CURSOR) : null;
+            content = smartPlaylistResolver.page(playlist.getRule(),
+                            keys != null ? Integer.valueOf(keys[1]) : null,
+                            keys != null ? Long.valueOf(keys[2]) : null,
+                            limit + 1).stream()
+                    .map(song -> {
+                        SongPlaylistDTO dto = new SongPlaylistDTO();
+                        dto.setSongId(song.getId());
+                        dto.setPlaylistId(id);
+                        dto.setSong(mapSongToDTO(song));
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        } else {
+            PageRequest firstRows = PageRequest.of(0, limit + 1);
+            List<SongPlaylist> songPlaylists = cursor == null
+                    ? songPlaylistRepository.findPage(id, firstRows)
+                    : pageAfter(id, decodeCursor(cursor, ADDED_CURSOR), firstRows);
+            content = songPlaylists.stream().map(this::mapToSongPlaylistDTO).collect(Collectors.toList());
+        }
+
+        boolean hasMore = content.size() > limit;
+        if (hasMore) {
+            content = content.subList(0, limit);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            SongPlaylistDTO last = content.get(content.size() - 1);
+            nextCursor = playlist.getRule() != null
+                    ? KeysetCursor.encode(SMART_CURSOR, last.getSong().getViewCount(), last.getSongId())
+                    : KeysetCursor.encode(ADDED_CURSOR, last.getAddedAt(), last.getId());
+        }
+        return PaginationUtils.buildCursorResponse(content, limit, nextCursor, playlist.getSongCount());
+    }
+
+    private List<SongPlaylist> pageAfter(Long playlistId, String[] cursor, PageRequest rows) {
+        return songPlaylistRepository.findPageAfter(playlistId, LocalDateTime.parse(cursor[1]), Long.valueOf(cursor[2]), rows);
+    }
+
+    // Cursor gồm loại thứ tự và khóa sắp xếp; cursor của playlist khác loại (vd. playlist vừa đổi rule) bị từ chối
+    private static String[] decodeCursor(String value, String kind) {
+        String[] cursor = KeysetCursor.decode(value, 3);
+        if (!kind.equals(cursor[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            Long.parseLong(cursor[2]);
+            if (SMART_CURSOR.equals(kind)) {
+                Integer.parseInt(cursor[1]);
+            } else {
+                LocalDateTime.parse(cursor[1]);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return cursor;
+    }
+
     private void checkAccessPermission(Playlist playlist) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof User user) {
@@ -230,6 +347,7 @@ public class PlaylistService {
 
         // Không xử lý genre cho playlist của user
         Playlist updatedPlaylist = playlistRepository.save(playlist);
+        publishPlaylistChange(updatedPlaylist);
         // Cập nhật thumbnail từ bài hát đầu tiên (nếu có)
         updateThumbnail(id);
         return mapToDTO(updatedPlaylist);
@@ -272,27 +390,21 @@ public class PlaylistService {
             // Genres đã được validate ở trên, chỉ cần set lại
             List<Genre> genres = genreRepository.findAllById(playlistRequestDTO.getGenreIds());
             playlist.setGenres(genres);
+            playlist.setRule(buildRule(playlistRequestDTO));
         } else {
+            // Không còn genre: thành playlist thường, rỗng
             playlist.setGenres(null);
+            playlist.setRule(null);
         }
 
-        List<SongPlaylist> existingSongs = songPlaylistRepository.findByPlaylistIdOrderByAddedAtDesc(id);
-        songPlaylistRepository.deleteAll(existingSongs);
-
-        if (playlist.getGenres() != null && !playlist.getGenres().isEmpty()) {
-            List<Song> matchingSongs = songRepository.findByGenresIn(playlist.getGenres());
-            for (Song song : matchingSongs) {
-                SongPlaylist songPlaylist = new SongPlaylist();
-                songPlaylist.setSong(song);
-                songPlaylist.setPlaylist(playlist);
-                songPlaylist.setAddedAt(LocalDateTime.now());
-                songPlaylistRepository.save(songPlaylist);
-            }
-            // Cập nhật thumbnail từ bài hát đầu tiên
+        Playlist updatedPlaylist = playlistRepository.save(playlist);
+        smartPlaylistResolver.evict(id);
+        playlistStats.refresh(updatedPlaylist);
+        publishPlaylistChange(updatedPlaylist);
+        if (updatedPlaylist.getRule() != null) {
+            // Cập nhật thumbnail từ bài hát đầu tiên khớp rule
             updateThumbnail(id);
         }
-
-        Playlist updatedPlaylist = playlistRepository.save(playlist);
         return mapToDTO(updatedPlaylist);
     }
 
@@ -312,6 +424,8 @@ public class PlaylistService {
         }
 
         playlistRepository.delete(playlist);
+        mediaLibrary.release(playlist.getThumbnail(), playlist.getThumbnailVariants());
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(SuggestionType.PLAYLIST, id));
     }    // Search playlists
     @Cacheable(
             value = "searchedPlaylists",
@@ -402,11 +516,32 @@ public class PlaylistService {
         dto.setName(playlist.getName());
         dto.setDescription(playlist.getDescription());
         dto.setThumbnail(playlist.getThumbnail()); // Thêm thumbnail
+        dto.setThumbnailVariants(playlist.getThumbnailVariants());
         dto.setCreatedAt(playlist.getCreatedAt());
         dto.setIsPublic(playlist.getIsPublic()); // Thêm isPublic
         dto.setGenreIds(playlist.getGenres() != null ? playlist.getGenres().stream().map(Genre::getId).collect(Collectors.toList()) : null);
         dto.setUserId(playlist.getCreatedBy().getId());
+        dto.setRule(playlist.getRule());
+        dto.setSongCount(playlist.getSongCount());
+        dto.setTotalDuration(playlist.getTotalDuration());
+        dto.setCoverSongId(playlist.getCoverSongId());
         return dto;
+    }
+
+    // Rule của playlist theo genre: genreIds từ request, các điều kiện khác (nếu có) từ request.rule
+    private PlaylistRule buildRule(PlaylistRequestDTO playlistRequestDTO) {
+        PlaylistRule requested = playlistRequestDTO.getRule();
+        PlaylistRule rule = requested != null
+                ? PlaylistRule.builder()
+                        .artistId(requested.getArtistId())
+                        .releaseYearFrom(requested.getReleaseYearFrom())
+                        .releaseYearTo(requested.getReleaseYearTo())
+                        .minViewCount(requested.getMinViewCount())
+                        .build()
+                : new PlaylistRule();
+        rule.setGenreIds(List.copyOf(playlistRequestDTO.getGenreIds()));
+        smartPlaylistResolver.validate(rule);
+        return rule;
     }// Map SongPlaylist to DTO
     private SongPlaylistDTO mapToSongPlaylistDTO(SongPlaylist songPlaylist) {
         SongPlaylistDTO dto = new SongPlaylistDTO();
@@ -424,6 +559,7 @@ public class PlaylistService {
         dto.setDuration(song.getDuration());
         dto.setAudioUrl(song.getAudioUrl());
         dto.setThumbnail(song.getThumbnail());
+        dto.setThumbnailVariants(song.getThumbnailVariants());
         dto.setLyrics(song.getLyrics());
         dto.setReleaseDate(song.getReleaseDate());
         dto.setViewCount(song.getViewCount());
@@ -435,15 +571,69 @@ public class PlaylistService {
         return dto;
     }
 
+    // Chỉ playlist public mới có trong gợi ý tìm kiếm
+    private void publishPlaylistChange(Playlist playlist) {
+        if (Boolean.TRUE.equals(playlist.getIsPublic())) {
+            eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.PLAYLIST, playlist.getId(), playlist.getName()));
+        } else {
+            eventPublisher.publishEvent(CatalogChangedEvent.removed(SuggestionType.PLAYLIST, playlist.getId()));
+        }
+    }
+
     // Phương thức cập nhật thumbnail từ bài hát đầu tiên
     public void updateThumbnail(Long playlistId) {
-        List<SongPlaylist> songPlaylists = songPlaylistRepository.findByPlaylistIdOrderByAddedAtAsc(playlistId);
-        if (!songPlaylists.isEmpty()) {
-            Song firstSong = songPlaylists.get(0).getSong();
-            Playlist playlist = playlistRepository.findById(playlistId)
-                    .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + playlistId));
-            playlist.setThumbnail(firstSong.getThumbnail()); // Giả định Song có trường thumbnail
-            playlistRepository.save(playlist);
+        Playlist playlist = playlistRepository.findById(playlistId)
+                .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + playlistId));
+        Song firstSong = firstSong(playlist);
+        if (firstSong != null) {
+            applyThumbnail(playlist, firstSong);
+        }
+    }
+
+    /**
+     * Thumbnail theo cover mới sau khi thêm / xóa bài hát. PlaylistStats đổi cover bằng SQL nên
+     * entity trong persistence context của request vẫn giữ cover cũ, vì vậy cover được truyền vào.
+     * Playlist trở nên trống thì quay về thumbnail mặc định như playlist mới tạo.
+     */
+    public void updateCover(Long playlistId, Long coverSongId) {
+        Playlist playlist = playlistRepository.findById(playlistId)
+                .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + playlistId));
+        if (coverSongId != null) {
+            songRepository.findById(coverSongId).ifPresent(song -> applyThumbnail(playlist, song));
+            return;
+        }
+        if (DEFAULT_THUMBNAIL.equals(playlist.getThumbnail()) && playlist.getThumbnailVariants() == null) {
+            return;
+        }
+        String previousThumbnail = playlist.getThumbnail();
+        Map<String, String> previousThumbnailVariants = playlist.getThumbnailVariants();
+        playlist.setThumbnail(DEFAULT_THUMBNAIL);
+        playlist.setThumbnailVariants(null);
+        playlistRepository.save(playlist);
+        mediaLibrary.release(previousThumbnail, previousThumbnailVariants);
+    }
+
+    private void applyThumbnail(Playlist playlist, Song firstSong) {
+        if (Objects.equals(playlist.getThumbnail(), firstSong.getThumbnail())
+                && Objects.equals(playlist.getThumbnailVariants(), firstSong.getThumbnailVariants())) {
+            return;
+        }
+        String previousThumbnail = playlist.getThumbnail();
+        Map<String, String> previousThumbnailVariants = playlist.getThumbnailVariants();
+        playlist.setThumbnail(firstSong.getThumbnail()); // Giả định Song có trường thumbnail
+        playlist.setThumbnailVariants(firstSong.getThumbnailVariants());
+        // Playlist giữ reference riêng tới ảnh của bài hát, ảnh không bị dọn khi bài hát đổi thumbnail
+        mediaLibrary.retain(playlist.getThumbnail(), playlist.getThumbnailVariants());
+        playlistRepository.save(playlist);
+        mediaLibrary.release(previousThumbnail, previousThumbnailVariants);
+    }
+
+    private Song firstSong(Playlist playlist) {
+        if (playlist.getRule() != null) {
+            List<Song> songs = smartPlaylistResolver.songs(smartPlaylistResolver.songIds(playlist.getId(), playlist.getRule()));
+            return songs.isEmpty() ? null : songs.get(0);
         }
+        // Bài hát đầu tiên được PlaylistStats lưu sẵn, không đọc cả song_playlist
+        return playlist.getCoverSongId() != null ? songRepository.findById(playlist.getCoverSongId()).orElse(null) : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.music.application.be.modules.playlist;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the denormalized {@code song_count}, {@code total_duration} and {@code cover_song_id}
+ * of playlists, so playlist lists show them without reading {@code song_playlist}.
+ * <p>
+ * Adding or removing a song updates the row with one atomic {@code UPDATE ... RETURNING}, so
+ * concurrent edits of the same playlist never lose a change. The cover is the earliest added song
+ * and only moves when it is removed. Smart playlists take their values from their rule when the
+ * rule is saved. {@link PlaylistStatsRepairJob} recomputes everything periodically to fix drift,
+ * e.g. a song whose duration changed after it was added.
+ */
+@Component
+public class PlaylistStats {
+
+    private static final String SONG_ADDED =
+            "UPDATE playlists p SET song_count = p.song_count + 1, " +
+                    "total_duration = p.total_duration + s.duration, " +
+                    "cover_song_id = COALESCE(p.cover_song_id, s.id) " +
+                    "FROM songs s WHERE p.id = ? AND s.id = ? " +
+                    "RETURNING p.cover_song_id";
+
+    // Bỏ qua chính bài hát vừa xóa khi chọn cover mới, kể cả khi lệnh DELETE chưa được flush
+    private static final String SONG_REMOVED =
+            "UPDATE playlists p SET song_count = GREATEST(p.song_count - 1, 0), " +
+                    "total_duration = GREATEST(p.total_duration - s.duration, 0), " +
+                    "cover_song_id = CASE WHEN p.cover_song_id = s.id THEN " +
+                    "(SELECT c.song_id FROM song_playlist c WHERE c.playlist_id = p.id AND c.song_id <> s.id " +
+                    "ORDER BY c.added_at, c.id LIMIT 1) ELSE p.cover_song_id END " +
+                    "FROM songs s WHERE p.id = ? AND s.id = ? " +
+                    "RETURNING p.cover_song_id";
+
+    // Tính lại playlist thường trong một khoảng id, chỉ ghi những dòng bị lệch
+    private static final String REPAIR =
+            "UPDATE playlists p SET song_count = t.song_count, total_duration = t.total_duration, " +
+                    "cover_song_id = t.cover_song_id " +
+                    "FROM (SELECT pl.id, COUNT(sp.id) AS song_count, COALESCE(SUM(s.duration), 0) AS total_duration, " +
+                    "(SELECT c.song_id FROM song_playlist c WHERE c.playlist_id = pl.id " +
+                    "ORDER BY c.added_at, c.id LIMIT 1) AS cover_song_id " +
+                    "FROM playlists pl " +
+                    "LEFT JOIN song_playlist sp ON sp.playlist_id = pl.id " +
+                    "LEFT JOIN songs s ON s.id = sp.song_id " +
+                    "WHERE pl.id BETWEEN ? AND ? AND pl.smart_rule IS NULL " +
+                    "GROUP BY pl.id) t " +
+                    "WHERE p.id = t.id AND (p.song_count, p.total_duration, p.cover_song_id) " +
+                    "IS DISTINCT FROM (t.song_count, t.total_duration, t.cover_song_id) " +
+                    "RETURNING p.id";
+
+    private static final String SET_SMART =
+            "UPDATE playlists SET song_count = ?, total_duration = ?, cover_song_id = ? " +
+                    "WHERE id = ? AND smart_rule IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SmartPlaylistResolver smartPlaylistResolver;
+
+    public PlaylistStats(JdbcTemplate jdbcTemplate, SmartPlaylistResolver smartPlaylistResolver) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.smartPlaylistResolver = smartPlaylistResolver;
+    }
+
+    /**
+     * @return the cover song of the playlist after the update
+     */
+    public Long songAdded(Long playlistId, Long songId) {
+        return coverOf(jdbcTemplate.queryForList(SONG_ADDED, Long.class, playlistId, songId));
+    }
+
+    /**
+     * @return the cover song of the playlist after the update, null if it is now empty
+     */
+    public Long songRemoved(Long playlistId, Long songId) {
+        return coverOf(jdbcTemplate.queryForList(SONG_REMOVED, Long.class, playlistId, songId));
+    }
+
+    /**
+     * Recomputes one playlist after its rule changed: from the rule for smart playlists, from
+     * {@code song_playlist} otherwise.
+     */
+    public void refresh(Playlist playlist) {
+        if (playlist.getRule() == null) {
+            repair(playlist.getId(), playlist.getId());
+            return;
+        }
+        SmartPlaylistResolver.Stats stats = smartPlaylistResolver.stats(playlist.getRule());
+        List<Long> songIds = smartPlaylistResolver.songIds(playlist.getId(), playlist.getRule()).getSongIds();
+        int songCount = (int) Math.min(stats.songCount(), Integer.MAX_VALUE);
+        Long coverSongId = songIds.isEmpty() ? null : songIds.get(0);
+        jdbcTemplate.update(SET_SMART, songCount, stats.totalDuration(), coverSongId, playlist.getId());
+    }
+
+    /**
+     * Recomputes the playlists without a rule whose id is in {@code [fromId, toId]}.
+     *
+     * @return the ids of the playlists whose stored values were wrong
+     */
+    public List<Long> repair(long fromId, long toId) {
+        return jdbcTemplate.queryForList(REPAIR, Long.class, fromId, toId);
+    }
+
+    private static Long coverOf(List<Long> rows) {
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
@@ -0,0 +1,172 @@
+package com.music.application.be.modules.playlist;
+
+import com.music.application.be.modules.song.SongsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Recomputes the stats kept by {@link PlaylistStats} and fixes the playlists that drifted.
+ * <p>
+ * Playlists without a rule are split into id ranges that are repaired in parallel, one set-based
+ * {@code UPDATE} per range that only writes wrong rows. Smart playlists are recomputed from their
+ * rule. Playlists whose values changed get their thumbnail refreshed from the new cover. The first
+ * run after startup also fills the columns of playlists created before they existed.
+ * <p>
+ * Smart playlists whose rule matched a song before or after it was created, updated or deleted
+ * are also refreshed within seconds of a {@link SongsChangedEvent}, instead of staying stale until
+ * the next run. The event only queues the change once the song write has committed; matching and
+ * recomputing happen on the scheduler, so song writes still touch no playlist rows.
+ */
+@Component
+public class PlaylistStatsRepairJob {
+
+    private static final String LOCK_KEY = "playlist-stats:repairing";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(30);
+
+    private final PlaylistStats playlistStats;
+    private final SmartPlaylistResolver smartPlaylistResolver;
+    private final PlaylistRepository playlistRepository;
+    private final PlaylistService playlistService;
+    private final StringRedisTemplate redisTemplate;
+    private final PlaylistCacheEvictor playlistCacheEvictor;
+    // Thay đổi bài hát đã commit, chờ lượt refreshChangedSongs kế tiếp
+    private final ConcurrentLinkedQueue<SongsChangedEvent.Change> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final int rangeSize;
+    private final int parallelism;
+
+    public PlaylistStatsRepairJob(PlaylistStats playlistStats,
+                                  SmartPlaylistResolver smartPlaylistResolver,
+                                  PlaylistRepository playlistRepository,
+                                  PlaylistService playlistService,
+                                  StringRedisTemplate redisTemplate,
+                                  PlaylistCacheEvictor playlistCacheEvictor,
+                                  @Value("${app.playlists.stats.repair-range-size:1000}") int rangeSize,
+                                  @Value("${app.playlists.stats.repair-parallelism:4}") int parallelism) {
+        this.playlistStats = playlistStats;
+        this.smartPlaylistResolver = smartPlaylistResolver;
+        this.playlistRepository = playlistRepository;
+        this.playlistService = playlistService;
+        this.redisTemplate = redisTemplate;
+        this.playlistCacheEvictor = playlistCacheEvictor;
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+    }
+
+    @Scheduled(initialDelayString = "${app.playlists.stats.repair-initial-delay-ms:60000}",
+            fixedDelayString = "${app.playlists.stats.repair-interval-ms:3600000}")
+    public void repair() {
+        // Nhiều node: chỉ một node chạy mỗi lượt; Redis lỗi thì vẫn chạy vì job idempotent
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", LOCK_TTL))) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Playlist stats repair lock unavailable: " + e.getMessage());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            long maxId = playlistRepository.findMaxId();
+            List<long[]> ranges = new ArrayList<>();
+            for (long from = 1; from <= maxId; from += rangeSize) {
+                ranges.add(new long[]{from, Math.min(from + rangeSize - 1, maxId)});
+            }
+            // parallelStream chạy trên pool riêng của job thay vì common pool
+            List<Long> repaired = pool.submit(() -> ranges.parallelStream()
+                    .flatMap(range -> playlistStats.repair(range[0], range[1]).stream())
+                    .toList()).get();
+            List<Playlist> smartPlaylists = playlistRepository.findByRuleIsNotNull();
+            pool.submit(() -> smartPlaylists.parallelStream().forEach(playlistStats::refresh)).get();
+
+            repaired.forEach(this::updateThumbnail);
+            smartPlaylists.forEach(playlist -> updateThumbnail(playlist.getId()));
+            Set<Long> changed = new LinkedHashSet<>(repaired);
+            smartPlaylists.forEach(playlist -> changed.add(playlist.getId()));
+            playlistCacheEvictor.evictAfterCommit(changed);
+            if (!repaired.isEmpty()) {
+                System.out.println("Repaired stats of " + repaired.size() + " playlists");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Playlist stats repair interrupted");
+        } catch (ExecutionException e) {
+            System.err.println("Playlist stats repair failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Playlist stats repair failed: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+            try {
+                redisTemplate.delete(LOCK_KEY);
+            } catch (RuntimeException e) {
+                // Lock tự hết hạn sau LOCK_TTL
+            }
+        }
+    }
+
+    // Sau commit, chỉ xếp hàng: request ghi bài hát không đọc / ghi playlist nào
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongsChanged(SongsChangedEvent event) {
+        event.changes().stream()
+                .filter(SongsChangedEvent.Change::affectsPlaylists)
+                .forEach(pendingChanges::add);
+    }
+
+    @Scheduled(fixedDelayString = "${app.playlists.stats.song-change-interval-ms:5000}")
+    public void refreshChangedSongs() {
+        List<SongsChangedEvent.Change> changes = new ArrayList<>();
+        for (SongsChangedEvent.Change change; (change = pendingChanges.poll()) != null; ) {
+            changes.add(change);
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Playlist> smartPlaylists;
+        try {
+            smartPlaylists = playlistRepository.findByRuleIsNotNull();
+        } catch (RuntimeException e) {
+            // Lượt repair định kỳ sẽ sửa lại
+            System.err.println("Failed to load smart playlists: " + e.getMessage());
+            return;
+        }
+        Set<Long> refreshed = new LinkedHashSet<>();
+        for (Playlist playlist : smartPlaylists) {
+            boolean affected = changes.stream().anyMatch(change ->
+                    (change.before() != null && SmartPlaylistResolver.matches(playlist.getRule(), change.before()))
+                            || (change.after() != null && SmartPlaylistResolver.matches(playlist.getRule(), change.after())));
+            if (!affected) {
+                continue;
+            }
+            try {
+                smartPlaylistResolver.evict(playlist.getId());
+                playlistStats.refresh(playlist);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to refresh stats of playlist " + playlist.getId() + ": " + e.getMessage());
+                continue;
+            }
+            updateThumbnail(playlist.getId());
+            refreshed.add(playlist.getId());
+        }
+        playlistCacheEvictor.evictAfterCommit(refreshed);
+    }
+
+    private void updateThumbnail(Long playlistId) {
+        try {
+            playlistService.updateThumbnail(playlistId);
+        } catch (RuntimeException e) {
+            // Playlist vừa bị xóa hoặc ảnh lỗi: lượt sau thử lại
+            System.err.println("Failed to update thumbnail of playlist " + playlistId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.music.application.be.modules.playlist;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Turns genre playlists created before smart playlists existed into smart playlists: their
+ * genres become the rule and their materialized {@code song_playlist} rows are deleted. Both
+ * statements only touch playlists that still need it, so running this on every startup is
+ * a no-op once the data is migrated.
+ */
+@Component
+public class SmartPlaylistMigration {
+
+    private static final String SET_RULES =
+            "UPDATE playlists p SET smart_rule = jsonb_build_object('genreIds', " +
+            "(SELECT jsonb_agg(pg.genre_id ORDER BY pg.genre_id) FROM playlist_genre pg WHERE pg.playlist_id = p.id)) " +
+            "WHERE p.smart_rule IS NULL AND EXISTS (SELECT 1 FROM playlist_genre pg WHERE pg.playlist_id = p.id)";
+
+    private static final String DELETE_MATERIALIZED =
+            "DELETE FROM song_playlist sp USING playlists p WHERE sp.playlist_id = p.id AND p.smart_rule IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SmartPlaylistMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int playlists = jdbcTemplate.update(SET_RULES);
+                int rows = jdbcTemplate.update(DELETE_MATERIALIZED);
+                if (playlists > 0 || rows > 0) {
+                    System.out.println("Migrated " + playlists + " genre playlists to smart playlists, removed "
+                            + rows + " song_playlist rows");
+                }
+            });
+        } catch (RuntimeException e) {
+            // Playlist chưa chuyển vẫn đọc được từ song_playlist, lần khởi động sau thử lại
+            System.err.println("Smart playlist migration failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.music.application.be.modules.playlist;
+
+import com.music.application.be.modules.genre.Genre;
+import com.music.application.be.modules.song.Song;
+import com.music.application.be.modules.song.SongRepository;
+import com.music.application.be.modules.song.SongsChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the songs of smart playlists from their {@link PlaylistRule} at read time.
+ * <p>
+ * The rule becomes a {@link Specification} on {@link Song} and is run as one paginated query,
+ * most played songs first. Only the resulting id list is cached, with a short TTL, so song
+ * writes never have to touch playlist rows: a new or retagged song shows up once the entry
+ * expires, and the songs themselves are always loaded fresh.
+ */
+@Component
+public class SmartPlaylistResolver {
+
+    public static final String SONG_IDS_CACHE = "smartPlaylistSongs";
+
+    private static final Sort ORDER = Sort.by(Sort.Order.desc("viewCount"), Sort.Order.desc("id"));
+
+    /**
+     * Number and total duration (seconds) of all songs matching a rule.
+     */
+    public record Stats(long songCount, long totalDuration) {
+    }
+
+    private final SongRepository songRepository;
+    private final EntityManager entityManager;
+    private final int maxSongs;
+
+    public SmartPlaylistResolver(SongRepository songRepository,
+                                 EntityManager entityManager,
+                                 @Value("${app.playlists.smart.max-songs:200}") int maxSongs) {
+        this.songRepository = songRepository;
+        this.entityManager = entityManager;
+        this.maxSongs = maxSongs;
+    }
+
+    /**
+     * The first {@code app.playlists.smart.max-songs} songs of the rule, used by
+     * {@code /with-songs}; {@link #page} reads past that cap.
+     */
+    @Cacheable(value = SONG_IDS_CACHE, key = "#playlistId")
+    public SmartPlaylistSongIds songIds(Long playlistId, PlaylistRule rule) {
+        Page<Song> page = songRepository.findAll(specification(rule), PageRequest.of(0, maxSongs, ORDER));
+        return new SmartPlaylistSongIds(page.map(Song::getId).getContent(), page.getTotalElements());
+    }
+
+    /**
+     * One keyset page of the songs matching the rule, in the same order as {@link #songIds}.
+     * {@code afterViewCount} / {@code afterId} are the sort key of the last song of the previous
+     * page, or null for the first page. View counts move between requests, so a song whose count
+     * changes while a client is paging can be skipped or repeated.
+     */
+    public List<Song> page(PlaylistRule rule, Integer afterViewCount, Long afterId, int limit) {
+        Specification<Song> specification = specification(rule);
+        if (afterViewCount != null && afterId != null) {
+            specification = specification.and((song, query, cb) -> cb.or(
+                    cb.lessThan(song.get("viewCount"), afterViewCount),
+                    cb.and(cb.equal(song.get("viewCount"), afterViewCount), cb.lessThan(song.get("id"), afterId))));
+        }
+        return songRepository.findBy(specification, query -> query
+                .sortBy(ORDER)
+                .project("artist", "album")
+                .limit(limit)
+                .all());
+    }
+
+    // Một truy vấn COUNT + SUM với cùng điều kiện của rule, dùng cho PlaylistStats
+    public Stats stats(PlaylistRule rule) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Song> song = query.from(Song.class);
+        query.multiselect(cb.count(song), cb.sumAsLong(song.get("duration")))
+                .where(specification(rule).toPredicate(song, query, cb));
+        Object[] row = entityManager.createQuery(query).getSingleResult();
+        return new Stats(((Number) row[0]).longValue(), row[1] != null ? ((Number) row[1]).longValue() : 0L);
+    }
+
+    // Rule đổi: bỏ danh sách id cũ ngay thay vì chờ hết TTL
+    @CacheEvict(value = SONG_IDS_CACHE, key = "#playlistId")
+    public void evict(Long playlistId) {
+    }
+
+    // Nạp bài hát theo id và giữ đúng thứ tự của rule; bài hát đã bị xóa thì bỏ qua
+    public List<Song> songs(SmartPlaylistSongIds ids) {
+        Map<Long, Song> songs = songRepository.findAllById(ids.getSongIds()).stream()
+                .collect(Collectors.toMap(Song::getId, Function.identity()));
+        List<Song> ordered = new ArrayList<>(ids.getSongIds().size());
+        for (Long id : ids.getSongIds()) {
+            Song song = songs.get(id);
+            if (song != null) {
+                ordered.add(song);
+            }
+        }
+        return ordered;
+    }
+
+    public void validate(PlaylistRule rule) {
+        if (rule.getReleaseYearFrom() != null && rule.getReleaseYearTo() != null
+                && rule.getReleaseYearFrom() > rule.getReleaseYearTo()) {
+            throw new IllegalArgumentException("releaseYearFrom must not be after releaseYearTo");
+        }
+        if (rule.getMinViewCount() != null && rule.getMinViewCount() < 0) {
+            throw new IllegalArgumentException("minViewCount must not be negative");
+        }
+    }
+
+    // Cùng điều kiện với specification, kiểm tra trên thuộc tính của một bài hát trong bộ nhớ
+    public static boolean matches(PlaylistRule rule, SongsChangedEvent.State song) {
+        if (rule.getGenreIds() != null && !rule.getGenreIds().isEmpty()
+                && rule.getGenreIds().stream().noneMatch(song.genreIds()::contains)) {
+            return false;
+        }
+        if (rule.getArtistId() != null && !rule.getArtistId().equals(song.artistId())) {
+            return false;
+        }
+        if (rule.getReleaseYearFrom() != null
+                && (song.releaseDate() == null || song.releaseDate().getYear() < rule.getReleaseYearFrom())) {
+            return false;
+        }
+        if (rule.getReleaseYearTo() != null
+                && (song.releaseDate() == null || song.releaseDate().getYear() > rule.getReleaseYearTo())) {
+            return false;
+        }
+        return rule.getMinViewCount() == null || song.viewCount() >= rule.getMinViewCount();
+    }
+
+    public static Specification<Song> specification(PlaylistRule rule) {
+        return (song, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (rule.getGenreIds() != null && !rule.getGenreIds().isEmpty()) {
+                // EXISTS thay vì join để bài hát nhiều genre không bị lặp và phân trang đúng
+                Subquery<Long> genres = query.subquery(Long.class);
+                Join<Song, Genre> genre = genres.correlate(song).join("genres");
+                genres.select(genre.get("id")).where(genre.get("id").in(rule.getGenreIds()));
+                predicates.add(cb.exists(genres));
+            }
+            if (rule.getArtistId() != null) {
+                predicates.add(cb.equal(song.get("artist").get("id"), rule.getArtistId()));
+            }
+            if (rule.getReleaseYearFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(song.get("releaseDate"), LocalDate.of(rule.getReleaseYearFrom(), 1, 1)));
+            }
+            if (rule.getReleaseYearTo() != null) {
+                predicates.add(cb.lessThan(song.get("releaseDate"), LocalDate.of(rule.getReleaseYearTo() + 1, 1, 1)));
+            }
+            if (rule.getMinViewCount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(song.get("viewCount"), rule.getMinViewCount()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
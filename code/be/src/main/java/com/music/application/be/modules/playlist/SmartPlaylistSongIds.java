@@ -0,0 +1,19 @@
+package com.music.application.be.modules.playlist;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Kết quả của rule được cache: chỉ id, bài hát được nạp lại mỗi lần đọc nên luôn mới
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SmartPlaylistSongIds {
+
+    private List<Long> songIds;
+
+    // Tổng số bài hát khớp rule, có thể lớn hơn songIds.size()
+    private long total;
+}
@@ -1,5 +1,6 @@
 package com.music.application.be.modules.playlist.dto;
 
+import com.music.application.be.modules.playlist.PlaylistRule;
 import com.music.application.be.modules.song_playlist.dto.SongPlaylistDTO;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -7,6 +8,7 @@ import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class PlaylistDTO {
@@ -22,6 +24,7 @@ public class PlaylistDTO {
     private String description;
 
     private String thumbnail;
+    private Map<String, String> thumbnailVariants;
 
     private LocalDateTime createdAt;
 
@@ -29,6 +32,13 @@ public class PlaylistDTO {
 
     private List<Long> genreIds;
 
+    private PlaylistRule rule; // null với playlist thường
+
+    private int songCount;
+    private long totalDuration; // in seconds
+    private Long coverSongId;
+
+    // Smart playlist: chỉ tối đa app.playlists.smart.max-songs bài đầu tiên, songCount vẫn là tổng số bài
     private List<SongPlaylistDTO> songPlaylists;
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.music.application.be.modules.playlist.dto;
 
+import com.music.application.be.modules.playlist.PlaylistRule;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -19,4 +20,7 @@ public class PlaylistRequestDTO {
     private Boolean isPublic = false; // Mặc định là private
 
     private List<Long> genreIds; // Optional, chỉ admin được sử dụng
+
+    // Optional, chỉ admin: điều kiện thêm cho playlist theo genre (artist, năm phát hành, lượt nghe)
+    private PlaylistRule rule;
 }
\ No newline at end of file
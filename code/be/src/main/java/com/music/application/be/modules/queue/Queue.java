@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Queue {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "queue_seq")
+    @SequenceGenerator(name = "queue_seq", sequenceName = "queue_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
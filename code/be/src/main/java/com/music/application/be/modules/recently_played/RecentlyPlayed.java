@@ -9,7 +9,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "recently_played")
+@Table(name = "recently_played", indexes = {
+        @Index(name = "idx_recently_played_user_played", columnList = "user_id, played_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class RecentlyPlayed {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recently_played_seq")
+    @SequenceGenerator(name = "recently_played_seq", sequenceName = "recently_played_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
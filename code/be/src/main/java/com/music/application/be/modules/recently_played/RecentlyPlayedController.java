@@ -36,12 +36,18 @@ public class RecentlyPlayedController {
 
     @GetMapping("/me")
     public ResponseEntity<?> getRecentlyPlayedByCurrentUser(
-            @PageableDefault(size = 20, sort = "playedAt", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 20, sort = "playedAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String cursor) {
         try {
-            PagedResponse<SongDTO> response = recentlyPlayedService.getRecentlyPlayedByUser(pageable);
+            // Có cursor (rỗng cho trang đầu) thì dùng keyset với size của pageable, bỏ qua page
+            PagedResponse<SongDTO> response = cursor != null
+                    ? recentlyPlayedService.getRecentlyPlayedByUser(cursor, pageable.getPageSize())
+                    : recentlyPlayedService.getRecentlyPlayedByUser(pageable);
             return ResponseEntity.ok(response);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error fetching recently played songs: " + e.getMessage());
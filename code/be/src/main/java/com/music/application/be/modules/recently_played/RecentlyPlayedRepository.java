@@ -4,14 +4,30 @@ import com.music.application.be.modules.song.Song;
 import com.music.application.be.modules.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface RecentlyPlayedRepository extends JpaRepository<RecentlyPlayed, Long> {
-    @EntityGraph(attributePaths = {"song", "song.artist"})
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
     Page<RecentlyPlayed> findByUserOrderByPlayedAtDesc(User user, Pageable pageable);
     Optional<RecentlyPlayed> findByUserAndSong(User user, Song song);
 
+    // Cursor mode: keyset trên (playedAt, id), Slice không chạy COUNT
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
+    Slice<RecentlyPlayed> findSliceByUserOrderByPlayedAtDescIdDesc(User user, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
+    @Query("SELECT rp FROM RecentlyPlayed rp WHERE rp.user = :user " +
+            "AND (rp.playedAt < :playedAt OR (rp.playedAt = :playedAt AND rp.id < :id)) " +
+            "ORDER BY rp.playedAt DESC, rp.id DESC")
+    Slice<RecentlyPlayed> findSliceAfter(User user, LocalDateTime playedAt, Long id, Pageable pageable);
+
+    long countByUser(User user);
+
 }
@@ -1,5 +1,7 @@
 package com.music.application.be.modules.recently_played;
 
+import com.music.application.be.common.CursorPagination;
+import com.music.application.be.common.KeysetCursor;
 import com.music.application.be.common.PagedResponse;
 import com.music.application.be.common.PaginationUtils;
 import com.music.application.be.modules.genre.Genre;
@@ -16,10 +18,12 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
@@ -31,6 +35,7 @@ public class RecentlyPlayedService {
 
     private final RecentlyPlayedRepository recentlyPlayedRepository;
     private final SongRepository songRepository;
+    private final CursorPagination cursorPagination;
 
     /**
      * Add a song to the user's recently played list.
@@ -60,6 +65,7 @@ public class RecentlyPlayedService {
                 .build();
 
         RecentlyPlayed saved = recentlyPlayedRepository.save(recentlyPlayed);
+        cursorPagination.evictTotal(totalKey(user.getId()));
 
         return toRecentlyPlayedDTO(saved);
     }
@@ -79,7 +85,7 @@ public class RecentlyPlayedService {
      */
     @Cacheable(
             value = "recentlyPlayedByUser",
-            key = "T(java.util.Objects).hash(#userId, #pageable.pageNumber, #pageable.pageSize)"
+            key = "#root.target.getCurrentUserId() + ':' + #pageable.pageNumber + ':' + #pageable.pageSize"
     )
     public PagedResponse<SongDTO> getRecentlyPlayedByUser(Pageable pageable) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -97,6 +103,40 @@ public class RecentlyPlayedService {
         return PaginationUtils.buildPagedResponse(songDTOs, page);
     }
 
+    /**
+     * Get recently played songs of the current user with keyset pagination on
+     * {@code (playedAt, id)}: {@code cursor} is the {@code nextCursor} of the previous page, or
+     * empty for the first page. Pages are not cached, they are read from the index directly.
+     */
+    public PagedResponse<SongDTO> getRecentlyPlayedByUser(String cursor, int size) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            throw new EntityNotFoundException("User not authenticated");
+        }
+        cursorPagination.checkSize(size);
+
+        PageRequest rows = PageRequest.of(0, size);
+        Slice<RecentlyPlayed> slice;
+        if (cursor.isEmpty()) {
+            slice = recentlyPlayedRepository.findSliceByUserOrderByPlayedAtDescIdDesc(user, rows);
+        } else {
+            String[] keys = KeysetCursor.decode(cursor, 2);
+            slice = recentlyPlayedRepository.findSliceAfter(user,
+                    KeysetCursor.parse(keys[0], LocalDateTime::parse),
+                    KeysetCursor.parse(keys[1], Long::valueOf),
+                    rows);
+        }
+
+        List<SongDTO> songDTOs = slice.getContent()
+                .stream()
+                .map(this::mapToSongDTO)
+                .toList();
+        long total = cursorPagination.cachedTotal(totalKey(user.getId()),
+                () -> recentlyPlayedRepository.countByUser(user));
+        return PaginationUtils.buildCursorResponse(songDTOs, slice,
+                recentlyPlayed -> KeysetCursor.encode(recentlyPlayed.getPlayedAt(), recentlyPlayed.getId()), total);
+    }
+
     /**
      * Clear recently played history for a user.
      * Also evicts that user's cache.
@@ -115,6 +155,11 @@ public class RecentlyPlayedService {
             page = recentlyPlayedRepository.findByUserOrderByPlayedAtDesc(user, pageable);
             recentlyPlayedRepository.deleteAll(page.getContent());
         } while (!page.isLast());
+        cursorPagination.evictTotal(totalKey(user.getId()));
+    }
+
+    private static String totalKey(Long userId) {
+        return "recently-played:" + userId;
     }
 
     /**
@@ -129,6 +174,7 @@ public class RecentlyPlayedService {
         dto.setDuration(song.getDuration());
         dto.setAudioUrl(song.getAudioUrl());
         dto.setThumbnail(song.getThumbnail());
+        dto.setThumbnailVariants(song.getThumbnailVariants());
         dto.setLyrics(song.getLyrics());
         dto.setReleaseDate(song.getReleaseDate());
         dto.setViewCount(song.getViewCount());
@@ -0,0 +1,22 @@
+package com.music.application.be.modules.search;
+
+/**
+ * Published by the catalog services after a song, artist, album or playlist is created,
+ * renamed or deleted, so in-memory views such as {@link SuggestionIndex} can follow the database.
+ *
+ * @param name the current display name, or {@code null} when the entity is no longer searchable
+ */
+public record CatalogChangedEvent(SuggestionType type, Long id, String name) {
+
+    public static CatalogChangedEvent saved(SuggestionType type, Long id, String name) {
+        return new CatalogChangedEvent(type, id, name);
+    }
+
+    public static CatalogChangedEvent removed(SuggestionType type, Long id) {
+        return new CatalogChangedEvent(type, id, null);
+    }
+
+    public boolean isRemoval() {
+        return name == null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.music.application.be.modules.search;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Ranked, accent-insensitive search over the generated {@code search_vector} columns and the
+ * trigram indexes created by {@link SearchIndexInitializer}. Only ids are returned, in rank order;
+ * callers load the entities with their fetch-joined repository methods.
+ * <p>
+ * A row matches on a full-text hit, a substring hit or a fuzzy trigram hit, and all three can be
+ * answered from the GIN indexes instead of the {@code lower(x) like '%q%'} sequential scan.
+ */
+@Repository
+public class FullTextSearchRepository {
+
+    private static final String QUERY = "f_unaccent(lower(:query))";
+    private static final String PATTERN = "f_unaccent(lower(:pattern))";
+
+    private static final String SONGS_SQL = """
+            SELECT s.id FROM songs s
+            WHERE s.search_vector @@ plainto_tsquery('simple', %1$s)
+               OR f_unaccent(lower(s.title)) LIKE %2$s ESCAPE '\\'
+               OR f_unaccent(lower(s.title)) %% %1$s
+            ORDER BY ts_rank(s.search_vector, plainto_tsquery('simple', %1$s)) DESC,
+                     similarity(f_unaccent(lower(s.title)), %1$s) DESC,
+                     s.id
+            LIMIT :limit
+            """.formatted(QUERY, PATTERN);
+
+    private static final String NAME_SQL = """
+            SELECT t.id FROM %3$s t
+            WHERE (t.search_vector @@ plainto_tsquery('simple', %1$s)
+                   OR f_unaccent(lower(t.name)) LIKE %2$s ESCAPE '\\'
+                   OR f_unaccent(lower(t.name)) %% %1$s)
+              %4$s
+            ORDER BY ts_rank(t.search_vector, plainto_tsquery('simple', %1$s)) DESC,
+                     similarity(f_unaccent(lower(t.name)), %1$s) DESC,
+                     t.id
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FullTextSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> searchSongIds(String query, int limit) {
+        return jdbcTemplate.queryForList(SONGS_SQL, params(query, limit), Long.class);
+    }
+
+    public List<Long> searchArtistIds(String query, int limit) {
+        return jdbcTemplate.queryForList(nameSql("artists", ""), params(query, limit), Long.class);
+    }
+
+    public List<Long> searchAlbumIds(String query, int limit) {
+        return jdbcTemplate.queryForList(nameSql("albums", ""), params(query, limit), Long.class);
+    }
+
+    /**
+     * @param viewerId   id of the current user, or {@code null} for guests
+     * @param allPlaylists true for admins, who can see private playlists of every user
+     */
+    public List<Long> searchPlaylistIds(String query, int limit, Long viewerId, boolean allPlaylists) {
+        MapSqlParameterSource params = params(query, limit);
+        String filter;
+        if (allPlaylists) {
+            filter = "";
+        } else if (viewerId != null) {
+            filter = "AND (t.is_public = true OR t.created_by = :viewerId)";
+            params.addValue("viewerId", viewerId);
+        } else {
+            filter = "AND t.is_public = true";
+        }
+        return jdbcTemplate.queryForList(nameSql("playlists", filter), params, Long.class);
+    }
+
+    private String nameSql(String table, String filter) {
+        return NAME_SQL.formatted(QUERY, PATTERN, table, filter);
+    }
+
+    private MapSqlParameterSource params(String query, int limit) {
+        return new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("pattern", "%" + escapeLike(query) + "%")
+                .addValue("limit", limit);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,10 +1,13 @@
 package com.music.application.be.modules.search;
 
 import com.music.application.be.modules.search.dto.GlobalSearchResultDTO;
+import com.music.application.be.modules.search.dto.SuggestionDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/search")
 public class SearchController {
@@ -12,6 +15,9 @@ public class SearchController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
     // Global search - tìm kiếm tất cả các entity
     @GetMapping("/global")
     public ResponseEntity<GlobalSearchResultDTO> globalSearch(
@@ -24,4 +30,17 @@ public class SearchController {
         
         return ResponseEntity.ok(searchService.globalSearch(query, limit));
     }
+
+    // Gợi ý khi đang gõ - tra trong bộ nhớ, không truy vấn DB
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (limit > 20) {
+            limit = 20;
+        }
+
+        return ResponseEntity.ok(suggestionIndex.suggest(query, limit));
+    }
 }
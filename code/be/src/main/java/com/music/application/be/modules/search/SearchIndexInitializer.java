@@ -0,0 +1,74 @@
+package com.music.application.be.modules.search;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the PostgreSQL full-text search objects that Hibernate's {@code ddl-auto=update} cannot:
+ * the {@code pg_trgm}/{@code unaccent} extensions, generated {@code tsvector} columns and GIN indexes.
+ * <p>
+ * Every statement is idempotent. If the database user may not create extensions,
+ * {@link #isAvailable()} stays false and {@link SearchService} keeps using the old LIKE queries.
+ */
+@Component
+public class SearchIndexInitializer implements InitializingBean {
+
+    // unaccent() chỉ là STABLE nên phải bọc lại thành IMMUTABLE mới dùng được trong index / generated column
+    private static final List<String> DDL = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE EXTENSION IF NOT EXISTS unaccent",
+            "CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text "
+                    + "LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT "
+                    + "AS $$ SELECT public.unaccent('public.unaccent', $1) $$",
+
+            "ALTER TABLE songs ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "setweight(to_tsvector('simple', f_unaccent(lower(coalesce(title, '')))), 'A') || "
+                    + "setweight(to_tsvector('simple', f_unaccent(lower(coalesce(lyrics, '')))), 'C')) STORED",
+            "ALTER TABLE artists ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "to_tsvector('simple', f_unaccent(lower(coalesce(name, ''))))) STORED",
+            "ALTER TABLE albums ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "to_tsvector('simple', f_unaccent(lower(coalesce(name, ''))))) STORED",
+            "ALTER TABLE playlists ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "to_tsvector('simple', f_unaccent(lower(coalesce(name, ''))))) STORED",
+
+            "CREATE INDEX IF NOT EXISTS idx_songs_search_vector ON songs USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_artists_search_vector ON artists USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_albums_search_vector ON albums USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_playlists_search_vector ON playlists USING gin (search_vector)",
+
+            "CREATE INDEX IF NOT EXISTS idx_songs_title_trgm ON songs USING gin (f_unaccent(lower(title)) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_artists_name_trgm ON artists USING gin (f_unaccent(lower(name)) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_albums_name_trgm ON albums USING gin (f_unaccent(lower(name)) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_playlists_name_trgm ON playlists USING gin (f_unaccent(lower(name)) gin_trgm_ops)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean available;
+
+    // Phụ thuộc EntityManagerFactory để chạy sau khi Hibernate đã tạo/cập nhật bảng
+    public SearchIndexInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            for (String statement : DDL) {
+                jdbcTemplate.execute(statement);
+            }
+            available = true;
+            System.out.println("Full-text search indexes are ready");
+        } catch (RuntimeException e) {
+            available = false;
+            System.err.println("Full-text search disabled, falling back to LIKE queries: " + e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -1,5 +1,6 @@
 package com.music.application.be.modules.search;
 
+import com.music.application.be.exceptions.SearchCapacityExceededException;
 import com.music.application.be.modules.album.Album;
 import com.music.application.be.modules.album.AlbumRepository;
 import com.music.application.be.modules.album.dto.AlbumDTO;
@@ -15,15 +16,26 @@ import com.music.application.be.modules.song.SongRepository;
 import com.music.application.be.modules.song.dto.SongDTO;
 import com.music.application.be.modules.user.User;
 import com.music.application.be.modules.user.UserRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,6 +56,28 @@ public class SearchService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FullTextSearchRepository fullTextSearchRepository;
+
+    @Autowired
+    private SearchIndexInitializer searchIndexInitializer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Truy vấn tìm kiếm chỉ đọc: transaction read-only, Hibernate không dirty-check entity đã nạp
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("searchExecutor")
+    private Executor searchExecutor;
+
+    @PostConstruct
+    void initTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
     // Global search - tìm kiếm tất cả các entity
     public GlobalSearchResultDTO globalSearch(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
@@ -52,22 +86,44 @@ public class SearchService {
 
         String searchQuery = query.trim();
         Pageable pageable = PageRequest.of(0, limit);
+        boolean fullText = searchIndexInitializer.isAvailable();
 
-        // Tìm kiếm songs
-        List<Song> songs = songRepository.findByTitleContainingIgnoreCase(searchQuery, pageable).getContent();
-        List<SongDTO> songDTOs = songs.stream().map(this::mapSongToDTO).collect(Collectors.toList());
+        // Lấy user ở thread request, các thread của searchExecutor không có SecurityContext
+        User currentUser = getCurrentUser();
 
-        // Tìm kiếm playlists (chỉ public hoặc của user hiện tại)
-        List<Playlist> playlists = getFilteredPlaylists(searchQuery, pageable);
-        List<PlaylistDTO> playlistDTOs = playlists.stream().map(this::mapPlaylistToDTO).collect(Collectors.toList());
+        // 4 truy vấn chạy song song, mỗi truy vấn map DTO trong transaction riêng để nạp lazy field
+        CompletableFuture<List<SongDTO>> songsFuture = supplyInTransaction(() -> {
+            if (!fullText) {
+                return songRepository.findByTitleContainingIgnoreCase(searchQuery, pageable).getContent();
+            }
+            List<Long> ids = fullTextSearchRepository.searchSongIds(searchQuery, limit);
+            return orderById(songRepository.findAllById(ids), ids, Song::getId);
+        }, this::mapSongToDTO);
+
+        CompletableFuture<List<PlaylistDTO>> playlistsFuture = supplyInTransaction(
+                () -> getFilteredPlaylists(searchQuery, pageable, currentUser, fullText),
+                this::mapPlaylistToDTO);
+
+        CompletableFuture<List<ArtistDTO>> artistsFuture = supplyInTransaction(() -> {
+            if (!fullText) {
+                return artistRepository.findByNameContainingIgnoreCase(searchQuery, pageable).getContent();
+            }
+            List<Long> ids = fullTextSearchRepository.searchArtistIds(searchQuery, limit);
+            return orderById(artistRepository.findAllById(ids), ids, Artist::getId);
+        }, this::mapArtistToDTO);
 
-        // Tìm kiếm artists
-        List<Artist> artists = artistRepository.findByNameContainingIgnoreCase(searchQuery, pageable).getContent();
-        List<ArtistDTO> artistDTOs = artists.stream().map(this::mapArtistToDTO).collect(Collectors.toList());
+        CompletableFuture<List<AlbumDTO>> albumsFuture = supplyInTransaction(() -> {
+            if (!fullText) {
+                return albumRepository.findByNameContainingIgnoreCase(searchQuery, pageable).getContent();
+            }
+            List<Long> ids = fullTextSearchRepository.searchAlbumIds(searchQuery, limit);
+            return orderById(albumRepository.findByIdIn(ids), ids, Album::getId);
+        }, this::mapAlbumToDTO);
 
-        // Tìm kiếm albums
-        List<Album> albums = albumRepository.findByNameContainingIgnoreCase(searchQuery, pageable).getContent();
-        List<AlbumDTO> albumDTOs = albums.stream().map(this::mapAlbumToDTO).collect(Collectors.toList());
+        List<SongDTO> songDTOs = songsFuture.join();
+        List<PlaylistDTO> playlistDTOs = playlistsFuture.join();
+        List<ArtistDTO> artistDTOs = artistsFuture.join();
+        List<AlbumDTO> albumDTOs = albumsFuture.join();
 
         // Tạo result
         GlobalSearchResultDTO result = new GlobalSearchResultDTO();
@@ -78,15 +134,44 @@ public class SearchService {
         result.setTotalResults((long) (songDTOs.size() + playlistDTOs.size() + artistDTOs.size() + albumDTOs.size()));
 
         return result;
-    }    // Lấy playlist được filter theo quyền
-    private List<Playlist> getFilteredPlaylists(String query, Pageable pageable) {
+    }
+
+    private <E, D> CompletableFuture<List<D>> supplyInTransaction(Supplier<List<E>> finder, Function<E, D> mapper) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof User) {
-                User currentUser = (User) authentication.getPrincipal();
-                
+            return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status ->
+                    finder.get().stream().map(mapper).collect(Collectors.toList())), searchExecutor);
+        } catch (RejectedExecutionException e) {
+            // Hàng đợi đầy: trả 503 để client thử lại thay vì 500
+            throw new SearchCapacityExceededException("Too many searches in progress, please try again later");
+        }
+    }
+
+    // findAllById không giữ thứ tự, sắp xếp lại theo thứ hạng từ truy vấn full-text
+    private <E> List<E> orderById(List<E> entities, List<Long> rankedIds, Function<E, Long> idGetter) {
+        Map<Long, E> byId = entities.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+        return rankedIds.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+
+    // Lấy playlist được filter theo quyền
+    private List<Playlist> getFilteredPlaylists(String query, Pageable pageable, User currentUser, boolean fullText) {
+        try {
+            boolean isAdmin = currentUser != null && currentUser.getRole().name().equals("ADMIN");
+            if (fullText) {
+                List<Long> ids = fullTextSearchRepository.searchPlaylistIds(query, pageable.getPageSize(),
+                        currentUser != null ? currentUser.getId() : null, isAdmin);
+                return orderById(playlistRepository.findAllById(ids), ids, Playlist::getId);
+            }
+            if (currentUser != null) {
                 // Admin có thể search tất cả playlist
-                if (currentUser.getRole().name().equals("ADMIN")) {
+                if (isAdmin) {
                     return playlistRepository.findByNameContainingIgnoreCase(query, pageable).getContent();
                 } else {
                     // User chỉ search playlist public hoặc của mình
@@ -100,7 +185,9 @@ public class SearchService {
             // Fallback: chỉ trả về playlist public
             return playlistRepository.findByNameContainingIgnoreCaseAndIsPublicTrue(query, pageable).getContent();
         }
-    }// Mapping methods
+    }
+
+    // Mapping methods
     private SongDTO mapSongToDTO(Song song) {
         SongDTO dto = new SongDTO();
         dto.setId(song.getId());
@@ -108,6 +195,7 @@ public class SearchService {
         dto.setDuration(song.getDuration());
         dto.setAudioUrl(song.getAudioUrl());
         dto.setThumbnail(song.getThumbnail());
+        dto.setThumbnailVariants(song.getThumbnailVariants());
         dto.setLyrics(song.getLyrics());
         dto.setReleaseDate(song.getReleaseDate());
         dto.setViewCount(song.getViewCount());
@@ -124,9 +212,13 @@ public class SearchService {
         dto.setName(playlist.getName());
         dto.setDescription(playlist.getDescription());
         dto.setThumbnail(playlist.getThumbnail());
+        dto.setThumbnailVariants(playlist.getThumbnailVariants());
         dto.setCreatedAt(playlist.getCreatedAt());
         dto.setIsPublic(playlist.getIsPublic()); // Thêm isPublic
         dto.setGenreIds(playlist.getGenres() != null ? playlist.getGenres().stream().map(genre -> genre.getId()).collect(Collectors.toList()) : null);
+        dto.setSongCount(playlist.getSongCount());
+        dto.setTotalDuration(playlist.getTotalDuration());
+        dto.setCoverSongId(playlist.getCoverSongId());
         return dto;
     }
 
@@ -146,6 +238,7 @@ public class SearchService {
         dto.setName(album.getName());
         dto.setReleaseDate(album.getReleaseDate());
         dto.setCoverImage(album.getCoverImage());
+        dto.setCoverImageVariants(album.getCoverImageVariants());
         dto.setDescription(album.getDescription());
         dto.setArtistId(album.getArtist() != null ? album.getArtist().getId() : null);
         dto.setArtistName(album.getArtist() != null ? album.getArtist().getName() : null);
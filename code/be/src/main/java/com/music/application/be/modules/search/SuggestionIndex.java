@@ -0,0 +1,313 @@
+package com.music.application.be.modules.search;
+
+import com.music.application.be.common.TextNormalizer;
+import com.music.application.be.modules.search.dto.SuggestionDTO;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory inverted index for search-as-you-type over song titles, artist names, album names
+ * and public playlist names.
+ * <p>
+ * Every word is folded with {@link TextNormalizer} and stored in a sorted map, so a prefix lookup
+ * is a range scan over the words starting with what the user has typed so far and never reaches
+ * the database. The index is loaded at startup, follows {@link CatalogChangedEvent}s and is
+ * rebuilt periodically to pick up changes made outside the services (e.g. cascade deletes).
+ * <p>
+ * A one or two character prefix matches a large part of the catalog, so those queries do not use
+ * the range scan. Every short prefix keeps its entries already sorted in ranking order, and the
+ * first {@code limit} entries are read from there; when other tokens have to be checked as well,
+ * at most {@link #SHORT_PREFIX_SCAN_LIMIT} entries are looked at.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Map<SuggestionType, String> SOURCES = Map.of(
+            SuggestionType.SONG, "SELECT id, title FROM songs",
+            SuggestionType.ARTIST, "SELECT id, name FROM artists",
+            SuggestionType.ALBUM, "SELECT id, name FROM albums",
+            SuggestionType.PLAYLIST, "SELECT id, name FROM playlists WHERE is_public = true"
+    );
+
+    private static final int SHORT_PREFIX_LENGTH = 2;
+    static final int SHORT_PREFIX_SCAN_LIMIT = 5000;
+
+    // Thứ tự xếp hạng trong cùng một nhóm: tên ngắn trước, rồi theo loại và id
+    private static final Comparator<Entry> BY_LENGTH = Comparator
+            .comparingInt((Entry entry) -> entry.folded().length())
+            .thenComparing(entry -> entry.key().type())
+            .thenComparing(entry -> entry.key().id());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Snapshot snapshot = new Snapshot();
+
+    // Các event đến trong lúc rebuild, được áp lại lên snapshot mới trước khi thay thế (guarded by this)
+    private List<CatalogChangedEvent> missedDuringRebuild;
+
+    public SuggestionIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return at most {@code limit} suggestions, best first. When every word of the query has one
+     * or two characters and names have to be checked against several words, only the first
+     * {@link #SHORT_PREFIX_SCAN_LIMIT} names of the prefix are checked: a rare combination such as
+     * "a b" can return fewer suggestions than actually match, until the user types more.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        String longest = Collections.max(tokens, Comparator.comparingInt(String::length));
+        if (longest.length() <= SHORT_PREFIX_LENGTH) {
+            return toDTOs(suggestShort(current, tokens, longest, limit));
+        }
+
+        // Prefix dài thường khớp ít từ hơn, duyệt trước để tập giao nhỏ ngay từ đầu
+        List<String> byLength = new ArrayList<>(new HashSet<>(tokens));
+        byLength.sort(Comparator.comparingInt(String::length).reversed());
+        Set<Key> candidates = null;
+        for (String token : byLength) {
+            candidates = current.matching(token, candidates);
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        String folded = String.join(" ", tokens);
+        Comparator<Entry> ranking = Comparator
+                .comparing((Entry entry) -> !entry.folded().startsWith(folded))
+                .thenComparingInt(entry -> entry.folded().length())
+                .thenComparing(entry -> entry.key().type())
+                .thenComparing(entry -> entry.key().id());
+
+        // Heap giới hạn limit phần tử, không sort toàn bộ tập ứng viên
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (Key key : candidates) {
+            Entry entry = current.entries.get(key);
+            if (entry == null) {
+                continue;
+            }
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Entry> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        return toDTOs(ranked);
+    }
+
+    /*
+     * Cùng thứ hạng với suggest: trước hết các tên bắt đầu bằng cả query (chỉ nằm trong nhóm tên
+     * bắt đầu bằng token đầu tiên), sau đó các tên còn lại khớp mọi token. Mỗi nhóm đã được sắp
+     * theo BY_LENGTH nên chỉ đọc phần đầu của nhóm.
+     */
+    private List<Entry> suggestShort(Snapshot current, List<String> tokens, String longest, int limit) {
+        String folded = String.join(" ", tokens);
+        List<Entry> result = new ArrayList<>(limit);
+        int scanned = 0;
+
+        ShortPrefix first = current.shortPrefixes.get(tokens.get(0));
+        if (first != null) {
+            for (Entry entry : first.leading()) {
+                if (result.size() >= limit || ++scanned > SHORT_PREFIX_SCAN_LIMIT) {
+                    return result;
+                }
+                if (entry.folded().startsWith(folded)) {
+                    result.add(entry);
+                }
+            }
+        }
+
+        ShortPrefix all = current.shortPrefixes.get(longest);
+        if (all == null) {
+            return result;
+        }
+        for (Entry entry : all.all()) {
+            if (result.size() >= limit || ++scanned > SHORT_PREFIX_SCAN_LIMIT) {
+                break;
+            }
+            if (!entry.folded().startsWith(folded) && matchesAll(entry, tokens)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static boolean matchesAll(Entry entry, List<String> tokens) {
+        List<String> words = List.of(entry.folded().split(" "));
+        return tokens.stream().allMatch(token -> words.stream().anyMatch(word -> word.startsWith(token)));
+    }
+
+    private static List<SuggestionDTO> toDTOs(List<Entry> entries) {
+        return entries.stream()
+                .map(entry -> new SuggestionDTO(entry.key().type(), entry.key().id(), entry.name()))
+                .toList();
+    }
+
+    public int size() {
+        return snapshot.entries.size();
+    }
+
+    // Chỉ áp dụng sau khi transaction commit, tránh gợi ý entity đã bị rollback
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        snapshot.apply(event);
+        if (missedDuringRebuild != null) {
+            missedDuringRebuild.add(event);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            fixedDelayString = "${app.search.suggest.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.search.suggest.rebuild-interval-ms:600000}"
+    )
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                missedDuringRebuild = new ArrayList<>();
+            }
+            Snapshot fresh = new Snapshot();
+            SOURCES.forEach((type, sql) -> jdbcTemplate.query(sql, rs -> {
+                String name = rs.getString(2);
+                if (name != null) {
+                    fresh.put(new Key(type, rs.getLong(1)), name);
+                }
+            }));
+            synchronized (this) {
+                missedDuringRebuild.forEach(fresh::apply);
+                snapshot = fresh;
+            }
+            System.out.println("Suggestion index rebuilt with " + fresh.entries.size() + " entries");
+        } catch (RuntimeException e) {
+            System.err.println("Failed to rebuild suggestion index: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                missedDuringRebuild = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private record Key(SuggestionType type, Long id) {
+    }
+
+    private record Entry(Key key, String name, String folded) {
+    }
+
+    // all: mọi entry có một từ bắt đầu bằng prefix; leading: entry có tên bắt đầu bằng prefix
+    private record ShortPrefix(NavigableSet<Entry> all, NavigableSet<Entry> leading) {
+
+        private ShortPrefix() {
+            this(new ConcurrentSkipListSet<>(BY_LENGTH), new ConcurrentSkipListSet<>(BY_LENGTH));
+        }
+    }
+
+    /**
+     * Writers are serialized by the enclosing index; readers run lock-free on the concurrent maps
+     * and may briefly see an entry under only some of its words while it is being replaced.
+     */
+    private static final class Snapshot {
+        private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Set<Key>> terms = new ConcurrentSkipListMap<>();
+        private final Map<String, ShortPrefix> shortPrefixes = new ConcurrentHashMap<>();
+
+        private void apply(CatalogChangedEvent event) {
+            Key key = new Key(event.type(), event.id());
+            if (event.isRemoval()) {
+                remove(key);
+            } else {
+                put(key, event.name());
+            }
+        }
+
+        private void put(Key key, String name) {
+            remove(key);
+            List<String> tokens = TextNormalizer.tokenize(name);
+            Entry entry = new Entry(key, name, String.join(" ", tokens));
+            entries.put(key, entry);
+            for (String token : tokens) {
+                terms.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            for (String prefix : shortPrefixes(tokens)) {
+                shortPrefixes.computeIfAbsent(prefix, p -> new ShortPrefix()).all().add(entry);
+            }
+            if (!tokens.isEmpty()) {
+                for (String prefix : shortPrefixes(tokens.subList(0, 1))) {
+                    shortPrefixes.computeIfAbsent(prefix, p -> new ShortPrefix()).leading().add(entry);
+                }
+            }
+        }
+
+        private void remove(Key key) {
+            Entry old = entries.remove(key);
+            if (old == null) {
+                return;
+            }
+            List<String> tokens = TextNormalizer.tokenize(old.name());
+            for (String token : tokens) {
+                terms.computeIfPresent(token, (t, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+            for (String prefix : shortPrefixes(tokens)) {
+                ShortPrefix sets = shortPrefixes.get(prefix);
+                if (sets != null) {
+                    sets.all().remove(old);
+                    sets.leading().remove(old);
+                }
+            }
+        }
+
+        // Prefix 1 và 2 ký tự của các từ, không lặp
+        private static Set<String> shortPrefixes(List<String> tokens) {
+            Set<String> prefixes = new HashSet<>();
+            for (String token : tokens) {
+                for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, token.length()); length++) {
+                    prefixes.add(token.substring(0, length));
+                }
+            }
+            return prefixes;
+        }
+
+        // Các key có ít nhất một từ bắt đầu bằng prefix, lọc trong within nếu có
+        private Set<Key> matching(String prefix, Set<Key> within) {
+            Set<Key> result = new HashSet<>();
+            for (Set<Key> keys : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (Key key : keys) {
+                    if (within == null || within.contains(key)) {
+                        result.add(key);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
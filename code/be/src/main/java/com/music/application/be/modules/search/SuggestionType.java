@@ -0,0 +1,8 @@
+package com.music.application.be.modules.search;
+
+public enum SuggestionType {
+    SONG,
+    ARTIST,
+    ALBUM,
+    PLAYLIST
+}
@@ -0,0 +1,15 @@
+package com.music.application.be.modules.search.dto;
+
+import com.music.application.be.modules.search.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private SuggestionType type;
+    private Long id;
+    private String text;
+}
@@ -6,18 +6,30 @@ import com.music.application.be.modules.genre.Genre;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "songs")
+// Các index phục vụ rule của smart playlist (PlaylistRule) và keyset của bảng xếp hạng
+@Table(name = "songs", indexes = {
+        @Index(name = "idx_songs_artist_id", columnList = "artist_id"),
+        @Index(name = "idx_songs_release_date", columnList = "release_date"),
+        @Index(name = "idx_songs_view_count_id", columnList = "view_count DESC, id DESC")
+})
+@DynamicUpdate // view_count được cộng dồn bởi SongViewCounter, không ghi đè khi save entity
 @Getter
 @Setter
 public class Song {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "songs_seq")
+    @SequenceGenerator(name = "songs_seq", sequenceName = "songs_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -31,6 +43,11 @@ public class Song {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String thumbnail;
 
+    // Các bản thu nhỏ theo ImageVariant, vd. {"small": "...", "medium": "...", "large": "..."}
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "thumbnail_variants", columnDefinition = "jsonb")
+    private Map<String, String> thumbnailVariants;
+
     @Column(columnDefinition = "TEXT")
     private String lyrics;
 
@@ -49,10 +66,12 @@ public class Song {
     private Artist artist;
 
     @ManyToMany
+    @BatchSize(size = 50) // nạp genres của cả trang trong một truy vấn
     @JoinTable(
             name = "song_genre",
             joinColumns = @JoinColumn(name = "song_id"),
-            inverseJoinColumns = @JoinColumn(name = "genre_id")
+            inverseJoinColumns = @JoinColumn(name = "genre_id"),
+            indexes = @Index(name = "idx_song_genre_genre_id", columnList = "genre_id, song_id")
     )
     private List<Genre> genres = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.music.application.be.modules.song;
+
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.config.cache.CacheEntryTagger;
+import com.music.application.be.config.cache.CacheTagIndex;
+import com.music.application.be.modules.genre.Genre;
+import com.music.application.be.modules.song.dto.SongDTO;
+import com.music.application.be.modules.song.dto.SongResponseDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Tags cached song pages with the songs, artists, albums and genres they depend on, and evicts
+ * only the affected pages when a song is written.
+ * <p>
+ * A page is tagged with {@code song:<id>} for every song it contains, so an edit evicts the pages
+ * showing that song. Listing pages are also tagged with what they list ({@code genre:<id>},
+ * {@code artist:<id>}, {@code album:<id>}, {@code songs:all}), because adding or removing a song
+ * shifts every page of that listing. Search pages register their query and are evicted when a
+ * new or renamed title contains it.
+ * <p>
+ * Pages are tagged by {@link CacheTagIndex} after they are stored, from the page content and the
+ * listing encoded in the key, so the cached methods only build the key with {@link #pageKey}.
+ */
+@Component
+public class SongCacheInvalidator implements CacheEntryTagger {
+
+    public static final String ALL_SONGS = "allSongs";
+    public static final String SEARCHED_SONGS = "searchedSongs";
+    public static final String SONGS_BY_GENRE = "songsByGenre";
+    public static final String SONGS_BY_ARTIST = "songsByArtist";
+    public static final String SONGS_BY_ALBUM = "songsByAlbum";
+
+    private static final String ALL_SONGS_TAG = "songs:all";
+    private static final String PAGE_SEPARATOR = "-page-";
+
+    private final CacheTagIndex cacheTagIndex;
+
+    public SongCacheInvalidator(CacheTagIndex cacheTagIndex) {
+        this.cacheTagIndex = cacheTagIndex;
+    }
+
+    @PostConstruct
+    void register() {
+        cacheTagIndex.register(this);
+    }
+
+    /**
+     * The fields of a song that decide which cached pages show it.
+     */
+    public record Snapshot(Long id, String title, Long artistId, Long albumId, Set<Long> genreIds) {
+
+        public static Snapshot of(Song song) {
+            Set<Long> genreIds = new LinkedHashSet<>();
+            if (song.getGenres() != null) {
+                song.getGenres().stream().map(Genre::getId).forEach(genreIds::add);
+            }
+            return new Snapshot(
+                    song.getId(),
+                    song.getTitle(),
+                    song.getArtist() != null ? song.getArtist().getId() : null,
+                    song.getAlbum() != null ? song.getAlbum().getId() : null,
+                    genreIds
+            );
+        }
+
+        private List<String> listingTags() {
+            List<String> tags = new ArrayList<>();
+            tags.add(ALL_SONGS_TAG);
+            if (artistId != null) {
+                tags.add(artistTag(artistId));
+            }
+            if (albumId != null) {
+                tags.add(albumTag(albumId));
+            }
+            genreIds.forEach(genreId -> tags.add(genreTag(genreId)));
+            return tags;
+        }
+    }
+
+    // Key của các trang, dùng trong @Cacheable qua @songCacheInvalidator để hai nơi luôn khớp nhau
+    public String pageKey(String listing, Object id, int page, int size) {
+        return listing + "-" + id + PAGE_SEPARATOR + page + "-size-" + size;
+    }
+
+    public String allSongsKey(int page, int size) {
+        return "page-" + page + "-size-" + size;
+    }
+
+    @Override
+    public Set<String> cacheNames() {
+        return Set.of(ALL_SONGS, SEARCHED_SONGS, SONGS_BY_GENRE, SONGS_BY_ARTIST, SONGS_BY_ALBUM);
+    }
+
+    @Override
+    public EntryTags tagsFor(String cacheName, Object key, Object value) {
+        if (!(value instanceof PagedResponse<?> response)) {
+            return EntryTags.NONE;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        String listedId = listedId(String.valueOf(key));
+        String query = null;
+        switch (cacheName) {
+            case ALL_SONGS -> tags.add(ALL_SONGS_TAG);
+            case SONGS_BY_GENRE -> addIfPresent(tags, listedId, "genre:");
+            case SONGS_BY_ARTIST -> addIfPresent(tags, listedId, "artist:");
+            case SONGS_BY_ALBUM -> addIfPresent(tags, listedId, "album:");
+            case SEARCHED_SONGS -> query = listedId;
+            default -> { }
+        }
+        for (Object item : response.getContent()) {
+            Long id = item instanceof SongDTO song ? song.getId()
+                    : item instanceof SongResponseDTO song ? song.getId() : null;
+            if (id != null) {
+                tags.add(songTag(id));
+            }
+        }
+        return new EntryTags(tags, query);
+    }
+
+    public void songCreated(Snapshot song) {
+        cacheTagIndex.evictTags(song.listingTags());
+        evictSearchesMatching(song.title());
+    }
+
+    // Import hàng loạt: gộp tag của cả lô để mỗi tag và mỗi query chỉ bị xóa một lần
+    public void songsCreated(Collection<Snapshot> songs) {
+        if (songs.isEmpty()) {
+            return;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        List<String> titles = new ArrayList<>();
+        for (Snapshot song : songs) {
+            tags.addAll(song.listingTags());
+            if (song.title() != null) {
+                titles.add(song.title().toLowerCase());
+            }
+        }
+        cacheTagIndex.evictTags(tags);
+        cacheTagIndex.evictQueries(SEARCHED_SONGS, query -> {
+            String lowerQuery = query.toLowerCase();
+            return titles.stream().anyMatch(title -> title.contains(lowerQuery));
+        });
+    }
+
+    public void songUpdated(Snapshot before, Snapshot after) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(songTag(after.id()));
+        // Bài hát chuyển artist / album / genre: cả danh sách cũ và mới đều thay đổi
+        if (!Objects.equals(before.artistId(), after.artistId())) {
+            addIfPresent(tags, before.artistId(), SongCacheInvalidator::artistTag);
+            addIfPresent(tags, after.artistId(), SongCacheInvalidator::artistTag);
+        }
+        if (!Objects.equals(before.albumId(), after.albumId())) {
+            addIfPresent(tags, before.albumId(), SongCacheInvalidator::albumTag);
+            addIfPresent(tags, after.albumId(), SongCacheInvalidator::albumTag);
+        }
+        if (!before.genreIds().equals(after.genreIds())) {
+            before.genreIds().forEach(genreId -> tags.add(genreTag(genreId)));
+            after.genreIds().forEach(genreId -> tags.add(genreTag(genreId)));
+        }
+        cacheTagIndex.evictTags(tags);
+
+        if (!Objects.equals(before.title(), after.title())) {
+            evictSearchesMatching(after.title());
+        }
+    }
+
+    public void songChanged(Long songId) {
+        cacheTagIndex.evictTags(List.of(songTag(songId)));
+    }
+
+    public void songDeleted(Snapshot song) {
+        List<String> tags = new ArrayList<>(song.listingTags());
+        tags.add(songTag(song.id()));
+        cacheTagIndex.evictTags(tags);
+    }
+
+    // Ngược lại của pageKey: phần giữa "<listing>-" và "-page-"; query có thể chứa '-' nên lấy lần xuất hiện cuối
+    private static String listedId(String key) {
+        int start = key.indexOf('-');
+        int end = key.lastIndexOf(PAGE_SEPARATOR);
+        return start >= 0 && end > start ? key.substring(start + 1, end) : null;
+    }
+
+    private static void addIfPresent(Set<String> tags, String id, String prefix) {
+        if (id != null && !"null".equals(id)) {
+            tags.add(prefix + id);
+        }
+    }
+
+    // searchSongs dùng ContainingIgnoreCase trên title nên so khớp theo cùng quy tắc
+    private void evictSearchesMatching(String title) {
+        if (title == null) {
+            return;
+        }
+        String lowerTitle = title.toLowerCase();
+        cacheTagIndex.evictQueries(SEARCHED_SONGS, query -> lowerTitle.contains(query.toLowerCase()));
+    }
+
+    private static void addIfPresent(Set<String> tags, Long id, Function<Long, String> tag) {
+        if (id != null) {
+            tags.add(tag.apply(id));
+        }
+    }
+
+    private static String songTag(Long songId) {
+        return "song:" + songId;
+    }
+
+    private static String artistTag(Long artistId) {
+        return "artist:" + artistId;
+    }
+
+    private static String albumTag(Long albumId) {
+        return "album:" + albumId;
+    }
+
+    private static String genreTag(Long genreId) {
+        return "genre:" + genreId;
+    }
+}
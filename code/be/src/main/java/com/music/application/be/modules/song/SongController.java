@@ -4,28 +4,39 @@ import com.music.application.be.modules.comment.CommentService;
 import com.music.application.be.modules.comment.dto.CommentActionResponseDTO;
 import com.music.application.be.modules.comment.dto.CommentResponseDTO;
 import com.music.application.be.modules.comment.dto.CreateCommentDTO;
+import com.music.application.be.modules.media.MediaStorage;
+import com.music.application.be.modules.media.RangeStreamer;
 import com.music.application.be.modules.song.dto.CreateSongDTO;
 import com.music.application.be.common.PagedResponse;
 import com.music.application.be.modules.song.dto.SongDTO;
 import com.music.application.be.modules.song.dto.SongResponseDTO;
 import com.music.application.be.modules.song.dto.UpdateSongDTO;
+import com.music.application.be.modules.waveform.SongWaveformService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/songs")
@@ -34,9 +45,24 @@ public class SongController {
     @Autowired
     private SongService songService;
 
+    @Autowired
+    private SongUserFlagResolver songUserFlagResolver;
+
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private MediaStorage mediaStorage;
+
+    @Autowired
+    private RangeStreamer rangeStreamer;
+
+    @Autowired
+    private SongWaveformService songWaveformService;
+
+    @Value("${app.media.waveform.max-age:1d}")
+    private Duration peaksMaxAge;
+
     @Autowired
     private ObjectMapper objectMapper; // Inject từ Spring (có sẵn)
 
@@ -75,9 +101,53 @@ public class SongController {
         return ResponseEntity.ok(songDTO);
     }
 
+    @Operation(
+            summary = "Stream song audio",
+            description = "Streams the audio of a song with HTTP Range support (single and multiple ranges, If-Range, ETag). " +
+                    "Songs whose audio is not stored locally are redirected to their audio URL.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Full audio file"),
+                    @ApiResponse(responseCode = "206", description = "Requested byte ranges"),
+                    @ApiResponse(responseCode = "302", description = "Audio is stored externally"),
+                    @ApiResponse(responseCode = "304", description = "Not modified"),
+                    @ApiResponse(responseCode = "404", description = "Song not found"),
+                    @ApiResponse(responseCode = "416", description = "Range not satisfiable")
+            }
+    )
+    @RequestMapping(value = "/{id}/stream", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void streamSong(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String audioUrl = songService.getAudioUrl(id);
+        Optional<Path> audioFile = mediaStorage.localPath(audioUrl);
+        if (audioFile.isEmpty()) {
+            response.sendRedirect(audioUrl);
+            return;
+        }
+        rangeStreamer.stream(audioFile.get(), request, response);
+    }
+
+    @Operation(
+            summary = "Get song waveform peaks",
+            description = "Returns precomputed min/max peaks of the song audio in the audiowaveform binary format " +
+                    "(version 1, 8-bit: 20-byte little-endian header, then signed min/max byte pairs).",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Waveform peaks"),
+                    @ApiResponse(responseCode = "304", description = "Not modified"),
+                    @ApiResponse(responseCode = "404", description = "Song not found or waveform not computed yet")
+            }
+    )
+    @GetMapping(value = "/{id}/peaks", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getSongPeaks(@PathVariable Long id) {
+        SongWaveformService.Peaks peaks = songWaveformService.getPeaks(id);
+        // ETag theo nội dung: If-None-Match khớp thì Spring tự trả 304
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(peaksMaxAge).cachePrivate())
+                .eTag(peaks.etag())
+                .body(peaks.data());
+    }
+
     @Operation(
             summary = "Get all songs",
-            description = "Retrieves a paginated list of all songs.",
+            description = "Retrieves a paginated list of all songs. Pass cursor (empty for the first page) to page by nextCursor without a count query.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved songs",
                             content = @Content(schema = @Schema(implementation = Page.class)))
@@ -86,9 +156,14 @@ public class SongController {
     @GetMapping
     public ResponseEntity<PagedResponse<SongResponseDTO>> getAllSongsByCurrentUser(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        // Có cursor (rỗng cho trang đầu) thì dùng keyset, bỏ qua page
+        if (cursor != null) {
+            return ResponseEntity.ok(songUserFlagResolver.apply(songService.getAllSongs(cursor, size)));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(songService.getAllSongs(pageable));
+        return ResponseEntity.ok(songUserFlagResolver.apply(songService.getAllSongs(pageable)));
     }
 
 
@@ -291,7 +366,7 @@ public class SongController {
 
     @Operation(
             summary = "Get top songs by view count",
-            description = "Retrieves a paginated list of top songs based on view count.",
+            description = "Retrieves a paginated list of top songs based on view count. Pass cursor (empty for the first page) to page by nextCursor.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved top songs",
                             content = @Content(schema = @Schema(implementation = Page.class)))
@@ -300,10 +375,52 @@ public class SongController {
     @GetMapping("/top")
     public ResponseEntity<PagedResponse<SongDTO>> getTopSongsByViewCount(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(songService.getTopSongs(SongLeaderboard.Window.ALL_TIME, cursor, size));
+        }
         return ResponseEntity.ok(songService.getTopSongsByViewCount(page, size));
     }
 
+    @Operation(
+            summary = "Get today's top songs",
+            description = "Retrieves a paginated chart of the most viewed songs today. Pass cursor (empty for the first page) to page by nextCursor.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved daily top songs",
+                            content = @Content(schema = @Schema(implementation = Page.class)))
+            }
+    )
+    @GetMapping("/top/daily")
+    public ResponseEntity<PagedResponse<SongDTO>> getDailyTopSongs(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(songService.getTopSongs(SongLeaderboard.Window.DAILY, cursor, size));
+        }
+        return ResponseEntity.ok(songService.getTopSongs(SongLeaderboard.Window.DAILY, page, size));
+    }
+
+    @Operation(
+            summary = "Get this week's top songs",
+            description = "Retrieves a paginated chart of the most viewed songs this week. Pass cursor (empty for the first page) to page by nextCursor.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved weekly top songs",
+                            content = @Content(schema = @Schema(implementation = Page.class)))
+            }
+    )
+    @GetMapping("/top/weekly")
+    public ResponseEntity<PagedResponse<SongDTO>> getWeeklyTopSongs(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(songService.getTopSongs(SongLeaderboard.Window.WEEKLY, cursor, size));
+        }
+        return ResponseEntity.ok(songService.getTopSongs(SongLeaderboard.Window.WEEKLY, page, size));
+    }
+
     @Operation(
             summary = "Get user's liked comments for a song",
             description = "Retrieves all comment IDs that the user has liked for a specific song.",
@@ -0,0 +1,287 @@
+package com.music.application.be.modules.song;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.Range;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Top-songs leaderboard kept in Redis sorted sets.
+ * <p>
+ * Scores are bumped with the deltas flushed by {@link SongViewCounter}, so chart pages are
+ * a {@code ZREVRANGE} (O(log n + page size)) instead of a sort over the songs table.
+ * Daily and weekly charts are separate keys that expire on their own.
+ * <p>
+ * The all-time chart is seeded from {@code songs.view_count}. A sentinel key holding the number of
+ * songs seeded is written once a seed has finished; if Redis loses the sentinel, or the chart of a
+ * non-empty seed, {@link #seedIfMissing} seeds again on its next run, even when flushes have
+ * already recreated the chart with deltas only. The seed
+ * and {@link SongViewCounter}'s flush are fenced with a PostgreSQL advisory lock: a flush holds it
+ * shared from its {@code UPDATE} until its deltas are in Redis, the seed holds it exclusively
+ * while it reads the table and writes the scores, so a delta is never lost or counted twice.
+ */
+@Component
+public class SongLeaderboard {
+
+    public enum Window {
+        ALL_TIME, DAILY, WEEKLY
+    }
+
+    /**
+     * One page of song ids in rank order with their scores, plus the size of the whole chart.
+     */
+    public record Page(List<Long> songIds, List<Long> scores, long total) {
+    }
+
+    private static final String KEY_PREFIX = "leaderboard:songs:";
+    private static final String ALL_TIME_KEY = KEY_PREFIX + "all";
+    private static final String SEEDED_KEY = KEY_PREFIX + "seeded";
+    // Khóa advisory của PostgreSQL dùng chung giữa seed và flush lượt xem
+    private static final long SEED_FENCE = 0x534f4e47_4c42L;
+    private static final Duration DAILY_TTL = Duration.ofDays(2);
+    private static final Duration WEEKLY_TTL = Duration.ofDays(14);
+    private static final int SEED_CHUNK_SIZE = 1000;
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SongLeaderboard(StringRedisTemplate redisTemplate, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Gọi trong transaction của flush, trước lệnh UPDATE; khóa được trả khi transaction kết thúc
+    public void holdSeedFence() {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared(?)", SEED_FENCE);
+    }
+
+    // Cộng lượt xem vào cả 3 bảng xếp hạng trong một pipeline
+    public void recordViews(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String dailyKey = key(Window.DAILY);
+        String weeklyKey = key(Window.WEEKLY);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            deltas.forEach((songId, delta) -> {
+                String member = songId.toString();
+                redis.zIncrBy(ALL_TIME_KEY, delta, member);
+                redis.zIncrBy(dailyKey, delta, member);
+                redis.zIncrBy(weeklyKey, delta, member);
+            });
+            redis.expire(dailyKey, DAILY_TTL.getSeconds());
+            redis.expire(weeklyKey, WEEKLY_TTL.getSeconds());
+            return null;
+        });
+    }
+
+    public void put(Long songId, long viewCount) {
+        redisTemplate.opsForZSet().add(ALL_TIME_KEY, songId.toString(), viewCount);
+    }
+
+    // Nhiều bài hát mới cùng lúc (import hàng loạt) trong một pipeline
+    public void putAll(Map<Long, Long> viewCounts) {
+        if (viewCounts.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            viewCounts.forEach((songId, viewCount) -> redis.zAdd(ALL_TIME_KEY, viewCount, songId.toString()));
+            return null;
+        });
+    }
+
+    public void remove(Long songId) {
+        String member = songId.toString();
+        redisTemplate.opsForZSet().remove(ALL_TIME_KEY, member);
+        redisTemplate.opsForZSet().remove(key(Window.DAILY), member);
+        redisTemplate.opsForZSet().remove(key(Window.WEEKLY), member);
+    }
+
+    public Page page(Window window, int page, int size) {
+        long start = (long) page * size;
+        return range(key(window), start, start + size - 1);
+    }
+
+    /**
+     * The page after a song of a previous page, for cursor pagination. This is a keyset on
+     * {@code (score, member)} in the order Redis ranks the chart: score descending, then member
+     * descending as a string for equal scores. The page continues with the songs tied with
+     * {@code afterScore} that rank after {@code afterSongId}, then reads
+     * {@code ZREVRANGEBYSCORE key (afterScore -inf}. A song that climbs or drops between two
+     * requests therefore moves out of the part still to be read or into it, but never shifts the
+     * songs after the cursor and never makes them repeat.
+     */
+    public Page pageAfter(Window window, Long afterSongId, long afterScore, int size) {
+        String key = key(window);
+        if (afterSongId == null) {
+            return range(key, 0, size - 1);
+        }
+        String anchor = afterSongId.toString();
+        List<Long> ids = new ArrayList<>(size);
+        List<Long> scores = new ArrayList<>(size);
+
+        // Các bài còn lại cùng điểm với bài cuối trang trước
+        Set<ZSetOperations.TypedTuple<String>> tied = redisTemplate.opsForZSet()
+                .reverseRangeByScoreWithScores(key, afterScore, afterScore, tiedBefore(key, anchor, afterScore), size);
+        if (tied != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tied) {
+                if (tuple.getValue().compareTo(anchor) < 0) {
+                    ids.add(Long.valueOf(tuple.getValue()));
+                    scores.add(afterScore);
+                }
+            }
+        }
+
+        // Rồi các bài có điểm nhỏ hơn hẳn: cận trên mở "(afterScore"
+        if (ids.size() < size) {
+            int remaining = size - ids.size();
+            Set<Tuple> lower = redisTemplate.execute((RedisCallback<Set<Tuple>>) connection ->
+                    connection.zSetCommands().zRevRangeByScoreWithScores(
+                            key.getBytes(StandardCharsets.UTF_8),
+                            Range.of(Range.Bound.unbounded(), Range.Bound.exclusive((double) afterScore)),
+                            Limit.limit().count(remaining)));
+            if (lower != null) {
+                for (Tuple tuple : lower) {
+                    ids.add(Long.valueOf(new String(tuple.getValue(), StandardCharsets.UTF_8)));
+                    scores.add(tuple.getScore() != null ? tuple.getScore().longValue() : 0L);
+                }
+            }
+        }
+
+        Long total = redisTemplate.opsForZSet().zCard(key);
+        return new Page(ids, scores, total != null ? total : ids.size());
+    }
+
+    // Số bài cùng điểm xếp trước anchor (member lớn hơn theo chuỗi), để bỏ qua bằng LIMIT offset
+    private long tiedBefore(String key, String anchor, long score) {
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        Double current = zSet.score(key, anchor);
+        if (current != null && current == score) {
+            Long rank = zSet.reverseRank(key, anchor);
+            Long higher = zSet.count(key, Math.nextUp((double) score), Double.POSITIVE_INFINITY);
+            if (rank != null && higher != null) {
+                return Math.max(0, rank - higher + 1);
+            }
+        }
+        // Anchor đã đổi điểm hoặc bị xóa: đếm trong nhóm cùng điểm những member đứng trước nó
+        long before = 0;
+        while (true) {
+            Set<String> chunk = zSet.reverseRangeByScore(key, score, score, before, SEED_CHUNK_SIZE);
+            if (chunk == null || chunk.isEmpty()) {
+                return before;
+            }
+            for (String member : chunk) {
+                if (member.compareTo(anchor) <= 0) {
+                    return before;
+                }
+                before++;
+            }
+        }
+    }
+
+    private Page range(String key, long start, long end) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                redisTemplate.opsForZSet().reverseRangeWithScores(key, start, end);
+        Long total = redisTemplate.opsForZSet().zCard(key);
+
+        if (tuples == null || tuples.isEmpty()) {
+            return new Page(Collections.emptyList(), Collections.emptyList(), total != null ? total : 0);
+        }
+        List<Long> ids = new ArrayList<>(tuples.size());
+        List<Long> scores = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            ids.add(Long.valueOf(tuple.getValue()));
+            scores.add(tuple.getScore() != null ? tuple.getScore().longValue() : 0L);
+        }
+        return new Page(ids, scores, total != null ? total : ids.size());
+    }
+
+    // Nạp bảng xếp hạng all-time từ DB khi khởi động và mỗi lần kiểm tra thấy Redis mất key / sentinel
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.leaderboard.seed-check-interval-ms:60000}",
+            fixedDelayString = "${app.leaderboard.seed-check-interval-ms:60000}"
+    )
+    public void seedIfMissing() {
+        try {
+            if (isSeeded()) {
+                return;
+            }
+            Boolean seeded = transactionTemplate.execute(status -> {
+                // Chờ các flush đang chạy xong và chặn flush mới cho tới khi seed commit
+                jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", SEED_FENCE);
+                // Node khác có thể vừa seed xong trong lúc chờ khóa
+                if (isSeeded()) {
+                    return false;
+                }
+                Set<ZSetOperations.TypedTuple<String>> chunk = new HashSet<>();
+                long[] songs = {0};
+                jdbcTemplate.query("SELECT id, view_count FROM songs", rs -> {
+                    songs[0]++;
+                    chunk.add(ZSetOperations.TypedTuple.of(rs.getString("id"), (double) rs.getLong("view_count")));
+                    if (chunk.size() >= SEED_CHUNK_SIZE) {
+                        redisTemplate.opsForZSet().add(ALL_TIME_KEY, chunk);
+                        chunk.clear();
+                    }
+                });
+                if (!chunk.isEmpty()) {
+                    redisTemplate.opsForZSet().add(ALL_TIME_KEY, chunk);
+                }
+                redisTemplate.opsForValue().set(SEEDED_KEY, Long.toString(songs[0]));
+                return true;
+            });
+            if (Boolean.TRUE.equals(seeded)) {
+                System.out.println("Seeded song leaderboard from database");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to seed song leaderboard: " + e.getMessage());
+        }
+    }
+
+    // Mất sentinel, hoặc mất bảng của một lần seed có bài hát: Redis đã bị flush / evict.
+    // Seed 0 bài hát không tạo key bảng xếp hạng, nên không được coi đó là mất dữ liệu
+    private boolean isSeeded() {
+        String seededSongs = redisTemplate.opsForValue().get(SEEDED_KEY);
+        if (seededSongs == null) {
+            return false;
+        }
+        return "0".equals(seededSongs) || Boolean.TRUE.equals(redisTemplate.hasKey(ALL_TIME_KEY));
+    }
+
+    private String key(Window window) {
+        LocalDate today = LocalDate.now(ZONE);
+        return switch (window) {
+            case ALL_TIME -> ALL_TIME_KEY;
+            case DAILY -> KEY_PREFIX + "day:" + today;
+            case WEEKLY -> KEY_PREFIX + "week:" + today.get(IsoFields.WEEK_BASED_YEAR)
+                    + "-W" + today.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+        };
+    }
+}
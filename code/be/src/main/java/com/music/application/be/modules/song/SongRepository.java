@@ -3,20 +3,60 @@ package com.music.application.be.modules.song;
 import com.music.application.be.modules.genre.Genre;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, JpaSpecificationExecutor<Song> {
+    // Các truy vấn danh sách fetch sẵn artist/album để tránh N+1 khi map sang DTO,
+    // genres được nạp theo batch (@BatchSize trên Song.genres)
+    @EntityGraph(attributePaths = {"artist", "album"})
     Page<Song> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"artist", "album"})
     Page<Song> findByArtistId(Long artistId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"artist", "album"})
     Page<Song> findByGenresId(Long genreId, Pageable pageable);
 
     @Query("SELECT s FROM Song s JOIN s.genres g WHERE g IN :genres")
     List<Song> findByGenresIn(List<Genre> genres);
+
+    @EntityGraph(attributePaths = {"artist", "album"})
     Page<Song> findAllByOrderByViewCountDesc(Pageable pageable);
+
+    // Cursor mode của bảng xếp hạng: keyset trên (viewCount, id), Slice không chạy COUNT
+    @EntityGraph(attributePaths = {"artist", "album"})
+    Slice<Song> findAllByOrderByViewCountDescIdDesc(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"artist", "album"})
+    @Query("SELECT s FROM Song s WHERE s.viewCount < :viewCount OR (s.viewCount = :viewCount AND s.id < :id) " +
+            "ORDER BY s.viewCount DESC, s.id DESC")
+    Slice<Song> findByViewCountAfter(int viewCount, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"artist", "album"})
     Page<Song> findByAlbumId(Long albumId, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"artist", "album"})
+    Page<Song> findAll(Pageable pageable);
+
+    // Cursor mode của GET /api/songs: keyset trên khóa chính
+    @EntityGraph(attributePaths = {"artist", "album"})
+    Slice<Song> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"artist", "album"})
+    List<Song> findAllById(Iterable<Long> ids);
+
+    // Mỗi lần tua player gửi một request Range mới, chỉ cần đọc audioUrl
+    @Query("SELECT s.audioUrl FROM Song s WHERE s.id = :id")
+    Optional<String> findAudioUrlById(Long id);
 }
\ No newline at end of file
@@ -4,41 +4,45 @@ import com.music.application.be.modules.album.Album;
 import com.music.application.be.modules.album.AlbumRepository;
 import com.music.application.be.modules.artist.Artist;
 import com.music.application.be.modules.artist.ArtistRepository;
-import com.music.application.be.modules.cloudinary.CloudinaryService;
-import com.music.application.be.modules.downloaded_song.DownloadedSongRepository;
-import com.music.application.be.modules.favorite_song.FavoriteSongRepository;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaLibrary;
 import com.music.application.be.modules.genre.Genre;
 import com.music.application.be.modules.genre.GenreRepository;
-import com.music.application.be.modules.playlist.Playlist;
-import com.music.application.be.modules.playlist.PlaylistRepository;
+import com.music.application.be.modules.media.AudioMetadataReader;
+import com.music.application.be.modules.media.SpooledUpload;
+import com.music.application.be.modules.media.UploadLimiter;
+import com.music.application.be.modules.media.UploadSpooler;
+import com.music.application.be.modules.search.CatalogChangedEvent;
+import com.music.application.be.modules.search.SuggestionType;
 import com.music.application.be.modules.song.dto.CreateSongDTO;
+import com.music.application.be.common.CursorPagination;
+import com.music.application.be.common.KeysetCursor;
 import com.music.application.be.common.PagedResponse;
+import com.music.application.be.common.PaginationUtils;
 import com.music.application.be.modules.song.dto.SongDTO;
 import com.music.application.be.modules.song.dto.SongResponseDTO;
 import com.music.application.be.modules.song.dto.UpdateSongDTO;
-import com.music.application.be.modules.song_playlist.SongPlaylist;
-import com.music.application.be.modules.song_playlist.SongPlaylistRepository;
-import com.music.application.be.modules.user.User;
+import com.music.application.be.modules.waveform.SongWaveformService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.UUID;
 
 @Service
 public class SongService {
@@ -56,21 +60,37 @@ public class SongService {
     private GenreRepository genreRepository;
 
     @Autowired
-    private PlaylistRepository playlistRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    private SongPlaylistRepository songPlaylistRepository;
+    private SongCacheInvalidator songCacheInvalidator;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private MediaLibrary mediaLibrary;
 
     @Autowired
-    private FavoriteSongRepository favoriteSongRepository;
+    private SongWaveformService songWaveformService;
 
     @Autowired
-    private DownloadedSongRepository downloadedSongRepository;
+    private SongUserFlagResolver songUserFlagResolver;
+
+    @Autowired
+    private SongViewCounter songViewCounter;
+
+    @Autowired
+    private SongLeaderboard songLeaderboard;
+
+    @Autowired
+    private UploadSpooler uploadSpooler;
+
+    @Autowired
+    private AudioMetadataReader audioMetadataReader;
+
+    @Autowired
+    private CursorPagination cursorPagination;
+
     // Create
-    @CacheEvict(value = {"songs", "searchedSongs", "songsByGenre", "songsByArtist", "topSongs"}, allEntries = true)
+    // Chỉ xóa các trang bị ảnh hưởng, xem SongCacheInvalidator
     public SongDTO createSong(CreateSongDTO createSongDTO, MultipartFile audioFile, MultipartFile thumbnailFile) throws IOException {
         if (audioFile == null || audioFile.isEmpty()) {
             throw new IllegalArgumentException("Audio file is required");
@@ -78,31 +98,91 @@ public class SongService {
         if (thumbnailFile == null || thumbnailFile.isEmpty()) {
             throw new IllegalArgumentException("Thumbnail file is required");
         }
-        if (createSongDTO.getTitle() == null || createSongDTO.getTitle().trim().isEmpty()) {
-            throw new IllegalArgumentException("Song title is required");
-        }
+        validateNewSong(createSongDTO);
 
-        Song song = new Song();
-        song.setTitle(createSongDTO.getTitle());
-
-        // Tạo file tạm cho audio
-        File audioTempFile = createTempFile(audioFile);
+        // Ghi audio ra một file tạm duy nhất, dùng chung cho đọc duration, upload và waveform.
+        // Cả hai file nằm dưới một permit, không chờ permit thumbnail khi đang giữ permit audio
+        SpooledUpload audio = null;
+        SpooledUpload thumbnailUpload = null;
         try {
+            try (UploadLimiter.Permit permit = uploadSpooler.reserve(audioFile, thumbnailFile)) {
+                audio = uploadSpooler.spool(audioFile, "mp3", permit);
+                thumbnailUpload = uploadSpooler.spool(thumbnailFile, "jpg", permit);
+            }
+
             // Trích xuất duration từ file tạm
-            int duration = extractDurationFromAudio(audioTempFile);
-            song.setDuration(duration);
+            int duration = audioMetadataReader.readDurationSeconds(audio.getFile());
+
+            String audioUrl = null;
+            MediaLibrary.StoredImage thumbnail = null;
+            SongDTO savedSong;
+            try {
+                // Upload file audio lên storage
+                audioUrl = mediaLibrary.store(audio, MediaKind.AUDIO);
 
-            // Upload file audio lên Cloudinary
-            String audioUrl = cloudinaryService.uploadFile(audioTempFile, "video");
-            song.setAudioUrl(audioUrl);
+                // Upload file thumbnail lên storage, kèm các bản thu nhỏ cho danh sách
+                thumbnail = mediaLibrary.storeImage(thumbnailUpload);
+
+                savedSong = saveNewSong(createSongDTO, duration, audioUrl, thumbnail);
+            } catch (IOException | RuntimeException e) {
+                releaseUploaded(audioUrl, thumbnail);
+                throw e;
+            }
+            // File tạm chuyển cho job tính waveform, job tự xóa khi xong
+            songWaveformService.generateAsync(savedSong.getId(), audioUrl, audio);
+            audio = null;
+            return savedSong;
         } finally {
-            deleteTempFile(audioTempFile);
+            if (audio != null) {
+                audio.close();
+            }
+            if (thumbnailUpload != null) {
+                thumbnailUpload.close();
+            }
+        }
+    }
+
+    // Kiểm tra trước khi upload file, tránh upload xong mới phát hiện dữ liệu sai
+    public void validateNewSong(CreateSongDTO createSongDTO) {
+        if (createSongDTO.getTitle() == null || createSongDTO.getTitle().trim().isEmpty()) {
+            throw new IllegalArgumentException("Song title is required");
+        }
+        if (createSongDTO.getArtistId() == null || !artistRepository.existsById(createSongDTO.getArtistId())) {
+            throw new EntityNotFoundException("Artist not found with id: " + createSongDTO.getArtistId());
+        }
+        if (createSongDTO.getAlbumId() != null && !albumRepository.existsById(createSongDTO.getAlbumId())) {
+            throw new EntityNotFoundException("Album not found with id: " + createSongDTO.getAlbumId());
+        }
+        findGenres(createSongDTO.getGenreIds());
+    }
+
+    // Upload xong nhưng bài hát không được lưu: trả reference để sweeper dọn file
+    private void releaseUploaded(String audioUrl, MediaLibrary.StoredImage thumbnail) {
+        mediaLibrary.release(audioUrl);
+        if (thumbnail != null) {
+            mediaLibrary.release(thumbnail.url(), thumbnail.variants());
         }
+    }
 
-        // Upload file thumbnail lên Cloudinary
-        String thumbnailUrl = cloudinaryService.uploadFile(thumbnailFile, "image");
-        song.setThumbnail(thumbnailUrl);
+    private List<Genre> findGenres(List<Long> genreIds) {
+        if (genreIds == null) {
+            return null;
+        }
+        List<Genre> genres = genreRepository.findAllById(genreIds);
+        if (genres.size() != genreIds.size()) {
+            throw new IllegalArgumentException("One or more genres not found");
+        }
+        return genres;
+    }
 
+    // Lưu bài hát khi audio và thumbnail đã nằm trên storage, dùng chung cho upload trực tiếp và ingest
+    public SongDTO saveNewSong(CreateSongDTO createSongDTO, int duration, String audioUrl, MediaLibrary.StoredImage thumbnail) {
+        Song song = new Song();
+        song.setTitle(createSongDTO.getTitle());
+        song.setDuration(duration);
+        song.setAudioUrl(audioUrl);
+        song.setThumbnail(thumbnail.url());
+        song.setThumbnailVariants(thumbnail.variants());
         song.setLyrics(createSongDTO.getLyrics());
         song.setReleaseDate(createSongDTO.getReleaseDate());
         song.setViewCount(0);
@@ -118,100 +198,126 @@ public class SongService {
         }
 
         if (createSongDTO.getGenreIds() != null && !createSongDTO.getGenreIds().isEmpty()) {
-            List<Genre> genres = genreRepository.findAllById(createSongDTO.getGenreIds());
-            if (genres.size() != createSongDTO.getGenreIds().size()) {
-                throw new IllegalArgumentException("One or more genres not found");
-            }
-            song.setGenres(genres);
+            song.setGenres(findGenres(createSongDTO.getGenreIds()));
         }
 
         Song savedSong = songRepository.save(song);
-
-        if (!song.getGenres().isEmpty()) {
-            List<Playlist> matchingPlaylists = playlistRepository.findByGenresIn(song.getGenres());
-            for (Playlist playlist : matchingPlaylists) {
-                SongPlaylist songPlaylist = new SongPlaylist();
-                songPlaylist.setSong(savedSong);
-                songPlaylist.setPlaylist(playlist);
-                songPlaylist.setAddedAt(LocalDateTime.now());
-                songPlaylistRepository.save(songPlaylist);
-            }
-        }
+        updateLeaderboard(() -> songLeaderboard.put(savedSong.getId(), 0));
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.SONG, savedSong.getId(), savedSong.getTitle()));
+        songCacheInvalidator.songCreated(SongCacheInvalidator.Snapshot.of(savedSong));
+        eventPublisher.publishEvent(SongsChangedEvent.created(List.of(SongsChangedEvent.State.of(savedSong))));
 
         return mapToDTO(savedSong);
     }
 
     // Update
     @CachePut(value = "songs", key = "#id")
-    @CacheEvict(value = {"searchedSongs", "songsByGenre", "songsByArtist", "topSongs"}, allEntries = true)
     public SongDTO updateSong(Long id, UpdateSongDTO updateSongDTO, MultipartFile audioFile, MultipartFile thumbnailFile) throws IOException {
-        Song song = songRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + id));
-
-        song.setTitle(updateSongDTO.getTitle());
-        if (audioFile != null && !audioFile.isEmpty()) {
-            File audioTempFile = createTempFile(audioFile);
-            try {
-                int duration = extractDurationFromAudio(audioTempFile);
-                song.setDuration(duration);
-                String audioUrl = cloudinaryService.uploadFile(audioTempFile, "video");
-                song.setAudioUrl(audioUrl);
-            } finally {
-                deleteTempFile(audioTempFile);
+        boolean newAudio = audioFile != null && !audioFile.isEmpty();
+        boolean newThumbnail = thumbnailFile != null && !thumbnailFile.isEmpty();
+        SpooledUpload audio = null;
+        SpooledUpload thumbnail = null;
+        try {
+            if (newAudio || newThumbnail) {
+                // Một permit cho các file của request, như createSong
+                try (UploadLimiter.Permit permit = uploadSpooler.reserve(
+                        newAudio ? audioFile : null, newThumbnail ? thumbnailFile : null)) {
+                    if (newAudio) {
+                        audio = uploadSpooler.spool(audioFile, "mp3", permit);
+                    }
+                    if (newThumbnail) {
+                        thumbnail = uploadSpooler.spool(thumbnailFile, "jpg", permit);
+                    }
+                }
+            }
+            SongDTO updatedSong = updateSong(id, updateSongDTO, audio, thumbnail);
+            if (audio != null) {
+                // Audio mới: waveform cũ không còn được trả về, tính lại từ file tạm
+                songWaveformService.generateAsync(id, updatedSong.getAudioUrl(), audio);
+                audio = null;
+            }
+            return updatedSong;
+        } finally {
+            if (audio != null) {
+                audio.close();
+            }
+            if (thumbnail != null) {
+                thumbnail.close();
             }
         }
-        song.setLyrics(updateSongDTO.getLyrics());
-        song.setReleaseDate(updateSongDTO.getReleaseDate());
-        song.setViewCount(updateSongDTO.getViewCount() != null ? updateSongDTO.getViewCount() : song.getViewCount());
+    }
 
-        if (thumbnailFile != null && !thumbnailFile.isEmpty()) {
-            String thumbnailUrl = cloudinaryService.uploadFile(thumbnailFile, "image");
-            song.setThumbnail(thumbnailUrl);
-        }
+    private SongDTO updateSong(Long id, UpdateSongDTO updateSongDTO, SpooledUpload audio, SpooledUpload thumbnailUpload) throws IOException {
+        Song song = songRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + id));
+        SongCacheInvalidator.Snapshot before = SongCacheInvalidator.Snapshot.of(song);
+        SongsChangedEvent.State stateBefore = SongsChangedEvent.State.of(song);
+        String previousAudioUrl = song.getAudioUrl();
+        String previousThumbnailUrl = song.getThumbnail();
+        Map<String, String> previousThumbnailVariants = song.getThumbnailVariants();
 
+        // Kiểm tra artist / album / genre trước khi upload, dữ liệu sai thì không có file nào bị giữ lại
         Artist artist = artistRepository.findById(updateSongDTO.getArtistId())
                 .orElseThrow(() -> new EntityNotFoundException("Artist not found with id: " + updateSongDTO.getArtistId()));
-        song.setArtist(artist);
-
+        Album album = null;
         if (updateSongDTO.getAlbumId() != null) {
-            Album album = albumRepository.findById(updateSongDTO.getAlbumId())
+            album = albumRepository.findById(updateSongDTO.getAlbumId())
                     .orElseThrow(() -> new EntityNotFoundException("Album not found with id: " + updateSongDTO.getAlbumId()));
-            song.setAlbum(album);
-        } else {
-            song.setAlbum(null);
         }
+        List<Genre> genres = findGenres(updateSongDTO.getGenreIds());
+        int duration = audio != null ? audioMetadataReader.readDurationSeconds(audio.getFile()) : song.getDuration();
+        boolean newThumbnail = thumbnailUpload != null;
 
-        if (updateSongDTO.getGenreIds() != null) {
-            List<Genre> genres = genreRepository.findAllById(updateSongDTO.getGenreIds());
-            if (genres.size() != updateSongDTO.getGenreIds().size()) {
-                throw new IllegalArgumentException("One or more genres not found");
+        String audioUrl = null;
+        MediaLibrary.StoredImage thumbnail = null;
+        Song updatedSong;
+        try {
+            if (audio != null) {
+                audioUrl = mediaLibrary.store(audio, MediaKind.AUDIO);
+                song.setDuration(duration);
+                song.setAudioUrl(audioUrl);
+            }
+            if (newThumbnail) {
+                thumbnail = mediaLibrary.storeImage(thumbnailUpload);
+                song.setThumbnail(thumbnail.url());
+                song.setThumbnailVariants(thumbnail.variants());
             }
-            song.setGenres(genres);
-        } else {
-            song.setGenres(null);
-        }
 
-        List<SongPlaylist> existingSongPlaylists = songPlaylistRepository.findBySongId(song.getId());
-        songPlaylistRepository.deleteAll(existingSongPlaylists);
-
-        if (song.getGenres() != null && !song.getGenres().isEmpty()) {
-            List<Playlist> matchingPlaylists = playlistRepository.findByGenresIn(song.getGenres());
-            for (Playlist playlist : matchingPlaylists) {
-                SongPlaylist songPlaylist = new SongPlaylist();
-                songPlaylist.setSong(song);
-                songPlaylist.setPlaylist(playlist);
-                songPlaylist.setAddedAt(LocalDateTime.now());
-                songPlaylistRepository.save(songPlaylist);
+            song.setTitle(updateSongDTO.getTitle());
+            song.setLyrics(updateSongDTO.getLyrics());
+            song.setReleaseDate(updateSongDTO.getReleaseDate());
+            if (updateSongDTO.getViewCount() != null) {
+                // Admin ghi đè viewCount nên bỏ các lượt xem đang chờ flush
+                songViewCounter.discard(id);
+                song.setViewCount(updateSongDTO.getViewCount());
             }
+            song.setArtist(artist);
+            song.setAlbum(album);
+            song.setGenres(genres);
+            updatedSong = songRepository.save(song);
+        } catch (IOException | RuntimeException e) {
+            releaseUploaded(audioUrl, thumbnail);
+            throw e;
+        }
+        if (updateSongDTO.getViewCount() != null) {
+            updateLeaderboard(() -> songLeaderboard.put(id, updateSongDTO.getViewCount()));
         }
 
-        Song updatedSong = songRepository.save(song);
+        // Mỗi file mới upload giữ một reference, trả reference của file cũ (kể cả khi nội dung giống hệt)
+        if (audio != null) {
+            mediaLibrary.release(previousAudioUrl);
+        }
+        if (newThumbnail) {
+            mediaLibrary.release(previousThumbnailUrl, previousThumbnailVariants);
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(SuggestionType.SONG, id, updatedSong.getTitle()));
+        songCacheInvalidator.songUpdated(before, SongCacheInvalidator.Snapshot.of(updatedSong));
+        eventPublisher.publishEvent(SongsChangedEvent.updated(stateBefore, SongsChangedEvent.State.of(updatedSong)));
         return mapToDTO(updatedSong);
     }
 
     // Update thumbnail only
     @CachePut(value = "songs", key = "#id")
-    @CacheEvict(value = {"searchedSongs", "songsByGenre", "songsByArtist", "topSongs"}, allEntries = true)
     public SongDTO updateSongThumbnail(Long id, MultipartFile thumbnailFile) throws IOException {
         if (thumbnailFile == null || thumbnailFile.isEmpty()) {
             throw new IllegalArgumentException("Thumbnail file is required");
@@ -220,11 +326,22 @@ public class SongService {
         Song song = songRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + id));
 
-        // Upload file thumbnail lên Cloudinary
-        String thumbnailUrl = cloudinaryService.uploadFile(thumbnailFile, "image");
-        song.setThumbnail(thumbnailUrl);
+        // Upload file thumbnail lên storage, nội dung đã có thì dùng lại
+        String previousThumbnailUrl = song.getThumbnail();
+        Map<String, String> previousThumbnailVariants = song.getThumbnailVariants();
+        MediaLibrary.StoredImage thumbnail = mediaLibrary.storeImage(thumbnailFile);
+        song.setThumbnail(thumbnail.url());
+        song.setThumbnailVariants(thumbnail.variants());
 
-        Song updatedSong = songRepository.save(song);
+        Song updatedSong;
+        try {
+            updatedSong = songRepository.save(song);
+        } catch (RuntimeException e) {
+            releaseUploaded(null, thumbnail);
+            throw e;
+        }
+        mediaLibrary.release(previousThumbnailUrl, previousThumbnailVariants);
+        songCacheInvalidator.songChanged(id);
         return mapToDTO(updatedSong);
     }
 
@@ -232,20 +349,26 @@ public class SongService {
     public SongResponseDTO getSongById(Long id) {
         Song song = songRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + id));
-        song.setViewCount(song.getViewCount() + 1);
-        songRepository.save(song);
-        return mapToResponseDTO(song);
+        // Không UPDATE mỗi lượt đọc, SongViewCounter sẽ gom lại và flush theo batch
+        songViewCounter.increment(id);
+        return songUserFlagResolver.apply(mapToResponseDTO(song));
+    }
+
+    public String getAudioUrl(Long id) {
+        return songRepository.findAudioUrlById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + id));
     }
 
     // Read all with pagination
-    @Cacheable(value = "allSongs", key = "'page-' + #pageable.pageNumber + '-size-' + #pageable.pageSize")
+    // Trang được cache dùng chung cho mọi user, cờ favorite/downloaded do SongUserFlagResolver gắn sau
+    @Cacheable(value = "allSongs", key = "@songCacheInvalidator.allSongsKey(#pageable.pageNumber, #pageable.pageSize)")
     public PagedResponse<SongResponseDTO> getAllSongs(Pageable pageable) {
         Page<Song> page = songRepository.findAll(pageable);
         List<SongResponseDTO> content = page.getContent().stream()
                 .map(this::mapToResponseDTO)
                 .toList();
 
-        return new PagedResponse<>(
+        PagedResponse<SongResponseDTO> response = new PagedResponse<>(
                 content,
                 page.getNumber(),
                 page.getSize(),
@@ -253,23 +376,48 @@ public class SongService {
                 page.getTotalPages(),
                 page.isLast()
         );
+        return response;
+    }
+
+    // Read all with cursor: keyset trên id thay vì OFFSET, tổng là ước lượng của planner thay vì COUNT
+    public PagedResponse<SongResponseDTO> getAllSongs(String cursor, int size) {
+        cursorPagination.checkSize(size);
+        long afterId = cursor.isEmpty() ? 0L : KeysetCursor.parse(KeysetCursor.decode(cursor, 1)[0], Long::valueOf);
+
+        Slice<Song> slice = songRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+        List<SongResponseDTO> content = slice.getContent().stream()
+                .map(this::mapToResponseDTO)
+                .toList();
+        return PaginationUtils.buildCursorResponse(content, slice,
+                song -> KeysetCursor.encode(song.getId()), cursorPagination.approximateTotal("songs"));
     }
 
     // Delete
-    @CacheEvict(value = {"songs", "searchedSongs", "songsByGenre", "songsByArtist", "topSongs"}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "songs", key = "#id"),
+            @CacheEvict(value = "songs", key = "'share-' + #id")
+    })
     public void deleteSong(Long id) {
         Song song = songRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + id));
+        SongCacheInvalidator.Snapshot snapshot = SongCacheInvalidator.Snapshot.of(song);
+        SongsChangedEvent.State state = SongsChangedEvent.State.of(song);
         songRepository.delete(song);
+        mediaLibrary.release(song.getAudioUrl());
+        mediaLibrary.release(song.getThumbnail(), song.getThumbnailVariants());
+        songCacheInvalidator.songDeleted(snapshot);
+        updateLeaderboard(() -> songLeaderboard.remove(id));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(SuggestionType.SONG, id));
+        eventPublisher.publishEvent(SongsChangedEvent.deleted(state));
     }
 
     // Search songs
-    @Cacheable(value = "searchedSongs", key = "'query-' + #query + '-page-' + #page + '-size-' + #size")
+    @Cacheable(value = "searchedSongs", key = "@songCacheInvalidator.pageKey('query', #query, #page, #size)")
     public PagedResponse<SongDTO> searchSongs(String query, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Song> songPage = songRepository.findByTitleContainingIgnoreCase(query, pageable);
 
-        return new PagedResponse<>(
+        PagedResponse<SongDTO> response = new PagedResponse<>(
                 mapToDTOList(songPage.getContent()),
                 songPage.getNumber(),
                 songPage.getSize(),
@@ -277,16 +425,17 @@ public class SongService {
                 songPage.getTotalPages(),
                 songPage.isLast()
         );
+        return response;
     }
 
 
     // Get songs by genre
-    @Cacheable(value = "songsByGenre", key = "'genre-' + #genreId + '-page-' + #page + '-size-' + #size")
+    @Cacheable(value = "songsByGenre", key = "@songCacheInvalidator.pageKey('genre', #genreId, #page, #size)")
     public PagedResponse<SongDTO> getSongsByGenre(Long genreId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Song> songPage = songRepository.findByGenresId(genreId, pageable);
 
-        return new PagedResponse<>(
+        PagedResponse<SongDTO> response = new PagedResponse<>(
                 mapToDTOList(songPage.getContent()),
                 songPage.getNumber(),
                 songPage.getSize(),
@@ -294,14 +443,15 @@ public class SongService {
                 songPage.getTotalPages(),
                 songPage.isLast()
         );
+        return response;
     }
     // Get songs by artist
-    @Cacheable(value = "songsByArtist", key = "'artist-' + #artistId + '-page-' + #page + '-size-' + #size")
+    @Cacheable(value = "songsByArtist", key = "@songCacheInvalidator.pageKey('artist', #artistId, #page, #size)")
     public PagedResponse<SongDTO> getSongsByArtist(Long artistId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Song> songPage = songRepository.findByArtistId(artistId, pageable);
 
-        return new PagedResponse<>(
+        PagedResponse<SongDTO> response = new PagedResponse<>(
                 mapToDTOList(songPage.getContent()),
                 songPage.getNumber(),
                 songPage.getSize(),
@@ -309,16 +459,17 @@ public class SongService {
                 songPage.getTotalPages(),
                 songPage.isLast()
         );
+        return response;
     }
 
 
     // Get songs by album
-    @Cacheable(value = "songsByAlbum", key = "'album-' + #albumId + '-page-' + #page + '-size-' + #size")
+    @Cacheable(value = "songsByAlbum", key = "@songCacheInvalidator.pageKey('album', #albumId, #page, #size)")
     public PagedResponse<SongDTO> getSongsByAlbumId(Long albumId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Song> songPage = songRepository.findByAlbumId(albumId, pageable);
 
-        return new PagedResponse<>(
+        PagedResponse<SongDTO> response = new PagedResponse<>(
                 mapToDTOList(songPage.getContent()),
                 songPage.getNumber(),
                 songPage.getSize(),
@@ -326,25 +477,94 @@ public class SongService {
                 songPage.getTotalPages(),
                 songPage.isLast()
         );
+        return response;
     }
 
 
     // Get top songs by view count
-    @Cacheable(value = "topSongs", key = "'top-page-' + #page + '-size-' + #size")
     public PagedResponse<SongDTO> getTopSongsByViewCount(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Song> songPage = songRepository.findAllByOrderByViewCountDesc(pageable);
+        return getTopSongs(SongLeaderboard.Window.ALL_TIME, page, size);
+    }
 
+    // Bảng xếp hạng đọc từ Redis sorted set, không sort cả bảng songs
+    public PagedResponse<SongDTO> getTopSongs(SongLeaderboard.Window window, int page, int size) {
+        SongLeaderboard.Page ranking;
+        try {
+            ranking = songLeaderboard.page(window, page, size);
+        } catch (RuntimeException e) {
+            System.err.println("Song leaderboard unavailable: " + e.getMessage());
+            if (window != SongLeaderboard.Window.ALL_TIME) {
+                return new PagedResponse<>(List.of(), page, size, 0, 0, true);
+            }
+            Page<Song> songPage = songRepository.findAllByOrderByViewCountDesc(PageRequest.of(page, size));
+            return new PagedResponse<>(
+                    mapToDTOList(songPage.getContent()),
+                    songPage.getNumber(),
+                    songPage.getSize(),
+                    songPage.getTotalElements(),
+                    songPage.getTotalPages(),
+                    songPage.isLast()
+            );
+        }
+
+        int totalPages = size > 0 ? (int) Math.ceil((double) ranking.total() / size) : 0;
         return new PagedResponse<>(
-                mapToDTOList(songPage.getContent()),
-                songPage.getNumber(),
-                songPage.getSize(),
-                songPage.getTotalElements(),
-                songPage.getTotalPages(),
-                songPage.isLast()
+                rankedSongs(ranking.songIds()),
+                page,
+                size,
+                ranking.total(),
+                totalPages,
+                page + 1 >= totalPages
         );
     }
 
+    /**
+     * Chart pages in cursor mode. The cursor holds the score and id of the last song of the
+     * previous page; the leaderboard continues after that {@code (score, id)} pair, and the
+     * database fallback reads {@code (viewCount, id)} with a keyset condition instead of an OFFSET.
+     */
+    public PagedResponse<SongDTO> getTopSongs(SongLeaderboard.Window window, String cursor, int size) {
+        cursorPagination.checkSize(size);
+        String[] keys = cursor.isEmpty() ? null : KeysetCursor.decode(cursor, 2);
+        long afterScore = keys != null ? KeysetCursor.parse(keys[0], Long::valueOf) : 0L;
+        Long afterId = keys != null ? KeysetCursor.parse(keys[1], Long::valueOf) : null;
+
+        // Đọc thêm một phần tử để biết còn trang sau hay không
+        SongLeaderboard.Page ranking;
+        try {
+            ranking = songLeaderboard.pageAfter(window, afterId, afterScore, size + 1);
+        } catch (RuntimeException e) {
+            System.err.println("Song leaderboard unavailable: " + e.getMessage());
+            if (window != SongLeaderboard.Window.ALL_TIME) {
+                return PaginationUtils.buildCursorResponse(List.of(), size, null, 0);
+            }
+            Slice<Song> slice = afterId == null
+                    ? songRepository.findAllByOrderByViewCountDescIdDesc(PageRequest.of(0, size))
+                    : songRepository.findByViewCountAfter((int) afterScore, afterId, PageRequest.of(0, size));
+            return PaginationUtils.buildCursorResponse(mapToDTOList(slice.getContent()), slice,
+                    song -> KeysetCursor.encode(song.getViewCount(), song.getId()), cursorPagination.approximateTotal("songs"));
+        }
+
+        List<Long> songIds = ranking.songIds();
+        String nextCursor = null;
+        if (songIds.size() > size) {
+            songIds = songIds.subList(0, size);
+            nextCursor = KeysetCursor.encode(ranking.scores().get(size - 1), songIds.get(size - 1));
+        }
+        return PaginationUtils.buildCursorResponse(rankedSongs(songIds), size, nextCursor, ranking.total());
+    }
+
+    // Nạp bài hát theo thứ hạng, bài hát đã bị xóa nhưng còn trong bảng xếp hạng thì bỏ qua
+    private List<SongDTO> rankedSongs(List<Long> songIds) {
+        Map<Long, Song> songsById = songRepository.findAllById(songIds).stream()
+                .collect(Collectors.toMap(Song::getId, Function.identity()));
+        return songIds.stream()
+                .map(songsById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToDTO)
+                .toList();
+    }
+
 
     // Share song
     @Cacheable(value = "songs", key = "'share-' + #id")
@@ -354,6 +574,14 @@ public class SongService {
         return "http://localhost:8080/api/songs/" + id;
     }
 
+    private void updateLeaderboard(Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to update song leaderboard: " + e.getMessage());
+        }
+    }
+
     private List<SongDTO> mapToDTOList(List<Song> songs) {
         return songs.stream().map(this::mapToDTO).collect(Collectors.toList());
     }
@@ -365,9 +593,10 @@ public class SongService {
         songDTO.setDuration(song.getDuration());
         songDTO.setAudioUrl(song.getAudioUrl());
         songDTO.setThumbnail(song.getThumbnail());
+        songDTO.setThumbnailVariants(song.getThumbnailVariants());
         songDTO.setLyrics(song.getLyrics());
         songDTO.setReleaseDate(song.getReleaseDate());
-        songDTO.setViewCount(song.getViewCount());
+        songDTO.setViewCount(songViewCounter.merged(song));
 
         if (song.getArtist() != null) {
             songDTO.setArtistId(song.getArtist().getId());
@@ -383,20 +612,6 @@ public class SongService {
                 .map(Genre::getId)
                 .collect(Collectors.toList()));
 
-        // Lấy thông tin người dùng từ SecurityContext
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()
-                && authentication.getPrincipal() instanceof UserDetails) {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Long userId = ((User) userDetails).getId();
-
-            boolean isFavorite = favoriteSongRepository.existsByUser_IdAndSong_Id(userId, song.getId());
-            boolean isDownloaded = downloadedSongRepository.existsByUser_IdAndSong_Id(userId, song.getId());
-
-            songDTO.setFavorite(isFavorite);
-            songDTO.setDownloaded(isDownloaded);
-        }
-
         return songDTO;
     }
 
@@ -408,9 +623,10 @@ public class SongService {
         songDTO.setDuration(song.getDuration());
         songDTO.setAudioUrl(song.getAudioUrl());
         songDTO.setThumbnail(song.getThumbnail());
+        songDTO.setThumbnailVariants(song.getThumbnailVariants());
         songDTO.setLyrics(song.getLyrics());
         songDTO.setReleaseDate(song.getReleaseDate());
-        songDTO.setViewCount(song.getViewCount());
+        songDTO.setViewCount(songViewCounter.merged(song));
 
         if (song.getArtist() != null) {
             songDTO.setArtistId(song.getArtist().getId());
@@ -427,58 +643,4 @@ public class SongService {
                 .collect(Collectors.toList()));
         return songDTO;
     }
-
-    private File createTempFile(MultipartFile file) throws IOException {
-        String tempFileName = "audio_" + UUID.randomUUID().toString() + "." +
-                getFileExtension(file.getOriginalFilename());
-        File tempFile = new File(System.getProperty("java.io.tmpdir"), tempFileName);
-
-        File parentDir = tempFile.getParentFile();
-        if (!parentDir.exists() && !parentDir.mkdirs()) {
-            throw new IOException("Failed to create temporary directory: " + parentDir.getAbsolutePath());
-        }
-
-        file.transferTo(tempFile);
-
-        if (!tempFile.exists()) {
-            throw new IOException("Temporary audio file does not exist: " + tempFile.getAbsolutePath());
-        }
-        if (!tempFile.canRead()) {
-            throw new IOException("Cannot read temporary audio file: " + tempFile.getAbsolutePath());
-        }
-
-        System.out.println("Created temp file at: " + tempFile.getAbsolutePath());
-        return tempFile;
-    }
-
-    private void deleteTempFile(File tempFile) {
-        if (tempFile != null && tempFile.exists()) {
-            boolean deleted = tempFile.delete();
-            if (!deleted) {
-                System.err.println("Failed to delete temporary file: " + tempFile.getAbsolutePath());
-            } else {
-                System.out.println("Temporary file deleted: " + tempFile.getAbsolutePath());
-            }
-        }
-    }
-
-    private int extractDurationFromAudio(File tempFile) throws IOException {
-        try {
-            org.jaudiotagger.audio.AudioFile audio = org.jaudiotagger.audio.AudioFileIO.read(tempFile);
-            int durationInSeconds = audio.getAudioHeader().getTrackLength();
-            System.out.println("Extracted duration: " + durationInSeconds + " seconds");
-            return durationInSeconds;
-        } catch (org.jaudiotagger.audio.exceptions.CannotReadException e) {
-            throw new IOException("Cannot read audio file: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new IOException("Error extracting duration from audio file: " + e.getMessage(), e);
-        }
-    }
-
-    private String getFileExtension(String fileName) {
-        if (fileName == null || fileName.lastIndexOf(".") == -1) {
-            return "mp3";
-        }
-        return fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
-    }
-}
\ No newline at end of file
+}
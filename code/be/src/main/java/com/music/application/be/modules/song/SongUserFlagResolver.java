@@ -0,0 +1,84 @@
+package com.music.application.be.modules.song;
+
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.modules.downloaded_song.DownloadedSongRepository;
+import com.music.application.be.modules.favorite_song.FavoriteSongRepository;
+import com.music.application.be.modules.song.dto.SongResponseDTO;
+import com.music.application.be.modules.user.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Resolves the per-user {@code isFavorite}/{@code isDownloaded} flags for a whole page of songs
+ * with two {@code IN (...)} queries.
+ * <p>
+ * Song pages are cached without any user data, so the flags are overlaid on copies of the
+ * cached DTOs after they come out of the cache.
+ */
+@Component
+public class SongUserFlagResolver {
+
+    private final FavoriteSongRepository favoriteSongRepository;
+    private final DownloadedSongRepository downloadedSongRepository;
+
+    public SongUserFlagResolver(FavoriteSongRepository favoriteSongRepository,
+                                DownloadedSongRepository downloadedSongRepository) {
+        this.favoriteSongRepository = favoriteSongRepository;
+        this.downloadedSongRepository = downloadedSongRepository;
+    }
+
+    public PagedResponse<SongResponseDTO> apply(PagedResponse<SongResponseDTO> page) {
+        if (page == null || page.getContent() == null) {
+            return page;
+        }
+        return new PagedResponse<>(
+                apply(page.getContent()),
+                page.getPage(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isLast(),
+                page.getNextCursor()
+        );
+    }
+
+    public SongResponseDTO apply(SongResponseDTO song) {
+        return apply(List.of(song)).get(0);
+    }
+
+    public List<SongResponseDTO> apply(List<SongResponseDTO> songs) {
+        Long userId = currentUserId();
+        if (userId == null || songs.isEmpty()) {
+            return songs;
+        }
+
+        List<Long> songIds = songs.stream()
+                .map(SongResponseDTO::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        Set<Long> favoriteIds = favoriteSongRepository.findSongIdsByUserIdAndSongIdIn(userId, songIds);
+        Set<Long> downloadedIds = downloadedSongRepository.findSongIdsByUserIdAndSongIdIn(userId, songIds);
+
+        // Tạo bản sao, không sửa DTO dùng chung lấy từ cache
+        return songs.stream()
+                .map(song -> song.toBuilder()
+                        .isFavorite(favoriteIds.contains(song.getId()))
+                        .isDownloaded(downloadedIds.contains(song.getId()))
+                        .build())
+                .toList();
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
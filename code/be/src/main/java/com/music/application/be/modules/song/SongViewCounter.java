@@ -0,0 +1,164 @@
+package com.music.application.be.modules.song;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind aggregator for song views.
+ * <p>
+ * Reads only bump an in-memory {@link LongAdder} per song, and a scheduled flusher
+ * applies the accumulated deltas to {@code songs.view_count} in one JDBC batch, so a
+ * viral track no longer takes a row lock on every play.
+ * <p>
+ * Counters with nothing left to write are removed after a flush so the map only holds songs
+ * viewed recently. A removed counter is still flushed once more on the next run: an
+ * {@link #increment} that looked it up just before the removal lands there instead of being lost.
+ */
+@Component
+public class SongViewCounter {
+
+    private static final String FLUSH_SQL = "UPDATE songs SET view_count = view_count + ? WHERE id = ?";
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Counter đã gỡ khỏi map ở lần flush trước, flush thêm một lần để nhận lượt xem đến muộn
+    private Map<Long, Counter> retired = new HashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SongLeaderboard songLeaderboard;
+
+    public SongViewCounter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           SongLeaderboard songLeaderboard, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.songLeaderboard = songLeaderboard;
+        Gauge.builder("songs.views.pending.deltas", this, SongViewCounter::pendingDeltas)
+                .description("Views counted in memory but not yet flushed to the database")
+                .register(meterRegistry);
+        Gauge.builder("songs.views.pending.songs", this, SongViewCounter::pendingSongs)
+                .description("Songs with unflushed view deltas")
+                .register(meterRegistry);
+    }
+
+    public void increment(Long songId) {
+        counters.computeIfAbsent(songId, id -> new Counter()).views.increment();
+    }
+
+    // Số lượt xem chưa được ghi xuống DB của một bài hát
+    public long pendingFor(Long songId) {
+        Counter counter = counters.get(songId);
+        return counter != null ? counter.pending() : 0;
+    }
+
+    // Giá trị đã gộp: giá trị trong DB + phần chênh lệch đang chờ flush
+    public int merged(Song song) {
+        return (int) (song.getViewCount() + pendingFor(song.getId()));
+    }
+
+    // Bỏ phần chênh lệch đang chờ (khi admin ghi đè viewCount)
+    public synchronized void discard(Long songId) {
+        Counter counter = counters.get(songId);
+        if (counter != null) {
+            counter.flushed = counter.views.sum();
+        }
+    }
+
+    public long pendingDeltas() {
+        long total = 0;
+        for (Counter counter : counters.values()) {
+            total += counter.pending();
+        }
+        return total;
+    }
+
+    public long pendingSongs() {
+        return counters.values().stream().filter(counter -> counter.pending() != 0).count();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.view-count.flush-interval-ms:5000}",
+            initialDelayString = "${app.view-count.flush-interval-ms:5000}"
+    )
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        Map<Counter, Long> snapshots = new HashMap<>();
+        Map<Long, Long> deltas = new HashMap<>();
+
+        counters.forEach((songId, counter) -> collect(songId, counter, batch, snapshots, deltas));
+        retired.forEach((songId, counter) -> collect(songId, counter, batch, snapshots, deltas));
+        if (batch.isEmpty()) {
+            retired = retireIdle();
+            return;
+        }
+
+        try {
+            // Ghi DB và cộng vào bảng xếp hạng trong cùng một transaction giữ khóa seed (shared),
+            // để seed của SongLeaderboard không đọc DB / ghi đè Redis chen vào giữa hai bước
+            transactionTemplate.executeWithoutResult(status -> {
+                songLeaderboard.holdSeedFence();
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                try {
+                    songLeaderboard.recordViews(deltas);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to update song leaderboard: " + e.getMessage());
+                }
+            });
+            // Chỉ đánh dấu đã flush khi batch thành công, lần sau sẽ thử lại phần còn thiếu
+            snapshots.forEach((counter, total) -> counter.flushed = total);
+            retired = retireIdle();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to flush view counts: " + e.getMessage());
+        }
+    }
+
+    private static void collect(Long songId, Counter counter, List<Object[]> batch,
+                                Map<Counter, Long> snapshots, Map<Long, Long> deltas) {
+        long total = counter.views.sum();
+        long delta = total - counter.flushed;
+        if (delta != 0) {
+            batch.add(new Object[]{delta, songId});
+            snapshots.put(counter, total);
+            deltas.merge(songId, delta, Long::sum);
+        }
+    }
+
+    // remove(key, value): không gỡ counter mới mà increment() vừa tạo lại cho cùng bài hát
+    private Map<Long, Counter> retireIdle() {
+        Map<Long, Counter> idle = new HashMap<>();
+        counters.forEach((songId, counter) -> {
+            if (counter.pending() == 0 && counters.remove(songId, counter)) {
+                idle.put(songId, counter);
+            }
+        });
+        return idle;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * The adder is never reset, so concurrent increments cannot be lost between a read
+     * and a reset; the flusher only remembers how much of the running total it has written.
+     */
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private volatile long flushed;
+
+        private long pending() {
+            return views.sum() - flushed;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.music.application.be.modules.song;
+
+import com.music.application.be.modules.genre.Genre;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Published after songs are created, updated or deleted, with the attributes smart playlist
+ * rules match on, so the stats stored on those playlists can follow the catalog.
+ *
+ * @param changes one entry per song; {@code before} is null for a new song and {@code after}
+ *                for a deleted one
+ */
+public record SongsChangedEvent(List<Change> changes) {
+
+    public record State(Long artistId, Set<Long> genreIds, LocalDate releaseDate, int duration, int viewCount) {
+
+        public static State of(Song song) {
+            Set<Long> genreIds = new LinkedHashSet<>();
+            if (song.getGenres() != null) {
+                song.getGenres().stream().map(Genre::getId).forEach(genreIds::add);
+            }
+            return new State(
+                    song.getArtist() != null ? song.getArtist().getId() : null,
+                    genreIds,
+                    song.getReleaseDate(),
+                    song.getDuration(),
+                    song.getViewCount()
+            );
+        }
+    }
+
+    public record Change(State before, State after) {
+
+        // Chỉ đổi tên, lời bài hát, ảnh...: không playlist nào bị ảnh hưởng
+        public boolean affectsPlaylists() {
+            return !Objects.equals(before, after);
+        }
+    }
+
+    public static SongsChangedEvent created(List<State> songs) {
+        return new SongsChangedEvent(songs.stream().map(song -> new Change(null, song)).toList());
+    }
+
+    public static SongsChangedEvent updated(State before, State after) {
+        return new SongsChangedEvent(List.of(new Change(before, after)));
+    }
+
+    public static SongsChangedEvent deleted(State song) {
+        return new SongsChangedEvent(List.of(new Change(song, null)));
+    }
+}
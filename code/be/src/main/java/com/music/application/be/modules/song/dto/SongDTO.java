@@ -8,6 +8,7 @@ import lombok.Data;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class SongDTO {
@@ -20,6 +21,7 @@ public class SongDTO {
     private Integer duration;
     private String audioUrl;
     private String thumbnail;
+    private Map<String, String> thumbnailVariants;
     private String lyrics;
     private LocalDate releaseDate;
     private Integer viewCount;
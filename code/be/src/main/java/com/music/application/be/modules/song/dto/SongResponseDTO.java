@@ -4,12 +4,19 @@ import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
 public class SongResponseDTO {
     private Long id;
 
@@ -20,6 +27,7 @@ public class SongResponseDTO {
     private Integer duration;
     private String audioUrl;
     private String thumbnail;
+    private Map<String, String> thumbnailVariants;
     private String lyrics;
     private LocalDate releaseDate;
     private Integer viewCount;
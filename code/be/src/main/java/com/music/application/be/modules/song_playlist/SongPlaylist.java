@@ -12,14 +12,18 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "song_playlist")
+@Table(name = "song_playlist", indexes = {
+        // Trang bài hát của playlist: keyset theo (added_at, id) giảm dần
+        @Index(name = "idx_song_playlist_playlist_added", columnList = "playlist_id, added_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class SongPlaylist {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "song_playlist_seq")
+    @SequenceGenerator(name = "song_playlist_seq", sequenceName = "song_playlist_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
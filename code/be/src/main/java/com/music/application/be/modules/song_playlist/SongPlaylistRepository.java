@@ -1,19 +1,33 @@
 package com.music.application.be.modules.song_playlist;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SongPlaylistRepository extends JpaRepository<SongPlaylist, Long> {
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
     List<SongPlaylist> findByPlaylistIdOrderByAddedAtDesc(Long playlistId);
     List<SongPlaylist> findBySongId(Long songId);
     void deleteByPlaylistId(Long playlistId);
-    List<SongPlaylist> findByPlaylistIdOrderByAddedAtAsc(Long playlistId);
+
+    // Keyset theo (added_at, id) giảm dần, dùng index idx_song_playlist_playlist_added; limit qua Pageable, không COUNT
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
+    @Query("SELECT sp FROM SongPlaylist sp WHERE sp.playlist.id = :playlistId ORDER BY sp.addedAt DESC, sp.id DESC")
+    List<SongPlaylist> findPage(Long playlistId, Pageable limit);
+
+    @EntityGraph(attributePaths = {"song", "song.artist", "song.album"})
+    @Query("SELECT sp FROM SongPlaylist sp WHERE sp.playlist.id = :playlistId " +
+            "AND (sp.addedAt < :addedAt OR (sp.addedAt = :addedAt AND sp.id < :id)) " +
+            "ORDER BY sp.addedAt DESC, sp.id DESC")
+    List<SongPlaylist> findPageAfter(Long playlistId, LocalDateTime addedAt, Long id, Pageable limit);
 
     long countByPlaylistId(Long id);
     
@@ -1,8 +1,10 @@
 package com.music.application.be.modules.song_playlist;
 
 import com.music.application.be.modules.playlist.Playlist;
+import com.music.application.be.modules.playlist.PlaylistCacheEvictor;
 import com.music.application.be.modules.playlist.PlaylistRepository;
 import com.music.application.be.modules.playlist.PlaylistService;
+import com.music.application.be.modules.playlist.PlaylistStats;
 import com.music.application.be.modules.song.Song;
 import com.music.application.be.modules.song.SongRepository;
 import com.music.application.be.common.PagedResponse;
@@ -16,9 +18,11 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 import static com.music.application.be.common.PaginationUtils.buildPagedResponse;
 
@@ -37,19 +41,25 @@ public class SongPlaylistService {
     @Autowired
     private PlaylistService playlistService; // Thêm dependency
 
+    @Autowired
+    private PlaylistStats playlistStats;
+
+    @Autowired
+    private PlaylistCacheEvictor playlistCacheEvictor;
+
     // Add song to playlist
 //    @CacheEvict(value = "songs", key = "#requestDTO.songId")
+    // Dòng song_playlist và thống kê của playlist được ghi trong cùng một transaction
+    @Transactional
     public SongPlaylistDTO addSongToPlaylist(SongPlaylistRequestDTO requestDTO) {
         Song song = songRepository.findById(requestDTO.getSongId())
                 .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + requestDTO.getSongId()));
         Playlist playlist = playlistRepository.findById(requestDTO.getPlaylistId())
                 .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + requestDTO.getPlaylistId()));
+        requireManualPlaylist(playlist);
 
         // Kiểm tra xem bài hát đã có trong playlist chưa
-        boolean exists = songPlaylistRepository.findByPlaylistIdOrderByAddedAtDesc(playlist.getId())
-                .stream()
-                .anyMatch(sp -> sp.getSong().getId().equals(song.getId()));
-        if (exists) {
+        if (songPlaylistRepository.existsBySongIdAndPlaylistId(song.getId(), playlist.getId())) {
             throw new IllegalStateException("Song with id " + song.getId() + " already exists in playlist with id " + playlist.getId());
         }
 
@@ -59,12 +69,8 @@ public class SongPlaylistService {
         songPlaylist.setAddedAt(LocalDateTime.now());
 
         SongPlaylist savedSongPlaylist = songPlaylistRepository.save(songPlaylist);
-
-        // Kiểm tra và cập nhật thumbnail nếu playlist trước đó trống
-        long songCount = songPlaylistRepository.countByPlaylistId(playlist.getId());
-        if (songCount == 1) { // Sau khi thêm, playlist chỉ có 1 bài hát, tức là trước đó trống
-            playlistService.updateThumbnail(playlist.getId());
-        }
+        songAdded(playlist, song.getId());
+        playlistCacheEvictor.evictAfterCommit(playlist.getId());
 
         return mapToDTO(savedSongPlaylist);
     }
@@ -76,9 +82,12 @@ public class SongPlaylistService {
 //            "songs", "songsByGenre", "songsByArtist", "topSongs"
 //    }, allEntries = true)
 
+    @Transactional
     public SongPlaylistDTO updateSongPlaylist(Long id, SongPlaylistRequestDTO requestDTO) {
         SongPlaylist songPlaylist = songPlaylistRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("SongPlaylist not found with id: " + id));
+        Playlist previousPlaylist = songPlaylist.getPlaylist();
+        Long previousSongId = songPlaylist.getSong().getId();
 
         // Cập nhật song nếu có thay đổi
         if (!songPlaylist.getSong().getId().equals(requestDTO.getSongId())) {
@@ -98,6 +107,7 @@ public class SongPlaylistService {
         if (!songPlaylist.getPlaylist().getId().equals(requestDTO.getPlaylistId())) {
             Playlist newPlaylist = playlistRepository.findById(requestDTO.getPlaylistId())
                     .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + requestDTO.getPlaylistId()));
+            requireManualPlaylist(newPlaylist);
             // Kiểm tra xem bài hát đã có trong playlist mới chưa
             boolean exists = songPlaylistRepository.findByPlaylistIdOrderByAddedAtDesc(newPlaylist.getId())
                     .stream()
@@ -112,6 +122,13 @@ public class SongPlaylistService {
         songPlaylist.setAddedAt(LocalDateTime.now());
 
         SongPlaylist updatedSongPlaylist = songPlaylistRepository.save(songPlaylist);
+        // Đổi bài hát hoặc đổi playlist: tính như xóa khỏi dòng cũ rồi thêm vào dòng mới
+        if (!previousSongId.equals(updatedSongPlaylist.getSong().getId())
+                || !previousPlaylist.getId().equals(updatedSongPlaylist.getPlaylist().getId())) {
+            songRemoved(previousPlaylist, previousSongId);
+            songAdded(updatedSongPlaylist.getPlaylist(), updatedSongPlaylist.getSong().getId());
+            playlistCacheEvictor.evictAfterCommit(List.of(previousPlaylist.getId(), updatedSongPlaylist.getPlaylist().getId()));
+        }
         return mapToDTO(updatedSongPlaylist);
     }
 
@@ -121,20 +138,16 @@ public class SongPlaylistService {
 //            "playlistWithSongs",
 //            "songs", "songsByGenre", "songsByArtist", "topSongs"
 //    }, allEntries = true)
+    @Transactional
     public void removeSongFromPlaylist(Long id) {
         SongPlaylist songPlaylist = songPlaylistRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("SongPlaylist not found with id: " + id));
-        Long playlistId = songPlaylist.getPlaylist().getId();
+        Playlist playlist = songPlaylist.getPlaylist();
+        Long songId = songPlaylist.getSong().getId();
         songPlaylistRepository.delete(songPlaylist);
-
-        // Nếu sau khi xóa, playlist trở thành trống, cập nhật thumbnail thành null
-        long remainingSongs = songPlaylistRepository.countByPlaylistId(playlistId);
-        if (remainingSongs == 0) {
-            Playlist playlist = playlistRepository.findById(playlistId)
-                    .orElseThrow(() -> new EntityNotFoundException("Playlist not found with id: " + playlistId));
-            playlist.setThumbnail(null);
-            playlistRepository.save(playlist);
-        }
+        // Nếu sau khi xóa, playlist trở thành trống, thumbnail về ảnh mặc định
+        songRemoved(playlist, songId);
+        playlistCacheEvictor.evictAfterCommit(playlist.getId());
     }
 
     // Get all song playlists với pagination để admin theo dõi dữ liệu
@@ -163,4 +176,27 @@ public class SongPlaylistService {
         return dto;
     }
 
-}
\ No newline at end of file
+    // Cover chỉ đổi khi playlist trước đó trống hoặc bài hát bị xóa là cover
+    private void songAdded(Playlist playlist, Long songId) {
+        Long previousCover = playlist.getCoverSongId();
+        Long cover = playlistStats.songAdded(playlist.getId(), songId);
+        if (!Objects.equals(previousCover, cover)) {
+            playlistService.updateCover(playlist.getId(), cover);
+        }
+    }
+
+    private void songRemoved(Playlist playlist, Long songId) {
+        Long previousCover = playlist.getCoverSongId();
+        Long cover = playlistStats.songRemoved(playlist.getId(), songId);
+        if (!Objects.equals(previousCover, cover)) {
+            playlistService.updateCover(playlist.getId(), cover);
+        }
+    }
+
+    // Bài hát của smart playlist do rule chọn, không thêm tay được
+    private void requireManualPlaylist(Playlist playlist) {
+        if (playlist.getRule() != null) {
+            throw new IllegalArgumentException("Songs of smart playlist " + playlist.getId() + " are selected by its rule");
+        }
+    }
+}
@@ -12,7 +12,8 @@ import lombok.Setter;
 @Table(name = "token")
 public class Token {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_seq")
+    @SequenceGenerator(name = "token_seq", sequenceName = "token_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "access_token")
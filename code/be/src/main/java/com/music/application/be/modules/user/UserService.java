@@ -1,6 +1,7 @@
 package com.music.application.be.modules.user;
 
-import com.music.application.be.modules.cloudinary.CloudinaryService;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaLibrary;
 import com.music.application.be.modules.favorite_playlist.FavoritePlaylistRepository;
 import com.music.application.be.modules.favorite_song.FavoriteSongRepository;
 import com.music.application.be.modules.follow_artist.FollowArtistRepository;
@@ -31,7 +32,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final CloudinaryService cloudinaryService;
+    private final MediaLibrary mediaLibrary;
     private final FavoriteSongRepository favoriteSongRepository;
     private final FollowArtistRepository followArtistRepository;
     private final PlaylistRepository playlistRepository;
@@ -92,12 +93,17 @@ public class UserService {
             currentUser.setEmail(userDTO.getEmail());
         }
 
-        if (avatarFile != null && !avatarFile.isEmpty()) {
-            String avatarUrl = cloudinaryService.uploadFile(avatarFile, "image");
+        String previousAvatar = currentUser.getAvatar();
+        boolean avatarReplaced = avatarFile != null && !avatarFile.isEmpty();
+        if (avatarReplaced) {
+            String avatarUrl = mediaLibrary.store(avatarFile, MediaKind.IMAGE);
             currentUser.setAvatar(avatarUrl);
         }
 
         User updated = userRepository.save(currentUser);
+        if (avatarReplaced) {
+            mediaLibrary.release(previousAvatar);
+        }
         return convertToDetailDTO(updated);
     }
 
@@ -118,12 +124,17 @@ public class UserService {
             user.setEmail(userDTO.getEmail());
         }
 
-        if (avatarFile != null && !avatarFile.isEmpty()) {
-            String avatarUrl = cloudinaryService.uploadFile(avatarFile, "image");
+        String previousAvatar = user.getAvatar();
+        boolean avatarReplaced = avatarFile != null && !avatarFile.isEmpty();
+        if (avatarReplaced) {
+            String avatarUrl = mediaLibrary.store(avatarFile, MediaKind.IMAGE);
             user.setAvatar(avatarUrl);
         }
 
         User updatedUser = userRepository.save(user);
+        if (avatarReplaced) {
+            mediaLibrary.release(previousAvatar);
+        }
         return convertToDetailDTO(updatedUser);
     }
 
@@ -140,6 +151,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
         userRepository.delete(user);
+        mediaLibrary.release(user.getAvatar());
     }
 
     // Các phương thức chuyển đổi DTO
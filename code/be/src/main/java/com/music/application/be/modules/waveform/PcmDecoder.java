@@ -0,0 +1,140 @@
+package com.music.application.be.modules.waveform;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens an audio file as a stream of 16-bit signed little-endian PCM, without decoding it into
+ * memory.
+ * <p>
+ * The JDK only decodes WAV/AIFF/AU, so MP3, FLAC, M4A and Ogg are decoded by an {@code ffmpeg}
+ * process writing mono PCM at {@code sample-rate} to its stdout. If {@code ffmpeg} is not
+ * configured or not installed, {@code javax.sound} is used and only the formats it supports get
+ * a waveform.
+ */
+@Component
+public class PcmDecoder {
+
+    /**
+     * An open PCM stream. {@link #close()} also stops the decoder process, and throws if the
+     * decoder exited with an error, so a truncated decode is not mistaken for a short track.
+     */
+    public static class PcmStream implements Closeable {
+
+        private final InputStream in;
+        private final int channels;
+        private final int sampleRate;
+        private final Process process;
+
+        PcmStream(InputStream in, int channels, int sampleRate, Process process) {
+            this.in = in;
+            this.channels = channels;
+            this.sampleRate = sampleRate;
+            this.process = process;
+        }
+
+        public InputStream getInputStream() {
+            return in;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+            if (process == null) {
+                return;
+            }
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                    throw new IOException("ffmpeg did not exit");
+                }
+                if (process.exitValue() != 0) {
+                    throw new IOException("ffmpeg exited with code " + process.exitValue());
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for ffmpeg", e);
+            }
+        }
+    }
+
+    private final String ffmpeg;
+    private final int sampleRate;
+    private final Duration timeout;
+    private volatile boolean ffmpegAvailable = true;
+
+    public PcmDecoder(@Value("${app.media.waveform.ffmpeg:ffmpeg}") String ffmpeg,
+                      @Value("${app.media.waveform.sample-rate:11025}") int sampleRate,
+                      @Value("${app.media.waveform.timeout:2m}") Duration timeout) {
+        this.ffmpeg = ffmpeg;
+        this.sampleRate = sampleRate;
+        this.timeout = timeout;
+    }
+
+    public PcmStream open(Path file) throws IOException {
+        if (ffmpegAvailable && ffmpeg != null && !ffmpeg.isBlank()) {
+            Process process;
+            try {
+                process = new ProcessBuilder(ffmpeg, "-v", "error", "-nostdin",
+                        "-i", file.toAbsolutePath().toString(),
+                        "-vn", "-ac", "1", "-ar", String.valueOf(sampleRate), "-f", "s16le", "-")
+                        .redirectError(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                process.getOutputStream().close();
+            } catch (IOException e) {
+                // Không có ffmpeg trên máy: chỉ log một lần rồi dùng javax.sound
+                ffmpegAvailable = false;
+                System.err.println("ffmpeg is not available (" + e.getMessage() + "), waveforms only for WAV/AIFF/AU");
+                return openWithJavaSound(file);
+            }
+            // File hỏng có thể làm ffmpeg treo, không để worker bị giữ mãi
+            CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            });
+            return new PcmStream(process.getInputStream(), 1, sampleRate, process);
+        }
+        return openWithJavaSound(file);
+    }
+
+    private static PcmStream openWithJavaSound(Path file) throws IOException {
+        AudioInputStream source;
+        try {
+            source = AudioSystem.getAudioInputStream(file.toFile());
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Unsupported audio format for waveform: " + file.getFileName(), e);
+        }
+        AudioFormat format = source.getFormat();
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        try {
+            AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source);
+            return new PcmStream(decoded, format.getChannels(), Math.round(format.getSampleRate()), null);
+        } catch (IllegalArgumentException e) {
+            source.close();
+            throw new IOException("Cannot convert " + format + " to PCM", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.music.application.be.modules.waveform;
+
+import com.music.application.be.modules.song.Song;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "song_waveforms")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SongWaveform {
+
+    @Id
+    @Column(name = "song_id")
+    private Long songId;
+
+    // Xóa bài hát thì database tự xóa waveform, Song không cần biết tới bảng này
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "song_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Song song;
+
+    // Audio mà waveform được tính từ, khác audio hiện tại của bài hát nghĩa là waveform đã cũ
+    @Column(name = "audio_url", columnDefinition = "TEXT", nullable = false)
+    private String audioUrl;
+
+    // Định dạng audiowaveform .dat (version 1, 8-bit)
+    @Column(nullable = false)
+    private byte[] peaks;
+
+    @Column(nullable = false, length = 32)
+    private String etag;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.music.application.be.modules.waveform;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SongWaveformRepository extends JpaRepository<SongWaveform, Long> {
+}
@@ -0,0 +1,122 @@
+package com.music.application.be.modules.waveform;
+
+import com.music.application.be.modules.media.SpooledUpload;
+import com.music.application.be.modules.song.SongRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Precomputed waveform peaks of songs, for drawing a scrub bar without downloading the track.
+ * <p>
+ * Peaks are computed from the spooled upload while it is still on local disk, streaming the
+ * decoded PCM through {@link WaveformPeaks}, and stored next to the audio URL they were computed
+ * from. A waveform whose audio URL no longer matches the song's is stale and is not served; the
+ * replacement is computed from the new upload. Waveforms are optional, so decoding failures are
+ * logged and the song is saved without one.
+ */
+@Service
+public class SongWaveformService {
+
+    public record Peaks(byte[] data, String etag) {
+    }
+
+    private final SongWaveformRepository songWaveformRepository;
+    private final SongRepository songRepository;
+    private final PcmDecoder pcmDecoder;
+    private final ThreadPoolTaskExecutor ingestJobExecutor;
+    private final int points;
+
+    public SongWaveformService(SongWaveformRepository songWaveformRepository,
+                               SongRepository songRepository,
+                               PcmDecoder pcmDecoder,
+                               @Qualifier("ingestJobExecutor") ThreadPoolTaskExecutor ingestJobExecutor,
+                               @Value("${app.media.waveform.points:1000}") int points) {
+        this.songWaveformRepository = songWaveformRepository;
+        this.songRepository = songRepository;
+        this.pcmDecoder = pcmDecoder;
+        this.ingestJobExecutor = ingestJobExecutor;
+        this.points = points;
+    }
+
+    public Peaks getPeaks(Long songId) {
+        String audioUrl = songRepository.findAudioUrlById(songId)
+                .orElseThrow(() -> new EntityNotFoundException("Song not found with id: " + songId));
+        return songWaveformRepository.findById(songId)
+                .filter(waveform -> waveform.getAudioUrl().equals(audioUrl))
+                .map(waveform -> new Peaks(waveform.getPeaks(), waveform.getEtag()))
+                .orElseThrow(() -> new EntityNotFoundException("Waveform is not available for song id: " + songId));
+    }
+
+    /**
+     * Computes and saves the waveform on {@code ingestJobExecutor}, so the upload request does not
+     * wait for decoding. Takes ownership of {@code audio} and closes it when done; if the pool is
+     * full the waveform is skipped.
+     */
+    public void generateAsync(Long songId, String audioUrl, SpooledUpload audio) {
+        try {
+            ingestJobExecutor.execute(() -> {
+                try (audio) {
+                    compute(audio.getPath()).ifPresent(peaks -> save(songId, audioUrl, peaks));
+                }
+            });
+        } catch (TaskRejectedException e) {
+            audio.close();
+            System.err.println("Ingest queue is full, skipping waveform for song " + songId);
+        }
+    }
+
+    // Dùng trong job ingest, nơi đã chạy nền sẵn
+    public Optional<byte[]> compute(Path audioFile) {
+        try (PcmDecoder.PcmStream pcm = pcmDecoder.open(audioFile)) {
+            WaveformPeaks peaks = WaveformPeaks.compute(pcm, points);
+            if (peaks.length() == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(peaks.toBinary());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to compute waveform for " + audioFile.getFileName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(Long songId, String audioUrl, byte[] peaks) {
+        // Audio đã bị thay trong lúc tính: waveform này đã cũ, lần upload mới sẽ tự tính lại
+        Optional<String> currentAudioUrl = songRepository.findAudioUrlById(songId);
+        if (currentAudioUrl.isEmpty() || !Objects.equals(currentAudioUrl.get(), audioUrl)) {
+            return;
+        }
+        SongWaveform waveform = songWaveformRepository.findById(songId)
+                .orElseGet(() -> SongWaveform.builder().song(songRepository.getReferenceById(songId)).build());
+        waveform.setAudioUrl(audioUrl);
+        waveform.setPeaks(peaks);
+        waveform.setEtag(etag(peaks));
+        try {
+            songWaveformRepository.save(waveform);
+        } catch (DataIntegrityViolationException e) {
+            // Bài hát vừa bị xóa, hoặc một lần tính khác vừa ghi trước
+            System.err.println("Failed to save waveform for song " + songId + ": " + e.getMessage());
+        }
+    }
+
+    private static String etag(byte[] peaks) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(peaks);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.music.application.be.modules.waveform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Computes min/max peak pairs from a PCM stream in a single pass with constant memory.
+ * <p>
+ * The track length is not known up front, so samples are grouped into buckets of
+ * {@code samplesPerPeak} frames and, whenever {@code 2 * points} buckets are filled, adjacent
+ * buckets are merged and the bucket size doubles. At the end the buckets are merged once more by
+ * the smallest factor that fits them into {@code points}, so any track long enough ends up with
+ * between {@code points / 2} and {@code points} pairs.
+ * <p>
+ * {@link #toBinary()} writes the audiowaveform binary format (version 1, 8-bit), which
+ * waveform players such as peaks.js read directly: a 20-byte little-endian header
+ * (version, flags, sample rate, samples per pixel, length) followed by signed min/max bytes.
+ */
+final class WaveformPeaks {
+
+    private static final int INITIAL_SAMPLES_PER_PEAK = 32;
+    private static final int HEADER_SIZE = 20;
+
+    private final int points;
+    private final int sampleRate;
+    private final byte[] mins;
+    private final byte[] maxs;
+    private int samplesPerPeak = INITIAL_SAMPLES_PER_PEAK;
+    private int count;
+
+    private int framesInBucket;
+    private int bucketMin = Integer.MAX_VALUE;
+    private int bucketMax = Integer.MIN_VALUE;
+
+    private WaveformPeaks(int points, int sampleRate) {
+        this.points = points;
+        this.sampleRate = sampleRate;
+        this.mins = new byte[points * 2];
+        this.maxs = new byte[points * 2];
+    }
+
+    static WaveformPeaks compute(PcmDecoder.PcmStream pcm, int points) throws IOException {
+        WaveformPeaks peaks = new WaveformPeaks(points, pcm.getSampleRate());
+        int channels = Math.max(1, pcm.getChannels());
+        InputStream in = pcm.getInputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int carry = 0;
+        int channel = 0;
+        int read;
+        while ((read = in.read(buffer, carry, buffer.length - carry)) != -1) {
+            int available = carry + read;
+            int end = available & ~1;
+            for (int i = 0; i < end; i += 2) {
+                int sample = (short) ((buffer[i] & 0xff) | (buffer[i + 1] << 8));
+                peaks.sample(sample);
+                // Hết một frame (đủ các kênh) mới tính là một mẫu theo thời gian
+                if (++channel == channels) {
+                    channel = 0;
+                    peaks.endFrame();
+                }
+            }
+            carry = available - end;
+            if (carry > 0) {
+                buffer[0] = buffer[end];
+            }
+        }
+        peaks.flush();
+        return peaks;
+    }
+
+    int length() {
+        return count;
+    }
+
+    byte[] toBinary() {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + count * 2).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(1);
+        out.putInt(1); // flags: 8-bit
+        out.putInt(sampleRate);
+        out.putInt(samplesPerPeak);
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            out.put(mins[i]);
+            out.put(maxs[i]);
+        }
+        return out.array();
+    }
+
+    private void sample(int value) {
+        if (value < bucketMin) {
+            bucketMin = value;
+        }
+        if (value > bucketMax) {
+            bucketMax = value;
+        }
+    }
+
+    private void endFrame() {
+        if (++framesInBucket == samplesPerPeak) {
+            closeBucket();
+        }
+    }
+
+    private void flush() {
+        if (framesInBucket > 0) {
+            closeBucket();
+        }
+        if (count > points) {
+            int factor = (count + points - 1) / points;
+            int merged = 0;
+            for (int start = 0; start < count; start += factor) {
+                byte min = Byte.MAX_VALUE;
+                byte max = Byte.MIN_VALUE;
+                for (int i = start; i < Math.min(start + factor, count); i++) {
+                    min = (byte) Math.min(min, mins[i]);
+                    max = (byte) Math.max(max, maxs[i]);
+                }
+                mins[merged] = min;
+                maxs[merged] = max;
+                merged++;
+            }
+            count = merged;
+            samplesPerPeak *= factor;
+        }
+    }
+
+    private void closeBucket() {
+        // 16-bit -> 8-bit: giữ byte cao, đủ cho việc vẽ
+        mins[count] = (byte) (bucketMin >> 8);
+        maxs[count] = (byte) (bucketMax >> 8);
+        count++;
+        if (count == mins.length) {
+            halve();
+        }
+        framesInBucket = 0;
+        bucketMin = Integer.MAX_VALUE;
+        bucketMax = Integer.MIN_VALUE;
+    }
+
+    private void halve() {
+        for (int i = 0; i < points; i++) {
+            mins[i] = (byte) Math.min(mins[2 * i], mins[2 * i + 1]);
+            maxs[i] = (byte) Math.max(maxs[2 * i], maxs[2 * i + 1]);
+        }
+        count = points;
+        samplesPerPeak *= 2;
+    }
+}
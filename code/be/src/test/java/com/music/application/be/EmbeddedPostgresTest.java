@@ -0,0 +1,30 @@
+package com.music.application.be;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice test against a real PostgreSQL started from the embedded binaries, for SQL that H2
+ * cannot run (full-text search, trigram operators, jsonb, generated columns). Works offline: the
+ * binaries come from the Gradle cache, no Docker is needed.
+ * <p>
+ * The schema is created by Hibernate as in production ({@code ddl-auto=update}); import beans that
+ * add their own DDL, such as {@code SearchIndexInitializer}, with {@code @Import}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+// application.properties bật DEBUG cho Spring, quá nhiều log khi khởi tạo context cho từng test
+@TestPropertySource(properties = "logging.level.org.springframework=INFO")
+public @interface EmbeddedPostgresTest {
+}
@@ -0,0 +1,71 @@
+package com.music.application.be.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodesTheKeysItEncoded() {
+        LocalDateTime addedAt = LocalDateTime.of(2024, 5, 17, 9, 30, 15, 123_000_000);
+
+        String cursor = KeysetCursor.encode(addedAt, 42L);
+        String[] keys = KeysetCursor.decode(cursor, 2);
+
+        LocalDateTime decodedAddedAt = KeysetCursor.parse(keys[0], LocalDateTime::parse);
+        Long decodedId = KeysetCursor.parse(keys[1], Long::valueOf);
+
+        assertThat(decodedAddedAt).isEqualTo(addedAt);
+        assertThat(decodedId).isEqualTo(42L);
+    }
+
+    @Test
+    void cursorIsUrlSafeWithoutPadding() {
+        // "??>>" mã hóa ra '+' trong bảng base64 thường, không dùng được trong query string
+        String cursor = KeysetCursor.encode("Nơi này có anh ??>>", 7L);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+        assertThat(KeysetCursor.decode(cursor, 2)).containsExactly("Nơi này có anh ??>>", "7");
+    }
+
+    @Test
+    void keepsEmptyKeys() {
+        assertThat(KeysetCursor.decode(KeysetCursor.encode("", 1L), 2)).containsExactly("", "1");
+    }
+
+    @Test
+    void rejectsCursorsThatAreNotBase64() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!", 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsCursorsWithADifferentNumberOfKeys() {
+        String cursor = KeysetCursor.encode(1L, 2L, 3L);
+
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsKeysOfTheWrongType() {
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("yesterday|abc".getBytes(StandardCharsets.UTF_8));
+        String[] keys = KeysetCursor.decode(forged, 2);
+
+        assertThatThrownBy(() -> KeysetCursor.parse(keys[0], LocalDateTime::parse))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> KeysetCursor.parse(keys[1], Long::valueOf))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,66 @@
+package com.music.application.be.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaginationUtilsTest {
+
+    private record Row(long id, String title) {
+    }
+
+    @Test
+    void cursorPointsAtTheLastRowWhenMoreRowsFollow() {
+        List<Row> rows = List.of(new Row(9, "a"), new Row(7, "b"));
+        SliceImpl<Row> slice = new SliceImpl<>(rows, PageRequest.ofSize(2), true);
+
+        PagedResponse<String> response = PaginationUtils.buildCursorResponse(
+                List.of("a", "b"), slice, row -> KeysetCursor.encode(row.id()), 10);
+
+        assertThat(response.getNextCursor()).isEqualTo(KeysetCursor.encode(7L));
+        assertThat(response.isLast()).isFalse();
+        assertThat(response.getPage()).isEqualTo(PagedResponse.UNKNOWN);
+        assertThat(response.getSize()).isEqualTo(2);
+        assertThat(response.getTotalElements()).isEqualTo(10);
+        assertThat(response.getTotalPages()).isEqualTo(5);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<Row> rows = List.of(new Row(3, "c"));
+        SliceImpl<Row> slice = new SliceImpl<>(rows, PageRequest.ofSize(2), false);
+
+        PagedResponse<String> response = PaginationUtils.buildCursorResponse(
+                List.of("c"), slice, row -> KeysetCursor.encode(row.id()), PagedResponse.UNKNOWN);
+
+        assertThat(response.getNextCursor()).isNull();
+        assertThat(response.isLast()).isTrue();
+        assertThat(response.getContent()).containsExactly("c");
+        assertThat(response.getTotalElements()).isEqualTo(PagedResponse.UNKNOWN);
+        assertThat(response.getTotalPages()).isEqualTo(PagedResponse.UNKNOWN);
+    }
+
+    @Test
+    void emptyPageIsTheLastPage() {
+        SliceImpl<Row> slice = new SliceImpl<>(List.of(), PageRequest.ofSize(20), false);
+
+        PagedResponse<String> response = PaginationUtils.buildCursorResponse(
+                null, slice, row -> KeysetCursor.encode(row.id()), 0);
+
+        assertThat(response.getContent()).isEmpty();
+        assertThat(response.getNextCursor()).isNull();
+        assertThat(response.isLast()).isTrue();
+        assertThat(response.getTotalPages()).isZero();
+    }
+
+    @Test
+    void rejectsMissingSlice() {
+        assertThatThrownBy(() -> PaginationUtils.buildCursorResponse(List.of(), null, row -> "", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.music.application.be.config.cache;
+
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.modules.song.dto.SongDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactCacheSerializerTest {
+
+    private final CompactCacheSerializer registered =
+            new CompactCacheSerializer(Integer.MAX_VALUE, List.of(PagedResponse.class, SongDTO.class));
+    private final CompactCacheSerializer unregistered = new CompactCacheSerializer(Integer.MAX_VALUE, List.of());
+
+    @Test
+    void roundTripsAPageOfSongs() {
+        PagedResponse<SongDTO> page = page();
+
+        Object read = registered.deserialize(registered.serialize(page));
+
+        assertThat(read).isInstanceOf(PagedResponse.class);
+        PagedResponse<?> readPage = (PagedResponse<?>) read;
+        assertThat(readPage.getTotalElements()).isEqualTo(20);
+        assertThat(readPage.getContent()).hasSize(20).allSatisfy(item -> assertThat(item).isInstanceOf(SongDTO.class));
+        SongDTO first = (SongDTO) readPage.getContent().get(0);
+        assertThat(first.getReleaseDate()).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(first.getThumbnailVariants()).containsEntry("small", "thumb-0-small.jpg");
+        assertThat(first.getGenreIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void writesRegisteredTypesByTheirSimpleName() {
+        byte[] compact = registered.serialize(page());
+        byte[] withClassNames = unregistered.serialize(page());
+
+        assertThat(new String(compact, StandardCharsets.ISO_8859_1)).doesNotContain(SongDTO.class.getName());
+        assertThat(new String(withClassNames, StandardCharsets.ISO_8859_1)).contains(SongDTO.class.getName());
+        assertThat(compact.length).isLessThan(withClassNames.length);
+        // Kiểu chưa đăng ký vẫn đọc lại được qua tên class đầy đủ
+        assertThat(unregistered.deserialize(withClassNames)).isInstanceOf(PagedResponse.class);
+    }
+
+    @Test
+    void compressesLargeValues() {
+        CompactCacheSerializer compressing = new CompactCacheSerializer(64, List.of(PagedResponse.class, SongDTO.class));
+
+        byte[] bytes = compressing.serialize(page());
+
+        assertThat(bytes.length).isLessThan(registered.serialize(page()).length);
+        assertThat(((PagedResponse<?>) compressing.deserialize(bytes)).getContent()).hasSize(20);
+    }
+
+    @Test
+    void treatsNullValuesAndOlderFormatsAsExpected() {
+        assertThat(registered.deserialize(registered.serialize(NullValue.INSTANCE))).isSameAs(NullValue.INSTANCE);
+        // Header 1 / 2 của định dạng cũ ghi tên class đầy đủ: coi như miss
+        assertThat(registered.deserialize(new byte[]{1, 0x3a, 0x29})).isNull();
+        assertThat(registered.deserialize(new byte[]{2, 0, 0, 0, 1, 0})).isNull();
+    }
+
+    @Test
+    void rejectsTypesWithTheSameSimpleName() {
+        assertThatThrownBy(() -> new CompactCacheSerializer(0, List.of(List.class, java.awt.List.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PagedResponse<SongDTO> page() {
+        List<SongDTO> songs = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            SongDTO song = new SongDTO();
+            song.setId(i);
+            song.setTitle("Song " + i);
+            song.setDuration(180);
+            song.setAudioUrl("audio-" + i + ".mp3");
+            song.setThumbnail("thumb-" + i + ".jpg");
+            song.setThumbnailVariants(Map.of("small", "thumb-" + i + "-small.jpg"));
+            song.setReleaseDate(LocalDate.of(2024, 1, 1));
+            song.setViewCount(10);
+            song.setArtistId(3L);
+            song.setArtistName("Artist");
+            song.setGenreIds(new ArrayList<>(List.of(1L, 2L)));
+            songs.add(song);
+        }
+        return new PagedResponse<>(songs, 0, 20, 20, 1, true);
+    }
+}
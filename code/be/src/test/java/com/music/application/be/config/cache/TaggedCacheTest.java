@@ -0,0 +1,74 @@
+package com.music.application.be.config.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaggedCacheTest {
+
+    private static final CacheEntryTagger.EntryTags TAGS = new CacheEntryTagger.EntryTags(List.of("song:1"), null);
+
+    private final ConcurrentMapCache delegate = new ConcurrentMapCache("songsByGenre");
+    private final CacheTagIndex index = mock(CacheTagIndex.class);
+    private final CacheEntryTagger tagger = mock(CacheEntryTagger.class);
+    private final TaggedCache cache = new TaggedCache(delegate, index, tagger);
+
+    @Test
+    void tagsTheEntryAfterItIsStored() {
+        when(index.generation()).thenReturn(4L);
+        when(tagger.tagsFor("songsByGenre", "k", "page")).thenReturn(TAGS);
+        when(index.tagStored(eq("songsByGenre"), eq("k"), eq(TAGS), eq(4L))).thenAnswer(invocation -> {
+            assertThat(delegate.get("k")).isNotNull();
+            return false;
+        });
+
+        assertThat(cache.get("k")).isNull();
+        cache.put("k", "page");
+
+        verify(index).tagStored("songsByGenre", "k", TAGS, 4L);
+        assertThat(delegate.get("k").get()).isEqualTo("page");
+    }
+
+    @Test
+    void evictsAnEntryWhoseTagWasEvictedDuringTheLoad() {
+        when(index.generation()).thenReturn(4L);
+        when(tagger.tagsFor("songsByGenre", "k", "page")).thenReturn(TAGS);
+        when(index.tagStored(any(), any(), any(), eq(4L))).thenReturn(true);
+
+        cache.get("k");
+        cache.put("k", "page");
+
+        assertThat(delegate.get("k")).isNull();
+    }
+
+    @Test
+    void putWithoutAMissHasNoGeneration() {
+        when(tagger.tagsFor("songsByGenre", "k", "page")).thenReturn(TAGS);
+
+        cache.put("k", "page");
+
+        verify(index).tagStored(eq("songsByGenre"), eq("k"), eq(TAGS), isNull());
+    }
+
+    @Test
+    void valueLoaderReadsTheGenerationBeforeLoading() {
+        when(index.generation()).thenReturn(9L);
+        when(tagger.tagsFor("songsByGenre", "k", "page")).thenReturn(TAGS);
+
+        assertThat(cache.get("k", () -> "page")).isEqualTo("page");
+
+        var order = inOrder(index);
+        order.verify(index).generation();
+        order.verify(index).tagStored("songsByGenre", "k", TAGS, 9L);
+    }
+}
@@ -0,0 +1,220 @@
+package com.music.application.be.modules.ingest;
+
+import com.music.application.be.exceptions.UploadCapacityExceededException;
+import com.music.application.be.modules.ingest.dto.IngestJobDTO;
+import com.music.application.be.modules.media.AudioMetadataReader;
+import com.music.application.be.modules.media.MediaKind;
+import com.music.application.be.modules.media.MediaLibrary;
+import com.music.application.be.modules.media.SpooledUpload;
+import com.music.application.be.modules.media.UploadLimiter;
+import com.music.application.be.modules.media.UploadSpooler;
+import com.music.application.be.modules.song.SongService;
+import com.music.application.be.modules.song.dto.CreateSongDTO;
+import com.music.application.be.modules.song.dto.SongDTO;
+import com.music.application.be.modules.waveform.SongWaveformService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link IngestService} with inline executors, a real spooler and stubbed storage, so a
+ * submitted job goes through its whole state machine before {@code submitSong} returns.
+ */
+class IngestServiceTest {
+
+    private static final long JOB_ID = 7L;
+    private static final MediaLibrary.StoredImage IMAGE = new MediaLibrary.StoredImage("thumb.jpg", Map.of("small", "thumb-small.jpg"));
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final IngestJobRepository ingestJobRepository = mock(IngestJobRepository.class);
+    private final SongService songService = mock(SongService.class);
+    private final MediaLibrary mediaLibrary = mock(MediaLibrary.class);
+    private final AudioMetadataReader audioMetadataReader = mock(AudioMetadataReader.class);
+    private final SongWaveformService songWaveformService = mock(SongWaveformService.class);
+    private final ThreadPoolTaskExecutor ingestJobExecutor = mock(ThreadPoolTaskExecutor.class);
+    private final ThreadPoolTaskExecutor ingestTaskExecutor = mock(ThreadPoolTaskExecutor.class);
+    private final UploadLimiter uploadLimiter = new UploadLimiter(1024 * 1024, Duration.ofSeconds(1), new SimpleMeterRegistry());
+    private final IngestService ingestService = new IngestService();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(ingestService, "ingestJobRepository", ingestJobRepository);
+        ReflectionTestUtils.setField(ingestService, "songService", songService);
+        ReflectionTestUtils.setField(ingestService, "mediaLibrary", mediaLibrary);
+        ReflectionTestUtils.setField(ingestService, "uploadSpooler", new UploadSpooler(uploadLimiter, spoolDirectory.toString()));
+        ReflectionTestUtils.setField(ingestService, "audioMetadataReader", audioMetadataReader);
+        ReflectionTestUtils.setField(ingestService, "songWaveformService", songWaveformService);
+        ReflectionTestUtils.setField(ingestService, "ingestJobExecutor", ingestJobExecutor);
+        ReflectionTestUtils.setField(ingestService, "ingestTaskExecutor", ingestTaskExecutor);
+        ReflectionTestUtils.setField(ingestService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(ingestService, "initialBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(ingestService, "maxBackoff", Duration.ofMillis(2));
+        ReflectionTestUtils.setField(ingestService, "staleAfter", Duration.ofMinutes(30));
+
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(ingestJobExecutor).execute(any(Runnable.class));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(ingestTaskExecutor).execute(any(Runnable.class));
+
+        when(ingestJobRepository.save(any(IngestJob.class))).thenAnswer(invocation -> {
+            IngestJob job = invocation.getArgument(0);
+            job.setId(JOB_ID);
+            return job;
+        });
+        when(audioMetadataReader.readDurationSeconds(any())).thenReturn(200);
+        when(mediaLibrary.store(any(SpooledUpload.class), eq(MediaKind.AUDIO))).thenReturn("audio.mp3");
+        when(mediaLibrary.storeImage(any(SpooledUpload.class))).thenReturn(IMAGE);
+        when(songWaveformService.compute(any())).thenReturn(Optional.of(new byte[]{1, 2}));
+        SongDTO song = new SongDTO();
+        song.setId(42L);
+        song.setAudioUrl("audio.mp3");
+        when(songService.saveNewSong(any(), anyInt(), anyString(), any())).thenReturn(song);
+    }
+
+    @Test
+    void successfulJobRunsThroughEveryStateAndSavesTheSong() throws IOException {
+        IngestJobDTO job = submit();
+
+        assertThat(job.getId()).isEqualTo(JOB_ID);
+        assertThat(job.getStatus()).isEqualTo(IngestJobStatus.PENDING);
+        InOrder order = inOrder(ingestJobRepository, songService);
+        order.verify(ingestJobRepository).save(argThat(saved -> saved.getStatus() == IngestJobStatus.PENDING));
+        order.verify(ingestJobRepository).updateProgress(eq(JOB_ID), eq(IngestJobStatus.RUNNING), eq(IngestStage.PROCESSING_MEDIA), anyInt(), any());
+        order.verify(ingestJobRepository).updateProgress(eq(JOB_ID), eq(IngestJobStatus.RUNNING), eq(IngestStage.SAVING), anyInt(), any());
+        order.verify(songService).saveNewSong(any(), eq(200), eq("audio.mp3"), eq(IMAGE));
+        order.verify(ingestJobRepository).markSucceeded(eq(JOB_ID), eq(42L), any());
+        verify(ingestJobRepository, times(3)).addProgress(eq(JOB_ID), anyInt(), any());
+        verify(songWaveformService).save(42L, "audio.mp3", new byte[]{1, 2});
+        verify(ingestJobRepository, never()).markFailed(anyLong(), any(), any());
+        verify(mediaLibrary, never()).release(anyString());
+        assertSpoolReleased();
+    }
+
+    @Test
+    void storageFailureIsRetriedThenFailsTheJobAndReleasesOtherUploads() throws IOException {
+        when(mediaLibrary.store(any(SpooledUpload.class), eq(MediaKind.AUDIO))).thenThrow(new IOException("storage down"));
+
+        submit();
+
+        verify(ingestJobRepository, times(2)).incrementRetries(eq(JOB_ID), any());
+        verify(ingestJobRepository).markFailed(eq(JOB_ID), eq("storage down"), any());
+        verify(mediaLibrary).release(IMAGE.url(), IMAGE.variants());
+        verify(songService, never()).saveNewSong(any(), anyInt(), any(), any());
+        verify(ingestJobRepository, never()).markSucceeded(anyLong(), anyLong(), any());
+        assertSpoolReleased();
+    }
+
+    @Test
+    void failedSaveReleasesBothUploads() throws IOException {
+        when(songService.saveNewSong(any(), anyInt(), anyString(), any())).thenThrow(new IllegalStateException("constraint"));
+
+        submit();
+
+        verify(ingestJobRepository).markFailed(eq(JOB_ID), eq("constraint"), any());
+        verify(mediaLibrary).release("audio.mp3");
+        verify(mediaLibrary).release(IMAGE.url(), IMAGE.variants());
+        assertSpoolReleased();
+    }
+
+    @Test
+    void failureAfterTheSongIsSavedKeepsItsUploads() throws IOException {
+        doThrow(new IllegalStateException("waveform table locked")).when(songWaveformService).save(anyLong(), any(), any());
+        when(ingestJobRepository.markSucceeded(anyLong(), anyLong(), any())).thenThrow(new IllegalStateException("db down"));
+
+        submit();
+
+        verify(ingestJobRepository, never()).markFailed(anyLong(), any(), any());
+        verify(mediaLibrary, never()).release(anyString());
+        verify(mediaLibrary, never()).release(anyString(), any());
+        assertSpoolReleased();
+    }
+
+    @Test
+    void waveformFailureDoesNotFailTheJob() throws IOException {
+        when(songWaveformService.compute(any())).thenThrow(new IllegalStateException("decoder crashed"));
+
+        submit();
+
+        verify(ingestJobRepository).markSucceeded(eq(JOB_ID), eq(42L), any());
+        verify(songWaveformService, never()).save(anyLong(), any(), any());
+    }
+
+    @Test
+    void fullQueueFailsTheJobAndFreesTheSpool() {
+        doThrow(new TaskRejectedException("full")).when(ingestJobExecutor).execute(any(Runnable.class));
+
+        assertThatThrownBy(this::submit).isInstanceOf(UploadCapacityExceededException.class);
+
+        verify(ingestJobRepository).markFailed(eq(JOB_ID), eq("Ingest queue is full"), any());
+        assertSpoolReleased();
+    }
+
+    @Test
+    void staleJobsAreMarkedFailed() {
+        LocalDateTime before = LocalDateTime.now();
+
+        ingestService.failStaleJobs();
+
+        verify(ingestJobRepository).failStale(
+                eq(List.of(IngestJobStatus.PENDING, IngestJobStatus.RUNNING)),
+                argThat(cutoff -> !cutoff.isBefore(before.minusMinutes(30)) && !cutoff.isAfter(LocalDateTime.now().minusMinutes(30))),
+                anyString(),
+                any());
+    }
+
+    private IngestJobDTO submit() throws IOException {
+        CreateSongDTO createSongDTO = new CreateSongDTO();
+        createSongDTO.setTitle("Song");
+        return ingestService.submitSong(createSongDTO,
+                new MockMultipartFile("audio", "song.mp3", "audio/mpeg", new byte[]{1, 2, 3}),
+                new MockMultipartFile("thumbnail", "cover.jpg", "image/jpeg", new byte[]{4, 5}));
+    }
+
+    // File tạm đã xóa và permit đã trả sau khi job kết thúc, dù thành công hay lỗi
+    private void assertSpoolReleased() {
+        assertThat(uploadLimiter.inFlightBytes()).isZero();
+        try (var files = Files.list(spoolDirectory)) {
+            assertThat(files).isEmpty();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.music.application.be.modules.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryBackoffTest {
+
+    @Test
+    void retriesUntilTheStepSucceeds() throws IOException {
+        RetryBackoff backoff = new RetryBackoff(4, Duration.ofMillis(1), Duration.ofMillis(2));
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+
+        String result = backoff.call(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IOException("storage unavailable");
+            }
+            return "ok";
+        }, retries::incrementAndGet);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+        assertThat(retries).hasValue(2);
+    }
+
+    @Test
+    void rethrowsTheLastFailureAfterMaxAttempts() {
+        RetryBackoff backoff = new RetryBackoff(3, Duration.ofMillis(1), Duration.ofMillis(2));
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+
+        assertThatThrownBy(() -> backoff.call(() -> {
+            throw new IOException("attempt " + calls.incrementAndGet());
+        }, retries::incrementAndGet))
+                .isInstanceOf(IOException.class)
+                .hasMessage("attempt 3");
+        assertThat(retries).hasValue(2);
+    }
+
+    @Test
+    void doesNotRetryOtherExceptions() {
+        RetryBackoff backoff = new RetryBackoff(5, Duration.ofMillis(1), Duration.ofMillis(2));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> backoff.call(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("bad input");
+        }, () -> { }))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void atLeastOneAttempt() {
+        RetryBackoff backoff = new RetryBackoff(0, Duration.ofMillis(1), Duration.ofMillis(2));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> backoff.call(() -> {
+            calls.incrementAndGet();
+            throw new IOException("down");
+        }, () -> { }))
+                .isInstanceOf(IOException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void delaysAreCappedByMaxDelay() throws IOException {
+        // initialDelay * 2^n vượt xa maxDelay: mọi lần chờ phải nằm trong [0, 20 ms]
+        RetryBackoff backoff = new RetryBackoff(8, Duration.ofSeconds(10), Duration.ofMillis(20));
+        AtomicInteger calls = new AtomicInteger();
+        long[] lastCall = {System.nanoTime()};
+        long[] longestWait = {0};
+
+        backoff.call(() -> {
+            long now = System.nanoTime();
+            longestWait[0] = Math.max(longestWait[0], now - lastCall[0]);
+            lastCall[0] = now;
+            if (calls.incrementAndGet() < 8) {
+                throw new IOException("down");
+            }
+            return null;
+        }, () -> { });
+
+        assertThat(Duration.ofNanos(longestWait[0])).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void interruptionStopsRetrying() {
+        RetryBackoff backoff = new RetryBackoff(3, Duration.ofSeconds(10), Duration.ofSeconds(10));
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> backoff.call(() -> {
+                throw new IOException("down");
+            }, () -> { }))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Interrupted");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.music.application.be.modules.media;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Probes files made of hand-built headers, so every offset and bit field the probe reads is
+ * checked against the layout written here.
+ */
+class AudioProbeTest {
+
+    // MPEG-1 layer III, 128 kbps, 44.1 kHz, stereo: frame dài 417 byte, 1152 sample
+    private static final int MP3_HEADER = 0xFFFB9000;
+    private static final int MP3_FRAME = 417;
+    private static final int SIDE_INFO_END = 4 + 32;
+
+    private final AudioProbe probe = new AudioProbe();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mp3XingFrameCountMinusLameDelayAndPadding() throws IOException {
+        ByteBuffer file = ByteBuffer.allocate(MP3_FRAME * 2);
+        file.putInt(0, MP3_HEADER);
+        int xing = SIDE_INFO_END;
+        putAscii(file, xing, "Xing");
+        // frames + bytes + TOC + quality: thẻ LAME nằm sau 4 + 4 + 100 + 4 byte
+        file.putInt(xing + 4, 0xF);
+        file.putInt(xing + 8, 1000);
+        int lame = xing + 8 + 4 + 4 + 100 + 4;
+        putAscii(file, lame, "LAME");
+        int delayAndPadding = (576 << 12) | 1000;
+        file.put(lame + 21, (byte) (delayAndPadding >>> 16));
+        file.put(lame + 22, (byte) (delayAndPadding >>> 8));
+        file.put(lame + 23, (byte) delayAndPadding);
+        file.putInt(MP3_FRAME, MP3_HEADER);
+
+        AudioProbe.Result result = probe.probe(write("xing.mp3", file));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.MP3);
+        assertThat(result.durationSeconds()).isCloseTo((1000 * 1152 - 576 - 1000) / 44100.0, within(1e-9));
+    }
+
+    @Test
+    void mp3InfoFrameWithoutLameTag() throws IOException {
+        ByteBuffer file = ByteBuffer.allocate(MP3_FRAME * 2);
+        file.putInt(0, MP3_HEADER);
+        putAscii(file, SIDE_INFO_END, "Info");
+        file.putInt(SIDE_INFO_END + 4, 0x1);
+        file.putInt(SIDE_INFO_END + 8, 441);
+        file.putInt(MP3_FRAME, MP3_HEADER);
+
+        assertThat(probe.probe(write("info.mp3", file)).durationSeconds())
+                .isCloseTo(441 * 1152 / 44100.0, within(1e-9));
+    }
+
+    @Test
+    void mp3VbriFrameCountBehindId3v2Tag() throws IOException {
+        // ID3v2 200 byte (syncsafe 0x01 0x48 = 200), không có footer
+        int id3 = 10 + 200;
+        ByteBuffer file = ByteBuffer.allocate(id3 + MP3_FRAME * 2);
+        putAscii(file, 0, "ID3");
+        file.put(3, (byte) 4);
+        file.put(8, (byte) 0x01);
+        file.put(9, (byte) 0x48);
+        file.putInt(id3, MP3_HEADER);
+        putAscii(file, id3 + SIDE_INFO_END, "VBRI");
+        file.putInt(id3 + SIDE_INFO_END + 14, 2500);
+        file.putInt(id3 + MP3_FRAME, MP3_HEADER);
+
+        AudioProbe.Result result = probe.probe(write("vbri", file));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.MP3);
+        assertThat(result.durationSeconds()).isCloseTo(2500 * 1152 / 44100.0, within(1e-9));
+    }
+
+    @Test
+    void cbrMp3UsesAudioSizeWithoutTrailingId3v1Tag() throws IOException {
+        int frames = 10;
+        ByteBuffer file = ByteBuffer.allocate(MP3_FRAME * frames + 128);
+        for (int i = 0; i < frames; i++) {
+            file.putInt(i * MP3_FRAME, MP3_HEADER);
+        }
+        putAscii(file, MP3_FRAME * frames, "TAG");
+
+        assertThat(probe.probe(write("cbr.mp3", file)).durationSeconds())
+                .isCloseTo(MP3_FRAME * frames * 8 / 128000.0, within(1e-9));
+    }
+
+    @Test
+    void cbrMp3ProbeOnlyReadsHeadersOfALargeFile() throws IOException {
+        // File thưa 2 GB: nếu probe đọc cả file thì test này chậm và tốn bộ nhớ thấy rõ
+        long size = 2L * 1024 * 1024 * 1024;
+        Path path = directory.resolve("large.mp3");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer frames = ByteBuffer.allocate(MP3_FRAME + 4);
+            frames.putInt(0, MP3_HEADER);
+            frames.putInt(MP3_FRAME, MP3_HEADER);
+            channel.write(frames, 0);
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        }
+
+        assertThat(probe.probe(path).durationSeconds()).isCloseTo(size * 8 / 128000.0, within(1e-6));
+    }
+
+    @Test
+    void flacTotalSamplesUseAll36Bits() throws IOException {
+        long sampleRate = 96000;
+        long totalSamples = (1L << 33) + 96000;
+        ByteBuffer file = ByteBuffer.allocate(4 + 4 + 34);
+        putAscii(file, 0, "fLaC");
+        // Block cuối cùng, type 0 (STREAMINFO), dài 34 byte
+        file.putInt(4, 0x80000000 | 34);
+        // 20 bit sample rate | 3 bit channels - 1 | 5 bit bits per sample - 1 | 36 bit total samples
+        file.putLong(8 + 10, sampleRate << 44 | 1L << 41 | 23L << 36 | totalSamples);
+
+        AudioProbe.Result result = probe.probe(write("big.flac", file));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.FLAC);
+        assertThat(result.durationSeconds()).isCloseTo((double) totalSamples / sampleRate, within(1e-9));
+    }
+
+    @Test
+    void flacWithoutSampleCountHasNoDuration() throws IOException {
+        ByteBuffer file = ByteBuffer.allocate(4 + 4 + 34);
+        putAscii(file, 0, "fLaC");
+        file.putInt(4, 0x80000000 | 34);
+        file.putLong(8 + 10, 44100L << 44 | 1L << 41 | 15L << 36);
+
+        AudioProbe.Result result = probe.probe(write("stream.flac", file));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.FLAC);
+        assertThat(result.hasDuration()).isFalse();
+    }
+
+    @Test
+    void m4aMvhdVersion0() throws IOException {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(12, 44100);
+        mvhd.putInt(16, 44100 * 215);
+
+        AudioProbe.Result result = probe.probe(write("v0.m4a", mp4(mvhd)));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.M4A);
+        assertThat(result.durationSeconds()).isCloseTo(215, within(1e-9));
+    }
+
+    @Test
+    void m4aMvhdVersion1WithSixtyFourBitDuration() throws IOException {
+        ByteBuffer mvhd = ByteBuffer.allocate(112);
+        mvhd.put(0, (byte) 1);
+        mvhd.putInt(20, 1000);
+        mvhd.putLong(24, 5_000_000_000L);
+
+        assertThat(probe.probe(write("v1.m4a", mp4(mvhd))).durationSeconds())
+                .isCloseTo(5_000_000, within(1e-9));
+    }
+
+    @Test
+    void wavDataSizeOverByteRate() throws IOException {
+        int byteRate = 44100 * 2 * 2;
+        ByteBuffer file = ByteBuffer.allocate(12 + 8 + 16 + 8 + byteRate * 3).order(ByteOrder.LITTLE_ENDIAN);
+        putAscii(file, 0, "RIFF");
+        file.putInt(4, file.capacity() - 8);
+        putAscii(file, 8, "WAVE");
+        putAscii(file, 12, "fmt ");
+        file.putInt(16, 16);
+        file.putInt(12 + 8 + 8, byteRate);
+        putAscii(file, 36, "data");
+        file.putInt(40, byteRate * 3);
+
+        AudioProbe.Result result = probe.probe(write("tone.wav", file));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.WAV);
+        assertThat(result.durationSeconds()).isCloseTo(3, within(1e-9));
+    }
+
+    @Test
+    void oggVorbisGranuleOfTheLastPage() throws IOException {
+        ByteBuffer identification = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        identification.put(0, (byte) 1);
+        putAscii(identification, 1, "vorbis");
+        identification.put(11, (byte) 2);
+        identification.putInt(12, 44100);
+
+        AudioProbe.Result result = probe.probe(write("song.ogg", ogg(identification, 44100L * 30)));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.OGG);
+        assertThat(result.durationSeconds()).isCloseTo(30, within(1e-9));
+    }
+
+    @Test
+    void oggOpusGranuleMinusPreSkipAt48kHz() throws IOException {
+        ByteBuffer identification = ByteBuffer.allocate(19).order(ByteOrder.LITTLE_ENDIAN);
+        putAscii(identification, 0, "OpusHead");
+        identification.put(8, (byte) 1);
+        identification.put(9, (byte) 2);
+        identification.putShort(10, (short) 312);
+        identification.putInt(12, 44100);
+
+        assertThat(probe.probe(write("song.opus", ogg(identification, 48000L * 10 + 312))).durationSeconds())
+                .isCloseTo(10, within(1e-9));
+    }
+
+    @Test
+    void unknownHeadersHaveNoFormatOrDuration() throws IOException {
+        AudioProbe.Result result = probe.probe(write("noise.bin", ByteBuffer.wrap(new byte[4096])));
+
+        assertThat(result.format()).isEqualTo(AudioFormat.UNKNOWN);
+        assertThat(result.hasDuration()).isFalse();
+    }
+
+    // ftyp, một mdat dùng kích thước 64 bit, rồi moov chứa mvhd
+    private static ByteBuffer mp4(ByteBuffer mvhd) {
+        int ftyp = 20;
+        int mdat = 16 + 64;
+        int mvhdBox = 8 + mvhd.capacity();
+        int moov = 8 + mvhdBox;
+        ByteBuffer file = ByteBuffer.allocate(ftyp + mdat + moov);
+        file.putInt(ftyp);
+        file.put(ascii("ftypM4A "));
+        file.putInt(0);
+        file.put(ascii("isom"));
+        file.putInt(1);
+        file.put(ascii("mdat"));
+        file.putLong(mdat);
+        file.position(file.position() + 64);
+        file.putInt(moov);
+        file.put(ascii("moov"));
+        file.putInt(mvhdBox);
+        file.put(ascii("mvhd"));
+        file.put(mvhd.duplicate().clear());
+        return file.clear();
+    }
+
+    // Trang đầu chứa gói nhận dạng, một trang dữ liệu, trang cuối mang granule của cả file
+    private static ByteBuffer ogg(ByteBuffer identification, long lastGranule) {
+        int packet = identification.capacity();
+        int firstPage = 27 + 1 + packet;
+        int page = 27 + 1 + 100;
+        ByteBuffer file = ByteBuffer.allocate(firstPage + page * 2).order(ByteOrder.LITTLE_ENDIAN);
+        oggPage(file, 0, 0, packet);
+        file.put(28, identification.array());
+        oggPage(file, firstPage, lastGranule / 2, 100);
+        oggPage(file, firstPage + page, lastGranule, 100);
+        return file.clear();
+    }
+
+    private static void oggPage(ByteBuffer file, int offset, long granule, int segment) {
+        putAscii(file, offset, "OggS");
+        file.putLong(offset + 6, granule);
+        file.put(offset + 26, (byte) 1);
+        file.put(offset + 27, (byte) segment);
+    }
+
+    private Path write(String name, ByteBuffer content) throws IOException {
+        Path path = directory.resolve(name);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer source = content.duplicate().clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+        return path;
+    }
+
+    private static void putAscii(ByteBuffer buffer, int offset, String text) {
+        buffer.put(offset, ascii(text));
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,102 @@
+package com.music.application.be.modules.media;
+
+import com.music.application.be.exceptions.StreamCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileChannelPoolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readersOfTheSameFileShareOneChannel() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FileChannelPool pool = new FileChannelPool(4, Duration.ofMillis(100), registry);
+        Path file = write("a.mp3", "hello");
+
+        try (FileChannelPool.Lease first = pool.acquire(file);
+             FileChannelPool.Lease second = pool.acquire(file)) {
+            assertThat(second.channel()).isSameAs(first.channel());
+            ByteBuffer buffer = ByteBuffer.allocate(5);
+            second.channel().read(buffer, 0);
+            assertThat(new String(buffer.array())).isEqualTo("hello");
+        }
+        assertThat(registry.get("media.stream.open.files").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void closesTheLeastRecentlyUsedIdleChannelAtTheLimit() throws Exception {
+        FileChannelPool pool = new FileChannelPool(2, Duration.ofMillis(100), new SimpleMeterRegistry());
+        Path a = write("a.mp3", "a");
+        Path b = write("b.mp3", "b");
+        Path c = write("c.mp3", "c");
+
+        FileChannel channelA;
+        FileChannel channelB;
+        try (FileChannelPool.Lease lease = pool.acquire(a)) {
+            channelA = lease.channel();
+        }
+        try (FileChannelPool.Lease lease = pool.acquire(b)) {
+            channelB = lease.channel();
+        }
+        try (FileChannelPool.Lease lease = pool.acquire(c)) {
+            assertThat(lease.channel().isOpen()).isTrue();
+        }
+        assertThat(channelA.isOpen()).isFalse();
+        assertThat(channelB.isOpen()).isTrue();
+    }
+
+    @Test
+    void rejectsWhenEveryChannelIsLeasedPastTheTimeout() throws Exception {
+        FileChannelPool pool = new FileChannelPool(1, Duration.ofMillis(50), new SimpleMeterRegistry());
+        Path a = write("a.mp3", "a");
+        Path b = write("b.mp3", "b");
+
+        try (FileChannelPool.Lease ignored = pool.acquire(a)) {
+            assertThatThrownBy(() -> pool.acquire(b)).isInstanceOf(StreamCapacityExceededException.class);
+        }
+        // Sau khi trả lease, channel rảnh bị đóng để nhường chỗ
+        try (FileChannelPool.Lease lease = pool.acquire(b)) {
+            assertThat(lease.channel().isOpen()).isTrue();
+        }
+    }
+
+    @Test
+    void waiterGetsAChannelWhenALeaseIsReleased() throws Exception {
+        FileChannelPool pool = new FileChannelPool(1, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        Path a = write("a.mp3", "a");
+        Path b = write("b.mp3", "b");
+
+        FileChannelPool.Lease held = pool.acquire(a);
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try (FileChannelPool.Lease lease = pool.acquire(b)) {
+                return lease.channel().isOpen();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(waiter).isNotDone();
+
+        held.close();
+        held.close();
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
@@ -0,0 +1,73 @@
+package com.music.application.be.modules.media;
+
+import com.music.application.be.modules.media.RangeStreamer.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeStreamerTest {
+
+    private static final long LENGTH = 1000;
+
+    @Test
+    void parsesSingleAndOpenEndedRanges() {
+        assertThat(RangeStreamer.parseRanges("bytes=0-99", LENGTH)).containsExactly(new ByteRange(0, 99));
+        assertThat(RangeStreamer.parseRanges("bytes=900-", LENGTH)).containsExactly(new ByteRange(900, 999));
+        // end vượt quá file thì cắt về byte cuối
+        assertThat(RangeStreamer.parseRanges("bytes=950-5000", LENGTH)).containsExactly(new ByteRange(950, 999));
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertThat(RangeStreamer.parseRanges("bytes=-100", LENGTH)).containsExactly(new ByteRange(900, 999));
+        assertThat(RangeStreamer.parseRanges("bytes=-5000", LENGTH)).containsExactly(new ByteRange(0, 999));
+        // bytes=-0 không chọn byte nào
+        assertThat(RangeStreamer.parseRanges("bytes=-0", LENGTH)).isNull();
+    }
+
+    @Test
+    void coalescesOverlappingAndAdjacentRanges() {
+        assertThat(RangeStreamer.parseRanges("bytes=500-599, 0-99, 50-149, 150-199", LENGTH))
+                .containsExactly(new ByteRange(0, 199), new ByteRange(500, 599));
+        // Suffix range chồng lên range đầu: gửi cả file một lần
+        assertThat(RangeStreamer.parseRanges("bytes=0-99,-950", LENGTH)).containsExactly(new ByteRange(0, 999));
+    }
+
+    @Test
+    void returnsNullWhenNoRangeIsSatisfiable() {
+        // Controller trả 416 khi parseRanges trả null
+        assertThat(RangeStreamer.parseRanges("bytes=1000-1100", LENGTH)).isNull();
+        assertThat(RangeStreamer.parseRanges("bytes=2000-, 1500-1600", LENGTH)).isNull();
+        assertThat(RangeStreamer.parseRanges("bytes=-10", 0)).isNull();
+    }
+
+    @Test
+    void keepsSatisfiableRangesAndDropsTheRest() {
+        assertThat(RangeStreamer.parseRanges("bytes=1500-1600, 10-19", LENGTH)).containsExactly(new ByteRange(10, 19));
+    }
+
+    @Test
+    void ignoresMalformedHeaders() {
+        assertThat(RangeStreamer.parseRanges("items=0-10", LENGTH)).isEmpty();
+        assertThat(RangeStreamer.parseRanges("bytes=abc-10", LENGTH)).isEmpty();
+        assertThat(RangeStreamer.parseRanges("bytes=100", LENGTH)).isEmpty();
+        assertThat(RangeStreamer.parseRanges("bytes=200-100", LENGTH)).isEmpty();
+    }
+
+    @Test
+    void ignoresMoreThanSixteenRanges() {
+        assertThat(RangeStreamer.parseRanges(ranges(16), LENGTH)).hasSize(16);
+        assertThat(RangeStreamer.parseRanges(ranges(17), LENGTH)).isEmpty();
+    }
+
+    // n range rời nhau: 0-0, 10-10, 20-20...
+    private static String ranges(int count) {
+        StringJoiner joiner = new StringJoiner(",", "bytes=", "");
+        for (int i = 0; i < count; i++) {
+            joiner.add((i * 10) + "-" + (i * 10));
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,235 @@
+package com.music.application.be.modules.media;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The test task runs with a 256 MB heap (build.gradle): 20 concurrent 50 MB uploads only fit if
+ * no part is read onto the heap.
+ */
+class UploadSpoolerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path spoolDirectory;
+
+    @Test
+    void spoolsConcurrentLargeUploadsWithinTheByteBudget() throws Exception {
+        long budget = 256 * MB;
+        UploadLimiter limiter = new UploadLimiter(budget, Duration.ofMinutes(2), new SimpleMeterRegistry());
+        UploadSpooler spooler = new UploadSpooler(limiter, spoolDirectory.toString());
+        AtomicLong maxInFlight = new AtomicLong();
+        String expectedSha256 = sha256(new GeneratedMultipartFile(50 * MB, null).getInputStream());
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> {
+                    MultipartFile file = new GeneratedMultipartFile(50 * MB, () ->
+                            maxInFlight.accumulateAndGet(limiter.inFlightBytes(), Math::max));
+                    try (SpooledUpload upload = spooler.spool(file, "mp3")) {
+                        assertThat(upload.getSize()).isEqualTo(50 * MB);
+                        assertThat(Files.size(upload.getPath())).isEqualTo(50 * MB);
+                        return upload.getSha256();
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo(expectedSha256);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInFlight.get()).isPositive().isLessThanOrEqualTo(budget);
+        assertThat(limiter.inFlightBytes()).isZero();
+        try (var files = Files.list(spoolDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void requestLargerThanTheBudgetGetsAllItsPartsAlone() throws Exception {
+        UploadLimiter limiter = new UploadLimiter(MB, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        UploadSpooler spooler = new UploadSpooler(limiter, spoolDirectory.toString());
+        MultipartFile audio = new GeneratedMultipartFile(2 * MB, null);
+        MultipartFile thumbnail = new GeneratedMultipartFile(64 * 1024, null);
+
+        SpooledUpload spooledAudio;
+        SpooledUpload spooledThumbnail;
+        try (UploadLimiter.Permit permit = spooler.reserve(audio, thumbnail)) {
+            spooledAudio = spooler.spool(audio, "mp3", permit);
+            spooledThumbnail = spooler.spool(thumbnail, "jpg", permit);
+        }
+        assertThat(limiter.inFlightBytes()).isEqualTo(MB);
+
+        spooledAudio.close();
+        assertThat(limiter.inFlightBytes()).isEqualTo(MB);
+        spooledThumbnail.close();
+        spooledThumbnail.close();
+        assertThat(limiter.inFlightBytes()).isZero();
+    }
+
+    @Test
+    void concurrentRequestsDoNotWaitOnEachOtherWhileHoldingPermits() throws Exception {
+        // Mỗi request 800 KiB: nếu xin permit cho từng file, hai request cùng giữ audio rồi chờ nhau
+        UploadLimiter limiter = new UploadLimiter(MB, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        UploadSpooler spooler = new UploadSpooler(limiter, spoolDirectory.toString());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> {
+                    MultipartFile audio = new GeneratedMultipartFile(400 * 1024, null);
+                    MultipartFile thumbnail = new GeneratedMultipartFile(400 * 1024, null);
+                    try (UploadLimiter.Permit permit = spooler.reserve(audio, thumbnail);
+                         SpooledUpload spooledAudio = spooler.spool(audio, "mp3", permit)) {
+                        Thread.sleep(200);
+                        try (SpooledUpload spooledThumbnail = spooler.spool(thumbnail, "jpg", permit)) {
+                            return spooledAudio.getSize() + spooledThumbnail.getSize();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                assertThat(result.get()).isEqualTo(800L * 1024);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(limiter.inFlightBytes()).isZero();
+    }
+
+    @Test
+    void movesThePartInsteadOfCopyingItsStream() throws Exception {
+        UploadLimiter limiter = new UploadLimiter(MB, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        UploadSpooler spooler = new UploadSpooler(limiter, spoolDirectory.toString());
+        MultipartFile file = spy(new MockMultipartFile("file", "song.MP3", "audio/mpeg", new byte[]{1, 2, 3}));
+
+        try (SpooledUpload upload = spooler.spool(file, "bin")) {
+            assertThat(upload.getExtension()).isEqualTo("mp3");
+            assertThat(Files.readAllBytes(upload.getPath())).containsExactly(1, 2, 3);
+            assertThat(upload.getSha256()).isEqualTo(sha256(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        }
+        verify(file).transferTo(any(File.class));
+        verify(file, never()).getInputStream();
+    }
+
+    private static String sha256(InputStream in) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream digested = new DigestInputStream(in, digest)) {
+            digested.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Part sinh nội dung khi đọc: không giữ byte nào trên heap, getBytes() không được phép gọi
+    private static final class GeneratedMultipartFile implements MultipartFile {
+        private final long size;
+        private final Runnable onRead;
+
+        GeneratedMultipartFile(long size, Runnable onRead) {
+            this.size = size;
+            this.onRead = onRead;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "upload.bin";
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Upload must not be read onto the heap");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long position;
+
+                @Override
+                public int read() {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    return (int) (position++ % 251);
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    if (onRead != null) {
+                        onRead.run();
+                    }
+                    int count = (int) Math.min(length, size - position);
+                    for (int i = 0; i < count; i++) {
+                        buffer[offset + i] = (byte) (position++ % 251);
+                    }
+                    return count;
+                }
+            };
+        }
+
+        // Container thật đổi tên file tạm của part; ở đây ghi nội dung sinh ra vào đích
+        @Override
+        public void transferTo(File dest) throws IOException {
+            try (InputStream in = getInputStream()) {
+                Files.copy(in, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.music.application.be.modules.playlist;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PlaylistCacheEvictorTest {
+
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final Cache cache = mock(Cache.class);
+    private final PlaylistCacheEvictor evictor = new PlaylistCacheEvictor(cacheManager);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictsRightAwayOutsideATransaction() {
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+        evictor.evictAfterCommit(7L);
+
+        verify(cacheManager).getCache("playlists");
+        verify(cacheManager).getCache("playlistWithSongs");
+        verify(cacheManager).getCache("allPlaylists");
+        verify(cacheManager).getCache("searchedPlaylists");
+    }
+
+    @Test
+    void waitsForTheCommitInsideATransaction() {
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+        TransactionSynchronizationManager.initSynchronization();
+
+        evictor.evictAfterCommit(List.of(7L, 8L));
+        verifyNoInteractions(cacheManager);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cache, times(2)).evict(7L);
+        verify(cache, times(2)).evict(8L);
+        verify(cache, times(2)).clear();
+    }
+}
@@ -0,0 +1,85 @@
+package com.music.application.be.modules.playlist;
+
+import com.music.application.be.modules.song.SongsChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PlaylistStatsRepairJobTest {
+
+    private final PlaylistStats playlistStats = mock(PlaylistStats.class);
+    private final SmartPlaylistResolver smartPlaylistResolver = mock(SmartPlaylistResolver.class);
+    private final PlaylistRepository playlistRepository = mock(PlaylistRepository.class);
+    private final PlaylistService playlistService = mock(PlaylistService.class);
+    private final PlaylistCacheEvictor playlistCacheEvictor = mock(PlaylistCacheEvictor.class);
+    private final PlaylistStatsRepairJob job = new PlaylistStatsRepairJob(playlistStats, smartPlaylistResolver,
+            playlistRepository, playlistService, mock(StringRedisTemplate.class), playlistCacheEvictor, 1000, 1);
+
+    @Test
+    void songChangeIsOnlyQueuedOnTheWritingThread() {
+        job.onSongsChanged(SongsChangedEvent.created(List.of(rock(2020))));
+
+        verifyNoInteractions(playlistRepository, playlistStats, playlistService, playlistCacheEvictor);
+    }
+
+    @Test
+    void refreshesOnlyPlaylistsWhoseRuleMatchedBeforeOrAfter() {
+        Playlist rock = smart(1L, PlaylistRule.builder().genreIds(List.of(10L)).build());
+        Playlist jazz = smart(2L, PlaylistRule.builder().genreIds(List.of(20L)).build());
+        Playlist recent = smart(3L, PlaylistRule.builder().releaseYearFrom(2024).build());
+        when(playlistRepository.findByRuleIsNotNull()).thenReturn(List.of(rock, jazz, recent));
+
+        // Bài rock đổi năm phát hành 2020 -> 2025: vào playlist "recent", vẫn ở playlist "rock"
+        job.onSongsChanged(SongsChangedEvent.updated(rock(2020), rock(2025)));
+        job.refreshChangedSongs();
+
+        verify(playlistStats).refresh(rock);
+        verify(playlistStats).refresh(recent);
+        verify(playlistStats, never()).refresh(jazz);
+        verify(playlistService).updateThumbnail(1L);
+        verify(playlistService).updateThumbnail(3L);
+        verify(playlistCacheEvictor).evictAfterCommit(argThat((Collection<Long> ids) -> Set.copyOf(ids).equals(Set.of(1L, 3L))));
+    }
+
+    @Test
+    void changesThatNoRuleLooksAtAreDropped() {
+        job.onSongsChanged(SongsChangedEvent.updated(rock(2020), rock(2020)));
+        job.refreshChangedSongs();
+
+        verifyNoInteractions(playlistRepository, playlistStats);
+    }
+
+    @Test
+    void queueIsDrainedOnce() {
+        when(playlistRepository.findByRuleIsNotNull()).thenReturn(List.of());
+        job.onSongsChanged(SongsChangedEvent.deleted(rock(2020)));
+
+        job.refreshChangedSongs();
+        job.refreshChangedSongs();
+
+        verify(playlistRepository, times(1)).findByRuleIsNotNull();
+    }
+
+    private static SongsChangedEvent.State rock(int year) {
+        return new SongsChangedEvent.State(5L, Set.of(10L), LocalDate.of(year, 1, 1), 200, 0);
+    }
+
+    private static Playlist smart(Long id, PlaylistRule rule) {
+        Playlist playlist = new Playlist();
+        playlist.setId(id);
+        playlist.setRule(rule);
+        return playlist;
+    }
+}
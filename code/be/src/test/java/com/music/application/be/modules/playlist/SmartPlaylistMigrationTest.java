@@ -0,0 +1,117 @@
+package com.music.application.be.modules.playlist;
+
+import com.music.application.be.EmbeddedPostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the migration SQL on PostgreSQL over a 50k-song catalog. Not wrapped in the test
+ * transaction, so the migration commits or rolls back on its own as it does at startup.
+ */
+@EmbeddedPostgresTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SmartPlaylistMigrationTest {
+
+    private static final int SONGS = 50_000;
+    private static final int GENRES = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PlaylistRepository playlistRepository;
+
+    private JdbcTemplate countingJdbcTemplate;
+    private SmartPlaylistMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        countingJdbcTemplate = spy(jdbcTemplate);
+        migration = new SmartPlaylistMigration(countingJdbcTemplate, new TransactionTemplate(transactionManager));
+
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, avatar) VALUES (1, 'admin', 'a@example.com', 'x', 'a.png')");
+        jdbcTemplate.update("INSERT INTO artists (id, name, follower_count) VALUES (1, 'Artist', 0)");
+        jdbcTemplate.update("INSERT INTO genres (id, name) SELECT g, 'Genre ' || g FROM generate_series(1, ?) g", GENRES);
+        jdbcTemplate.update("INSERT INTO songs (id, title, duration, audio_url, thumbnail, view_count, artist_id) "
+                + "SELECT s, 'Song ' || s, 180, 'a.mp3', 't.png', 0, 1 FROM generate_series(1, ?) s", SONGS);
+        jdbcTemplate.update("INSERT INTO song_genre (song_id, genre_id) SELECT s, s % ? + 1 FROM generate_series(1, ?) s", GENRES, SONGS);
+
+        // Playlist 1..10: playlist genre cũ, mỗi cái một genre (playlist 10 có hai), đã materialize vào song_playlist.
+        // Playlist 11: playlist thường của user, không có genre
+        jdbcTemplate.update("INSERT INTO playlists (id, name, is_public, song_count, total_duration, created_by) "
+                + "SELECT p, 'Playlist ' || p, true, 0, 0, 1 FROM generate_series(1, 11) p");
+        jdbcTemplate.update("INSERT INTO playlist_genre (playlist_id, genre_id) SELECT g, g FROM generate_series(1, ?) g", GENRES);
+        jdbcTemplate.update("INSERT INTO playlist_genre (playlist_id, genre_id) VALUES (10, 1)");
+        jdbcTemplate.update("INSERT INTO song_playlist (id, song_id, playlist_id, added_at) "
+                + "SELECT row_number() OVER (), sg.song_id, sg.genre_id, now() FROM song_genre sg");
+        jdbcTemplate.update("INSERT INTO song_playlist (id, song_id, playlist_id, added_at) "
+                + "SELECT ? + s, s, 11, now() FROM generate_series(1, 100) s", SONGS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS fail_delete ON song_playlist");
+        jdbcTemplate.execute("TRUNCATE song_playlist, playlist_genre, playlists, song_genre, songs, genres, artists, users CASCADE");
+    }
+
+    @Test
+    void migratesEveryGenrePlaylistWithTwoStatements() {
+        migration.migrate();
+
+        verify(countingJdbcTemplate, times(2)).update(anyString());
+        assertThat(count("SELECT count(*) FROM playlists WHERE smart_rule IS NOT NULL")).isEqualTo(GENRES);
+        assertThat(playlistRepository.findById(3L).orElseThrow().getRule().getGenreIds()).containsExactly(3L);
+        assertThat(playlistRepository.findById(10L).orElseThrow().getRule().getGenreIds()).containsExactly(1L, 10L);
+        assertThat(playlistRepository.findById(11L).orElseThrow().getRule()).isNull();
+        // Chỉ còn lại bài hát trong playlist của user
+        assertThat(count("SELECT count(*) FROM song_playlist")).isEqualTo(100);
+        assertThat(count("SELECT count(*) FROM song_playlist WHERE playlist_id <> 11")).isZero();
+    }
+
+    @Test
+    void secondRunChangesNothing() {
+        migration.migrate();
+        String rules = jdbcTemplate.queryForObject("SELECT string_agg(smart_rule::text, ',' ORDER BY id) FROM playlists", String.class);
+
+        migration.migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT string_agg(smart_rule::text, ',' ORDER BY id) FROM playlists", String.class))
+                .isEqualTo(rules);
+        assertThat(count("SELECT count(*) FROM song_playlist")).isEqualTo(100);
+    }
+
+    @Test
+    void failedDeleteRollsBackTheRulesAndDoesNotStopStartup() {
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION fail_delete() RETURNS trigger LANGUAGE plpgsql "
+                + "AS $$ BEGIN RAISE EXCEPTION 'disk full'; END $$");
+        jdbcTemplate.execute("CREATE TRIGGER fail_delete BEFORE DELETE ON song_playlist FOR EACH STATEMENT EXECUTE FUNCTION fail_delete()");
+
+        assertThatCode(migration::migrate).doesNotThrowAnyException();
+
+        // UPDATE đã chạy nhưng bị rollback cùng DELETE: playlist vẫn đọc từ song_playlist như trước
+        assertThat(count("SELECT count(*) FROM playlists WHERE smart_rule IS NOT NULL")).isZero();
+        assertThat(count("SELECT count(*) FROM song_playlist")).isEqualTo(SONGS + 100);
+        verify(countingJdbcTemplate, times(2)).update(anyString());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.music.application.be.modules.search;
+
+import com.music.application.be.EmbeddedPostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresTest
+@Import({FullTextSearchRepository.class, SearchIndexInitializer.class})
+class FullTextSearchRepositoryTest {
+
+    @Autowired
+    private FullTextSearchRepository repository;
+
+    @Autowired
+    private SearchIndexInitializer searchIndexInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        assertThat(searchIndexInitializer.isAvailable()).isTrue();
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, avatar) VALUES "
+                + "(1, 'owner', 'owner@example.com', 'x', 'a.png'), (2, 'other', 'other@example.com', 'x', 'a.png')");
+        jdbcTemplate.update("INSERT INTO artists (id, name, follower_count) VALUES "
+                + "(1, 'Sơn Tùng M-TP', 0), (2, 'Đen Vâu', 0)");
+        jdbcTemplate.update("INSERT INTO albums (id, name, cover_image, artist_id) VALUES "
+                + "(1, 'Chúng Ta', 'c.png', 1)");
+        insertSong(1, "Nơi này có anh", "", 1);
+        insertSong(2, "Anh sai rồi", "", 1);
+        insertSong(3, "Lối nhỏ", "con đường anh đi", 2);
+        insertSong(4, "100% Fresh", "", 2);
+        insertSong(5, "snake_case song", "", 2);
+        insertSong(6, "snakeXcase song", "", 2);
+        jdbcTemplate.update("INSERT INTO playlists (id, name, is_public, song_count, total_duration, created_by) VALUES "
+                + "(1, 'Nhạc chill public', true, 0, 0, 1), "
+                + "(2, 'Nhạc chill của owner', false, 0, 0, 1), "
+                + "(3, 'Nhạc chill của other', false, 0, 0, 2)");
+    }
+
+    @Test
+    void titleHitsRankAboveLyricsHits() {
+        List<Long> ids = repository.searchSongIds("anh", 10);
+
+        // Cùng hạng full-text thì title gần query hơn (similarity) đứng trước
+        assertThat(ids).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void matchesWithoutDiacritics() {
+        assertThat(repository.searchSongIds("noi nay co anh", 10)).first().isEqualTo(1L);
+        assertThat(repository.searchArtistIds("den vau", 10)).containsExactly(2L);
+        assertThat(repository.searchAlbumIds("chung ta", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void matchesMisspelledTitlesWithTheTrigramOperator() {
+        // Không khớp full-text hay LIKE, chỉ gần đúng theo trigram
+        assertThat(repository.searchArtistIds("son tung mtp", 10)).containsExactly(1L);
+        assertThat(repository.searchSongIds("xyzzy", 10)).isEmpty();
+    }
+
+    @Test
+    void escapesLikeWildcardsInTheQuery() {
+        assertThat(repository.searchSongIds("100%", 10)).containsExactly(4L);
+        assertThat(repository.searchSongIds("e_c", 10)).containsExactly(5L);
+    }
+
+    @Test
+    void limitsTheNumberOfResults() {
+        assertThat(repository.searchSongIds("anh", 1)).containsExactly(2L);
+    }
+
+    @Test
+    void playlistsAreFilteredByVisibility() {
+        assertThat(repository.searchPlaylistIds("nhac chill", 10, null, false)).containsExactlyInAnyOrder(1L);
+        assertThat(repository.searchPlaylistIds("nhac chill", 10, 1L, false)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(repository.searchPlaylistIds("nhac chill", 10, 2L, false)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(repository.searchPlaylistIds("nhac chill", 10, 2L, true)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    private void insertSong(long id, String title, String lyrics, long artistId) {
+        jdbcTemplate.update("INSERT INTO songs (id, title, lyrics, duration, audio_url, thumbnail, view_count, artist_id) "
+                + "VALUES (?, ?, ?, 180, 'a.mp3', 't.png', 0, ?)", id, title, lyrics, artistId);
+    }
+}
@@ -0,0 +1,185 @@
+package com.music.application.be.modules.search;
+
+import com.music.application.be.modules.search.dto.SuggestionDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SuggestionIndexTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SuggestionIndex index = new SuggestionIndex(jdbcTemplate);
+    private final Map<SuggestionType, List<Object[]>> rows = new EnumMap<>(SuggestionType.class);
+    // Chạy giữa lúc rebuild đọc DB, sau khi đã đọc xong bảng songs
+    private Runnable duringRebuild = () -> { };
+
+    @Test
+    void findsNamesByTheBeginningOfAnyWord() {
+        song(1, "Hello World");
+        song(2, "Help");
+        artist(3, "Helena");
+        index.rebuild();
+
+        // Tên bắt đầu bằng query trước, rồi tên ngắn hơn
+        assertThat(texts("hel")).containsExactly("Help", "Helena", "Hello World");
+        assertThat(texts("wor")).containsExactly("Hello World");
+        assertThat(texts("hel wor")).containsExactly("Hello World");
+        assertThat(texts("world hello")).containsExactly("Hello World");
+        assertThat(texts("elp")).isEmpty();
+        assertThat(index.suggest("hel", 2)).hasSize(2);
+    }
+
+    @Test
+    void ignoresDiacriticsAndCase() {
+        song(1, "Hà Nội mùa thu");
+        artist(2, "Đen Vâu");
+        index.rebuild();
+
+        assertThat(texts("ha noi")).containsExactly("Hà Nội mùa thu");
+        assertThat(texts("HÀ NỘI")).containsExactly("Hà Nội mùa thu");
+        assertThat(texts("den")).containsExactly("Đen Vâu");
+        assertThat(texts("đ")).containsExactly("Đen Vâu");
+    }
+
+    @Test
+    void shortPrefixesUseTheSameRanking() {
+        song(1, "Bb long title");
+        song(2, "Ab");
+        song(3, "B");
+        artist(4, "Cc b");
+        index.rebuild();
+
+        assertThat(texts("b")).containsExactly("B", "Bb long title", "Cc b");
+        assertThat(index.suggest("b", 1)).extracting(SuggestionDTO::getText).containsExactly("B");
+    }
+
+    @Test
+    void eventsDuringARebuildAreAppliedToTheNewSnapshot() {
+        song(1, "Old name");
+        song(2, "Deleted song");
+        index.rebuild();
+        duringRebuild = () -> {
+            // Rebuild đã đọc tên cũ của bài 1 và bài 2 trước khi hai thay đổi này commit
+            index.onCatalogChanged(CatalogChangedEvent.saved(SuggestionType.SONG, 1L, "New name"));
+            index.onCatalogChanged(CatalogChangedEvent.removed(SuggestionType.SONG, 2L));
+            index.onCatalogChanged(CatalogChangedEvent.saved(SuggestionType.SONG, 3L, "Late song"));
+        };
+
+        index.rebuild();
+
+        assertThat(texts("old")).isEmpty();
+        assertThat(texts("new")).containsExactly("New name");
+        assertThat(texts("deleted")).isEmpty();
+        assertThat(texts("late")).containsExactly("Late song");
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void eventsAfterARebuildUpdateTheIndex() {
+        song(1, "First");
+        index.rebuild();
+
+        index.onCatalogChanged(CatalogChangedEvent.saved(SuggestionType.PLAYLIST, 9L, "Focus"));
+        index.onCatalogChanged(CatalogChangedEvent.removed(SuggestionType.SONG, 1L));
+
+        assertThat(index.suggest("f", 10)).extracting(SuggestionDTO::getType, SuggestionDTO::getText)
+                .containsExactly(tuple(SuggestionType.PLAYLIST, "Focus"));
+    }
+
+    @Test
+    void shortMultiWordQueriesOnlyCheckTheFirstNamesOfThePrefix() {
+        // "Zeta alpha beta" khớp "a b" nhưng dài hơn mọi tên "Alpha ...", nên đứng sau chúng trong tập prefix "a"
+        for (int i = 0; i < SuggestionIndex.SHORT_PREFIX_SCAN_LIMIT; i++) {
+            song(i, "Alpha " + i);
+        }
+        song(SuggestionIndex.SHORT_PREFIX_SCAN_LIMIT, "Zeta alpha beta");
+        index.rebuild();
+
+        assertThat(texts("a b")).isEmpty();
+        // Một từ đủ 3 ký tự là chuyển sang index theo từ, không giới hạn số tên được xét
+        assertThat(texts("alp b")).containsExactly("Zeta alpha beta");
+        assertThat(texts("alpha beta")).containsExactly("Zeta alpha beta");
+    }
+
+    @Test
+    void shortMultiWordQueriesFindMatchesWithinTheScanLimit() {
+        for (int i = 0; i < 100; i++) {
+            song(i, "Alpha " + i);
+        }
+        song(100, "Zeta alpha beta");
+        index.rebuild();
+
+        assertThat(texts("a b")).containsExactly("Zeta alpha beta");
+    }
+
+    private List<String> texts(String query) {
+        return index.suggest(query, 10).stream().map(SuggestionDTO::getText).toList();
+    }
+
+    private void song(long id, String title) {
+        add(SuggestionType.SONG, id, title);
+    }
+
+    private void artist(long id, String name) {
+        add(SuggestionType.ARTIST, id, name);
+    }
+
+    private void add(SuggestionType type, long id, String name) {
+        if (rows.isEmpty()) {
+            stubQueries();
+        }
+        rows.computeIfAbsent(type, t -> new ArrayList<>()).add(new Object[]{id, name});
+    }
+
+    private void stubQueries() {
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            SuggestionType type = typeOf(sql);
+            for (Object[] row : rows.getOrDefault(type, List.of())) {
+                handler.processRow(resultSet((Long) row[0], (String) row[1]));
+            }
+            if (type == SuggestionType.SONG) {
+                duringRebuild.run();
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    private static SuggestionType typeOf(String sql) {
+        if (sql.contains("FROM songs")) {
+            return SuggestionType.SONG;
+        }
+        if (sql.contains("FROM artists")) {
+            return SuggestionType.ARTIST;
+        }
+        if (sql.contains("FROM albums")) {
+            return SuggestionType.ALBUM;
+        }
+        return SuggestionType.PLAYLIST;
+    }
+
+    // Một dòng (id, name); proxy thay cho mock vì test giới hạn scan cần vài nghìn dòng
+    private static ResultSet resultSet(long id, String name) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getLong" -> id;
+                    case "getString" -> name;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
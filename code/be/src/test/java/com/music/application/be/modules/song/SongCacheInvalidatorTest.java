@@ -0,0 +1,56 @@
+package com.music.application.be.modules.song;
+
+import com.music.application.be.common.PagedResponse;
+import com.music.application.be.config.cache.CacheEntryTagger.EntryTags;
+import com.music.application.be.config.cache.CacheTagIndex;
+import com.music.application.be.modules.song.dto.SongDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SongCacheInvalidatorTest {
+
+    private final SongCacheInvalidator invalidator = new SongCacheInvalidator(mock(CacheTagIndex.class));
+
+    @Test
+    void tagsListingPagesWithTheListAndItsSongs() {
+        String key = invalidator.pageKey("genre", 5L, 0, 20);
+
+        EntryTags tags = invalidator.tagsFor(SongCacheInvalidator.SONGS_BY_GENRE, key, page(11L, 12L));
+
+        assertThat(tags.tags()).containsExactly("genre:5", "song:11", "song:12");
+        assertThat(tags.query()).isNull();
+    }
+
+    @Test
+    void registersTheQueryOfSearchPages() {
+        String key = invalidator.pageKey("query", "lo-fi-page-", 1, 10);
+
+        EntryTags tags = invalidator.tagsFor(SongCacheInvalidator.SEARCHED_SONGS, key, page(3L));
+
+        assertThat(tags.query()).isEqualTo("lo-fi-page-");
+        assertThat(tags.tags()).containsExactly("song:3");
+    }
+
+    @Test
+    void tagsEveryAllSongsPage() {
+        String key = invalidator.allSongsKey(0, 20);
+
+        EntryTags tags = invalidator.tagsFor(SongCacheInvalidator.ALL_SONGS, key, page());
+
+        assertThat(tags.tags()).containsExactly("songs:all");
+    }
+
+    private static PagedResponse<SongDTO> page(Long... ids) {
+        List<SongDTO> content = Arrays.stream(ids).map(id -> {
+            SongDTO song = new SongDTO();
+            song.setId(id);
+            return song;
+        }).toList();
+        return new PagedResponse<>(content, 0, 20, content.size(), 1, true);
+    }
+}
@@ -0,0 +1,95 @@
+package com.music.application.be.modules.song;
+
+import com.music.application.be.EmbeddedPostgresTest;
+import com.music.application.be.modules.song.dto.SongResponseDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the statements a page of songs costs, including the lazy associations the DTO mapping
+ * touches: it must not grow with the page size.
+ */
+@EmbeddedPostgresTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SongListQueryCountTest {
+
+    private static final int SONGS = 120;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final SongService songService = new SongService();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(songService, "songViewCounter", mock(SongViewCounter.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        jdbcTemplate.update("INSERT INTO artists (id, name, follower_count) "
+                + "SELECT a, 'Artist ' || a, 0 FROM generate_series(1, 10) a");
+        jdbcTemplate.update("INSERT INTO albums (id, name, cover_image, artist_id) "
+                + "SELECT a, 'Album ' || a, 'c.png', a FROM generate_series(1, 10) a");
+        jdbcTemplate.update("INSERT INTO genres (id, name) SELECT g, 'Genre ' || g FROM generate_series(1, 5) g");
+        jdbcTemplate.update("INSERT INTO songs (id, title, duration, audio_url, thumbnail, view_count, artist_id, album_id) "
+                + "SELECT s, 'Song ' || s, 180, 'a.mp3', 't.png', 0, s % 10 + 1, s % 10 + 1 FROM generate_series(1, ?) s", SONGS);
+        jdbcTemplate.update("INSERT INTO song_genre (song_id, genre_id) "
+                + "SELECT s, s % 5 + 1 FROM generate_series(1, ?) s "
+                + "UNION ALL SELECT s, (s + 1) % 5 + 1 FROM generate_series(1, ?) s", SONGS, SONGS);
+    }
+
+    @Test
+    void pageCostsTheSameStatementsWhateverItsSize() {
+        // Trang, count, một batch genres cho cả trang (default_batch_fetch_size = 50)
+        assertThat(statementsFor(PageRequest.of(0, 10))).isEqualTo(3);
+        assertThat(statementsFor(PageRequest.of(1, 50))).isEqualTo(3);
+    }
+
+    @Test
+    void mappedPageHasArtistAlbumAndGenres() {
+        Page<Song> page = songRepository.findAll(PageRequest.of(0, 20));
+        List<SongResponseDTO> songs = page.getContent().stream().map(songService::mapToResponseDTO).toList();
+
+        assertThat(songs).hasSize(20).allSatisfy(song -> {
+            assertThat(song.getArtistName()).startsWith("Artist ");
+            assertThat(song.getAlbumName()).startsWith("Album ");
+            assertThat(song.getGenreIds()).hasSize(2);
+        });
+    }
+
+    private long statementsFor(PageRequest pageable) {
+        // Mỗi lần đo bắt đầu với persistence context trống, như một request mới
+        entityManager.clear();
+        statistics.clear();
+
+        Page<Song> page = songRepository.findAll(pageable);
+        List<SongResponseDTO> songs = page.getContent().stream().map(songService::mapToResponseDTO).toList();
+
+        assertThat(songs).hasSize(pageable.getPageSize());
+        return statistics.getPrepareStatementCount();
+    }
+}